@@ -1,7 +1,9 @@
 package com.abezard.sudokuHelper;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 
 @SpringBootApplication
 public class SudokuHelperApplication {
@@ -10,4 +12,18 @@ public class SudokuHelperApplication {
 		SpringApplication.run(SudokuHelperApplication.class, args);
 	}
 
+	/**
+	 * Builds the application as the desktop client runs it: with the "desktop" profile, no embedded web server and
+	 * lazy bean initialization, so that only the beans the client asks for are created.
+	 * @return the builder of the desktop application, to run with the command line arguments
+	 */
+	public static SpringApplicationBuilder desktop() {
+		// devtools starts its restarter before any property file is read, so it can only be turned off here
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		return new SpringApplicationBuilder(SudokuHelperApplication.class)
+				.profiles("desktop")
+				.web(WebApplicationType.NONE)
+				.lazyInitialization(true);
+	}
+
 }
@@ -1,52 +1,107 @@
 package com.abezard.sudokuHelper.client;
 
 import com.abezard.sudokuHelper.SudokuHelperApplication;
+import com.abezard.sudokuHelper.controller.SudokuController;
+import com.abezard.sudokuHelper.view.BoardView;
+import com.abezard.sudokuHelper.view.FrameStats;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
-import org.springframework.boot.SpringApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.ConfigurableApplicationContext;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
 public class SudokuHelperClient extends Application {
+    private static final Logger log = LoggerFactory.getLogger(SudokuHelperClient.class);
 
-    private ConfigurableApplicationContext springContext;
+    private CompletableFuture<ConfigurableApplicationContext> springContext;
+    private SudokuController controller;
+    private FrameStats frameStats;
 
     /**
      * Initializes the JavaFX application and starts the Spring Boot context.
-     * This method is called before the JavaFX application starts.
+     * This method is called before the JavaFX application starts. The context runs with the desktop profile (no web
+     * server, lazy beans) on a background thread, as the window does not need it to show up.
      * @throws Exception if an error occurs during initialization.
      */
     @Override
     public void init() throws Exception {
-        // Start Spring Boot context before UI
-        springContext = SpringApplication.run(SudokuHelperApplication.class);
+        String[] args = getParameters().getRaw().toArray(new String[0]);
+        springContext = CompletableFuture.supplyAsync(() -> SudokuHelperApplication.desktop().run(args),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "spring-startup");
+                    thread.setDaemon(true);
+                    thread.start();
+                });
     }
 
     /**
      * Starts the JavaFX application.
+     * The board renderer is picked with --renderer=nodes (the default) or --renderer=canvas, and --frame-stats logs
+     * the pulse and frame times of the session when the application closes. The time from launch to the first frame
+     * is always logged; --exit-after-first-frame closes the application right after it, for startup benchmarks and
+     * class data sharing training runs.
      * @param stage the primary stage of the app.
      * @throws Exception if an error occurs during initialization.
      */
     @Override
     public void start(Stage stage) throws Exception {
+        String renderer = getParameters().getNamed().get("renderer");
+        if (renderer != null) {
+            System.setProperty("sudoku.renderer", renderer);
+        }
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/MainPageTemplate.fxml"));
         Scene scene = new Scene(loader.load());
+        controller = loader.getController();
         scene.getStylesheets().add(getClass().getResource("/css/sudoku.css").toExternalForm());
         stage.setScene(scene);
         stage.setTitle("Sudoku Helper");
+        if (getParameters().getRaw().contains("--frame-stats")) {
+            frameStats = FrameStats.attach(scene, BoardView.Renderer.fromSystemProperty().name().toLowerCase());
+        }
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                logFirstFrame();
+            }
+        });
         stage.show();
     }
 
+    /**
+     * Logs the time from the launch of the process to the first frame, and exits if asked to on the command line.
+     */
+    private void logFirstFrame() {
+        ProcessHandle.current().info().startInstant().ifPresent(launch ->
+                log.info("First frame {} ms after launch", Duration.between(launch, Instant.now()).toMillis()));
+        if (getParameters().getRaw().contains("--exit-after-first-frame")) {
+            Platform.runLater(Platform::exit);
+        }
+    }
+
     /**
      * Stops the JavaFX application and closes the Spring context.
      * @throws Exception if an error occurs during shutdown.
      */
     @Override
     public void stop() throws Exception {
+        if (frameStats != null) {
+            frameStats.stop();
+        }
+        // Write the pending autosave before exiting
+        if (controller != null) {
+            controller.shutdown();
+        }
         // Shutdown Spring context when JavaFX closes
         if (springContext != null) {
-            springContext.close();
+            springContext.join().close();
         }
         super.stop();
     }
@@ -54,4 +109,4 @@ public class SudokuHelperClient extends Application {
     public static void main(String[] args) {
         launch(args);
     }
-}
\ No newline at end of file
+}
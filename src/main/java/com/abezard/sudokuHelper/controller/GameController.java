@@ -0,0 +1,211 @@
+package com.abezard.sudokuHelper.controller;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Rating;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import com.abezard.sudokuHelper.service.GameProtocol;
+import com.abezard.sudokuHelper.service.GameServer;
+import com.abezard.sudokuHelper.service.GameSession;
+import com.abezard.sudokuHelper.service.GenerationExecutor;
+import com.abezard.sudokuHelper.service.SpeculativeGenerator;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Hosts multi-player games over HTTP. A game is created with a JSON request giving its mode and puzzle, and then
+ * played by posting batches of binary move frames (see GameProtocol), answered by as many binary response frames.
+ * Races on the same puzzle are played by creating one RACE session and having the other players JOIN it, or, for
+ * players on different sessions, by creating each session from the same puzzle ID.
+ * A random puzzle can be asked for within a band of ratings, in which case puzzles are generated and rated until one
+ * falls in the band.
+ */
+@RestController
+public class GameController {
+    private static final int MAX_SIZE = 16; // larger boards take seconds to generate, too long for a request
+    private static final int MAX_SESSIONS = 100_000;
+    private static final int MAX_BATCH = 1024; // moves per request
+    private static final Duration GENERATION_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * A puzzle generated for a new session, with the ID it can be regenerated from.
+     */
+    private record Generated(long puzzleId, SudokuBoard puzzle, SudokuBoard solution) {
+    }
+
+    private final GameServer server = new GameServer(4 * Runtime.getRuntime().availableProcessors(), MAX_SESSIONS);
+    private final GenerationExecutor executor;
+    private final SpeculativeGenerator speculative = new SpeculativeGenerator();
+
+    /**
+     * Constructor for GameController.
+     * @param executor the executor generating the puzzles of new sessions
+     */
+    public GameController(GenerationExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a session on a generated puzzle.
+     * @param mode how the players share the puzzle
+     * @param difficulty the difficulty of the puzzle
+     * @param size the number of rows of the classic board
+     * @param puzzleId the ID of the puzzle to play, as formatted by SudokuGeneratingService.formatPuzzleId, or none
+     *                 for a random one
+     * @param minLevel the easiest rating accepted for a random puzzle, or none
+     * @param maxLevel the hardest rating accepted for a random puzzle, or none; without either level, the first
+     *                 puzzle generated is played
+     * @return the future description of the session, see sessionJson
+     * @throws GenerationExecutor.Rejected if the puzzle cannot be generated in time, answered with a 503
+     */
+    @PostMapping(path = "/api/games", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<String> create(@RequestParam(defaultValue = "CLASSIC") GameSession.Mode mode,
+                         @RequestParam(defaultValue = "EASY") SudokuGeneratingService.Difficulty difficulty,
+                         @RequestParam(defaultValue = "9") int size,
+                         @RequestParam(required = false) String puzzleId,
+                         @RequestParam(required = false) Rating.Level minLevel,
+                         @RequestParam(required = false) Rating.Level maxLevel) {
+        Long seed; // null for a random puzzle
+        Geometry geometry;
+        try {
+            seed = puzzleId == null ? null : SudokuGeneratingService.parsePuzzleId(puzzleId);
+            if (size < 4 || size > MAX_SIZE) {
+                throw new IllegalArgumentException("Boards must be 4x4 to " + MAX_SIZE + "x" + MAX_SIZE + ".");
+            }
+            geometry = Geometry.ofSize(size);
+            if ((minLevel != null || maxLevel != null) && puzzleId != null) {
+                throw new IllegalArgumentException("A puzzle ID already sets the puzzle, it cannot be given a rating band.");
+            }
+            if (minLevel != null && maxLevel != null && minLevel.compareTo(maxLevel) > 0) {
+                throw new IllegalArgumentException("The easiest level must not be harder than the hardest level.");
+            }
+        } catch (IllegalArgumentException e) { // NumberFormatException included
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        // the request thread is released while the puzzle is generated on a solver thread
+        return executor.submit(difficulty, GENERATION_TIMEOUT, () -> {
+                    // the services keep per-call state, so every job gets its own
+                    SudokuGeneratingService generator = new SudokuGeneratingService(new FullBoardGeneratingService());
+                    Variant variant = Variant.classic(geometry);
+                    if (minLevel != null || maxLevel != null) {
+                        return generateInBand(difficulty, variant,
+                                minLevel == null ? Rating.Level.SINGLES : minLevel,
+                                maxLevel == null ? Rating.Level.UNSOLVED : maxLevel);
+                    }
+                    SudokuBoard puzzle = seed == null
+                            ? generator.generate(difficulty, variant)
+                            : generator.generate(difficulty, variant, seed);
+                    return new Generated(generator.getPuzzleId(), puzzle, generator.getSolution());
+                })
+                .orTimeout(GENERATION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                                "The puzzle took too long to generate.", cause);
+                    }
+                    throw e instanceof CompletionException completion ? completion : new CompletionException(e);
+                })
+                .thenApply(generated -> sessionJson(mode, generated.puzzleId(), generated.puzzle(), generated.solution()));
+    }
+
+    /**
+     * Generates random puzzles until one is rated within a band, on the generators of the speculative generator.
+     * The job keeps its worker while it waits, so the limits of the executor still bound how many searches run.
+     * @return the first puzzle found in the band
+     * @throws ResponseStatusException if no puzzle in the band was found in time, answered with a 503
+     */
+    private Generated generateInBand(SudokuGeneratingService.Difficulty difficulty, Variant variant,
+                                     Rating.Level min, Rating.Level max) {
+        Optional<SpeculativeGenerator.Result> result;
+        try {
+            result = speculative.generate(difficulty, variant, rating -> rating.isBetween(min, max),
+                    ThreadLocalRandom.current().nextLong(), GENERATION_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+        SpeculativeGenerator.Result found = result.orElseThrow(() -> new ResponseStatusException(
+                HttpStatus.SERVICE_UNAVAILABLE, "No " + difficulty + " puzzle rated " + min + " to " + max
+                + " was found in time."));
+        return new Generated(found.puzzleId(), found.puzzle(), found.solution());
+    }
+
+    /**
+     * Creates a session on a generated puzzle and describes it.
+     * @return the session ID as 16 hexadecimal digits, the puzzle ID and the given values in row-major order
+     */
+    private String sessionJson(GameSession.Mode mode, long seed, SudokuBoard puzzle, SudokuBoard solution) {
+        GameSession session;
+        try {
+            session = server.create(mode, seed, puzzle, solution, GameSession.givensOf(puzzle));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
+
+        int size = puzzle.getSize();
+        StringBuilder json = new StringBuilder(64 + 3 * size * size);
+        json.append("{\"session\":\"").append(String.format("%016x", session.id()))
+                .append("\",\"puzzleId\":\"").append(SudokuGeneratingService.formatPuzzleId(seed))
+                .append("\",\"mode\":\"").append(mode)
+                .append("\",\"size\":").append(size)
+                .append(",\"givens\":[");
+        for (int cell = 0; cell < size * size; cell++) {
+            if (cell > 0) json.append(',');
+            json.append(puzzle.getCell(cell / size, cell % size));
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Applies a batch of moves.
+     * @param requests the request frames, GameProtocol.REQUEST_BYTES each
+     * @return the response frames, GameProtocol.RESPONSE_BYTES each, in the order of the requests
+     */
+    @PostMapping(path = "/api/games/moves", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] moves(@RequestBody byte[] requests) {
+        int count = requests.length / GameProtocol.REQUEST_BYTES;
+        if (requests.length % GameProtocol.REQUEST_BYTES != 0 || count > MAX_BATCH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Send up to " + MAX_BATCH + " frames of " + GameProtocol.REQUEST_BYTES + " bytes.");
+        }
+        byte[] responses = new byte[count * GameProtocol.RESPONSE_BYTES];
+        server.handle(ByteBuffer.wrap(requests), ByteBuffer.wrap(responses));
+        return responses;
+    }
+
+    /**
+     * Ends a session.
+     * @param session the session ID, as returned when it was created
+     */
+    @DeleteMapping("/api/games/{session}")
+    public void close(@PathVariable String session) {
+        boolean closed;
+        try {
+            closed = server.close(Long.parseUnsignedLong(session, 16));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        if (!closed) throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+}
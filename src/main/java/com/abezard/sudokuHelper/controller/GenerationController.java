@@ -0,0 +1,81 @@
+package com.abezard.sudokuHelper.controller;
+
+import com.abezard.sudokuHelper.service.GenerationExecutor;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reports the load of the generation executor, and answers the requests it rejected, or that the I/O executor had
+ * no thread for, with a 503 and a Retry-After header, whichever endpoint they were sent to.
+ */
+@RestController
+@RestControllerAdvice
+public class GenerationController {
+    private final GenerationExecutor executor;
+
+    /**
+     * Constructor for GenerationController.
+     * @param executor the executor running the generation jobs of the web endpoints
+     */
+    public GenerationController(GenerationExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the counters of the generation executor, by difficulty, with the queue wait and service time of the jobs
+     * in milliseconds.
+     * @return the metrics as JSON
+     */
+    @GetMapping(path = "/api/generation/metrics", produces = MediaType.APPLICATION_JSON_VALUE)
+    public String metrics() {
+        StringBuilder json = new StringBuilder(512).append("{\"queued\":").append(executor.queued());
+        for (Map.Entry<SudokuGeneratingService.Difficulty, GenerationExecutor.Metrics> entry
+                : executor.metrics().entrySet()) {
+            GenerationExecutor.Metrics metrics = entry.getValue();
+            long started = metrics.completed() + metrics.failed();
+            json.append(",\"").append(entry.getKey()).append("\":{")
+                    .append("\"admitted\":").append(metrics.admitted())
+                    .append(",\"rejected\":").append(metrics.rejected())
+                    .append(",\"expired\":").append(metrics.expired())
+                    .append(",\"completed\":").append(metrics.completed())
+                    .append(",\"failed\":").append(metrics.failed())
+                    .append(",\"inFlight\":").append(metrics.inFlight())
+                    .append(",\"meanQueueWaitMillis\":").append(started == 0 ? 0 : metrics.queueWaitNanos() / started / 1_000_000)
+                    .append(",\"meanServiceMillis\":").append(started == 0 ? 0 : metrics.serviceNanos() / started / 1_000_000)
+                    .append('}');
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Answers a request whose generation job was not admitted, or expired in the queue.
+     * @param e the rejection
+     * @return a 503 response telling the client when to retry
+     */
+    @ExceptionHandler(GenerationExecutor.Rejected.class)
+    public ResponseEntity<Void> rejected(GenerationExecutor.Rejected e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.retryAfter().toSeconds()))
+                .build();
+    }
+
+    /**
+     * Answers a request whose blocking work the I/O executor had no thread for.
+     * @param e the rejection
+     * @return a 503 response telling the client to retry in a second
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> busy(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.abezard.sudokuHelper.controller;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import com.abezard.sudokuHelper.service.GenerationExecutor;
+import com.abezard.sudokuHelper.service.IoExecutor;
+import com.abezard.sudokuHelper.service.SolveTracer;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import com.abezard.sudokuHelper.service.TraceStream;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+/**
+ * Streams the logical solve of a puzzle to web clients as Server-Sent Events, one "step" event per applied hint with
+ * the candidates it eliminated, "progress" events with the solve counters, and a final "done" event with the rating.
+ * The solve runs on one thread and writes to a TraceStream, and a second thread drains it into the response, so a
+ * slow client never holds the solve back: it gets every step, and only the latest progress counters.
+ * Solves run on the generation executor, which answers 503 when it cannot start one before the stream times out,
+ * and writers on the I/O executor, which answers 503 when it has no thread left.
+ */
+@RestController
+public class SolveTraceController {
+    private static final int MAX_SIZE = 16; // larger boards take seconds to generate, too long for a request
+    private static final long TIMEOUT_MILLIS = 60_000;
+
+    private final GenerationExecutor executor;
+    private final IoExecutor writers; // writers block while their client reads, so they never take a solver thread
+
+    /**
+     * Constructor for SolveTraceController.
+     * @param executor the executor generating and solving the puzzles
+     * @param writers the executor writing the streams to the clients
+     */
+    public SolveTraceController(GenerationExecutor executor, IoExecutor writers) {
+        this.executor = executor;
+        this.writers = writers;
+    }
+
+    /**
+     * Regenerates a puzzle from its ID and streams its logical solve.
+     * @param id the puzzle ID, as formatted by SudokuGeneratingService.formatPuzzleId
+     * @param difficulty the difficulty the puzzle was generated with
+     * @param size the number of rows of the classic board the puzzle was generated on
+     * @return the event stream
+     * @throws GenerationExecutor.Rejected if the solve cannot start in time, answered with a 503
+     * @throws java.util.concurrent.RejectedExecutionException if no writer thread is left, answered with a 503
+     */
+    @GetMapping(path = "/api/puzzles/{id}/trace", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter trace(@PathVariable String id,
+                            @RequestParam(defaultValue = "EASY") SudokuGeneratingService.Difficulty difficulty,
+                            @RequestParam(defaultValue = "9") int size) {
+        long seed;
+        Geometry geometry;
+        try {
+            seed = SudokuGeneratingService.parsePuzzleId(id);
+            if (size < 4 || size > MAX_SIZE) {
+                throw new IllegalArgumentException("Boards must be 4x4 to " + MAX_SIZE + "x" + MAX_SIZE + ".");
+            }
+            geometry = Geometry.ofSize(size);
+        } catch (IllegalArgumentException e) { // NumberFormatException included
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        SseEmitter emitter = new SseEmitter(TIMEOUT_MILLIS);
+        TraceStream stream = new TraceStream();
+        // the writer starts first, so that a request no writer thread is left for is refused before it takes a solver
+        writers.execute(() -> {
+            try {
+                stream.drainTo((event, data) -> emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON)));
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        });
+        try {
+            executor.submit(difficulty, Duration.ofMillis(TIMEOUT_MILLIS), () -> {
+                // the services keep per-call state, so every job gets its own
+                FullBoardGeneratingService boardGenerator = new FullBoardGeneratingService();
+                SudokuGeneratingService generator = new SudokuGeneratingService(boardGenerator);
+                SudokuBoard puzzle = generator.generate(difficulty, Variant.classic(geometry), seed);
+                return new SolveTracer(boardGenerator).trace(puzzle, generator.getSolution(), stream);
+            }).exceptionally(e -> { // the job failed, or expired in the queue
+                stream.complete("{\"error\":\"" + e.getClass().getSimpleName() + "\"}");
+                return null;
+            });
+        } catch (GenerationExecutor.Rejected e) {
+            stream.complete("{\"error\":\"" + e.getClass().getSimpleName() + "\"}"); // lets the writer return
+            throw e;
+        }
+        return emitter;
+    }
+}
@@ -1,14 +1,22 @@
 package com.abezard.sudokuHelper.controller;
 
+import com.abezard.sudokuHelper.model.GameState;
+import com.abezard.sudokuHelper.model.Geometry;
 import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
 import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import com.abezard.sudokuHelper.service.GameStateStore;
+import com.abezard.sudokuHelper.service.MoveAnalyzer;
 import com.abezard.sudokuHelper.service.SudokuGeneratingService;
 import com.abezard.sudokuHelper.service.SudokuHintService;
-import com.abezard.sudokuHelper.view.SudokuGridView;
+import com.abezard.sudokuHelper.view.BoardView;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.Node;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.layout.*;
 import org.springframework.stereotype.Component;
 
@@ -18,19 +26,36 @@ import java.util.Set;
 
 @Component
 public class SudokuController implements Initializable {
-
     private FullBoardGeneratingService boardService;
     private SudokuGeneratingService sudokuService;
     private SudokuHintService hintService;
-    private SudokuGridView sudokuGridView;
+    private BoardView sudokuGridView;
+    private GameStateStore gameStore;
+    private final MoveAnalyzer moveAnalyzer = new MoveAnalyzer();
 
     @FXML
     private GridPane sudokuGrid;
 
+    @FXML
+    private Button newEasyButton;
+
+    @FXML
+    private Button newHardButton;
+
     @FXML
     private Button candidateModeButton;
 
+    @FXML
+    private Button autoEliminateButton;
+
+    @FXML
+    private ComboBox<Geometry> sizeSelector;
+
+    @FXML
+    private ComboBox<Variant.Type> variantSelector;
+
     private boolean candidateMode = false;
+    private boolean autoEliminate = false;
 
     /**
      * Initializes the SudokuController, sets up the sudoku grid.
@@ -41,12 +66,64 @@ public class SudokuController implements Initializable {
     public void initialize(URL location, ResourceBundle resources) {
         // setup grid
         boardService = new FullBoardGeneratingService();
-        sudokuGridView = new SudokuGridView();
-        sudokuGrid.getChildren().clear();
-        sudokuGrid.add(sudokuGridView, 0, 0);
-        GridPane.setHgrow(sudokuGridView, Priority.ALWAYS);
-        GridPane.setVgrow(sudokuGridView, Priority.ALWAYS);
+        sizeSelector.getItems().setAll(Geometry.MINI, Geometry.CLASSIC, Geometry.LARGE);
+        sizeSelector.setValue(Geometry.CLASSIC);
+        variantSelector.getItems().setAll(Variant.Type.values());
+        variantSelector.setValue(Variant.Type.CLASSIC);
+        showGrid(Variant.classic(Geometry.CLASSIC));
         sudokuGridView.clearAndDisableGrid();
+        gameStore = new GameStateStore(GameStateStore.defaultFile(), 500);
+        gameStore.load().ifPresent(this::restoreGame);
+    }
+
+    /**
+     * Resumes a saved game: its grid, entered values and candidates, and its solution for checks and hints.
+     * @param state The saved game.
+     */
+    private void restoreGame(GameState state) {
+        sudokuService = new SudokuGeneratingService(boardService);
+        sudokuService.restoreSolution(state.solution());
+        hintService = new SudokuHintService(sudokuService.getSolution(), boardService, this);
+        if (!state.variant().equals(sudokuGridView.getVariant())) {
+            showGrid(state.variant());
+        }
+        sudokuGridView.enableGrid();
+        sudokuGridView.restore(state.givens(), state.current());
+        sudokuGridView.trackMistakes(sudokuService.getSolution());
+        sizeSelector.setValue(state.variant().geometry());
+    }
+
+    /**
+     * Requests a background save of the game in progress. Saves are debounced by the store, so this can run after
+     * every change.
+     */
+    private void autosave() {
+        if (sudokuService == null || gameStore == null) return;
+        gameStore.scheduleSave(new GameState(sudokuGridView.getGivens(), sudokuGridView.getState(),
+                sudokuService.getSolution()));
+    }
+
+    /**
+     * Writes any pending save and stops the autosave thread. Called when the application closes.
+     */
+    public void shutdown() {
+        if (gameStore != null) gameStore.close();
+    }
+
+    /**
+     * Replaces the grid view with an empty one of the given variant, drawn by the renderer picked at startup.
+     * @param variant The variant of the boards the new grid view shows.
+     */
+    private void showGrid(Variant variant) {
+        sudokuGridView = BoardView.Renderer.fromSystemProperty().create(variant);
+        sudokuGridView.setOnChange(this::autosave);
+        sudokuGridView.setCandidateMode(candidateMode);
+        sudokuGridView.setAutoEliminate(autoEliminate);
+        Node node = sudokuGridView.getNode();
+        sudokuGrid.getChildren().clear();
+        sudokuGrid.add(node, 0, 0);
+        GridPane.setHgrow(node, Priority.ALWAYS);
+        GridPane.setVgrow(node, Priority.ALWAYS);
     }
 
 
@@ -55,6 +132,9 @@ public class SudokuController implements Initializable {
      * @param board The SudokuBoard to load into the grid view.
      */
     private void loadNewPuzzle(SudokuBoard board) {
+        if (!board.getVariant().equals(sudokuGridView.getVariant())) {
+            showGrid(board.getVariant());
+        }
         sudokuGridView.enableGrid();
         sudokuGridView.updateFromModel(board);
     }
@@ -64,10 +144,7 @@ public class SudokuController implements Initializable {
      */
     @FXML
     public void onNewEasyClicked() {
-        sudokuService = new SudokuGeneratingService(boardService);
-        SudokuBoard newBoard = sudokuService.generatePuzzle(SudokuGeneratingService.Difficulty.EASY);
-        hintService = new SudokuHintService(sudokuService.getSolution(), boardService, this);
-        loadNewPuzzle(newBoard);
+        startNewPuzzle(SudokuGeneratingService.Difficulty.EASY);
     }
 
     /**
@@ -75,10 +152,51 @@ public class SudokuController implements Initializable {
      */
     @FXML
     public void onNewHardClicked() {
-        sudokuService = new SudokuGeneratingService(boardService);
-        SudokuBoard newBoard = sudokuService.generatePuzzle(SudokuGeneratingService.Difficulty.HARD);
-        hintService = new SudokuHintService(sudokuService.getSolution(), boardService, this);
-        loadNewPuzzle(newBoard);
+        startNewPuzzle(SudokuGeneratingService.Difficulty.HARD);
+    }
+
+    /**
+     * Generates a puzzle of the given difficulty, at the size and of the variant picked in the selectors, and loads it.
+     * The puzzle is generated on a background thread, as a hard one may search for up to
+     * SudokuGeneratingService.HARD_SEARCH_BUDGET; the game in progress stays playable and the new puzzle buttons are
+     * disabled until it is loaded.
+     * @param difficulty The difficulty of the new puzzle.
+     */
+    private void startNewPuzzle(SudokuGeneratingService.Difficulty difficulty) {
+        Variant variant = variantSelector.getValue().create(sizeSelector.getValue());
+        // the generating service keeps per-call state, so the background thread gets its own
+        SudokuGeneratingService service = new SudokuGeneratingService(new FullBoardGeneratingService());
+        Task<SudokuBoard> generation = new Task<>() {
+            @Override
+            protected SudokuBoard call() {
+                return service.generate(difficulty, variant);
+            }
+        };
+        generation.setOnSucceeded(event -> {
+            setGenerating(false);
+            sudokuService = service;
+            hintService = new SudokuHintService(sudokuService.getSolution(), boardService, this);
+            loadNewPuzzle(generation.getValue());
+            sudokuGridView.trackMistakes(sudokuService.getSolution());
+            autosave();
+        });
+        generation.setOnFailed(event -> {
+            setGenerating(false);
+            showInfoDialog("The puzzle could not be generated: " + generation.getException().getMessage());
+        });
+        setGenerating(true);
+        Thread thread = new Thread(generation, "puzzle-generation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Disables the new puzzle buttons while a puzzle is generated, so that only one generation runs at a time.
+     * @param generating true while a puzzle is generated
+     */
+    private void setGenerating(boolean generating) {
+        newEasyButton.setDisable(generating);
+        newHardButton.setDisable(generating);
     }
 
     /**
@@ -117,6 +235,45 @@ public class SudokuController implements Initializable {
         sudokuGridView.showHint(hintService.computeHint(sudokuGridView.getCurrentBoard()));
     }
 
+    /**
+     * Handles the event when the "Find Mistake" button is clicked: highlights the cell of the move after which the
+     * puzzle could no longer be solved. The search only asks the solver whether a solution is left, so it works
+     * without the stored solution, e.g. on a puzzle entered by hand.
+     */
+    @FXML
+    public void onFindPointOfNoReturn() {
+        if (sudokuService == null) {
+            showInfoDialog("Please start a puzzle before looking for a mistake.");
+            return;
+        }
+        int cell = sudokuGridView.showPointOfNoReturn(moveAnalyzer);
+        int size = sudokuGridView.getGeometry().size();
+        if (cell >= 0) {
+            showInfoDialog("The puzzle has no solution left since the value entered at (row: " + (cell / size + 1)
+                    + ", col: " + (cell % size + 1) + "). Undo back to it to get on track again.");
+        } else if (moveAnalyzer.hasSolution(sudokuGridView.getCurrentBoard())) {
+            showInfoDialog("No mistake so far: the puzzle can still be solved.");
+        } else {
+            showInfoDialog("The puzzle had no solution left before your first move of this session.");
+        }
+    }
+
+    /**
+     * Handles the event when the "Undo" button is clicked, reverting the last edit or hint.
+     */
+    @FXML
+    public void onUndo() {
+        sudokuGridView.undo();
+    }
+
+    /**
+     * Handles the event when the "Redo" button is clicked, applying the last undone edit or hint again.
+     */
+    @FXML
+    public void onRedo() {
+        sudokuGridView.redo();
+    }
+
     /**
      * Toggles candidate mode on or off.
      * In candidate mode, users can enter candidates in cells without affecting the main value.
@@ -128,6 +285,16 @@ public class SudokuController implements Initializable {
         candidateModeButton.setText(candidateMode ? "Disable Candidate Mode" : "Enable Candidate Mode");
     }
 
+    /**
+     * Toggles the automatic removal of a typed value from the candidates of its peers.
+     */
+    @FXML
+    public void onToggleAutoEliminate() {
+        autoEliminate = !autoEliminate;
+        sudokuGridView.setAutoEliminate(autoEliminate);
+        autoEliminateButton.setText(autoEliminate ? "Disable Auto-Elimination" : "Enable Auto-Elimination");
+    }
+
     /**
      * Displays an information dialog with the given message.
      * @param message The message to display in the dialog.
@@ -1,7 +1,6 @@
 package com.abezard.sudokuHelper.logic;
 
 import com.abezard.sudokuHelper.model.CandidatesHint;
-import com.abezard.sudokuHelper.model.Hint;
 import com.abezard.sudokuHelper.model.SudokuBoard;
 import com.abezard.sudokuHelper.service.SudokuHintService;
 
@@ -28,9 +27,24 @@ public class AllCandidatesHint implements  HintStrategy {
             // If candidates have never been given, compute and return them all candidates
             Set<Integer>[][] computedCandidates = sudokuHintService.computeAllCandidates(board);
             sudokuHintService.setCandidatesGiven(true);
-            return new CandidatesHint(Hint.HintType.ALL_CANDIDATES, new int[][]{{0,0}}, new int[0], computedCandidates,"candidates",
-                    "Candidates for all empty cells have been computed. You can now see which numbers can go in each cell.");
+            return new CandidatesHint(candidateMasks(computedCandidates), CandidatesHint.CANDIDATES_COMPUTED);
         }
         return null;
     }
+
+    /**
+     * Packs the candidates of every cell into masks.
+     * @param candidates the candidates for each cell in the Sudoku board
+     * @return the mask of every cell, row-major, with bit d - 1 set for digit d
+     */
+    static long[] candidateMasks(Set<Integer>[][] candidates) {
+        int size = candidates.length;
+        long[] masks = new long[size * size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                for (int digit : candidates[row][col]) masks[row * size + col] |= 1L << (digit - 1);
+            }
+        }
+        return masks;
+    }
 }
@@ -14,14 +14,14 @@ public class AlreadySolvedHint implements HintStrategy {
      */
     @Override
     public Hint findHint(SudokuBoard currentBoard, Set<Integer>[][] candidates, SudokuBoard solution, boolean candidatesGiven) {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
+        int size = currentBoard.getSize();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
                 if (solution.getCell(row, col) != currentBoard.getCell(row, col)) {
                     return null;
                 }
             }
         }
-        return new Hint(Hint.HintType.ALREADY_SOLVED, -1, -1, 0,
-                "The Sudoku puzzle is already solved. No hints needed.");
+        return new Hint(Hint.HintType.ALREADY_SOLVED, -1, -1, 0, Hint.Scope.BOARD, -1);
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.abezard.sudokuHelper.logic;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Topology;
+import com.abezard.sudokuHelper.model.Variant;
+
+import java.util.Set;
+
+public class BugPlusOneHint implements HintStrategy {
+
+    /**
+     * Finds a BUG+1 (Bivalue Universal Grave plus one) in the Sudoku board candidates.
+     * If every unsolved cell has exactly two candidates except one cell with three, the puzzle would have more
+     * than one solution without that extra candidate. Since every generated puzzle has a unique solution, the
+     * three-candidate cell must hold the digit that appears three times in its row (or column, or box).
+     *
+     * @param board           the current state of the Sudoku board
+     * @param candidates      the candidates for each cell in the Sudoku board
+     * @param solution        the solution Sudoku board, used to make sure the candidates can be trusted
+     * @param candidatesGiven indicates if candidates have been provided
+     * @return a Hint with the value of the three-candidate cell, or null if the board is not in a BUG+1 state
+     */
+    @Override
+    public Hint findHint(SudokuBoard board, Set<Integer>[][] candidates, SudokuBoard solution, boolean candidatesGiven) {
+        Geometry geometry = board.getGeometry();
+        int bugRow = -1, bugCol = -1;
+        for (int r = 0; r < geometry.size(); r++) {
+            for (int c = 0; c < geometry.size(); c++) {
+                int size = candidates[r][c].size();
+                if (size == 0 || size == 2) continue;
+                if (size != 3 || bugRow != -1) return null; // more than one cell breaks the pattern
+                bugRow = r;
+                bugCol = c;
+            }
+        }
+        if (bugRow == -1) return null;
+
+        Topology topology = Topology.of(geometry);
+        int[] boxCells = topology.unitCells(2 * geometry.size() + geometry.boxOf(bugRow, bugCol));
+        for (int digit : candidates[bugRow][bugCol]) {
+            int rowCount = 0, colCount = 0, boxCount = 0;
+            for (int i = 0; i < geometry.size(); i++) {
+                if (candidates[bugRow][i].contains(digit)) rowCount++;
+                if (candidates[i][bugCol].contains(digit)) colCount++;
+                int cell = boxCells[i];
+                if (candidates[topology.row(cell)][topology.col(cell)].contains(digit)) boxCount++;
+            }
+            if (rowCount == 3 || colCount == 3 || boxCount == 3) {
+                if (solution != null && solution.getCell(bugRow, bugCol) != digit) {
+                    return null; // the candidates on the board are not correct, so the pattern cannot be trusted
+                }
+                return new Hint(Hint.HintType.BUG_PLUS_ONE, bugRow, bugCol, digit);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A bivalue grave only has two solutions when nothing but rows, columns and boxes constrains its cells.
+     * @param variant the variant of the puzzle
+     * @return true for classic puzzles only
+     */
+    @Override
+    public boolean supports(Variant variant) {
+        return variant.isClassic();
+    }
+}
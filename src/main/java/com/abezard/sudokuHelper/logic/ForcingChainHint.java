@@ -0,0 +1,310 @@
+package com.abezard.sudokuHelper.logic;
+
+import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SearchBudgetHint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+
+public class ForcingChainHint implements HintStrategy {
+    public static final long DEFAULT_NODE_BUDGET = 500_000;
+    public static final Duration DEFAULT_TIME_BUDGET = Duration.ofMillis(250);
+
+    private final StrongLinkGraph graph;
+    private final long nodeBudget;
+    private final long timeBudgetNanos; // -1 for no time limit
+
+    // One node per (cell, digit) pair: cell * size + (digit - 1), sized for the geometry of the graph
+    private int size;
+    private int nodes;
+    private int words;
+
+    // Memoized implications of assuming each node true, valid for one version of the graph.
+    // Words [0, words) hold the nodes implied true, words [words, 2 * words) the nodes implied false.
+    private long[][] implications = new long[0][];
+    private int[] contradictions = new int[0]; // cell where the assumption breaks down, or -1
+    private long cachedVersion = -1;
+
+    // Partial search of the start node the budget ran out on, resumed by the next request: its implications so far
+    // and its frontier, the literals in queue[suspendedHead, suspendedTail)
+    private int suspendedStart = -1;
+    private long[] suspendedImplied;
+    private int suspendedHead, suspendedTail;
+
+    // Search state of the current request
+    private int[] queue = new int[0];
+    private final int[] links = new int[3];
+    private long nodesExplored;
+    private long deadline;
+
+    /**
+     * Constructor for ForcingChainHint, using the default node and time budgets.
+     * @param graph the strong link graph shared with the other chaining strategies
+     */
+    public ForcingChainHint(StrongLinkGraph graph) {
+        this(graph, DEFAULT_NODE_BUDGET, DEFAULT_TIME_BUDGET);
+    }
+
+    /**
+     * Constructor for ForcingChainHint.
+     * @param graph the strong link graph shared with the other chaining strategies
+     * @param nodeBudget the maximum number of nodes expanded per hint request
+     * @param timeBudget the maximum time spent searching per hint request
+     */
+    public ForcingChainHint(StrongLinkGraph graph, long nodeBudget, Duration timeBudget) {
+        this.graph = graph;
+        this.nodeBudget = nodeBudget;
+        this.timeBudgetNanos = timeBudget.toNanos();
+    }
+
+    /**
+     * Constructor for ForcingChainHint, with a node budget only. The search then depends on the candidates alone,
+     * not on how busy the machine is, so the same candidates always give the same hint.
+     * @param graph the strong link graph shared with the other chaining strategies
+     * @param nodeBudget the maximum number of nodes expanded per hint request
+     */
+    public ForcingChainHint(StrongLinkGraph graph, long nodeBudget) {
+        this.graph = graph;
+        this.nodeBudget = nodeBudget;
+        this.timeBudgetNanos = -1;
+    }
+
+    /**
+     * Finds a forcing chain in the Sudoku board candidates.
+     * Assuming a candidate is true, its consequences are followed breadth-first along alternating inferences:
+     * a true candidate makes every peer with the same digit and every other candidate of its cell false, and a
+     * false candidate makes its strong link partners (the other candidate of a bivalue cell, or the other place
+     * for the digit in a unit where it appears twice) true.
+     * If an assumption leads to a contradiction, the candidate can be removed. If every candidate of a cell leads
+     * to the same false candidate, that candidate can be removed.
+     * The implications of each start node are memoized until the candidates change, and the search stops once its
+     * node or time budget is spent, reporting how far it got instead of stalling the hint request. The start node it
+     * stopped in keeps its partial implications and frontier, so a repeated request resumes exactly where the
+     * previous one stopped.
+     *
+     * @param board           the current state of the Sudoku board
+     * @param candidates      the candidates for each cell in the Sudoku board
+     * @param solution        the solution Sudoku board (not used in this strategy)
+     * @param candidatesGiven indicates if candidates have been provided
+     * @return a CandidatesHint with the eliminations, a SearchBudgetHint if the budget ran out, or null if no chain exists
+     */
+    @Override
+    public Hint findHint(SudokuBoard board, Set<Integer>[][] candidates, SudokuBoard solution, boolean candidatesGiven) {
+        graph.sync(board.getGeometry(), candidates);
+        if (graph.cellCount() * graph.size() != nodes) {
+            size = graph.size();
+            nodes = graph.cellCount() * size;
+            words = (nodes + 63) / 64;
+            implications = new long[nodes][];
+            contradictions = new int[nodes];
+            queue = new int[2 * nodes];
+            suspendedStart = -1;
+        } else if (graph.version() != cachedVersion) {
+            Arrays.fill(implications, null);
+            suspendedStart = -1;
+        }
+        cachedVersion = graph.version();
+        long startTime = System.nanoTime();
+        deadline = startTime + timeBudgetNanos;
+        nodesExplored = 0;
+
+        // Cells with fewer candidates give shorter, easier to follow chains, so they are tried first
+        for (int count = 2; count <= size; count++) {
+            for (int cell = 0; cell < graph.cellCount(); cell++) {
+                long mask = graph.candidateMask(cell);
+                if (Long.bitCount(mask) != count) continue;
+
+                long[] common = new long[words];
+                Arrays.fill(common, -1L);
+                for (long bits = mask; bits != 0; bits &= bits - 1) {
+                    int node = cell * size + Long.numberOfTrailingZeros(bits);
+                    if (!ensureImplications(node)) {
+                        return budgetHint(startTime);
+                    }
+                    if (contradictions[node] >= 0) {
+                        return contradictionHint(node);
+                    }
+                    for (int w = 0; w < words; w++) {
+                        common[w] &= implications[node][words + w];
+                    }
+                }
+                CandidatesHint hint = cellForcingHint(cell, mask, common);
+                if (hint != null) return hint;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Computes the implications of assuming a node true, unless they are already memoized. A search the budget
+     * stopped is suspended, and resumed by the next call for the same node.
+     * @param start the node assumed true
+     * @return false if the search budget ran out before the implications were complete
+     */
+    private boolean ensureImplications(int start) {
+        if (implications[start] != null) return true;
+        long[] implied;
+        int head, tail;
+        if (start == suspendedStart) {
+            implied = suspendedImplied;
+            head = suspendedHead;
+            tail = suspendedTail;
+        } else {
+            implied = new long[2 * words];
+            head = 0;
+            tail = 0;
+            queue[tail++] = start * 2 + 1;
+            set(implied, start, true);
+        }
+        suspendedStart = -1; // the queue is reused by this search
+        int contradiction = -1;
+
+        while (head < tail && contradiction < 0) {
+            if (++nodesExplored > nodeBudget
+                    || (timeBudgetNanos >= 0 && (nodesExplored & 1023) == 0 && System.nanoTime() > deadline)) {
+                // the literal at head has not been expanded yet, so the search picks up from there
+                suspendedStart = start;
+                suspendedImplied = implied;
+                suspendedHead = head;
+                suspendedTail = tail;
+                return false;
+            }
+            int literal = queue[head++];
+            int node = literal >> 1;
+            int cell = node / size, digit = node % size + 1;
+            if ((literal & 1) == 1) {
+                // A true candidate rules out the other candidates of its cell and the digit in all peers
+                for (long bits = graph.candidateMask(cell) & ~(1L << (digit - 1)); bits != 0; bits &= bits - 1) {
+                    int other = cell * size + Long.numberOfTrailingZeros(bits);
+                    if (isSet(implied, other, true)) contradiction = cell;
+                    else if (!isSet(implied, other, false)) {
+                        set(implied, other, false);
+                        queue[tail++] = other * 2;
+                    }
+                }
+                for (int peer : graph.peers(cell)) {
+                    if (!graph.hasCandidate(peer, digit)) continue;
+                    int other = peer * size + digit - 1;
+                    if (isSet(implied, other, true)) contradiction = peer;
+                    else if (!isSet(implied, other, false)) {
+                        set(implied, other, false);
+                        queue[tail++] = other * 2;
+                    }
+                }
+            } else {
+                // A false candidate makes its strong link partners true
+                long mask = graph.candidateMask(cell);
+                if (Long.bitCount(mask) == 2) {
+                    int other = cell * size + Long.numberOfTrailingZeros(mask & ~(1L << (digit - 1)));
+                    if (isSet(implied, other, false)) contradiction = cell;
+                    else if (!isSet(implied, other, true)) {
+                        set(implied, other, true);
+                        queue[tail++] = other * 2 + 1;
+                    }
+                }
+                int count = graph.strongLinks(cell, digit, links);
+                for (int i = 0; i < count; i++) {
+                    int other = links[i] * size + digit - 1;
+                    if (isSet(implied, other, false)) contradiction = links[i];
+                    else if (!isSet(implied, other, true)) {
+                        set(implied, other, true);
+                        queue[tail++] = other * 2 + 1;
+                    }
+                }
+                // A cell whose candidates are all false cannot be filled
+                if (contradiction < 0 && allFalse(implied, cell)) contradiction = cell;
+            }
+        }
+        implications[start] = implied;
+        contradictions[start] = contradiction;
+        return true;
+    }
+
+    /**
+     * Checks whether every candidate of a cell has been implied false.
+     * @param implied the implications found so far
+     * @param cell the cell to check
+     * @return true if no candidate of the cell can be true
+     */
+    private boolean allFalse(long[] implied, int cell) {
+        long mask = graph.candidateMask(cell);
+        if (mask == 0) return false; // filled cells have no candidates to rule out
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            if (!isSet(implied, cell * size + Long.numberOfTrailingZeros(bits), false)) return false;
+        }
+        return true;
+    }
+
+    private boolean isSet(long[] implied, int node, boolean value) {
+        int word = (value ? 0 : words) + (node >> 6);
+        return (implied[word] & (1L << node)) != 0;
+    }
+
+    private void set(long[] implied, int node, boolean value) {
+        implied[(value ? 0 : words) + (node >> 6)] |= 1L << node;
+    }
+
+    /**
+     * Builds the hint for a candidate whose assumption leads to a contradiction.
+     * @param node the node that cannot be true
+     * @return a CandidatesHint removing the candidate
+     */
+    private CandidatesHint contradictionHint(int node) {
+        int row = node / size / size, col = node / size % size, digit = node % size + 1;
+        int conflict = contradictions[node];
+        return new CandidatesHint(Hint.HintType.FORCING_CHAIN, new int[]{Hint.cell(row, col)}, new int[]{digit},
+                Hint.Scope.CHAIN, -1, new int[]{Hint.candidate(row, col, digit)},
+                CandidatesHint.CONTRADICTION, Hint.cell(conflict / size, conflict % size));
+    }
+
+    /**
+     * Builds the hint for a cell whose candidates all rule out the same other candidates.
+     * @param cell the cell whose candidates were each assumed true
+     * @param mask the candidates of the cell
+     * @param common the nodes implied false by every candidate of the cell
+     * @return a CandidatesHint with the eliminations, or null if no current candidate is ruled out
+     */
+    private CandidatesHint cellForcingHint(int cell, long mask, long[] common) {
+        int count = 0;
+        int[] targets = new int[nodes];
+        for (int node = 0; node < nodes; node++) {
+            if ((common[node >> 6] & (1L << node)) != 0 && graph.hasCandidate(node / size, node % size + 1)) {
+                targets[count++] = node;
+            }
+        }
+        if (count == 0) return null;
+        int[] eliminations = new int[count];
+        for (int i = 0; i < count; i++) {
+            eliminations[i] = Hint.candidate(targets[i] / size / size, targets[i] / size % size, targets[i] % size + 1);
+        }
+        int[] digits = new int[Long.bitCount(mask)];
+        int index = 0;
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            digits[index++] = Long.numberOfTrailingZeros(bits) + 1;
+        }
+        return new CandidatesHint(Hint.HintType.FORCING_CHAIN, new int[]{Hint.cell(cell / size, cell % size)}, digits,
+                Hint.Scope.CELL, -1, eliminations, CandidatesHint.CELL_FORCING);
+    }
+
+    /**
+     * Builds the hint reporting how far the search got before its budget ran out.
+     * @param startTime the time the search of this request started, from System.nanoTime()
+     * @return a SearchBudgetHint with the search statistics
+     */
+    private SearchBudgetHint budgetHint(long startTime) {
+        int completed = 0, total = 0;
+        for (int cell = 0; cell < graph.cellCount(); cell++) {
+            long mask = graph.candidateMask(cell);
+            if (Long.bitCount(mask) < 2) continue;
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                total++;
+                if (implications[cell * size + Long.numberOfTrailingZeros(bits)] != null) completed++;
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        return new SearchBudgetHint(nodesExplored, completed, total, elapsedMillis);
+    }
+}
@@ -1,7 +1,9 @@
 package com.abezard.sudokuHelper.logic;
 
+import com.abezard.sudokuHelper.model.Geometry;
 import com.abezard.sudokuHelper.model.Hint;
 import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Topology;
 import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
 
 import java.util.Set;
@@ -41,19 +43,19 @@ public class HiddenSingleHint implements HintStrategy {
      */
     private Hint findHiddenSingleRows(SudokuBoard board) {
         // Check each row to see if a number can only fit in one cell
-        for(int row = 0; row < 9; row++) {
-            for(int num = 1; num <= 9; num++) {
+        int size = board.getSize();
+        for(int row = 0; row < size; row++) {
+            for(int num = 1; num <= size; num++) {
                 int count = 0;
                 int colIndex = -1;
-                for(int col = 0; col < 9; col++) {
+                for(int col = 0; col < size; col++) {
                     if(board.getCell(row, col) == 0 && boardGenerator.isValidPlacement(board, row, col, num)) {
                         count++;
                         colIndex = col;
                     }
                 }
                 if(count == 1) {
-                    return new Hint(Hint.HintType.HIDDEN_SINGLE, row, colIndex, num,
-                            "Row " + (row + 1) +" can only contain this number in this cell.");
+                    return new Hint(Hint.HintType.HIDDEN_SINGLE, row, colIndex, num, Hint.Scope.ROW, row);
                 }
             }
         }
@@ -67,19 +69,19 @@ public class HiddenSingleHint implements HintStrategy {
      */
     private Hint findHiddenSingleColumns(SudokuBoard board) {
         // Check each column to see if a number can only fit in one cell
-        for(int col = 0; col < 9; col++) {
-            for(int num = 1; num <= 9; num++) {
+        int size = board.getSize();
+        for(int col = 0; col < size; col++) {
+            for(int num = 1; num <= size; num++) {
                 int count = 0;
                 int rowIndex = -1;
-                for(int row = 0; row < 9; row++) {
+                for(int row = 0; row < size; row++) {
                     if(board.getCell(row, col) == 0 && boardGenerator.isValidPlacement(board, row, col, num)) {
                         count++;
                         rowIndex = row;
                     }
                 }
                 if(count == 1) {
-                    return new Hint(Hint.HintType.HIDDEN_SINGLE, rowIndex, col, num,
-                            "Column " + (col + 1) +" can only contain this number in this cell.");
+                    return new Hint(Hint.HintType.HIDDEN_SINGLE, rowIndex, col, num, Hint.Scope.COLUMN, col);
                 }
             }
         }
@@ -92,26 +94,26 @@ public class HiddenSingleHint implements HintStrategy {
      * @return a Hint indicating the hidden single found in a boxes, or null if none exists
      */
     private Hint findHiddenSingleBoxes(SudokuBoard board) {
-        // Check each 3x3 box to see if a number can only fit in one cell
-        for(int boxRow = 0; boxRow < 3; boxRow++) {
-            for(int boxCol = 0; boxCol < 3; boxCol++) {
-                for(int num = 1; num <= 9; num++) {
-                    int count = 0;
-                    int rowIndex = -1, colIndex = -1;
-                    for(int row = boxRow * 3; row < (boxRow + 1) * 3; row++) {
-                        for(int col = boxCol * 3; col < (boxCol + 1) * 3; col++) {
-                            if(board.getCell(row, col) == 0 && boardGenerator.isValidPlacement(board, row, col, num)) {
-                                count++;
-                                rowIndex = row;
-                                colIndex = col;
-                            }
-                        }
-                    }
-                    if(count == 1) {
-                        return new Hint(Hint.HintType.HIDDEN_SINGLE, rowIndex, colIndex, num,
-                                "This box can only contain this number in this cell.");
+        // Check each box to see if a number can only fit in one cell
+        Geometry geometry = board.getGeometry();
+        Topology topology = Topology.of(geometry);
+        int size = geometry.size();
+        for(int box = 0; box < size; box++) {
+            int[] cells = topology.unitCells(2 * size + box);
+            for(int num = 1; num <= size; num++) {
+                int count = 0;
+                int cellIndex = -1;
+                for(int cell : cells) {
+                    int row = topology.row(cell), col = topology.col(cell);
+                    if(board.getCell(row, col) == 0 && boardGenerator.isValidPlacement(board, row, col, num)) {
+                        count++;
+                        cellIndex = cell;
                     }
                 }
+                if(count == 1) {
+                    return new Hint(Hint.HintType.HIDDEN_SINGLE, topology.row(cellIndex), topology.col(cellIndex), num,
+                            Hint.Scope.BOX, Hint.cell(topology.row(cells[0]), topology.col(cells[0])));
+                }
             }
         }
         return null;
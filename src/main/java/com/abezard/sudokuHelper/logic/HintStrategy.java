@@ -2,9 +2,31 @@ package com.abezard.sudokuHelper.logic;
 
 import com.abezard.sudokuHelper.model.Hint;
 import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
 
 import java.util.Set;
 
 public interface HintStrategy {
+
+    /**
+     * Looks for the next hint of this strategy.
+     * @param board the current state of the board; strategies read the shape of its boxes from its geometry, as it
+     *              cannot be told from the size of the candidates (a 6x6 board may have 2x3 or 3x2 boxes)
+     * @param candidates the candidates for each cell of the board
+     * @param solution the solution of the board, or null if it is not known
+     * @param candidatesGiven whether the candidates were given to the user
+     * @return the hint, or null if the strategy finds none
+     */
     Hint findHint(SudokuBoard board, Set<Integer>[][] candidates, SudokuBoard solution, boolean candidatesGiven);
-}
\ No newline at end of file
+
+    /**
+     * Checks whether the reasoning of this strategy holds under the rules of a variant. Strategies working on rows,
+     * columns and boxes stay sound when a variant adds constraints; strategies relying on a pattern having two
+     * solutions do not, since the extra constraints may already rule one of them out.
+     * @param variant the variant of the puzzle
+     * @return true if the strategy can be used on puzzles of that variant
+     */
+    default boolean supports(Variant variant) {
+        return true;
+    }
+}
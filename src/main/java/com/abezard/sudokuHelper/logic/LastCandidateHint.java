@@ -25,18 +25,16 @@ public class LastCandidateHint implements HintStrategy {
      */
     @Override
     public Hint findHint(SudokuBoard board, Set<Integer>[][] candidates, SudokuBoard solution, boolean candidatesGiven) {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
+        for (int row = 0; row < candidates.length; row++) {
+            for (int col = 0; col < candidates.length; col++) {
                 if (candidates[row][col].size() == 1 && board.getCell(row, col) == 0) {
                     int lastCandidate = candidates[row][col].iterator().next();
                     if( solution.getCell(row, col) != lastCandidate) {
                         Set<Integer>[][] c = sudokuHintService.computeAllCandidates(board);
-                        return new CandidatesHint(Hint.HintType.ALL_CANDIDATES, new int[][]{{0,0}}, new int[0], c,"candidates",
-                                "Candidates for all empty cells have been computed. Some other candidates were possible in some cells, or an incorrect candidate was marked.");
+                        return new CandidatesHint(AllCandidatesHint.candidateMasks(c), CandidatesHint.CANDIDATES_CORRECTED);
                     }
                     sudokuHintService.setCandidatesGiven(false); // since a new value is set, certain candidates will now be invalid
-                    return new Hint(Hint.HintType.LAST_CANDIDATE, row, col, lastCandidate,
-                            "Only one candidate left in this cell: " + lastCandidate);
+                    return new Hint(Hint.HintType.LAST_CANDIDATE, row, col, lastCandidate);
                 }
             }
         }
@@ -8,20 +8,27 @@ import java.util.Set;
 public class MistakeHint implements HintStrategy {
 
     /**
-     * Finds mistakes in the current Sudoku board by comparing it to the solution.
+     * Finds mistakes in the current Sudoku board by comparing it to the solution. A board tracking its mistakes
+     * gives its first mistake from its mismatch mask; other boards are compared cell by cell.
      * @param board the current state of the Sudoku board
      * @return a Hint indicating the first mistake found, or null if no mistakes are found
      */
     @Override
     public Hint findHint(SudokuBoard board, Set<Integer>[][] candidates, SudokuBoard solution, boolean candidatesGiven) {
+        int size = board.getSize();
+        if (board.tracksMistakes()) {
+            int cell = board.firstMistake();
+            if (cell < 0) return null;
+            return new Hint(Hint.HintType.INCORRECT_INPUT, cell / size, cell % size,
+                    solution.getCell(cell / size, cell % size));
+        }
         // Check each cell against the solution
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
                 int currentValue = board.getCell(row, col);
                 int correctValue = solution.getCell(row, col);
                 if (currentValue != 0 && currentValue != correctValue) {
-                    return new Hint(Hint.HintType.INCORRECT_INPUT, row, col, correctValue,
-                            "Incorrect value in this cell");
+                    return new Hint(Hint.HintType.INCORRECT_INPUT, row, col, correctValue);
                 }
             }
         }
@@ -26,20 +26,20 @@ public class NakedSingleHint implements  HintStrategy {
     @Override
     public Hint findHint(SudokuBoard board, Set<Integer>[][] candidates, SudokuBoard solution, boolean candidatesGiven) {
         // Check each empty cell to see if it has exactly one possible value
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
+        int size = board.getSize();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
                 if (board.getCell(row, col) == 0) {
                     int candidateCount = 0;
                     int candidateValue = -1;
-                    for (int num = 1; num <= 9; num++) {
+                    for (int num = 1; num <= size; num++) {
                         if (boardGenerator.isValidPlacement(board, row, col, num)) {
                             candidateCount++;
                             candidateValue = num;
                         }
                     }
                     if (candidateCount == 1) {
-                        return new Hint(Hint.HintType.NAKED_SINGLE, row, col, candidateValue,
-                                "Only one possible value in this cell");
+                        return new Hint(Hint.HintType.NAKED_SINGLE, row, col, candidateValue);
                     }
                 }
             }
@@ -1,101 +1,188 @@
 package com.abezard.sudokuHelper.logic;
 
 import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Geometry;
 import com.abezard.sudokuHelper.model.Hint;
 import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Topology;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Set;
 
 public class PointingPairHint implements HintStrategy {
+    private Geometry geometry;
+    private Topology topology; // its box/line segments split the masks of a box by line, and of a line by box
+    // Position masks per digit, cleared on every call: columns used in each row, rows used in each column, positions
+    // used in each box
+    private long[][] rowMasks;
+    private long[][] colMasks;
+    private long[][] boxMasks;
 
     /**
-     * Finds pointing pairs in the Sudoku board.
-     * Pointing pairs are candidates that can be eliminated from other cells in the same unit (row, column, or box).
+     * Finds intersections between boxes and lines (rows or columns) in the Sudoku board.
+     * Pointing: if a digit is confined to one line inside a box, it can be eliminated from that line outside the box.
+     * Claiming (box/line reduction): if a digit is confined to one box inside a line, it can be eliminated from that
+     * box outside the line.
+     * Both directions are derived from per-digit position masks of every row, column and box, split by the box/line
+     * segments of the Topology, so each box/line intersection costs a couple of mask operations.
      *
      * @param board the current state of the Sudoku board
      * @param candidates the candidates for each cell in the Sudoku board
      * @param solution the solution to the Sudoku board
      * @param candidatesGiven indicates if candidates have been provided
-     * @return a CandidatesHint indicating a pointing pair found in the Sudoku board, or null if no pointing pairs exist
+     * @return a CandidatesHint indicating a pointing pair or a box/line reduction, or null if none exist
      */
     @Override
     public CandidatesHint findHint(SudokuBoard board, Set<Integer>[][] candidates, SudokuBoard solution, boolean candidatesGiven) {
-        // Iterate over each 3x3 box
-        for (int boxRow = 0; boxRow < 3; boxRow++) {
-            for (int boxCol = 0; boxCol < 3; boxCol++) {
-                int startRow = boxRow * 3;
-                int startCol = boxCol * 3;
+        prepare(board.getGeometry());
+        for (int digit = 1; digit <= geometry.size(); digit++) {
+            Arrays.fill(rowMasks[digit], 0);
+            Arrays.fill(colMasks[digit], 0);
+            Arrays.fill(boxMasks[digit], 0);
+        }
+        for (int cell = 0; cell < geometry.cellCount(); cell++) {
+            int r = topology.row(cell), c = topology.col(cell);
+            for (int digit : candidates[r][c]) {
+                rowMasks[digit][r] |= 1L << c;
+                colMasks[digit][c] |= 1L << r;
+                boxMasks[digit][topology.box(cell)] |= 1L << topology.boxPosition(cell);
+            }
+        }
 
-                // Check each candidate digit 1-9
-                for (int digit = 1; digit <= 9; digit++) {
-                    List<int[]> locations = new ArrayList<>();
+        CandidatesHint hint = findPointing();
+        if (hint == null) {
+            hint = findClaiming();
+        }
+        return hint;
+    }
 
-                    // Collect candidate positions inside the box
-                    for (int r = startRow; r < startRow + 3; r++) {
-                        for (int c = startCol; c < startCol + 3; c++) {
-                            if (candidates[r][c].contains(digit)) {
-                                locations.add(new int[]{r, c});
-                            }
-                        }
-                    }
+    /**
+     * Gets the topology of a geometry and sizes the position masks for it, reusing them while the board keeps the
+     * same geometry.
+     * @param geometry the geometry of the board being searched
+     */
+    private void prepare(Geometry geometry) {
+        if (geometry.equals(this.geometry)) return;
+        topology = Topology.of(geometry);
+        int size = geometry.size();
+        rowMasks = new long[size + 1][size];
+        colMasks = new long[size + 1][size];
+        boxMasks = new long[size + 1][size];
+        this.geometry = geometry;
+    }
 
-                    if (locations.size() < 2) continue; // Need at least 2 candidates
+    /**
+     * Finds a digit confined to one row or column of a box that also appears in that line outside the box.
+     * @return a CandidatesHint indicating the pointing pair, or null if none exists
+     */
+    private CandidatesHint findPointing() {
+        int size = geometry.size();
+        for (int box = 0; box < size; box++) {
+            int[] boxCells = topology.unitCells(2 * size + box);
+            int origin = Hint.cell(topology.row(boxCells[0]), topology.col(boxCells[0]));
+            for (int digit = 1; digit <= size; digit++) {
+                long mask = boxMasks[digit][box];
+                if (Long.bitCount(mask) < 2) continue; // Need at least 2 candidates
+                int first = boxCells[Long.numberOfTrailingZeros(mask)]; // the only line the digit can be confined to
 
-                    // Check same row
-                    boolean sameRow = locations.stream().allMatch(pos -> pos[0] == locations.get(0)[0]);
-                    if (sameRow) {
-                        int row = locations.get(0)[0];
-                        for (int c = 0; c < 9; c++) {
-                            // Skip cells in this box
-                            if (c >= startCol && c < startCol + 3) continue;
-                            if (candidates[row][c].contains(digit)) {
-                                int[][] cells = locations.size() == 2 ?
-                                        new int[][]{new int[]{row, locations.get(0)[1]},
-                                                new int[]{row, locations.get(1)[1]}} :
-                                        new int[][]{new int[]{row, locations.get(0)[1]},
-                                                new int[]{row, locations.get(1)[1]}, new int[]{row, locations.get(2)[1]}};
-                                return new CandidatesHint(
-                                        Hint.HintType.POINTING_PAIR,
-                                        cells,
-                                        new int[]{digit}, null,
-                                        "row",
-                                        "Pointing pair: digit " + digit + " in row " + (row+1) +
-                                                " confined to box (row: " + (3*boxRow+1) + ", col: " + (3*boxCol+1)
-                                                + "). This means this digit can only appear in this row of this box, so we can eliminate it from other cells outside this box in this row."
-                                );
-                            }
-                        }
+                int row = topology.row(first);
+                if ((mask & ~topology.boxSegment(box, row)) == 0) {
+                    long segment = topology.lineSegment(box, row);
+                    if ((rowMasks[digit][row] & ~segment) != 0) {
+                        return new CandidatesHint(
+                                Hint.HintType.POINTING_PAIR,
+                                lineCells(row, -1, rowMasks[digit][row] & segment),
+                                new int[]{digit}, Hint.Scope.ROW, row, new int[0], 0, origin
+                        );
                     }
+                }
 
-                    // Check same column
-                    boolean sameCol = locations.stream().allMatch(pos -> pos[1] == locations.get(0)[1]);
-                    if (sameCol) {
-                        int col = locations.get(0)[1];
-                        for (int r = 0; r < 9; r++) {
-                            // Skip cells in this box
-                            if (r >= startRow && r < startRow + 3) continue;
-                            if (candidates[r][col].contains(digit)) {
-                                int[][] cells = locations.size() == 2 ?
-                                        new int[][]{new int[]{locations.get(0)[0], col},
-                                                new int[]{locations.get(1)[0], col}} :
-                                        new int[][]{new int[]{locations.get(0)[0], col},
-                                                new int[]{locations.get(1)[0], col}, new int[]{locations.get(2)[0], col}};
-                                return new CandidatesHint(
-                                        Hint.HintType.POINTING_PAIR,
-                                        cells, new int[]{digit}, null,
-                                        "column",
-                                        "Pointing pair: digit " + digit + " in column " + (col+1) +
-                                                " confined to box (row: " + (3*boxRow+1) + ", col: " + (3*boxCol+1)
-                                                + "). This means this digit can only appear in this column of this box, so we can eliminate it from other cells outside this box in this column."
-                                );
-                            }
-                        }
+                int col = topology.col(first);
+                if ((mask & ~topology.boxSegment(box, size + col)) == 0) {
+                    long segment = topology.lineSegment(box, size + col);
+                    if ((colMasks[digit][col] & ~segment) != 0) {
+                        return new CandidatesHint(
+                                Hint.HintType.POINTING_PAIR,
+                                lineCells(-1, col, colMasks[digit][col] & segment),
+                                new int[]{digit}, Hint.Scope.COLUMN, col, new int[0], 0, origin
+                        );
                     }
                 }
             }
         }
         return null;
     }
+
+    /**
+     * Finds a digit confined to one box inside a row or column that also appears in that box outside the line.
+     * @return a CandidatesHint indicating the box/line reduction, or null if none exists
+     */
+    private CandidatesHint findClaiming() {
+        int size = geometry.size();
+        for (int row = 0; row < size; row++) {
+            for (int digit = 1; digit <= size; digit++) {
+                long mask = rowMasks[digit][row];
+                if (Long.bitCount(mask) < 2) continue;
+                int box = topology.box(row * size + Long.numberOfTrailingZeros(mask));
+                if ((mask & ~topology.lineSegment(box, row)) != 0) continue;
+                long outside = boxMasks[digit][box] & ~topology.boxSegment(box, row);
+                if (outside != 0) {
+                    return claimingHint(digit, box, outside, lineCells(row, -1, mask), Hint.Scope.ROW, row);
+                }
+            }
+        }
+        for (int col = 0; col < size; col++) {
+            for (int digit = 1; digit <= size; digit++) {
+                long mask = colMasks[digit][col];
+                if (Long.bitCount(mask) < 2) continue;
+                int box = topology.box(Long.numberOfTrailingZeros(mask) * size + col);
+                if ((mask & ~topology.lineSegment(box, size + col)) != 0) continue;
+                long outside = boxMasks[digit][box] & ~topology.boxSegment(box, size + col);
+                if (outside != 0) {
+                    return claimingHint(digit, box, outside, lineCells(-1, col, mask), Hint.Scope.COLUMN, col);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Builds the hint for a box/line reduction.
+     * @param digit the digit confined to the box inside the line
+     * @param box the box index (row-major)
+     * @param outside the positions of the digit in the box outside the line
+     * @param cells the packed cells of the line holding the digit
+     * @param scope the type of line (ROW or COLUMN)
+     * @param line the row or column index
+     * @return a CandidatesHint with the eliminations inside the box
+     */
+    private CandidatesHint claimingHint(int digit, int box, long outside, int[] cells, Hint.Scope scope, int line) {
+        int size = geometry.size();
+        int[] boxCells = topology.unitCells(2 * size + box);
+        int[] eliminations = new int[Long.bitCount(outside)];
+        int index = 0;
+        for (long bits = outside; bits != 0; bits &= bits - 1) {
+            int cell = boxCells[Long.numberOfTrailingZeros(bits)];
+            eliminations[index++] = Hint.candidate(topology.row(cell), topology.col(cell), digit);
+        }
+        return new CandidatesHint(Hint.HintType.BOX_LINE_REDUCTION, cells, new int[]{digit}, scope, line, eliminations,
+                0, Hint.cell(topology.row(boxCells[0]), topology.col(boxCells[0])));
+    }
+
+    /**
+     * Converts a position mask along a line into packed cells.
+     * @param row the row of the line, or -1 if the line is a column
+     * @param col the column of the line, or -1 if the line is a row
+     * @param mask the positions along the line
+     * @return the packed cells, in increasing order
+     */
+    private int[] lineCells(int row, int col, long mask) {
+        int[] cells = new int[Long.bitCount(mask)];
+        int index = 0;
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            int position = Long.numberOfTrailingZeros(bits);
+            cells[index++] = row >= 0 ? Hint.cell(row, position) : Hint.cell(position, col);
+        }
+        return cells;
+    }
 }
@@ -0,0 +1,169 @@
+package com.abezard.sudokuHelper.logic;
+
+import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+
+import java.util.Arrays;
+import java.util.Set;
+
+public class SimpleColoringHint implements HintStrategy {
+    private final StrongLinkGraph graph;
+
+    // Reusable search buffers, a cluster can never hold more cells than the board
+    private int[] color = new int[0]; // 1 and 2 are the two alternating colors, valid for the cells of clusterOf
+    private int[] clusterOf = new int[0]; // the stamp of the cluster each cell was last colored in, 0 for none
+    private int clusterId; // the stamp of the current cluster, increasing across digits and calls
+    private int[] cluster = new int[0];
+    private int[] trapped = new int[0];
+    private final int[] links = new int[3];
+
+    /**
+     * Constructor for SimpleColoringHint.
+     * @param graph the strong link graph shared with the other chaining strategies
+     */
+    public SimpleColoringHint(StrongLinkGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Finds a simple coloring elimination in the Sudoku board candidates.
+     * Every cluster of cells connected by strong links of one digit is colored with two alternating colors,
+     * exactly one of which holds the digit.
+     * If two cells of the same color see each other, that color is false (color wrap).
+     * Otherwise, any other cell that sees both colors cannot hold the digit (color trap).
+     *
+     * @param board           the current state of the Sudoku board
+     * @param candidates      the candidates for each cell in the Sudoku board
+     * @param solution        the solution Sudoku board (not used in this strategy)
+     * @param candidatesGiven indicates if candidates have been provided
+     * @return a CandidatesHint describing the cluster and its eliminations, or null if no elimination exists
+     */
+    @Override
+    public CandidatesHint findHint(SudokuBoard board, Set<Integer>[][] candidates, SudokuBoard solution, boolean candidatesGiven) {
+        graph.sync(board.getGeometry(), candidates);
+        if (color.length != graph.cellCount() || clusterId > Integer.MAX_VALUE - graph.cellCount() * graph.size()) {
+            color = new int[graph.cellCount()];
+            clusterOf = new int[graph.cellCount()];
+            clusterId = 0;
+            cluster = new int[graph.cellCount()];
+            trapped = new int[graph.cellCount()];
+        }
+        for (int digit = 1; digit <= graph.size(); digit++) {
+            int firstOfDigit = clusterId + 1; // cells stamped from here on were colored for this digit
+            for (int start = 0; start < graph.cellCount(); start++) {
+                if (clusterOf[start] >= firstOfDigit || graph.strongLinks(start, digit, links) == 0) continue;
+                int size = colorCluster(start, digit);
+                CandidatesHint hint = checkColorWrap(digit, size);
+                if (hint == null) hint = checkColorTrap(digit, size);
+                if (hint != null) return hint;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Colors the cluster of strongly linked cells containing the start cell with a breadth-first search, stamping
+     * its cells with a new cluster ID.
+     * @param start the cell to start coloring from
+     * @param digit the digit whose strong links are followed
+     * @return the number of cells in the cluster, which are stored in the cluster buffer
+     */
+    private int colorCluster(int start, int digit) {
+        int head = 0, size = 0;
+        clusterId++;
+        cluster[size++] = start;
+        clusterOf[start] = clusterId;
+        color[start] = 1;
+        while (head < size) {
+            int cell = cluster[head++];
+            int count = graph.strongLinks(cell, digit, links);
+            for (int i = 0; i < count; i++) {
+                if (clusterOf[links[i]] == clusterId) continue;
+                clusterOf[links[i]] = clusterId;
+                color[links[i]] = 3 - color[cell];
+                cluster[size++] = links[i];
+            }
+        }
+        Arrays.sort(cluster, 0, size);
+        return size;
+    }
+
+    /**
+     * Checks whether two cells of the same color see each other, in which case that whole color is false.
+     * @param digit the digit of the cluster
+     * @param size the number of cells in the cluster
+     * @return a CandidatesHint removing the digit from the false color, or null if the colors are consistent
+     */
+    private CandidatesHint checkColorWrap(int digit, int size) {
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                int a = cluster[i], b = cluster[j];
+                if (color[a] != color[b] || !graph.sees(a, b)) continue;
+                int falseColor = color[a];
+                int count = 0;
+                for (int k = 0; k < size; k++) {
+                    if (color[cluster[k]] == falseColor) count++;
+                }
+                int[] eliminations = new int[count];
+                int index = 0;
+                for (int k = 0; k < size; k++) {
+                    int cell = cluster[k];
+                    if (color[cell] == falseColor) eliminations[index++] = candidate(cell, digit);
+                }
+                return new CandidatesHint(Hint.HintType.SIMPLE_COLORING, clusterCells(size), new int[]{digit},
+                        Hint.Scope.CHAIN, -1, eliminations, CandidatesHint.COLOR_WRAP, packed(a), packed(b));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks for cells outside the cluster holding the digit that see cells of both colors. Cells of other clusters
+     * of the digit are checked too: their own colors say nothing about this cluster.
+     * @param digit the digit of the cluster
+     * @param size the number of cells in the cluster
+     * @return a CandidatesHint removing the digit from every such cell, or null if there is none
+     */
+    private CandidatesHint checkColorTrap(int digit, int size) {
+        int count = 0;
+        for (int cell = 0; cell < graph.cellCount(); cell++) {
+            if (clusterOf[cell] == clusterId || !graph.hasCandidate(cell, digit)) continue;
+            boolean seesFirst = false, seesSecond = false;
+            for (int i = 0; i < size && !(seesFirst && seesSecond); i++) {
+                if (!graph.sees(cell, cluster[i])) continue;
+                if (color[cluster[i]] == 1) seesFirst = true;
+                else seesSecond = true;
+            }
+            if (seesFirst && seesSecond) trapped[count++] = cell;
+        }
+        if (count == 0) return null;
+        int[] eliminations = new int[count];
+        for (int i = 0; i < count; i++) {
+            eliminations[i] = candidate(trapped[i], digit);
+        }
+        return new CandidatesHint(Hint.HintType.SIMPLE_COLORING, clusterCells(size), new int[]{digit},
+                Hint.Scope.CHAIN, -1, eliminations, CandidatesHint.COLOR_TRAP);
+    }
+
+    /**
+     * Converts the current cluster into packed cells.
+     * @param size the number of cells in the cluster
+     * @return the packed cluster cells
+     */
+    private int[] clusterCells(int size) {
+        int[] cells = new int[size];
+        for (int i = 0; i < size; i++) {
+            cells[i] = packed(cluster[i]);
+        }
+        return cells;
+    }
+
+    private int packed(int cell) {
+        return Hint.cell(cell / graph.size(), cell % graph.size());
+    }
+
+    private int candidate(int cell, int digit) {
+        return Hint.candidate(cell / graph.size(), cell % graph.size(), digit);
+    }
+}
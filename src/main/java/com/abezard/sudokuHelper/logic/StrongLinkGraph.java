@@ -0,0 +1,239 @@
+package com.abezard.sudokuHelper.logic;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Topology;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Per-digit conjugate pair (strong link) graph over the cells of the board.
+ * For every digit and every unit (rows, columns and boxes) the graph keeps a mask of the
+ * positions inside the unit that still hold that digit as a candidate. A unit whose mask has exactly
+ * two bits set is a strong link between those two cells.
+ * The graph is built once for a board state and then kept up to date by eliminating candidates, so the
+ * strategies sharing it do not have to rebuild it on every hint request.
+ * The lookup tables follow the geometry of the last synced board, and are rebuilt if a board of another geometry
+ * comes in.
+ */
+public class StrongLinkGraph {
+
+    private Geometry geometry;
+    private int size;
+    private int cellCount;
+    // Units [0, size) are rows, [size, 2 * size) are columns and [2 * size, 3 * size) are boxes
+    private Topology topology; // unit cells and peers, shared with the rest of the engine
+    private int[][] cellUnits;
+    private int[][] cellPositions; // position of a cell inside each of its units
+
+    private long[] cellMasks; // bit (d - 1) is set if digit d is a candidate of the cell
+    private long[][] unitMasks; // digit -> unit -> positions holding the digit
+    private long[] scratch;
+    private boolean built = false;
+    private long version = 0; // incremented on every change, so dependent caches know when to reset
+
+    /**
+     * Constructor for StrongLinkGraph, set up for a classic 9x9 board until a board of another geometry is synced.
+     */
+    public StrongLinkGraph() {
+        initialize(Geometry.CLASSIC);
+    }
+
+    /**
+     * Builds the lookup tables and empty masks for a geometry.
+     * @param geometry the geometry of the boards the graph works on
+     */
+    private void initialize(Geometry geometry) {
+        this.geometry = geometry;
+        size = geometry.size();
+        cellCount = geometry.cellCount();
+        topology = Topology.of(geometry);
+        cellUnits = new int[cellCount][];
+        cellPositions = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int row = topology.row(cell), col = topology.col(cell);
+            cellUnits[cell] = new int[]{row, size + col, 2 * size + topology.box(cell)};
+            cellPositions[cell] = new int[]{col, row, topology.boxPosition(cell)};
+        }
+        cellMasks = new long[cellCount];
+        unitMasks = new long[size + 1][3 * size];
+        scratch = new long[cellCount];
+        built = false;
+    }
+
+    /**
+     * Brings the graph in line with the given candidates.
+     * Candidates that were removed since the last call are eliminated incrementally; the graph is only rebuilt
+     * from scratch the first time, or if candidates were added (e.g. after the user recomputed them).
+     * @param geometry the geometry of the board, whose box shape cannot be told from the size of the candidates
+     * @param candidates the candidates for each cell in the Sudoku board
+     */
+    public void sync(Geometry geometry, Set<Integer>[][] candidates) {
+        if (!geometry.equals(this.geometry)) {
+            initialize(geometry);
+        }
+        boolean rebuild = !built;
+        for (int cell = 0; cell < cellCount; cell++) {
+            long mask = 0;
+            Set<Integer> cellCandidates = candidates[cell / size][cell % size];
+            if (cellCandidates != null) {
+                for (int digit : cellCandidates) {
+                    mask |= 1L << (digit - 1);
+                }
+            }
+            if ((mask & ~cellMasks[cell]) != 0) rebuild = true; // a candidate was added
+            scratch[cell] = mask;
+        }
+        if (rebuild) {
+            rebuild(scratch);
+            return;
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            long removed = cellMasks[cell] & ~scratch[cell];
+            while (removed != 0) {
+                int bit = Long.numberOfTrailingZeros(removed);
+                eliminate(cell, bit + 1);
+                removed &= removed - 1;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the whole graph from the given per-cell candidate masks.
+     * @param masks the candidate mask of each cell, indexed by row * size + col
+     */
+    private void rebuild(long[] masks) {
+        for (int digit = 1; digit <= size; digit++) {
+            Arrays.fill(unitMasks[digit], 0);
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            cellMasks[cell] = masks[cell];
+            long mask = masks[cell];
+            while (mask != 0) {
+                int digit = Long.numberOfTrailingZeros(mask) + 1;
+                for (int i = 0; i < 3; i++) {
+                    unitMasks[digit][cellUnits[cell][i]] |= 1L << cellPositions[cell][i];
+                }
+                mask &= mask - 1;
+            }
+        }
+        built = true;
+        version++;
+    }
+
+    /**
+     * Removes a candidate from the graph, updating only the three units of the cell.
+     * @param cell the cell index (row * size + col)
+     * @param digit the candidate digit to remove (1 to size)
+     */
+    public void eliminate(int cell, int digit) {
+        long bit = 1L << (digit - 1);
+        if ((cellMasks[cell] & bit) == 0) return;
+        cellMasks[cell] &= ~bit;
+        version++;
+        for (int i = 0; i < 3; i++) {
+            unitMasks[digit][cellUnits[cell][i]] &= ~(1L << cellPositions[cell][i]);
+        }
+    }
+
+    /**
+     * Gets the geometry of the boards the graph currently works on.
+     * @return the geometry of the last synced candidates
+     */
+    public Geometry geometry() {
+        return geometry;
+    }
+
+    /**
+     * Gets the number of rows (and columns) of the board.
+     * @return the size of the board
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of cells of the board.
+     * @return size * size
+     */
+    public int cellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Checks whether a cell still holds a digit as a candidate.
+     * @param cell the cell index (row * size + col)
+     * @param digit the candidate digit (1 to size)
+     * @return true if the digit is a candidate of the cell
+     */
+    public boolean hasCandidate(int cell, int digit) {
+        return (cellMasks[cell] & (1L << (digit - 1))) != 0;
+    }
+
+    /**
+     * Gets the candidates of a cell as a mask.
+     * @param cell the cell index (row * size + col)
+     * @return a mask where bit (d - 1) is set if digit d is a candidate of the cell
+     */
+    public long candidateMask(int cell) {
+        return cellMasks[cell];
+    }
+
+    /**
+     * Gets the version of the graph, which changes every time a candidate is eliminated or the graph is rebuilt.
+     * @return the current version
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Collects the cells that are strongly linked to the given cell for a digit, i.e. the other cell of every
+     * unit of the cell in which the digit appears exactly twice.
+     * @param cell the cell index (row * size + col)
+     * @param digit the candidate digit (1 to size)
+     * @param out an array of at least 3 elements receiving the linked cells
+     * @return the number of distinct linked cells written to out
+     */
+    public int strongLinks(int cell, int digit, int[] out) {
+        int count = 0;
+        if (!hasCandidate(cell, digit)) return 0;
+        for (int i = 0; i < 3; i++) {
+            int unit = cellUnits[cell][i];
+            long mask = unitMasks[digit][unit];
+            if (Long.bitCount(mask) != 2) continue;
+            int other = topology.unitCells(unit)[Long.numberOfTrailingZeros(mask & ~(1L << cellPositions[cell][i]))];
+            boolean duplicate = false;
+            for (int j = 0; j < count; j++) {
+                if (out[j] == other) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) out[count++] = other;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the peers of a cell (20 on a classic board). The returned array is shared and must not be modified.
+     * @param cell the cell index (row * size + col)
+     * @return the cells sharing a row, column or box with the given cell
+     */
+    public int[] peers(int cell) {
+        return topology.peers(cell);
+    }
+
+    /**
+     * Checks whether two distinct cells share a row, column or box.
+     * @param a the first cell index
+     * @param b the second cell index
+     * @return true if the cells see each other
+     */
+    public boolean sees(int a, int b) {
+        if (a == b) return false;
+        return cellUnits[a][0] == cellUnits[b][0]
+                || cellUnits[a][1] == cellUnits[b][1]
+                || cellUnits[a][2] == cellUnits[b][2];
+    }
+}
@@ -0,0 +1,245 @@
+package com.abezard.sudokuHelper.logic;
+
+import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Topology;
+import com.abezard.sudokuHelper.model.Variant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class UniqueRectangleHint implements HintStrategy {
+    private Geometry geometry = Geometry.CLASSIC; // geometry of the board being searched
+    private Topology topology = Topology.of(Geometry.CLASSIC);
+    private final int[] sharedUnits = new int[3]; // the units shared by the corners with extras, see sharedUnits
+
+    /**
+     * Finds a unique rectangle in the Sudoku board candidates.
+     * Four cells forming a rectangle over exactly two boxes that could all only hold the same two digits would
+     * allow those digits to be swapped, giving two solutions. Since every generated puzzle has a unique solution,
+     * at least one of the corners must hold something else:
+     * Type 1 - three corners hold only the pair, so the pair is removed from the fourth corner.
+     * Type 2 - two corners hold only the pair and the other two hold the pair plus the same single extra digit,
+     * so that digit is removed from every cell seeing both of them.
+     * Type 3 - the extras of the other two corners form a naked pair with another cell of a unit they share,
+     * so those digits are removed from the rest of that unit.
+     * Type 4 - one digit of the pair only appears in the other two corners within a unit they share, so the
+     * other digit of the pair is removed from them.
+     * Rectangles are found by scanning, for every digit pair, the rows in which cells hold both digits,
+     * across pairs of rows and columns spanning exactly two boxes.
+     *
+     * @param board           the current state of the Sudoku board
+     * @param candidates      the candidates for each cell in the Sudoku board
+     * @param solution        the solution Sudoku board (not used in this strategy)
+     * @param candidatesGiven indicates if candidates have been provided
+     * @return a CandidatesHint indicating the unique rectangle found, or null if none exists
+     */
+    @Override
+    public CandidatesHint findHint(SudokuBoard board, Set<Integer>[][] candidates, SudokuBoard solution, boolean candidatesGiven) {
+        geometry = board.getGeometry();
+        topology = Topology.of(geometry);
+        int size = geometry.size();
+        long[][] masks = new long[size][size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                for (int digit : candidates[r][c]) {
+                    masks[r][c] |= bit(digit);
+                }
+            }
+        }
+
+        long[] rowPairMasks = new long[size]; // per row, the columns holding both digits of the pair
+        for (int a = 1; a <= size; a++) {
+            for (int b = a + 1; b <= size; b++) {
+                long pair = bit(a) | bit(b);
+                long rowsUsed = 0;
+                for (int r = 0; r < size; r++) {
+                    rowPairMasks[r] = 0;
+                    for (int c = 0; c < size; c++) {
+                        if ((masks[r][c] & pair) == pair) rowPairMasks[r] |= 1L << c;
+                    }
+                    if (Long.bitCount(rowPairMasks[r]) >= 2) rowsUsed |= 1L << r;
+                }
+                for (int r1 = 0; r1 < size; r1++) {
+                    if ((rowsUsed & (1L << r1)) == 0) continue;
+                    for (int r2 = r1 + 1; r2 < size; r2++) {
+                        long cols = rowPairMasks[r1] & rowPairMasks[r2];
+                        if ((rowsUsed & (1L << r2)) == 0 || Long.bitCount(cols) < 2) continue;
+                        boolean sameBand = r1 / geometry.boxHeight() == r2 / geometry.boxHeight();
+                        for (int c1 = 0; c1 < size; c1++) {
+                            if ((cols & (1L << c1)) == 0) continue;
+                            for (int c2 = c1 + 1; c2 < size; c2++) {
+                                if ((cols & (1L << c2)) == 0) continue;
+                                // The rectangle has to span exactly two boxes
+                                if (sameBand == (c1 / geometry.boxWidth() == c2 / geometry.boxWidth())) continue;
+                                CandidatesHint hint = checkRectangle(masks, a, b, new int[][]{{r1, c1}, {r1, c2}, {r2, c1}, {r2, c2}});
+                                if (hint != null) return hint;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks a rectangle whose four corners all hold both digits of a pair for the four types of unique rectangle.
+     * @param masks the candidate masks of every cell (bit d - 1 set for digit d)
+     * @param a the smaller digit of the pair
+     * @param b the larger digit of the pair
+     * @param corners the corners of the rectangle, in row-major order
+     * @return a CandidatesHint with the eliminations, or null if the rectangle does not eliminate anything
+     */
+    private CandidatesHint checkRectangle(long[][] masks, int a, int b, int[][] corners) {
+        long pair = bit(a) | bit(b);
+        int exactCount = 0;
+        int[] roofIndices = new int[4];
+        int roofCount = 0;
+        for (int i = 0; i < 4; i++) {
+            if (masks[corners[i][0]][corners[i][1]] == pair) exactCount++;
+            else roofIndices[roofCount++] = i;
+        }
+
+        // Type 1: only one corner has extra candidates
+        if (exactCount == 3) {
+            int[] roof = corners[roofIndices[0]];
+            return rectangleHint(corners, a, b, new int[]{Hint.candidate(roof[0], roof[1], a), Hint.candidate(roof[0], roof[1], b)}, 1);
+        }
+        if (exactCount != 2) return null;
+        int[] roof1 = corners[roofIndices[0]], roof2 = corners[roofIndices[1]];
+        boolean sameRow = roof1[0] == roof2[0], sameCol = roof1[1] == roof2[1];
+        if (!sameRow && !sameCol) return null; // the corners with extras are diagonal
+        long extra1 = masks[roof1[0]][roof1[1]] & ~pair;
+        long extra2 = masks[roof2[0]][roof2[1]] & ~pair;
+
+        // Type 2: both corners with extras share the same single extra digit
+        if (extra1 == extra2 && Long.bitCount(extra1) == 1) {
+            int extra = Long.numberOfTrailingZeros(extra1) + 1;
+            List<Integer> eliminations = new ArrayList<>();
+            for (int r = 0; r < masks.length; r++) {
+                for (int c = 0; c < masks.length; c++) {
+                    if ((masks[r][c] & extra1) == 0 || isCorner(corners, r, c)) continue;
+                    if (sees(r, c, roof1) && sees(r, c, roof2)) eliminations.add(Hint.candidate(r, c, extra));
+                }
+            }
+            if (!eliminations.isEmpty()) {
+                return rectangleHint(corners, a, b, toArray(eliminations), 2, extra);
+            }
+        }
+
+        // Type 3: the extras act as one cell forming a naked pair with another cell of a shared unit
+        long extras = extra1 | extra2;
+        int shared = sharedUnits(roof1, roof2);
+        if (Long.bitCount(extras) == 2) {
+            for (int u = 0; u < shared; u++) {
+                int[] unit = topology.unitCells(sharedUnits[u]);
+                for (int cell : unit) {
+                    int r = topology.row(cell), c = topology.col(cell);
+                    if (isCorner(corners, r, c) || masks[r][c] != extras) continue;
+                    List<Integer> eliminations = new ArrayList<>();
+                    for (int other : unit) {
+                        int otherRow = topology.row(other), otherCol = topology.col(other);
+                        if (other == cell || isCorner(corners, otherRow, otherCol)) continue;
+                        for (long bits = masks[otherRow][otherCol] & extras; bits != 0; bits &= bits - 1) {
+                            eliminations.add(Hint.candidate(otherRow, otherCol, Long.numberOfTrailingZeros(bits) + 1));
+                        }
+                    }
+                    if (!eliminations.isEmpty()) {
+                        int x = Long.numberOfTrailingZeros(extras) + 1, y = 64 - Long.numberOfLeadingZeros(extras);
+                        return rectangleHint(corners, a, b, toArray(eliminations), 3, x, y, Hint.cell(r, c));
+                    }
+                }
+            }
+        }
+
+        // Type 4: one digit of the pair is confined to the two corners with extras in a shared unit
+        for (int u = 0; u < shared; u++) {
+            int[] unit = topology.unitCells(sharedUnits[u]);
+            for (int digit : new int[]{a, b}) {
+                boolean confined = true;
+                for (int cell : unit) {
+                    int r = topology.row(cell), c = topology.col(cell);
+                    if ((r == roof1[0] && c == roof1[1]) || (r == roof2[0] && c == roof2[1])) continue;
+                    if ((masks[r][c] & bit(digit)) != 0) {
+                        confined = false;
+                        break;
+                    }
+                }
+                if (!confined) continue;
+                int other = digit == a ? b : a;
+                return rectangleHint(corners, a, b,
+                        new int[]{Hint.candidate(roof1[0], roof1[1], other), Hint.candidate(roof2[0], roof2[1], other)}, 4, digit, other);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lists the units (row, column and box) shared by two cells in sharedUnits, as unit indexes of the topology.
+     * @param cell1 the first cell, as {row, col}
+     * @param cell2 the second cell, as {row, col}
+     * @return the number of shared units
+     */
+    private int sharedUnits(int[] cell1, int[] cell2) {
+        int size = geometry.size(), count = 0;
+        if (cell1[0] == cell2[0]) sharedUnits[count++] = cell1[0];
+        if (cell1[1] == cell2[1]) sharedUnits[count++] = size + cell1[1];
+        int box = geometry.boxOf(cell1[0], cell1[1]);
+        if (box == geometry.boxOf(cell2[0], cell2[1])) sharedUnits[count++] = 2 * size + box;
+        return count;
+    }
+
+    private boolean isCorner(int[][] corners, int row, int col) {
+        for (int[] corner : corners) {
+            if (corner[0] == row && corner[1] == col) return true;
+        }
+        return false;
+    }
+
+    private boolean sees(int row, int col, int[] cell) {
+        if (row == cell[0] && col == cell[1]) return false;
+        return row == cell[0] || col == cell[1] || geometry.boxOf(row, col) == geometry.boxOf(cell[0], cell[1]);
+    }
+
+    private static long bit(int digit) {
+        return 1L << (digit - 1);
+    }
+
+    /**
+     * Builds the hint for a unique rectangle.
+     * @param corners the corners of the rectangle
+     * @param a the smaller digit of the pair
+     * @param b the larger digit of the pair
+     * @param eliminations the eliminated candidates, packed
+     * @param type the unique rectangle type (1-4)
+     * @param context what the explanation of the type refers to: the extra digit (type 2), the extra digits and the
+     *                packed cell of the naked pair (type 3), or the confined digit and the removed one (type 4)
+     * @return a CandidatesHint describing the unique rectangle
+     */
+    private CandidatesHint rectangleHint(int[][] corners, int a, int b, int[] eliminations, int type, int... context) {
+        int[] cells = new int[corners.length];
+        for (int i = 0; i < corners.length; i++) cells[i] = Hint.cell(corners[i][0], corners[i][1]);
+        return new CandidatesHint(Hint.HintType.UNIQUE_RECTANGLE, cells, new int[]{a, b}, Hint.Scope.RECTANGLE, -1,
+                eliminations, type, context);
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) array[i] = values.get(i);
+        return array;
+    }
+
+    /**
+     * The deadly pattern is only deadly when nothing but rows, columns and boxes tells its two solutions apart.
+     * @param variant the variant of the puzzle
+     * @return true for classic puzzles only
+     */
+    @Override
+    public boolean supports(Variant variant) {
+        return variant.isClassic();
+    }
+}
@@ -0,0 +1,153 @@
+package com.abezard.sudokuHelper.logic;
+
+import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+
+import java.util.Set;
+
+public class XChainHint implements HintStrategy {
+    public static final int DEFAULT_MAX_LENGTH = 7;
+
+    private final StrongLinkGraph graph;
+    private final int maxLength;
+
+    // Reusable search buffers
+    private final int[] chain;
+    private boolean[] onChain = new boolean[0];
+    private int[] targets = new int[0];
+    private final int[][] links;
+
+    /**
+     * Constructor for XChainHint, using the default maximum chain length.
+     * @param graph the strong link graph shared with the other chaining strategies
+     */
+    public XChainHint(StrongLinkGraph graph) {
+        this(graph, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Constructor for XChainHint.
+     * @param graph the strong link graph shared with the other chaining strategies
+     * @param maxLength the maximum number of links in a chain (odd, at least 3)
+     */
+    public XChainHint(StrongLinkGraph graph, int maxLength) {
+        if (maxLength < 3) {
+            throw new IllegalArgumentException("An X-Chain needs at least 3 links.");
+        }
+        this.graph = graph;
+        this.maxLength = maxLength;
+        this.chain = new int[maxLength + 1];
+        this.links = new int[maxLength + 1][3];
+    }
+
+    /**
+     * Finds an X-Chain in the Sudoku board candidates.
+     * An X-Chain is a chain of cells for one digit that alternates between strong links (the digit must be in one
+     * of the two cells) and weak links (the digit can be in at most one of the two cells), starting and ending
+     * with a strong link. One of the two ends must hold the digit, so any cell that sees both ends cannot.
+     * Chains are searched from the shortest to the longest, up to the configured maximum length.
+     *
+     * @param board           the current state of the Sudoku board
+     * @param candidates      the candidates for each cell in the Sudoku board
+     * @param solution        the solution Sudoku board (not used in this strategy)
+     * @param candidatesGiven indicates if candidates have been provided
+     * @return a CandidatesHint describing the chain and its eliminations, or null if no chain eliminates anything
+     */
+    @Override
+    public CandidatesHint findHint(SudokuBoard board, Set<Integer>[][] candidates, SudokuBoard solution, boolean candidatesGiven) {
+        graph.sync(board.getGeometry(), candidates);
+        if (onChain.length != graph.cellCount()) {
+            onChain = new boolean[graph.cellCount()];
+            targets = new int[graph.cellCount()];
+        }
+        for (int length = 3; length <= maxLength; length += 2) {
+            for (int digit = 1; digit <= graph.size(); digit++) {
+                for (int start = 0; start < graph.cellCount(); start++) {
+                    if (!graph.hasCandidate(start, digit)) continue;
+                    chain[0] = start;
+                    onChain[start] = true;
+                    CandidatesHint hint = extendWithStrongLink(digit, 0, length);
+                    onChain[start] = false;
+                    if (hint != null) return hint;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Extends the chain ending at chain[depth] with a strong link, and checks for eliminations once the chain
+     * reaches the target length.
+     * @param digit the digit of the chain
+     * @param depth the index of the current end of the chain
+     * @param length the exact number of links the chain should have
+     * @return a CandidatesHint if a productive chain was found, or null otherwise
+     */
+    private CandidatesHint extendWithStrongLink(int digit, int depth, int length) {
+        int count = graph.strongLinks(chain[depth], digit, links[depth]);
+        for (int i = 0; i < count; i++) {
+            int next = links[depth][i];
+            if (onChain[next]) continue;
+            chain[depth + 1] = next;
+            onChain[next] = true;
+            CandidatesHint hint = depth + 1 == length
+                    ? checkEliminations(digit, length)
+                    : extendWithWeakLink(digit, depth + 1, length);
+            onChain[next] = false;
+            if (hint != null) return hint;
+        }
+        return null;
+    }
+
+    /**
+     * Extends the chain ending at chain[depth] with a weak link to any peer holding the digit, followed by a
+     * strong link out of that peer.
+     * @param digit the digit of the chain
+     * @param depth the index of the current end of the chain
+     * @param length the exact number of links the chain should have
+     * @return a CandidatesHint if a productive chain was found, or null otherwise
+     */
+    private CandidatesHint extendWithWeakLink(int digit, int depth, int length) {
+        int end = chain[depth];
+        for (int next : graph.peers(end)) {
+            if (onChain[next] || !graph.hasCandidate(next, digit)) continue;
+            chain[depth + 1] = next;
+            onChain[next] = true;
+            CandidatesHint hint = extendWithStrongLink(digit, depth + 1, length);
+            onChain[next] = false;
+            if (hint != null) return hint;
+        }
+        return null;
+    }
+
+    /**
+     * Collects the cells outside the chain that see both of its ends and still hold the digit.
+     * @param digit the digit of the chain
+     * @param length the number of links in the chain
+     * @return a CandidatesHint with the eliminations, or null if the chain does not eliminate anything
+     */
+    private CandidatesHint checkEliminations(int digit, int length) {
+        int first = chain[0], last = chain[length];
+        int count = 0;
+        for (int cell = 0; cell < graph.cellCount(); cell++) {
+            if (onChain[cell] || !graph.hasCandidate(cell, digit)) continue;
+            if (graph.sees(cell, first) && graph.sees(cell, last)) {
+                targets[count++] = cell;
+            }
+        }
+        if (count == 0) return null;
+
+        int size = graph.size();
+        int[] cells = new int[length + 1];
+        for (int i = 0; i <= length; i++) {
+            cells[i] = Hint.cell(chain[i] / size, chain[i] % size);
+        }
+        int[] eliminations = new int[count];
+        for (int i = 0; i < count; i++) {
+            eliminations[i] = Hint.candidate(targets[i] / size, targets[i] % size, digit);
+        }
+        // the explanation names the two ends, the first and last cells
+        return new CandidatesHint(Hint.HintType.X_CHAIN, cells, new int[]{digit}, Hint.Scope.CHAIN, -1, eliminations);
+    }
+}
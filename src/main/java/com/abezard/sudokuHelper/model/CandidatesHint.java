@@ -1,37 +1,90 @@
 package com.abezard.sudokuHelper.model;
 
-import java.util.Set;
+import java.util.Arrays;
 
 public class CandidatesHint extends Hint {
 
-    private final int[][] cells; // { {row1, col1}, {row2, col2}, ... }
-    private final int[] candidates;
-    private final String scope; // "row", "column", "box"
-    private final Set<Integer>[][] multipleCandidates; // Set of candidates for multiple cells, if needed
+    // Forms of the techniques found in several forms; a unique rectangle gives its type (1 to 4) instead
+    public static final int CANDIDATES_COMPUTED = 0; // all candidates, asked for
+    public static final int CANDIDATES_CORRECTED = 1; // all candidates, recomputed after a wrong candidate was found
+    public static final int COLOR_TRAP = 0; // a cell sees both colors, context: none
+    public static final int COLOR_WRAP = 1; // two cells of a color see each other, context: the two packed cells
+    public static final int CELL_FORCING = 0; // every candidate of a cell rules out the same candidates, context: none
+    public static final int CONTRADICTION = 1; // a candidate leads to a contradiction, context: the packed broken cell
 
-    public CandidatesHint(HintType type, int[][] cells, int[] candidates, Set<Integer>[][] multipleCandidates, String scope, String explanation) {
-        super(type, cells[0][0], cells[0][1], 0, explanation);
+    private final int[] cells; // packed cells (see Hint.cell) highlighted by the hint
+    private final int[] digits; // the digits of the pattern, in increasing order
+    private final int[] eliminations; // packed candidates (see Hint.candidate) removed by the hint, if any
+    private final int pattern; // the form of the technique, see above
+    private final int[] context; // packed cells or digits the explanation refers to, depending on the form
+    private final long[] candidateMasks; // ALL_CANDIDATES only: the candidates of every cell, row-major, bit d - 1 for digit d
+
+    public CandidatesHint(HintType type, int[] cells, int[] digits, Scope scope, int unit) {
+        this(type, cells, digits, scope, unit, new int[0], 0);
+    }
+
+    public CandidatesHint(HintType type, int[] cells, int[] digits, Scope scope, int unit, int[] eliminations) {
+        this(type, cells, digits, scope, unit, eliminations, 0);
+    }
+
+    /**
+     * Constructor for CandidatesHint.
+     * @param type the type of the hint
+     * @param cells the packed cells highlighted by the hint, the first one giving the row and column of the hint
+     * @param digits the digits of the pattern
+     * @param scope where the hint was found
+     * @param unit the row or column index for a line, the packed top-left cell for a box, -1 otherwise
+     * @param eliminations the packed candidates removed by the hint
+     * @param pattern the form of the technique
+     * @param context the packed cells or digits the explanation of that form refers to
+     */
+    public CandidatesHint(HintType type, int[] cells, int[] digits, Scope scope, int unit, int[] eliminations,
+                          int pattern, int... context) {
+        super(type, rowOf(cells[0]), colOf(cells[0]), 0, scope, unit);
         this.cells = cells;
-        this.candidates = candidates;
-        this.scope = scope;
-        this.multipleCandidates = multipleCandidates;
+        this.digits = digits;
+        this.eliminations = eliminations;
+        this.pattern = pattern;
+        this.context = context;
+        this.candidateMasks = null;
+    }
+
+    /**
+     * Constructor for a hint giving the candidates of every cell.
+     * @param candidateMasks the candidates of every cell, row-major, bit d - 1 set for digit d
+     * @param pattern CANDIDATES_COMPUTED or CANDIDATES_CORRECTED
+     */
+    public CandidatesHint(long[] candidateMasks, int pattern) {
+        super(HintType.ALL_CANDIDATES, -1, -1, 0, Scope.BOARD, -1);
+        this.cells = new int[0];
+        this.digits = new int[0];
+        this.eliminations = new int[0];
+        this.pattern = pattern;
+        this.context = new int[0];
+        this.candidateMasks = candidateMasks;
     }
 
     /**
      * Getter methods to access the properties of the CandidatesHint.
      * @return the respective properties of the CandidatesHint.
      */
-    public int[][] getCellCoordinates() {
+    public int[] getCells() {
         return cells;
     }
-    public int[] getCandidates() {
-        return candidates;
+    public int[] getDigits() {
+        return digits;
+    }
+    public int[] getEliminations() {
+        return eliminations;
     }
-    public String getScope() {
-        return scope;
+    public int getPattern() {
+        return pattern;
     }
-    public Set<Integer>[][] getMultipleCandidates() {
-        return  multipleCandidates;
+    public int[] getContext() {
+        return context;
+    }
+    public long[] getCandidateMasks() {
+        return candidateMasks;
     }
 
     @Override
@@ -39,15 +92,20 @@ public class CandidatesHint extends Hint {
         if (this == o) return true;
         if (!(o instanceof CandidatesHint that)) return false;
         if (!super.equals(o)) return false;
+        return pattern == that.pattern &&
+                Arrays.equals(cells, that.cells) &&
+                Arrays.equals(digits, that.digits) &&
+                Arrays.equals(eliminations, that.eliminations) &&
+                Arrays.equals(context, that.context) &&
+                Arrays.equals(candidateMasks, that.candidateMasks);
+    }
 
-        if (cells.length != that.cells.length || candidates.length != that.candidates.length) return false;
-
-        for (int i = 0; i < cells.length; i++) {
-            if (cells[i][0] != that.cells[i][0] || cells[i][1] != that.cells[i][1]) return false;
-        }
-        for (int i = 0; i < candidates.length; i++) {
-            if (candidates[i] != that.candidates[i]) return false;
-        }
-        return scope.equals(that.scope);
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + Arrays.hashCode(cells);
+        result = 31 * result + Arrays.hashCode(digits);
+        result = 31 * result + Arrays.hashCode(eliminations);
+        return result;
     }
 }
@@ -0,0 +1,30 @@
+package com.abezard.sudokuHelper.model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A rule of a Sudoku variant, on top of the classic row, column and box rule.
+ * A constraint registers what it adds to a UnitIndex.Builder: units (groups of cells holding every value once),
+ * cages (groups of cells holding distinct values that add up to a sum) and restrictions on the values of single cells.
+ * The index is compiled once per variant, so solvers and generators only read flat arrays while searching.
+ */
+public interface Constraint {
+
+    /**
+     * Registers the units, cages and cell restrictions of this constraint.
+     * @param builder the builder of the unit index, which also gives the geometry of the board
+     */
+    void register(UnitIndex.Builder builder);
+
+    /**
+     * Builds the constraint for a specific puzzle from its solution. Rules that only depend on the shape of the
+     * board (diagonals, windows) return themselves; rules whose data comes from the solution (killer cage sums,
+     * even/odd cells) are templates that produce the actual constraint here.
+     * @param solution the solved board the puzzle is made from
+     * @param random the source of randomness used to lay out the constraint
+     * @return the constraint to use for that puzzle
+     */
+    default Constraint derive(SudokuBoard solution, RandomGenerator random) {
+        return this;
+    }
+}
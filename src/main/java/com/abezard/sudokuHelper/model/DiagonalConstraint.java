@@ -0,0 +1,35 @@
+package com.abezard.sudokuHelper.model;
+
+/**
+ * X-Sudoku rule: both main diagonals hold every value once.
+ */
+public final class DiagonalConstraint implements Constraint {
+
+    @Override
+    public void register(UnitIndex.Builder builder) {
+        int size = builder.geometry().size();
+        int[] main = new int[size];
+        int[] anti = new int[size];
+        for (int i = 0; i < size; i++) {
+            main[i] = i * size + i;
+            anti[i] = i * size + (size - 1 - i);
+        }
+        builder.addUnit(main);
+        builder.addUnit(anti);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DiagonalConstraint;
+    }
+
+    @Override
+    public int hashCode() {
+        return DiagonalConstraint.class.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "diagonals";
+    }
+}
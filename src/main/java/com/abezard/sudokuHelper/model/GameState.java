@@ -0,0 +1,43 @@
+package com.abezard.sudokuHelper.model;
+
+/**
+ * Everything needed to resume a game: the givens of the puzzle, the values and pencil marks entered so far, and the
+ * solution. The three boards share the variant of the puzzle.
+ */
+public final class GameState {
+    private final SudokuBoard givens;
+    private final SudokuBoard current;
+    private final SudokuBoard solution;
+
+    /**
+     * Constructor for GameState.
+     * @param givens the puzzle as generated, with only its given values
+     * @param current the values and candidate masks of the game in progress, givens included
+     * @param solution the solution of the puzzle
+     * @throws IllegalArgumentException if the boards do not follow the same variant
+     */
+    public GameState(SudokuBoard givens, SudokuBoard current, SudokuBoard solution) {
+        if (!givens.getVariant().equals(current.getVariant()) || !givens.getVariant().equals(solution.getVariant())) {
+            throw new IllegalArgumentException("The boards of a game must follow the same variant.");
+        }
+        this.givens = givens;
+        this.current = current;
+        this.solution = solution;
+    }
+
+    public SudokuBoard givens() {
+        return givens;
+    }
+
+    public SudokuBoard current() {
+        return current;
+    }
+
+    public SudokuBoard solution() {
+        return solution;
+    }
+
+    public Variant variant() {
+        return givens.getVariant();
+    }
+}
@@ -0,0 +1,119 @@
+package com.abezard.sudokuHelper.model;
+
+/**
+ * Describes the shape of a Sudoku board: boxes of boxHeight x boxWidth cells, and a board of
+ * size x size cells where size = boxHeight * boxWidth. Values go from 1 to size, so that candidates of a
+ * cell fit in a long mask (bit d - 1 for value d) for sizes up to 64.
+ */
+public final class Geometry {
+    public static final Geometry MINI = new Geometry(2, 2);
+    public static final Geometry CLASSIC = new Geometry(3, 3);
+    public static final Geometry LARGE = new Geometry(4, 4);
+    public static final Geometry HUGE = new Geometry(5, 5);
+    public static final int MAX_SIZE = 64;
+
+    private final int boxHeight;
+    private final int boxWidth;
+    private final int size;
+
+    /**
+     * Constructor for Geometry.
+     * @param boxHeight the number of rows in a box
+     * @param boxWidth the number of columns in a box
+     * @throws IllegalArgumentException if a dimension is not positive or the board would hold more than 64 values.
+     */
+    public Geometry(int boxHeight, int boxWidth) {
+        if (boxHeight < 1 || boxWidth < 1 || boxHeight * boxWidth > MAX_SIZE) {
+            throw new IllegalArgumentException("Box dimensions must be positive and hold at most " + MAX_SIZE + " values.");
+        }
+        this.boxHeight = boxHeight;
+        this.boxWidth = boxWidth;
+        this.size = boxHeight * boxWidth;
+    }
+
+    /**
+     * Finds the geometry of a board from its size, using the most square boxes possible (e.g. 3x3 for 9, 2x3 for 6).
+     * @param size the number of rows (and columns) of the board
+     * @return the geometry of a board of that size
+     * @throws IllegalArgumentException if no box shape fits the size.
+     */
+    public static Geometry ofSize(int size) {
+        if (size == 9) return CLASSIC;
+        for (int height = (int) Math.sqrt(size); height >= 1; height--) {
+            if (size % height == 0 && (height > 1 || size == 1)) {
+                return new Geometry(height, size / height);
+            }
+        }
+        throw new IllegalArgumentException("No box shape fits a board of size " + size + ".");
+    }
+
+    /**
+     * Getters for the dimensions of the board.
+     * @return the respective dimension
+     */
+    public int boxHeight() {
+        return boxHeight;
+    }
+    public int boxWidth() {
+        return boxWidth;
+    }
+    public int size() {
+        return size;
+    }
+    public int cellCount() {
+        return size * size;
+    }
+
+    /**
+     * Gets the mask holding every value of the board.
+     * @return a mask with bits 0 to size - 1 set
+     */
+    public long allValues() {
+        return size == 64 ? -1L : (1L << size) - 1;
+    }
+
+    /**
+     * Gets the box containing a cell. Boxes are numbered in row-major order.
+     * @param row the row index of the cell
+     * @param col the column index of the cell
+     * @return the box index (0 to size - 1)
+     */
+    public int boxOf(int row, int col) {
+        return (row / boxHeight) * boxHeight + col / boxWidth;
+    }
+
+    /**
+     * Gets the first row of a box.
+     * @param box the box index
+     * @return the row index of the top row of the box
+     */
+    public int boxStartRow(int box) {
+        return (box / boxHeight) * boxHeight;
+    }
+
+    /**
+     * Gets the first column of a box.
+     * @param box the box index
+     * @return the column index of the leftmost column of the box
+     */
+    public int boxStartCol(int box) {
+        return (box % boxHeight) * boxWidth;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Geometry that)) return false;
+        return boxHeight == that.boxHeight && boxWidth == that.boxWidth;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * boxHeight + boxWidth;
+    }
+
+    @Override
+    public String toString() {
+        return size + "x" + size + " (" + boxHeight + "x" + boxWidth + " boxes)";
+    }
+}
@@ -1,5 +1,7 @@
 package com.abezard.sudokuHelper.model;
 
+import java.util.Locale;
+
 public class Hint{
     public enum HintType {
         ALREADY_SOLVED, // The Sudoku puzzle is already solved
@@ -11,32 +13,62 @@ public class Hint{
         NAKED_PAIR, // Two cells in a unit share the same two candidates - Since both cells can only have the same two digits, we can eliminate those candidates from other cells in that unit
         HIDDEN_PAIR, // Two digits only appear in the same two cells in a unit - we can eliminate those candidates from other cells in that unit
         POINTING_PAIR, // Candidate confined to a row/col inside a box — eliminate from rest of that row/col;
+        BOX_LINE_REDUCTION, // Candidate confined to a box inside a row/col - eliminate from rest of that box
+        UNIQUE_RECTANGLE, // Four cells over two boxes that would otherwise allow two solutions - the uniqueness of the solution removes candidates
+        BUG_PLUS_ONE, // All unsolved cells are bivalue except one - that cell must hold the digit that would otherwise allow two solutions
+        SIMPLE_COLORING, // Conjugate pairs of one digit colored in two alternating colors - a color that contradicts itself is false, and cells seeing both colors cannot hold the digit
+        X_CHAIN, // Alternating chain of strong and weak links on one digit - cells seeing both ends of the chain cannot hold the digit
+        FORCING_CHAIN, // Following the implications of a candidate (or of every candidate of a cell) leads to a contradiction or to a common conclusion
+        SEARCH_BUDGET_EXCEEDED, // The chain search ran out of its node or time budget before finding a hint
+    }
+
+    /**
+     * Where a hint was found: the unit holding its pattern, or the shape of the cells it involves.
+     */
+    public enum Scope {
+        CELL, ROW, COLUMN, BOX, RECTANGLE, CHAIN, BOARD
     }
+
     private final int row;
     private final int col;
     private final int value; // The value related to the hint, e.g., candidate digit
-    private final String explanation;
     private final HintType type;
+    private final Scope scope;
+    private final int unit; // The row or column index, or the packed top-left cell of a box, -1 for the other scopes
+
+    /**
+     * Constructor for a Hint about a single cell.
+     * @param type  the type of the hint
+     * @param row   the row of the cell related to the hint
+     * @param col   the column of the cell related to the hint
+     * @param value the value related to the hint (e.g., candidate digit)
+     */
+    public Hint(HintType type, int row, int col, int value) {
+        this(type, row, col, value, Scope.CELL, -1);
+    }
 
     /**
      * Constructor for Hint.
-     * @param type        the type of the hint
-     * @param row         the row of the cell related to the hint
-     * @param col         the column of the cell related to the hint
-     * @param value       the value related to the hint (e.g., candidate digit)
-     * @param explanation a brief explanation of the hint
+     * @param type  the type of the hint
+     * @param row   the row of the cell related to the hint
+     * @param col   the column of the cell related to the hint
+     * @param value the value related to the hint (e.g., candidate digit)
+     * @param scope where the hint was found
+     * @param unit  the row or column index for a line, the packed top-left cell (see {@link #cell}) for a box,
+     *              -1 otherwise
      */
-    public Hint(HintType type, int row, int col, int value, String explanation) {
+    public Hint(HintType type, int row, int col, int value, Scope scope, int unit) {
         this.row = row;
         this.col = col;
         this.value = value;
-        this.explanation = explanation;
         this.type = type;
+        this.scope = scope;
+        this.unit = unit;
     }
 
     /**
      * Getters for the properties of the hint.
-     * These methods allow access to the row, column, value, explanation, and type of
+     * These methods allow access to the row, column, value, type, scope and unit of the hint
      * @return the respective property
      */
     public int row() {
@@ -48,12 +80,67 @@ public class Hint{
     public int value() {
         return value;
     }
-    public String explanation() {
-        return explanation;
-    }
     public HintType type() {
         return type;
     }
+    public Scope scope() {
+        return scope;
+    }
+    public int unit() {
+        return unit;
+    }
+
+    /**
+     * Renders the explanation of the hint in the language of the default locale.
+     * @return a brief explanation of the hint
+     */
+    public String explanation() {
+        return explanation(Locale.getDefault());
+    }
+
+    /**
+     * Renders the explanation of the hint. Hints only hold numbers, the text is built from the message templates
+     * when it is asked for.
+     * @param locale the language of the explanation
+     * @return a brief explanation of the hint
+     */
+    public String explanation(Locale locale) {
+        return HintMessages.of(locale).explain(this);
+    }
+
+    /**
+     * Packs the coordinates of a cell into one int, independent of the size of the board.
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the packed cell
+     */
+    public static int cell(int row, int col) {
+        return row << 8 | col;
+    }
+    public static int rowOf(int cell) {
+        return cell >>> 8 & 0xFF;
+    }
+    public static int colOf(int cell) {
+        return cell & 0xFF;
+    }
+
+    /**
+     * Packs a candidate, a digit in a cell, into one int.
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @param digit the digit
+     * @return the packed candidate, whose cell is given by {@link #cellOf} and digit by {@link #digitOf}
+     */
+    public static int candidate(int row, int col, int digit) {
+        return cell(row, col) << 8 | digit;
+    }
+    public static int cellOf(int candidate) {
+        return candidate >>> 8;
+    }
+    public static int digitOf(int candidate) {
+        return candidate & 0xFF;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -62,7 +149,8 @@ public class Hint{
                 col == hint.col &&
                 value == hint.value &&
                 type == hint.type &&
-                explanation.equals(hint.explanation);
+                scope == hint.scope &&
+                unit == hint.unit;
     }
 
     @Override
@@ -70,8 +158,9 @@ public class Hint{
         int result = row;
         result = 31 * result + col;
         result = 31 * result + value;
-        result = 31 * result + explanation.hashCode();
         result = 31 * result + type.hashCode();
+        result = 31 * result + scope.hashCode();
+        result = 31 * result + unit;
         return result;
     }
-}
\ No newline at end of file
+}
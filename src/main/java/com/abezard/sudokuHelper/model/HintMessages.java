@@ -0,0 +1,143 @@
+package com.abezard.sudokuHelper.model;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+/**
+ * Renders the texts of hints from the message templates of the hints bundle (messages/hints*.properties), in the
+ * language of a locale. A hint only carries its technique, unit, digits and cells as ints, so the strategies do no
+ * string work while searching; the explanation is built from those when the hint is shown.
+ * Templates are MessageFormat patterns. A locale without a bundle of its own gets the English base bundle, never the
+ * bundle of the default locale.
+ */
+public final class HintMessages {
+    private static final String BUNDLE = "messages.hints";
+    private static final ResourceBundle.Control CONTROL =
+            ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES);
+
+    private final ResourceBundle bundle;
+    private final Locale locale;
+
+    private HintMessages(Locale locale) {
+        this.bundle = ResourceBundle.getBundle(BUNDLE, locale, CONTROL); // bundles are cached by ResourceBundle
+        this.locale = locale;
+    }
+
+    /**
+     * Gets the messages of a locale.
+     * @param locale the language of the texts
+     * @return the messages
+     */
+    public static HintMessages of(Locale locale) {
+        return new HintMessages(locale);
+    }
+
+    /**
+     * Formats a message of the bundle.
+     * @param key the key of the template
+     * @param args the values of its placeholders
+     * @return the text
+     */
+    public String text(String key, Object... args) {
+        return new MessageFormat(bundle.getString(key), locale).format(args);
+    }
+
+    /**
+     * Describes a cell, e.g. "(row: 1, col: 2)".
+     * @param cell the packed cell
+     * @return the text
+     */
+    public String cell(int cell) {
+        return text("cell", Hint.rowOf(cell) + 1, Hint.colOf(cell) + 1);
+    }
+
+    /**
+     * Gets the name of a technique, e.g. "naked pair".
+     * @param type the type of a hint
+     * @return the name
+     */
+    public String technique(Hint.HintType type) {
+        return text("technique." + type);
+    }
+
+    /**
+     * Builds the explanation of a hint.
+     * @param hint the hint
+     * @return a brief explanation of the hint
+     */
+    public String explain(Hint hint) {
+        String key = "hint." + hint.type();
+        return switch (hint.type()) {
+            case LAST_CANDIDATE, BUG_PLUS_ONE -> text(key, hint.value());
+            case HIDDEN_SINGLE -> text(key + "." + hint.scope(), hint.unit() + 1);
+            case ALL_CANDIDATES -> text(key + "." + ((CandidatesHint) hint).getPattern());
+            case NAKED_PAIR, HIDDEN_PAIR, POINTING_PAIR, BOX_LINE_REDUCTION ->
+                    explainSubset(key, (CandidatesHint) hint);
+            case UNIQUE_RECTANGLE -> explainRectangle(key, (CandidatesHint) hint);
+            case SIMPLE_COLORING -> {
+                CandidatesHint h = (CandidatesHint) hint;
+                int digit = h.getDigits()[0];
+                String reason = h.getPattern() == CandidatesHint.COLOR_WRAP
+                        ? text(key + ".wrap", cell(h.getContext()[0]), cell(h.getContext()[1]), digit)
+                        : text(key + ".trap", digit);
+                yield text(key, digit, reason);
+            }
+            case X_CHAIN -> {
+                CandidatesHint h = (CandidatesHint) hint;
+                int[] cells = h.getCells();
+                yield text(key, h.getDigits()[0], cell(cells[0]), cell(cells[cells.length - 1]));
+            }
+            case FORCING_CHAIN -> {
+                CandidatesHint h = (CandidatesHint) hint;
+                yield h.getPattern() == CandidatesHint.CONTRADICTION
+                        ? text(key + ".contradiction", h.getDigits()[0], cell(h.getCells()[0]), cell(h.getContext()[0]))
+                        : text(key + ".cell", Arrays.toString(h.getDigits()), cell(h.getCells()[0]));
+            }
+            case SEARCH_BUDGET_EXCEEDED -> {
+                SearchBudgetHint h = (SearchBudgetHint) hint;
+                yield text(key, h.getNodesExplored(), h.getStartsCompleted(), h.getStartsTotal(), h.getElapsedMillis());
+            }
+            default -> text(key);
+        };
+    }
+
+    /**
+     * Builds the explanation of a pair or of a box/line intersection, whose template depends on the unit.
+     */
+    private String explainSubset(String key, CandidatesHint hint) {
+        int[] digits = hint.getDigits();
+        String scopeKey = key + "." + hint.scope();
+        return switch (hint.type()) {
+            case NAKED_PAIR -> text(scopeKey, hint.unit() + 1, Arrays.toString(digits));
+            case HIDDEN_PAIR -> text(key, Arrays.toString(digits), unit(hint));
+            default -> text(scopeKey, digits[0], hint.unit() + 1, cell(hint.getContext()[0]));
+        };
+    }
+
+    /**
+     * Builds the explanation of a unique rectangle: the deadly pattern, then the reason of its type.
+     */
+    private String explainRectangle(String key, CandidatesHint hint) {
+        int a = hint.getDigits()[0], b = hint.getDigits()[1];
+        int[] context = hint.getContext();
+        String typeKey = key + "." + hint.getPattern();
+        String reason = switch (hint.getPattern()) {
+            case 1 -> text(typeKey, a, b);
+            case 2 -> text(typeKey, context[0]);
+            case 3 -> text(typeKey, context[0], context[1], cell(context[2]));
+            default -> text(typeKey, context[0], context[1]);
+        };
+        return text(key, hint.getPattern(), a, b, reason);
+    }
+
+    /**
+     * Describes the unit of a hint, e.g. "row 1" or "box (row: 4, col: 1)".
+     */
+    private String unit(Hint hint) {
+        return hint.scope() == Hint.Scope.BOX
+                ? text("unit.BOX", cell(hint.unit()))
+                : text("unit." + hint.scope(), hint.unit() + 1);
+    }
+}
@@ -0,0 +1,134 @@
+package com.abezard.sudokuHelper.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Killer rule: the board is split into cages of orthogonally connected cells, each holding distinct values that
+ * add up to the sum of the cage. Without cages this is a template, which lays out random cages of two to four cells
+ * over a solution.
+ */
+public final class KillerCages implements Constraint {
+    private static final int MIN_CAGE = 2;
+    private static final int MAX_CAGE = 4;
+
+    private final int[][] cages;
+    private final int[] sums;
+
+    /**
+     * Creates the template, whose cages are laid out when a puzzle is made.
+     */
+    public KillerCages() {
+        this(new int[0][], new int[0]);
+    }
+
+    /**
+     * Creates the rule for given cages.
+     * @param cages the cell indices (row * size + col) of each cage
+     * @param sums the sum of each cage
+     */
+    public KillerCages(int[][] cages, int[] sums) {
+        if (cages.length != sums.length) {
+            throw new IllegalArgumentException("Every cage needs exactly one sum.");
+        }
+        this.cages = Arrays.stream(cages).map(int[]::clone).toArray(int[][]::new);
+        this.sums = sums.clone();
+    }
+
+    @Override
+    public void register(UnitIndex.Builder builder) {
+        for (int cage = 0; cage < cages.length; cage++) {
+            builder.addCage(sums[cage], cages[cage]);
+        }
+    }
+
+    /**
+     * Lays out cages over the solution: from each cell not yet caged, a cage grows into random free neighbours
+     * as long as their values are not already in it.
+     * @param solution the solved board the puzzle is made from
+     * @param random the source of randomness used to lay out the cages
+     * @return the rule with its cages, or this rule if it already has cages
+     */
+    @Override
+    public Constraint derive(SudokuBoard solution, RandomGenerator random) {
+        if (cages.length > 0) return this;
+        int size = solution.getSize();
+        boolean[] caged = new boolean[size * size];
+        List<int[]> cageList = new ArrayList<>();
+        List<Integer> sumList = new ArrayList<>();
+        int[] neighbours = new int[4 * MAX_CAGE];
+        for (int start = 0; start < caged.length; start++) {
+            if (caged[start]) continue;
+            int target = MIN_CAGE + random.nextInt(MAX_CAGE - MIN_CAGE + 1);
+            int[] cage = new int[target];
+            int length = 0;
+            long used = 0;
+            cage[length++] = start;
+            caged[start] = true;
+            used |= 1L << (solution.getCell(start / size, start % size) - 1);
+            while (length < target) {
+                int count = 0;
+                for (int i = 0; i < length; i++) {
+                    int row = cage[i] / size, col = cage[i] % size;
+                    if (row > 0) count = addFree(neighbours, count, cage[i] - size, caged, used, solution);
+                    if (row < size - 1) count = addFree(neighbours, count, cage[i] + size, caged, used, solution);
+                    if (col > 0) count = addFree(neighbours, count, cage[i] - 1, caged, used, solution);
+                    if (col < size - 1) count = addFree(neighbours, count, cage[i] + 1, caged, used, solution);
+                }
+                if (count == 0) break;
+                int next = neighbours[random.nextInt(count)];
+                cage[length++] = next;
+                caged[next] = true;
+                used |= 1L << (solution.getCell(next / size, next % size) - 1);
+            }
+            int sum = 0;
+            for (int i = 0; i < length; i++) sum += solution.getCell(cage[i] / size, cage[i] % size);
+            cageList.add(Arrays.copyOf(cage, length));
+            sumList.add(sum);
+        }
+        return new KillerCages(cageList.toArray(new int[0][]), sumList.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static int addFree(int[] neighbours, int count, int cell, boolean[] caged, long used, SudokuBoard solution) {
+        int size = solution.getSize();
+        if (caged[cell] || (used & (1L << (solution.getCell(cell / size, cell % size) - 1))) != 0) return count;
+        neighbours[count] = cell;
+        return count + 1;
+    }
+
+    public int cageCount() {
+        return cages.length;
+    }
+
+    /**
+     * Gets the cells of a cage.
+     * @param cage the cage index
+     * @return a copy of the cell indices of the cage
+     */
+    public int[] cageCells(int cage) {
+        return cages[cage].clone();
+    }
+
+    public int cageSum(int cage) {
+        return sums[cage];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof KillerCages that)) return false;
+        return Arrays.deepEquals(cages, that.cages) && Arrays.equals(sums, that.sums);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.deepHashCode(cages) + Arrays.hashCode(sums);
+    }
+
+    @Override
+    public String toString() {
+        return cages.length + " cages";
+    }
+}
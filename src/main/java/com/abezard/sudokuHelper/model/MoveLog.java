@@ -0,0 +1,233 @@
+package com.abezard.sudokuHelper.model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * History of the changes made to a board, for undo and redo.
+ * A move is packed into a single long: the cell (row * size + col), its old and new value, and the candidates that
+ * changed as an XOR mask. Undoing or redoing a move is the same operation on the candidates (mask ^= delta) and a
+ * swap of old and new value, so no board snapshot is kept and a move costs 8 bytes.
+ * Moves are grouped in steps: a user edit is one step, a hint placing a value and removing it from its peers is one
+ * step made of several moves, and undo and redo always go back or forward by a whole step.
+ * The candidate delta takes 37 bits, so boards up to 37x37 are supported (the grid view shows up to 35x35).
+ */
+public final class MoveLog {
+    public static final int MAX_SIZE = 37;
+
+    private static final int CELL_BITS = 12;
+    private static final int VALUE_BITS = 7;
+    private static final int OLD_SHIFT = CELL_BITS;
+    private static final int NEW_SHIFT = OLD_SHIFT + VALUE_BITS;
+    private static final int DELTA_SHIFT = NEW_SHIFT + VALUE_BITS;
+    private static final long STEP_START = 1L << 63; // set on the first move of each step
+    private static final long DELTA_MASK = (1L << (63 - DELTA_SHIFT)) - 1;
+
+    private long[] moves = new long[16];
+    private int recorded; // moves in the log, including the undone ones that can be redone
+    private int applied; // moves currently applied to the board
+    private boolean stepStarted = true; // the next move starts a new step
+
+    /**
+     * Packs a move into a long.
+     * @param cell the cell index (row * size + col)
+     * @param oldValue the value of the cell before the move (0 for empty)
+     * @param newValue the value of the cell after the move (0 for empty)
+     * @param candidateDelta the candidates added or removed by the move, as a mask where bit (d - 1) stands for d
+     * @return the packed move
+     */
+    public static long encode(int cell, int oldValue, int newValue, long candidateDelta) {
+        if ((candidateDelta & ~DELTA_MASK) != 0) {
+            throw new IllegalArgumentException("Candidates above " + MAX_SIZE + " cannot be recorded.");
+        }
+        return cell | (long) oldValue << OLD_SHIFT | (long) newValue << NEW_SHIFT | candidateDelta << DELTA_SHIFT;
+    }
+
+    /**
+     * Getters for the fields of a packed move.
+     * @param move the packed move
+     * @return the respective field
+     */
+    public static int cell(long move) {
+        return (int) (move & ((1 << CELL_BITS) - 1));
+    }
+    public static int oldValue(long move) {
+        return (int) (move >>> OLD_SHIFT) & ((1 << VALUE_BITS) - 1);
+    }
+    public static int newValue(long move) {
+        return (int) (move >>> NEW_SHIFT) & ((1 << VALUE_BITS) - 1);
+    }
+    public static long candidateDelta(long move) {
+        return (move >>> DELTA_SHIFT) & DELTA_MASK;
+    }
+
+    /**
+     * Makes the next recorded move start a new step. Moves recorded after it, until the next call, are undone and
+     * redone together.
+     */
+    public void beginStep() {
+        stepStarted = true;
+    }
+
+    /**
+     * Sets the value and candidates of a cell and records the change. Nothing is recorded if the cell does not
+     * change. Recording a move drops the moves that were undone, as they can no longer be redone.
+     * @param board the board to change
+     * @param row the row index of the cell
+     * @param col the column index of the cell
+     * @param value the new value of the cell (0 for empty)
+     * @param candidates the new candidates of the cell, as a mask
+     * @return true if the cell changed and a move was recorded
+     */
+    public boolean set(SudokuBoard board, int row, int col, int value, long candidates) {
+        int oldValue = board.getCell(row, col);
+        long delta = board.getCandidateMask(row, col) ^ candidates;
+        if (oldValue == value && delta == 0) return false;
+        long move = encode(row * board.getSize() + col, oldValue, value, delta);
+        board.setCell(row, col, value);
+        board.setCandidateMask(row, col, candidates);
+        if (applied == moves.length) moves = Arrays.copyOf(moves, moves.length * 2);
+        moves[applied++] = stepStarted ? move | STEP_START : move;
+        recorded = applied;
+        stepStarted = false;
+        return true;
+    }
+
+    /**
+     * Removes a value from the candidates of every peer of a cell, as one move per peer that had it, recorded in the
+     * current step. Undoing the step that placed the value brings the candidates back with it, so the pencil marks
+     * stay consistent without recomputing them. The peers come from the precomputed table of the variant.
+     * @param board the board to change
+     * @param cell the cell index (row * size + col) the value was placed in
+     * @param value the placed value
+     * @return the number of peers the candidate was removed from
+     */
+    public int eliminateFromPeers(SudokuBoard board, int cell, int value) {
+        int size = board.getSize();
+        long bit = 1L << (value - 1);
+        int removed = 0;
+        for (int peer : board.getVariant().index().peers(cell)) {
+            int row = peer / size, col = peer % size;
+            long mask = board.getCandidateMask(row, col);
+            if ((mask & bit) == 0) continue;
+            set(board, row, col, board.getCell(row, col), mask & ~bit);
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Reverts the last step on the board, move by move from the last one.
+     * @param board the board the moves were recorded on
+     * @param changed called with the index of each changed cell
+     * @return true if a step was undone, false if there was nothing to undo
+     */
+    public boolean undo(SudokuBoard board, IntConsumer changed) {
+        if (applied == 0) return false;
+        long move;
+        do {
+            move = moves[--applied];
+            apply(board, move, oldValue(move));
+            changed.accept(cell(move));
+        } while ((move & STEP_START) == 0 && applied > 0);
+        stepStarted = true;
+        return true;
+    }
+
+    /**
+     * Applies the next undone step again.
+     * @param board the board the moves were recorded on
+     * @param changed called with the index of each changed cell
+     * @return true if a step was redone, false if there was nothing to redo
+     */
+    public boolean redo(SudokuBoard board, IntConsumer changed) {
+        if (applied == recorded) return false;
+        do {
+            long move = moves[applied++];
+            apply(board, move, newValue(move));
+            changed.accept(cell(move));
+        } while (applied < recorded && (moves[applied] & STEP_START) == 0);
+        stepStarted = true;
+        return true;
+    }
+
+    /**
+     * Sets the value of the cell of a move and flips its candidate delta, which both does and undoes the move.
+     * @param board the board to change
+     * @param move the packed move
+     * @param value the value the cell gets
+     */
+    private static void apply(SudokuBoard board, long move, int value) {
+        int size = board.getSize();
+        int row = cell(move) / size, col = cell(move) % size;
+        board.setCell(row, col, value);
+        board.setCandidateMask(row, col, board.getCandidateMask(row, col) ^ candidateDelta(move));
+    }
+
+    public boolean canUndo() {
+        return applied > 0;
+    }
+
+    public boolean canRedo() {
+        return applied < recorded;
+    }
+
+    /**
+     * Gets the number of moves currently applied to the board, the undone ones excluded.
+     * @return the number of applied moves
+     */
+    public int appliedCount() {
+        return applied;
+    }
+
+    /**
+     * Gets a recorded move.
+     * @param index the position of the move in the log, from 0 for the oldest
+     * @return the packed move, without its step flag
+     */
+    public long move(int index) {
+        if (index < 0 || index >= recorded) throw new IndexOutOfBoundsException(index);
+        return moves[index] & ~STEP_START;
+    }
+
+    /**
+     * Rebuilds the board as it was after the first moves of the log, by reverting the later applied moves on a copy.
+     * @param board the board the moves were recorded on, holding all the applied moves
+     * @param moveCount the number of moves to keep, from 0 (the board before any move) to appliedCount()
+     * @return a new board holding the values and candidates after those moves
+     */
+    public SudokuBoard boardAfter(SudokuBoard board, int moveCount) {
+        if (moveCount < 0 || moveCount > applied) throw new IndexOutOfBoundsException(moveCount);
+        SudokuBoard copy = new SudokuBoard(board);
+        for (int i = applied - 1; i >= moveCount; i--) {
+            apply(copy, moves[i], oldValue(moves[i]));
+        }
+        return copy;
+    }
+
+    /**
+     * Gets the number of moves in the log, including the undone ones that can still be redone.
+     * @return the number of recorded moves
+     */
+    public int size() {
+        return recorded;
+    }
+
+    /**
+     * Gets the memory taken by the recorded moves.
+     * @return the size of the move buffer in bytes
+     */
+    public long footprintBytes() {
+        return (long) moves.length * Long.BYTES;
+    }
+
+    /**
+     * Forgets every move, e.g. when a new puzzle is loaded.
+     */
+    public void clear() {
+        moves = new long[16];
+        recorded = 0;
+        applied = 0;
+        stepStarted = true;
+    }
+}
@@ -0,0 +1,113 @@
+package com.abezard.sudokuHelper.model;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A board that remembers which cells changed since a view last drew it, as one dirty bit per cell.
+ * Setting a cell to its current value or candidates does not mark it. The listener set with setOnFirstChange runs
+ * when the first cell gets marked after the dirty cells were drained, so a view can schedule a single refresh for
+ * any number of changes (a hint or an undo touching dozens of cells costs one refresh of just those cells).
+ * Writes made through the array returned by getBoard are not tracked.
+ */
+public class ObservableBoard extends SudokuBoard {
+    private final long[] dirty;
+    private int dirtyCount;
+    private Runnable onFirstChange = () -> {};
+
+    /**
+     * Constructor for ObservableBoard. Initializes an empty board following the rules of a variant, with no
+     * dirty cell.
+     * @param variant The variant of the board.
+     */
+    public ObservableBoard(Variant variant) {
+        super(variant);
+        this.dirty = new long[(variant.geometry().cellCount() + 63) >>> 6];
+    }
+
+    /**
+     * Sets the action run when a cell gets marked while no other cell is dirty.
+     * @param onFirstChange The action to run, typically scheduling a refresh of the view.
+     */
+    public void setOnFirstChange(Runnable onFirstChange) {
+        this.onFirstChange = onFirstChange;
+    }
+
+    @Override
+    public void setCell(int row, int col, int value) {
+        if (getCell(row, col) == value) return;
+        super.setCell(row, col, value);
+        markDirty(row * getSize() + col);
+    }
+
+    @Override
+    public void setCandidateMask(int row, int col, long mask) {
+        if (getCandidateMask(row, col) == mask) return;
+        super.setCandidateMask(row, col, mask);
+        markDirty(row * getSize() + col);
+    }
+
+    /**
+     * Replaces every value of the board, marking the cells whose value changed.
+     * @param board The new values.
+     */
+    @Override
+    public void setBoard(int[][] board) {
+        int size = getSize();
+        if (board.length != size || board[0].length != size) {
+            throw new IllegalArgumentException("Board must be " + size + "x" + size + ".");
+        }
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                setCell(row, col, board[row][col]);
+            }
+        }
+    }
+
+    /**
+     * Marks a cell as changed, e.g. when something the view shows besides its value and candidates changed.
+     * @param cell The cell index (row * size + col).
+     */
+    public void markDirty(int cell) {
+        long bit = 1L << cell;
+        if ((dirty[cell >>> 6] & bit) != 0) return;
+        dirty[cell >>> 6] |= bit;
+        if (dirtyCount++ == 0) onFirstChange.run();
+    }
+
+    /**
+     * Checks whether a cell changed since the dirty cells were last drained.
+     * @param cell The cell index (row * size + col).
+     * @return true if the cell is dirty.
+     */
+    public boolean isDirty(int cell) {
+        return (dirty[cell >>> 6] & 1L << cell) != 0;
+    }
+
+    /**
+     * Gets the number of dirty cells.
+     * @return The number of cells changed since the dirty cells were last drained.
+     */
+    public int dirtyCount() {
+        return dirtyCount;
+    }
+
+    /**
+     * Visits the dirty cells in index order and clears their dirty bits. Cells marked by the visitor itself are
+     * left dirty for the next drain.
+     * @param visitor Called with the index of each dirty cell.
+     * @return The number of cells visited.
+     */
+    public int drainDirty(IntConsumer visitor) {
+        int visited = 0;
+        for (int word = 0; word < dirty.length; word++) {
+            long bits = dirty[word];
+            dirty[word] = 0;
+            dirtyCount -= Long.bitCount(bits);
+            for (; bits != 0; bits &= bits - 1) {
+                visitor.accept(word << 6 | Long.numberOfTrailingZeros(bits));
+                visited++;
+            }
+        }
+        return visited;
+    }
+}
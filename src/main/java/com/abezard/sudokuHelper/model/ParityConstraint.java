@@ -0,0 +1,86 @@
+package com.abezard.sudokuHelper.model;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Even/Odd rule: marked cells may only hold even values, or only odd values. Without marks this is a template,
+ * which marks about a third of the cells with the parity of their value in the solution.
+ */
+public final class ParityConstraint implements Constraint {
+    private final int[] evenCells;
+    private final int[] oddCells;
+
+    /**
+     * Creates the template, whose cells are marked when a puzzle is made.
+     */
+    public ParityConstraint() {
+        this(new int[0], new int[0]);
+    }
+
+    /**
+     * Creates the rule for given marked cells.
+     * @param evenCells the cell indices (row * size + col) that hold even values
+     * @param oddCells the cell indices that hold odd values
+     */
+    public ParityConstraint(int[] evenCells, int[] oddCells) {
+        this.evenCells = evenCells.clone();
+        this.oddCells = oddCells.clone();
+    }
+
+    @Override
+    public void register(UnitIndex.Builder builder) {
+        long odd = 0x5555555555555555L; // bit (d - 1) for d = 1, 3, 5...
+        for (int cell : evenCells) builder.restrict(cell, ~odd);
+        for (int cell : oddCells) builder.restrict(cell, odd);
+    }
+
+    /**
+     * Marks about a third of the cells with the parity of their value in the solution.
+     * @param solution the solved board the puzzle is made from
+     * @param random the source of randomness used to pick the cells
+     * @return the rule with its marked cells, or this rule if it already has some
+     */
+    @Override
+    public Constraint derive(SudokuBoard solution, RandomGenerator random) {
+        if (evenCells.length > 0 || oddCells.length > 0) return this;
+        int size = solution.getSize();
+        int[] even = new int[size * size];
+        int[] odd = new int[size * size];
+        int evenCount = 0, oddCount = 0;
+        for (int cell = 0; cell < size * size; cell++) {
+            if (random.nextInt(3) != 0) continue;
+            if (solution.getCell(cell / size, cell % size) % 2 == 0) even[evenCount++] = cell;
+            else odd[oddCount++] = cell;
+        }
+        return new ParityConstraint(Arrays.copyOf(even, evenCount), Arrays.copyOf(odd, oddCount));
+    }
+
+    /**
+     * Getters for the marked cells.
+     * @return a copy of the cell indices marked with the respective parity
+     */
+    public int[] evenCells() {
+        return evenCells.clone();
+    }
+    public int[] oddCells() {
+        return oddCells.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ParityConstraint that)) return false;
+        return Arrays.equals(evenCells, that.evenCells) && Arrays.equals(oddCells, that.oddCells);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(evenCells) + Arrays.hashCode(oddCells);
+    }
+
+    @Override
+    public String toString() {
+        return (evenCells.length + oddCells.length) + " parity cells";
+    }
+}
@@ -0,0 +1,89 @@
+package com.abezard.sudokuHelper.model;
+
+/**
+ * How hard a puzzle is for a human solver: the hardest technique the hint engine needed to solve it, and the number of
+ * steps it took. A puzzle the hint engine cannot finish is rated UNSOLVED, whatever it used before getting stuck.
+ */
+public final class Rating {
+
+    /**
+     * Levels of techniques, from the easiest. A puzzle's level is the level of the hardest technique it needs.
+     */
+    public enum Level {
+        SINGLES,
+        SUBSETS, // pairs, pointing pairs and box/line reductions
+        UNIQUENESS, // unique rectangles and BUG+1
+        CHAINS, // simple coloring and X-chains
+        FORCING_CHAINS,
+        UNSOLVED;
+
+        /**
+         * Gets the level of a solving technique.
+         * @param type the type of a hint placing a value or eliminating candidates
+         * @return the level of the technique
+         * @throws IllegalArgumentException if the hint type is not a solving technique
+         */
+        public static Level of(Hint.HintType type) {
+            return switch (type) {
+                case NAKED_SINGLE, HIDDEN_SINGLE, LAST_CANDIDATE -> SINGLES;
+                case NAKED_PAIR, HIDDEN_PAIR, POINTING_PAIR, BOX_LINE_REDUCTION -> SUBSETS;
+                case UNIQUE_RECTANGLE, BUG_PLUS_ONE -> UNIQUENESS;
+                case SIMPLE_COLORING, X_CHAIN -> CHAINS;
+                case FORCING_CHAIN -> FORCING_CHAINS;
+                default -> throw new IllegalArgumentException(type + " is not a solving technique.");
+            };
+        }
+    }
+
+    private final Hint.HintType hardest;
+    private final int steps;
+    private final boolean solved;
+
+    /**
+     * Constructor for Rating.
+     * @param hardest the hardest technique used, or null if no step was needed
+     * @param steps the number of hints applied
+     * @param solved whether the hint engine solved the puzzle
+     */
+    public Rating(Hint.HintType hardest, int steps, boolean solved) {
+        this.hardest = hardest;
+        this.steps = steps;
+        this.solved = solved;
+    }
+
+    public Hint.HintType hardest() {
+        return hardest;
+    }
+
+    public int steps() {
+        return steps;
+    }
+
+    public boolean solved() {
+        return solved;
+    }
+
+    /**
+     * Gets the level of the puzzle.
+     * @return the level of the hardest technique used, or UNSOLVED if the hint engine got stuck
+     */
+    public Level level() {
+        if (!solved) return Level.UNSOLVED;
+        return hardest == null ? Level.SINGLES : Level.of(hardest);
+    }
+
+    /**
+     * Checks whether the level of the puzzle is within a band.
+     * @param min the easiest level accepted
+     * @param max the hardest level accepted
+     * @return true if min <= level <= max
+     */
+    public boolean isBetween(Level min, Level max) {
+        return level().compareTo(min) >= 0 && level().compareTo(max) <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return level() + (hardest == null ? "" : " (" + hardest + ")") + ", " + steps + " steps";
+    }
+}
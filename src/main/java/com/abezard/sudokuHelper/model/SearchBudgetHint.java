@@ -0,0 +1,41 @@
+package com.abezard.sudokuHelper.model;
+
+public class SearchBudgetHint extends Hint {
+
+    private final long nodesExplored;
+    private final int startsCompleted;
+    private final int startsTotal;
+    private final long elapsedMillis;
+
+    /**
+     * Constructor for SearchBudgetHint, reporting how far a search got before its budget ran out.
+     * @param nodesExplored   the number of search nodes expanded during this request
+     * @param startsCompleted the number of start nodes whose search is complete (including earlier requests)
+     * @param startsTotal     the number of start nodes the search has to cover
+     * @param elapsedMillis   the time spent searching during this request, in milliseconds
+     */
+    public SearchBudgetHint(long nodesExplored, int startsCompleted, int startsTotal, long elapsedMillis) {
+        super(HintType.SEARCH_BUDGET_EXCEEDED, -1, -1, 0, Scope.BOARD, -1);
+        this.nodesExplored = nodesExplored;
+        this.startsCompleted = startsCompleted;
+        this.startsTotal = startsTotal;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Getter methods to access the search statistics.
+     * @return the respective statistic of the interrupted search.
+     */
+    public long getNodesExplored() {
+        return nodesExplored;
+    }
+    public int getStartsCompleted() {
+        return startsCompleted;
+    }
+    public int getStartsTotal() {
+        return startsTotal;
+    }
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -4,16 +4,38 @@ import java.util.HashSet;
 import java.util.Set;
 
 public class SudokuBoard {
+    private final Geometry geometry;
+    private final Variant variant;
     private int[][] board;
-    @SuppressWarnings("unchecked")
-    private final Set<Integer>[][] candidates = new HashSet[9][9];
+    private final long[][] candidates; // bit (d - 1) is set if d is a candidate of the cell
+    private int[] expected; // values of the solution, row-major, null if mistakes are not tracked (never written)
+    private long[] wrong; // one bit per cell: filled with a value other than the one of the solution
+    private long[] unsolved; // one bit per cell: not holding the value of the solution, empty cells included
 
     /**
-     * Constructor for the SudokuBoard class. Initializes a 9x9 board and sets up candidates.
+     * Constructor for the SudokuBoard class. Initializes a classic 9x9 board and sets up candidates.
      */
     public SudokuBoard() {
-        this.board = new int[9][9];
-        initCandidates();
+        this(Geometry.CLASSIC);
+    }
+
+    /**
+     * Constructor for the SudokuBoard class. Initializes an empty board of the given geometry.
+     * @param geometry The shape of the board and its boxes.
+     */
+    public SudokuBoard(Geometry geometry) {
+        this(Variant.classic(geometry));
+    }
+
+    /**
+     * Constructor for the SudokuBoard class. Initializes an empty board following the rules of a variant.
+     * @param variant The variant, giving the geometry of the board and the constraints on top of the classic rule.
+     */
+    public SudokuBoard(Variant variant) {
+        this.variant = variant;
+        this.geometry = variant.geometry();
+        this.board = new int[geometry.size()][geometry.size()];
+        this.candidates = new long[geometry.size()][geometry.size()];
     }
 
     /**
@@ -21,70 +43,214 @@ public class SudokuBoard {
      * @param other The SudokuBoard to copy from.
      */
     public SudokuBoard(SudokuBoard other) {
-        this.board = new int[9][9];
-        for (int i = 0; i < 9; i++) {
-            System.arraycopy(other.board[i], 0, this.board[i], 0, 9);
+        this(other.variant);
+        int size = geometry.size();
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(other.board[i], 0, this.board[i], 0, size);
+            System.arraycopy(other.candidates[i], 0, this.candidates[i], 0, size);
         }
-        initCandidates();
-        // deep copy candidates
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                this.candidates[r][c].clear();
-                this.candidates[r][c].addAll(other.candidates[r][c]);
-            }
+        if (other.expected != null) {
+            this.expected = other.expected;
+            this.wrong = other.wrong.clone();
+            this.unsolved = other.unsolved.clone();
         }
     }
 
     /**
-     * Initializes the hashset of candidates for each cell in the Sudoku board.
+     * Returns the geometry of the board.
+     * @return The shape of the board and its boxes.
      */
-    private void initCandidates() {
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                candidates[r][c] = new HashSet<>();
-            }
-        }
-    }
+    public Geometry getGeometry() { return geometry; }
+
+    /**
+     * Returns the variant whose rules the board follows.
+     * @return The variant, the classic one unless the board was created for another.
+     */
+    public Variant getVariant() { return variant; }
 
     /**
-     * Sets the board to a new 9x9 integer array.
+     * Returns the number of rows (and columns) of the board.
+     * @return The size of the board, 9 for a classic Sudoku.
+     */
+    public int getSize() { return geometry.size(); }
+
+    /**
+     * Sets the board to a new integer array.
      * @param board The new board to set.
-     * @throws IllegalArgumentException if the board is not 9x9.
+     * @throws IllegalArgumentException if the board does not match the geometry of this SudokuBoard.
      */
     public void setBoard(int[][] board) {
-        if (board.length != 9 || board[0].length != 9) {
-            throw new IllegalArgumentException("Board must be 9x9.");
+        int size = geometry.size();
+        if (board.length != size || board[0].length != size) {
+            throw new IllegalArgumentException("Board must be " + size + "x" + size + ".");
         }
         this.board = board;
+        if (expected != null) {
+            for (int cell = 0; cell < geometry.cellCount(); cell++) {
+                updateMistake(cell / size, cell % size);
+            }
+        }
     }
 
     /**
      * Returns the current board.
-     * @return The 9x9 integer array representing the Sudoku board.
+     * @return The integer array representing the Sudoku board.
      */
     public int[][] getBoard() { return board; }
 
     /**
      * Gets the value of a specific cell in the Sudoku board.
-     * @param row The row index (0-8).
-     * @param col The column index (0-8).
+     * @param row The row index (0 to size - 1).
+     * @param col The column index (0 to size - 1).
      * @return The value at the specified cell.
      */
     public int getCell(int row, int col) { return board[row][col]; }
 
     /**
      * Sets the value of a specific cell in the Sudoku board.
-     * @param row The row index (0-8).
-     * @param col The column index (0-8).
+     * @param row The row index (0 to size - 1).
+     * @param col The column index (0 to size - 1).
      * @param value The value to set at the specified cell.
      */
-    public void setCell(int row, int col, int value) { board[row][col] = value; }
+    public void setCell(int row, int col, int value) {
+        board[row][col] = value;
+        if (expected != null) updateMistake(row, col);
+    }
+
+    /**
+     * Starts checking every value set on the board against a solution, keeping one bit per cell for the cells
+     * holding a wrong value and one for the cells not solved yet. Each setCell updates the bits of its cell, so the
+     * first mistake, the number of mistakes and whether the board is solved are answered from the bits without
+     * reading the cells. Copies of the board keep tracking against the same solution.
+     * Writes made through the array returned by getBoard are not tracked.
+     * @param solution The solution of the puzzle, or null to stop tracking.
+     */
+    public void trackMistakes(SudokuBoard solution) {
+        if (solution == null) {
+            expected = null;
+            wrong = null;
+            unsolved = null;
+            return;
+        }
+        int size = geometry.size();
+        int[] values = new int[geometry.cellCount()];
+        for (int cell = 0; cell < values.length; cell++) {
+            values[cell] = solution.getCell(cell / size, cell % size);
+        }
+        expected = values;
+        wrong = new long[(values.length + 63) >>> 6];
+        unsolved = new long[wrong.length];
+        for (int cell = 0; cell < values.length; cell++) {
+            updateMistake(cell / size, cell % size);
+        }
+    }
+
+    /**
+     * Checks whether the values of the board are tracked against a solution.
+     * @return true if trackMistakes was given a solution.
+     */
+    public boolean tracksMistakes() { return expected != null; }
+
+    /**
+     * Sets the bits of a cell in the mistake masks from its value.
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     */
+    private void updateMistake(int row, int col) {
+        int cell = row * geometry.size() + col;
+        int value = board[row][col];
+        long bit = 1L << cell;
+        int word = cell >>> 6;
+        if (value != expected[cell]) unsolved[word] |= bit;
+        else unsolved[word] &= ~bit;
+        if (value != 0 && value != expected[cell]) wrong[word] |= bit;
+        else wrong[word] &= ~bit;
+    }
+
+    /**
+     * Gets the first cell holding a wrong value.
+     * @return The cell index (row * size + col) of the first mistake, or -1 if there is none.
+     * @throws IllegalStateException if mistakes are not tracked.
+     */
+    public int firstMistake() {
+        long[] mask = mask(wrong);
+        for (int word = 0; word < mask.length; word++) {
+            if (mask[word] != 0) return word << 6 | Long.numberOfTrailingZeros(mask[word]);
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the cells holding a wrong value.
+     * @return The number of mistakes.
+     * @throws IllegalStateException if mistakes are not tracked.
+     */
+    public int mistakeCount() {
+        int count = 0;
+        for (long bits : mask(wrong)) {
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether every cell holds the value of the solution.
+     * @return true if the board is solved.
+     * @throws IllegalStateException if mistakes are not tracked.
+     */
+    public boolean isSolved() {
+        for (long bits : mask(unsolved)) {
+            if (bits != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the cells holding a wrong value.
+     * @return A copy of the mask, bit (cell % 64) of word (cell / 64) set for each mistake.
+     * @throws IllegalStateException if mistakes are not tracked.
+     */
+    public long[] getMistakeMask() { return mask(wrong).clone(); }
+
+    /**
+     * Gets the cells not holding the value of the solution, whether empty or wrong.
+     * @return A copy of the mask, bit (cell % 64) of word (cell / 64) set for each such cell.
+     * @throws IllegalStateException if mistakes are not tracked.
+     */
+    public long[] getUnsolvedMask() { return mask(unsolved).clone(); }
+
+    private long[] mask(long[] bits) {
+        if (bits == null) throw new IllegalStateException("Mistakes are not tracked on this board.");
+        return bits;
+    }
 
     /**
      * Gets the candidates for a specific cell in the Sudoku board.
-     * @param row The row index (0-8).
-     * @param col The column index (0-8).
-     * @return A set of candidates for the specified cell.
+     * @param row The row index (0 to size - 1).
+     * @param col The column index (0 to size - 1).
+     * @return A new set holding the candidates of the specified cell.
+     */
+    public Set<Integer> getCandidates(int row, int col) {
+        Set<Integer> set = new HashSet<>();
+        for (long bits = candidates[row][col]; bits != 0; bits &= bits - 1) {
+            set.add(Long.numberOfTrailingZeros(bits) + 1);
+        }
+        return set;
+    }
+
+    /**
+     * Gets the candidates for a specific cell in the Sudoku board as a mask.
+     * @param row The row index (0 to size - 1).
+     * @param col The column index (0 to size - 1).
+     * @return A mask where bit (d - 1) is set if d is a candidate of the cell.
+     */
+    public long getCandidateMask(int row, int col) { return candidates[row][col]; }
+
+    /**
+     * Sets the candidates for a specific cell in the Sudoku board.
+     * @param row The row index (0 to size - 1).
+     * @param col The column index (0 to size - 1).
+     * @param mask A mask where bit (d - 1) is set if d is a candidate of the cell.
      */
-    public Set<Integer> getCandidates(int row, int col) { return candidates[row][col]; }
+    public void setCandidateMask(int row, int col, long mask) { candidates[row][col] = mask; }
 }
@@ -0,0 +1,160 @@
+package com.abezard.sudokuHelper.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed row, column and box tables of a geometry, shared by the solver, the strategies and the views so
+ * that their loops look cells up instead of working out box origins and allocating unit arrays on every call.
+ * Cells are indexed row * size + col. Units follow the numbering of UnitIndex: 0 to size - 1 are the rows, size to
+ * 2 * size - 1 the columns and 2 * size to 3 * size - 1 the boxes, each listing its cells in row-major order.
+ * Only the classic rule is covered; the extra units and cages of a variant stay in its UnitIndex.
+ * There is one topology per geometry, and its tables are never modified once built, so it is safe to share
+ * between threads. Arrays returned by its methods are shared and must not be modified.
+ */
+public final class Topology {
+    private static final Map<Geometry, Topology> TOPOLOGIES = new ConcurrentHashMap<>();
+
+    private final Geometry geometry;
+    private final int size;
+    private final int[] rows;
+    private final int[] cols;
+    private final int[] boxes;
+    private final int[] boxPositions; // position of each cell inside its box, row-major
+    private final int[][] unitCells;
+    private final int[][] peers;
+    // box -> line unit (row or column) -> the cells in both, as positions inside the box and along the line
+    private final long[][] boxSegments;
+    private final long[][] lineSegments;
+
+    private Topology(Geometry geometry) {
+        this.geometry = geometry;
+        this.size = geometry.size();
+        int cellCount = geometry.cellCount();
+        rows = new int[cellCount];
+        cols = new int[cellCount];
+        boxes = new int[cellCount];
+        boxPositions = new int[cellCount];
+        unitCells = new int[3 * size][size];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int row = cell / size, col = cell % size, box = geometry.boxOf(row, col);
+            int position = (row % geometry.boxHeight()) * geometry.boxWidth() + col % geometry.boxWidth();
+            rows[cell] = row;
+            cols[cell] = col;
+            boxes[cell] = box;
+            boxPositions[cell] = position;
+            unitCells[row][col] = cell;
+            unitCells[size + col][row] = cell;
+            unitCells[2 * size + box][position] = cell;
+        }
+
+        peers = new int[cellCount][];
+        int[] buffer = new int[3 * size];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int count = 0;
+            for (int unit : new int[]{rows[cell], size + cols[cell], 2 * size + boxes[cell]}) {
+                for (int other : unitCells[unit]) {
+                    if (other != cell) buffer[count++] = other;
+                }
+            }
+            peers[cell] = Arrays.stream(buffer, 0, count).sorted().distinct().toArray();
+        }
+
+        boxSegments = new long[size][2 * size];
+        lineSegments = new long[size][2 * size];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int box = boxes[cell];
+            boxSegments[box][rows[cell]] |= 1L << boxPositions[cell];
+            lineSegments[box][rows[cell]] |= 1L << cols[cell];
+            boxSegments[box][size + cols[cell]] |= 1L << boxPositions[cell];
+            lineSegments[box][size + cols[cell]] |= 1L << rows[cell];
+        }
+    }
+
+    /**
+     * Gets the topology of a geometry, building it the first time it is asked for.
+     * @param geometry the shape of the board and its boxes
+     * @return the shared topology
+     */
+    public static Topology of(Geometry geometry) {
+        return TOPOLOGIES.computeIfAbsent(geometry, Topology::new);
+    }
+
+    public Geometry geometry() {
+        return geometry;
+    }
+
+    /**
+     * Getters for the row, column, box and position inside the box of a cell.
+     * @param cell the cell index
+     * @return the respective index
+     */
+    public int row(int cell) {
+        return rows[cell];
+    }
+    public int col(int cell) {
+        return cols[cell];
+    }
+    public int box(int cell) {
+        return boxes[cell];
+    }
+    public int boxPosition(int cell) {
+        return boxPositions[cell];
+    }
+
+    /**
+     * Gets the whole cell to row, column or box tables, for loops that index them directly.
+     * @return the row, column or box of every cell
+     */
+    public int[] rows() {
+        return rows;
+    }
+    public int[] cols() {
+        return cols;
+    }
+    public int[] boxes() {
+        return boxes;
+    }
+
+    /**
+     * Gets the cells of a row, column or box.
+     * @param unit the unit index
+     * @return the cells of the unit, in row-major order
+     */
+    public int[] unitCells(int unit) {
+        return unitCells[unit];
+    }
+
+    /**
+     * Gets the cells sharing a row, column or box with a cell.
+     * @param cell the cell index
+     * @return the peers of the cell, in increasing order
+     */
+    public int[] peers(int cell) {
+        return peers[cell];
+    }
+
+    /**
+     * Gets the cells a box shares with a row or column, as positions inside the box, so that a box mask can be split
+     * by line with one AND.
+     * @param box the box index
+     * @param line the unit index of a row (0 to size - 1) or column (size to 2 * size - 1)
+     * @return bit boxPosition(cell) set for each cell in both, or 0 if the line does not cross the box
+     */
+    public long boxSegment(int box, int line) {
+        return boxSegments[box][line];
+    }
+
+    /**
+     * Gets the cells a box shares with a row or column, as positions along the line, so that a line mask can be
+     * split by box with one AND.
+     * @param box the box index
+     * @param line the unit index of a row (0 to size - 1) or column (size to 2 * size - 1)
+     * @return bit col(cell) for a row, or row(cell) for a column, set for each cell in both, or 0 if the line does
+     *         not cross the box
+     */
+    public long lineSegment(int box, int line) {
+        return lineSegments[box][line];
+    }
+}
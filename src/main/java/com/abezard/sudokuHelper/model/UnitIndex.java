@@ -0,0 +1,269 @@
+package com.abezard.sudokuHelper.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiled form of the rules of a variant, as flat lookup tables indexed by cell (row * size + col).
+ * Units 0 to size - 1 are the rows, size to 2 * size - 1 the columns and 2 * size to 3 * size - 1 the boxes; units
+ * registered by constraints follow. Cages are kept apart from the units since they are smaller than a unit and
+ * carry a sum. A classic index has no extra unit, cage or restriction, so callers can check isClassic() once and
+ * keep their row, column and box code untouched.
+ */
+public final class UnitIndex {
+    private final Geometry geometry;
+    private final int[][] unitCells;
+    private final int[][] cellExtraUnits; // units of each cell beyond its row, column and box
+    private final int[][] peers;
+    private final long[] allowed; // values each cell may hold, as a mask
+    private final int[][] cageCells;
+    private final int[] cageSums;
+    private final int[] cellCage; // cage of each cell, or -1
+    private final boolean classic;
+
+    private UnitIndex(Builder builder) {
+        this.geometry = builder.geometry;
+        int size = geometry.size(), cellCount = geometry.cellCount();
+        List<int[]> units = new ArrayList<>();
+        Topology topology = Topology.of(geometry); // the rows, columns and boxes are shared with it
+        for (int unit = 0; unit < 3 * size; unit++) {
+            units.add(topology.unitCells(unit));
+        }
+        units.addAll(builder.units);
+        this.unitCells = units.toArray(new int[0][]);
+
+        int[] extraCounts = new int[cellCount];
+        for (int[] unit : builder.units) {
+            for (int cell : unit) extraCounts[cell]++;
+        }
+        this.cellExtraUnits = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) {
+            cellExtraUnits[cell] = new int[extraCounts[cell]];
+            extraCounts[cell] = 0;
+        }
+        for (int unit = 3 * size; unit < unitCells.length; unit++) {
+            for (int cell : unitCells[unit]) cellExtraUnits[cell][extraCounts[cell]++] = unit;
+        }
+
+        this.cageCells = builder.cages.toArray(new int[0][]);
+        this.cageSums = builder.cageSums.stream().mapToInt(Integer::intValue).toArray();
+        this.cellCage = new int[cellCount];
+        Arrays.fill(cellCage, -1);
+        for (int cage = 0; cage < cageCells.length; cage++) {
+            for (int cell : cageCells[cage]) {
+                if (cellCage[cell] != -1) {
+                    throw new IllegalArgumentException("Cell " + cell + " belongs to more than one cage.");
+                }
+                cellCage[cell] = cage;
+            }
+        }
+        this.allowed = builder.allowed.clone();
+
+        // Peers: every other cell sharing a unit or a cage
+        this.peers = new int[cellCount][];
+        boolean[] seen = new boolean[cellCount];
+        int[] buffer = new int[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int count = 0;
+            int row = cell / size, col = cell % size;
+            count = collect(unitCells[row], cell, seen, buffer, count);
+            count = collect(unitCells[size + col], cell, seen, buffer, count);
+            count = collect(unitCells[2 * size + geometry.boxOf(row, col)], cell, seen, buffer, count);
+            for (int unit : cellExtraUnits[cell]) count = collect(unitCells[unit], cell, seen, buffer, count);
+            if (cellCage[cell] >= 0) count = collect(cageCells[cellCage[cell]], cell, seen, buffer, count);
+            peers[cell] = Arrays.copyOf(buffer, count);
+            Arrays.sort(peers[cell]);
+            for (int i = 0; i < count; i++) seen[buffer[i]] = false;
+        }
+
+        boolean restricted = false;
+        for (long mask : allowed) restricted |= mask != geometry.allValues();
+        this.classic = builder.units.isEmpty() && cageCells.length == 0 && !restricted;
+    }
+
+    private static int collect(int[] cells, int self, boolean[] seen, int[] buffer, int count) {
+        for (int cell : cells) {
+            if (cell == self || seen[cell]) continue;
+            seen[cell] = true;
+            buffer[count++] = cell;
+        }
+        return count;
+    }
+
+    /**
+     * Starts building the index of a board of the given geometry.
+     * @param geometry the shape of the board and its boxes
+     * @return a builder holding only the classic rule
+     */
+    public static Builder builder(Geometry geometry) {
+        return new Builder(geometry);
+    }
+
+    public Geometry geometry() {
+        return geometry;
+    }
+
+    /**
+     * Checks whether the index only holds the classic row, column and box rule.
+     * @return true if there is no extra unit, cage or cell restriction
+     */
+    public boolean isClassic() {
+        return classic;
+    }
+
+    public int unitCount() {
+        return unitCells.length;
+    }
+
+    /**
+     * Gets the cells of a unit. The returned array is shared and must not be modified.
+     * @param unit the unit index
+     * @return the cells of the unit
+     */
+    public int[] unitCells(int unit) {
+        return unitCells[unit];
+    }
+
+    /**
+     * Gets the units of a cell registered by constraints, beyond its row, column and box.
+     * The returned array is shared and must not be modified.
+     * @param cell the cell index
+     * @return the extra unit indices of the cell
+     */
+    public int[] extraUnits(int cell) {
+        return cellExtraUnits[cell];
+    }
+
+    /**
+     * Gets every cell that must hold a different value than the given cell. The returned array is shared and must
+     * not be modified.
+     * @param cell the cell index
+     * @return the cells sharing a unit or a cage with the cell, in increasing order
+     */
+    public int[] peers(int cell) {
+        return peers[cell];
+    }
+
+    /**
+     * Gets the values a cell may hold.
+     * @param cell the cell index
+     * @return a mask where bit (d - 1) is set if d is allowed in the cell
+     */
+    public long allowedValues(int cell) {
+        return allowed[cell];
+    }
+
+    public int cageCount() {
+        return cageCells.length;
+    }
+
+    /**
+     * Gets the cells of a cage. The returned array is shared and must not be modified.
+     * @param cage the cage index
+     * @return the cells of the cage
+     */
+    public int[] cageCells(int cage) {
+        return cageCells[cage];
+    }
+
+    public int cageSum(int cage) {
+        return cageSums[cage];
+    }
+
+    /**
+     * Gets the cage holding a cell.
+     * @param cell the cell index
+     * @return the cage index, or -1 if the cell is not in a cage
+     */
+    public int cageOf(int cell) {
+        return cellCage[cell];
+    }
+
+    /**
+     * Gets the values that can still complete a cage, given how much of its sum is left and how many of its cells
+     * are empty. Values already used in the cage are not removed here.
+     * @param remainingSum the sum the empty cells of the cage still have to make
+     * @param emptyCells the number of empty cells in the cage, including the one being filled
+     * @return a mask of the values the cell being filled may take
+     */
+    public long cageOptions(int remainingSum, int emptyCells) {
+        int size = geometry.size();
+        int others = emptyCells - 1;
+        int minOthers = others * (others + 1) / 2; // the smallest distinct values
+        int maxOthers = others * size - others * (others - 1) / 2; // the largest distinct values
+        int low = Math.max(1, remainingSum - maxOthers), high = Math.min(size, remainingSum - minOthers);
+        if (low > high) return 0;
+        long upTo = high == 64 ? -1L : (1L << high) - 1;
+        return upTo & ~((1L << (low - 1)) - 1);
+    }
+
+    /**
+     * Collects the units, cages and restrictions registered by constraints before compiling them.
+     */
+    public static final class Builder {
+        private final Geometry geometry;
+        private final List<int[]> units = new ArrayList<>();
+        private final List<int[]> cages = new ArrayList<>();
+        private final List<Integer> cageSums = new ArrayList<>();
+        private final long[] allowed;
+
+        private Builder(Geometry geometry) {
+            this.geometry = geometry;
+            this.allowed = new long[geometry.cellCount()];
+            Arrays.fill(allowed, geometry.allValues());
+        }
+
+        public Geometry geometry() {
+            return geometry;
+        }
+
+        /**
+         * Adds a unit: a group of as many cells as the board size, holding every value exactly once.
+         * @param cells the cell indices of the unit
+         * @return this builder
+         * @throws IllegalArgumentException if the unit does not hold exactly size distinct cells
+         */
+        public Builder addUnit(int... cells) {
+            if (cells.length != geometry.size() || Arrays.stream(cells).distinct().count() != cells.length) {
+                throw new IllegalArgumentException("A unit must hold " + geometry.size() + " distinct cells.");
+            }
+            units.add(cells.clone());
+            return this;
+        }
+
+        /**
+         * Adds a cage: a group of cells holding distinct values that add up to a sum.
+         * @param sum the sum of the values of the cage
+         * @param cells the cell indices of the cage
+         * @return this builder
+         */
+        public Builder addCage(int sum, int... cells) {
+            if (cells.length == 0 || cells.length > geometry.size()) {
+                throw new IllegalArgumentException("A cage must hold between 1 and " + geometry.size() + " cells.");
+            }
+            cages.add(cells.clone());
+            cageSums.add(sum);
+            return this;
+        }
+
+        /**
+         * Restricts the values a cell may hold.
+         * @param cell the cell index
+         * @param mask a mask where bit (d - 1) is set if d is allowed in the cell
+         * @return this builder
+         */
+        public Builder restrict(int cell, long mask) {
+            allowed[cell] &= mask;
+            return this;
+        }
+
+        /**
+         * Compiles the registered rules into an index.
+         * @return the compiled index
+         */
+        public UnitIndex build() {
+            return new UnitIndex(this);
+        }
+    }
+}
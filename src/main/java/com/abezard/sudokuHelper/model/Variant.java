@@ -0,0 +1,159 @@
+package com.abezard.sudokuHelper.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * A Sudoku variant: a geometry and the constraints registered on top of the classic rule.
+ * The constraints are compiled into a UnitIndex when the variant is created, and the classic variant of each geometry
+ * is shared, so boards of the classic game all point to the same index.
+ */
+public final class Variant {
+    private static final Map<Geometry, Variant> CLASSIC = new ConcurrentHashMap<>();
+
+    private final Geometry geometry;
+    private final List<Constraint> constraints;
+    private final UnitIndex index;
+
+    /**
+     * The variants offered to the player, each able to create its template for a geometry.
+     */
+    public enum Type {
+        CLASSIC("Classic"),
+        X_SUDOKU("X-Sudoku"),
+        WINDOKU("Windoku"),
+        KILLER("Killer"),
+        EVEN_ODD("Even/Odd");
+
+        private final String label;
+
+        Type(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Creates the variant of this type for a geometry. Killer and Even/Odd variants are templates whose cages and
+         * marked cells are laid out from the solution, see {@link Variant#derive(SudokuBoard, RandomGenerator)}.
+         * @param geometry the shape of the board and its boxes
+         * @return the variant
+         */
+        public Variant create(Geometry geometry) {
+            return switch (this) {
+                case CLASSIC -> Variant.classic(geometry);
+                case X_SUDOKU -> Variant.of(geometry, new DiagonalConstraint());
+                case WINDOKU -> Variant.of(geometry, new WindowConstraint());
+                case KILLER -> Variant.of(geometry, new KillerCages());
+                case EVEN_ODD -> Variant.of(geometry, new ParityConstraint());
+            };
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private Variant(Geometry geometry, List<Constraint> constraints) {
+        this.geometry = geometry;
+        this.constraints = Collections.unmodifiableList(new ArrayList<>(constraints));
+        UnitIndex.Builder builder = UnitIndex.builder(geometry);
+        for (Constraint constraint : constraints) {
+            constraint.register(builder);
+        }
+        this.index = builder.build();
+    }
+
+    /**
+     * Gets the classic variant of a geometry, with only the row, column and box rule.
+     * @param geometry the shape of the board and its boxes
+     * @return the shared classic variant
+     */
+    public static Variant classic(Geometry geometry) {
+        return CLASSIC.computeIfAbsent(geometry, g -> new Variant(g, List.of()));
+    }
+
+    /**
+     * Creates a variant from a geometry and its constraints.
+     * @param geometry the shape of the board and its boxes
+     * @param constraints the rules added to the classic rule
+     * @return the variant, or the shared classic one if there is no constraint
+     */
+    public static Variant of(Geometry geometry, Constraint... constraints) {
+        if (constraints.length == 0) return classic(geometry);
+        return new Variant(geometry, List.of(constraints));
+    }
+
+    /**
+     * Creates a variant with one more constraint.
+     * @param constraint the rule to add
+     * @return a new variant holding the constraints of this one and the given one
+     */
+    public Variant with(Constraint constraint) {
+        List<Constraint> all = new ArrayList<>(constraints);
+        all.add(constraint);
+        return new Variant(geometry, all);
+    }
+
+    /**
+     * Builds the variant of a specific puzzle from its solution, by deriving each constraint.
+     * @param solution the solved board the puzzle is made from
+     * @param random the source of randomness used to lay out the constraints
+     * @return the variant of the puzzle, or this variant if none of its constraints depends on the solution
+     */
+    public Variant derive(SudokuBoard solution, RandomGenerator random) {
+        List<Constraint> derived = new ArrayList<>();
+        boolean changed = false;
+        for (Constraint constraint : constraints) {
+            Constraint next = constraint.derive(solution, random);
+            changed |= next != constraint;
+            derived.add(next);
+        }
+        return changed ? new Variant(geometry, derived) : this;
+    }
+
+    public Geometry geometry() {
+        return geometry;
+    }
+
+    public List<Constraint> constraints() {
+        return constraints;
+    }
+
+    /**
+     * Gets the compiled rules of this variant.
+     * @return the unit index shared by every board of this variant
+     */
+    public UnitIndex index() {
+        return index;
+    }
+
+    /**
+     * Checks whether the compiled rules are only the classic row, column and box rule. Templates whose constraints
+     * are still empty (a killer variant before its cages are laid out) count as classic.
+     * @return true if the variant adds nothing to the classic rule
+     */
+    public boolean isClassic() {
+        return index.isClassic();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Variant that)) return false;
+        return geometry.equals(that.geometry) && constraints.equals(that.constraints);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * geometry.hashCode() + constraints.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return constraints.isEmpty() ? geometry.toString() : geometry + " " + constraints;
+    }
+}
@@ -0,0 +1,41 @@
+package com.abezard.sudokuHelper.model;
+
+/**
+ * Windoku rule: extra box-shaped windows, each one cell in from the boxes around it, hold every value once.
+ * On a classic board these are the four shaded 3x3 windows starting at rows and columns 1 and 5.
+ */
+public final class WindowConstraint implements Constraint {
+
+    @Override
+    public void register(UnitIndex.Builder builder) {
+        Geometry geometry = builder.geometry();
+        int size = geometry.size(), height = geometry.boxHeight(), width = geometry.boxWidth();
+        for (int top = 1; top + height <= size - 1; top += height + 1) {
+            for (int left = 1; left + width <= size - 1; left += width + 1) {
+                int[] cells = new int[size];
+                int index = 0;
+                for (int r = 0; r < height; r++) {
+                    for (int c = 0; c < width; c++) {
+                        cells[index++] = (top + r) * size + left + c;
+                    }
+                }
+                builder.addUnit(cells);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof WindowConstraint;
+    }
+
+    @Override
+    public int hashCode() {
+        return WindowConstraint.class.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "windows";
+    }
+}
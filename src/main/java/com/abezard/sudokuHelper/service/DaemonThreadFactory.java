@@ -0,0 +1,28 @@
+package com.abezard.sudokuHelper.service;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the numbered daemon threads of the executors of the application, so that pending tasks never keep the
+ * application from exiting.
+ */
+final class DaemonThreadFactory implements ThreadFactory {
+    private final String name;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    /**
+     * Constructor for DaemonThreadFactory.
+     * @param name the prefix of the thread names, followed by the number of the thread
+     */
+    DaemonThreadFactory(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, name + "-" + threads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
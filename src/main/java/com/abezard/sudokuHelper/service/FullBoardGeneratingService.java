@@ -1,74 +1,161 @@
 package com.abezard.sudokuHelper.service;
 
+import com.abezard.sudokuHelper.model.Geometry;
 import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.UnitIndex;
+import com.abezard.sudokuHelper.model.Variant;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 @Service
 public class FullBoardGeneratingService {
 
-    private final Random random = new Random();
+    private final RandomGenerator random;
+    private final SolverCache solvers = new SolverCache();
+    private int[] seedValues = new int[0]; // reused by seedBox
 
     /**
-     * Generates a full Sudoku board with all cells filled.
+     * Constructor for FullBoardGeneratingService, with a random source seeded by the system.
+     */
+    public FullBoardGeneratingService() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Constructor for FullBoardGeneratingService.
+     * @param random The source of randomness of the generated boards, e.g. one per generating thread.
+     */
+    public FullBoardGeneratingService(RandomGenerator random) {
+        this.random = random;
+    }
+
+    /**
+     * Generates a full classic 9x9 Sudoku board with all cells filled.
      * @return The filled SudokuBoard.
      */
     public SudokuBoard generateFullBoard() {
-        SudokuBoard board = new SudokuBoard();
-        fillBoard(board);
+        return generateFullBoard(Geometry.CLASSIC);
+    }
+
+    /**
+     * Generates a full Sudoku board of the given geometry with all cells filled.
+     * @param geometry The shape of the board and its boxes.
+     * @return The filled SudokuBoard.
+     */
+    public SudokuBoard generateFullBoard(Geometry geometry) {
+        return generateFullBoard(Variant.classic(geometry));
+    }
+
+    /**
+     * Generates a full Sudoku board following the rules of a variant, with all cells filled.
+     * @param variant The variant, giving the geometry of the board and its constraints.
+     * @return The filled SudokuBoard.
+     * @throws IllegalStateException if the constraints of the variant leave no solution.
+     */
+    public SudokuBoard generateFullBoard(Variant variant) {
+        return generateFullBoard(variant, random);
+    }
+
+    /**
+     * Generates a full Sudoku board following the rules of a variant, drawing from the given random source instead of
+     * the one of the service. The board only depends on the variant and on the values drawn, so a generator seeded
+     * with the same value always gives the same board.
+     * @param variant The variant, giving the geometry of the board and its constraints.
+     * @param random The source of randomness of the board.
+     * @return The filled SudokuBoard.
+     * @throws IllegalStateException if the constraints of the variant leave no solution.
+     */
+    public SudokuBoard generateFullBoard(Variant variant, RandomGenerator random) {
+        SudokuBoard board = new SudokuBoard(variant);
+        if (!fillBoard(board, random)) {
+            throw new IllegalStateException("The variant " + variant + " has no solution.");
+        }
         return board;
     }
 
     /**
-     * Fills the Sudoku board using a backtracking algorithm, and the minimum remaining values heuristic.
+     * Fills an empty Sudoku board. The boxes on the diagonal share no row or column, so on a classic board they are
+     * first filled with random permutations, and the rest of the board is completed by the bitmask solver, which
+     * tries values in random orders and restarts when an order runs into a long dead end. This keeps 16x16 and
+     * larger boards fast, where a plain cell by cell backtracking search can get stuck for minutes.
+     * Extra units may cross the diagonal boxes, so a variant only gets its first box seeded (any permutation of a
+     * solution is still a solution), and the solver tries random values first to vary the rest.
      * @param board The SudokuBoard to fill.
+     * @param random The source of the seeded permutations and of the values tried first.
      * @return true if the board is successfully filled, false otherwise.
      */
-   private boolean fillBoard(SudokuBoard board) {
-        int minOptions = 10;
-        int targetRow = -1, targetCol = -1;
-        List<Integer> candidates = null;
-        // Find the cell with the minimum remaining values
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                if (board.getCell(row, col) == 0) {
-                    List<Integer> options = new ArrayList<>();
-                    for (int num = 1; num <= 9; num++) {
-                        if (isValidPlacement(board, row, col, num)) {
-                            options.add(num);
-                        }
-                    }
-                    if (options.size() < minOptions) {
-                        minOptions = options.size();
-                        targetRow = row;
-                        targetCol = col;
-                        candidates = options;
-                        if (minOptions == 1) break;
-                    }
-                }
+    private boolean fillBoard(SudokuBoard board, RandomGenerator random) {
+        Geometry geometry = board.getGeometry();
+        UnitIndex index = board.getVariant().index();
+        SudokuSolver solver = solvers.forVariant(board.getVariant());
+        if (!index.isClassic()) {
+            if (index.cageCount() == 0 && !restricted(index)) seedBox(board, 0, random);
+            return solver.solve(board, random);
+        }
+        for (int i = 0; i < Math.min(geometry.boxHeight(), geometry.boxWidth()); i++) {
+            seedBox(board, i * geometry.boxHeight() + i, random); // the box in band i and stack i
+        }
+        if (solver.solve(board, random)) return true;
+        // Small boxes can be seeded into a dead end (e.g. 2x2 boxes), start over from an empty board then
+        board.setBoard(new int[geometry.size()][geometry.size()]);
+        return solver.solve(board, random);
+    }
+
+    /**
+     * Fills a box of an empty board with a random permutation of the values.
+     * @param board The SudokuBoard to seed.
+     * @param box The box index.
+     * @param random The source of the permutation.
+     */
+    private void seedBox(SudokuBoard board, int box, RandomGenerator random) {
+        Geometry geometry = board.getGeometry();
+        if (seedValues.length != geometry.size()) seedValues = new int[geometry.size()];
+        int[] values = seedValues;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i + 1;
+        }
+        shuffle(values, random);
+        int index = 0;
+        for (int r = 0; r < geometry.boxHeight(); r++) {
+            for (int c = 0; c < geometry.boxWidth(); c++) {
+                board.setCell(geometry.boxStartRow(box) + r, geometry.boxStartCol(box) + c, values[index++]);
             }
         }
+    }
 
-        // None are empty -> board is complete
-        if (targetRow == -1) return true;
+    /**
+     * Shuffles an array in place (Fisher-Yates), drawing exactly one value per position so that the permutation only
+     * depends on the state of the random source.
+     * @param values The array to shuffle.
+     * @param random The source of the permutation.
+     */
+    static void shuffle(int[] values, RandomGenerator random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
 
-        Collections.shuffle(candidates, random);
-        for (int num : candidates) {
-            board.setCell(targetRow, targetCol, num);
-            if (fillBoard(board)) {
-                return true;
-            }
-            board.setCell(targetRow, targetCol, 0);
+    /**
+     * Checks whether a variant restricts the values of some cells, in which case a permutation of a solution may
+     * break its rules.
+     * @param index The compiled rules of the variant.
+     * @return true if some cell may not hold every value.
+     */
+    private static boolean restricted(UnitIndex index) {
+        for (int cell = 0; cell < index.geometry().cellCount(); cell++) {
+            if (index.allowedValues(cell) != index.geometry().allValues()) return true;
         }
         return false;
     }
 
     /**
-     * Checks if placing a number in the specified cell is valid according to Sudoku rules.
+     * Checks if placing a number in the specified cell is valid according to Sudoku rules, including the constraints
+     * of the variant of the board.
      * @param board The SudokuBoard to check.
      * @param row The row index of the cell.
      * @param col The column index of the cell.
@@ -76,17 +163,22 @@ public class FullBoardGeneratingService {
      * @return true if the placement is valid, false otherwise.
      */
     public boolean isValidPlacement(SudokuBoard board, int row, int col, int num) {
+        Geometry geometry = board.getGeometry();
+        if (!board.getVariant().isClassic() && !fitsVariant(board, row, col, num)) {
+            return false;
+        }
         // Check row and column
-        for (int i = 0; i < 9; i++) {
+        for (int i = 0; i < geometry.size(); i++) {
             if (board.getCell(row, i) == num || board.getCell(i, col) == num) {
                 return false;
             }
         }
-        // Check 3x3 box
-        int boxRow = (row / 3) * 3;
-        int boxCol = (col / 3) * 3;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
+        // Check box
+        int box = geometry.boxOf(row, col);
+        int boxRow = geometry.boxStartRow(box);
+        int boxCol = geometry.boxStartCol(box);
+        for (int i = 0; i < geometry.boxHeight(); i++) {
+            for (int j = 0; j < geometry.boxWidth(); j++) {
                 if (board.getCell(boxRow + i, boxCol + j) == num) {
                     return false;
                 }
@@ -94,4 +186,34 @@ public class FullBoardGeneratingService {
         }
         return true;
     }
+
+    /**
+     * Checks the constraints a variant adds: allowed values, extra units and cages.
+     * @param board The SudokuBoard to check.
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     * @param num The number to place in the cell.
+     * @return true if the number fits the constraints of the variant, false otherwise.
+     */
+    private boolean fitsVariant(SudokuBoard board, int row, int col, int num) {
+        UnitIndex index = board.getVariant().index();
+        int size = board.getSize();
+        int cell = row * size + col;
+        if ((index.allowedValues(cell) & (1L << (num - 1))) == 0) return false;
+        for (int unit : index.extraUnits(cell)) {
+            for (int other : index.unitCells(unit)) {
+                if (board.getCell(other / size, other % size) == num) return false;
+            }
+        }
+        int cage = index.cageOf(cell);
+        if (cage < 0) return true;
+        int total = 0, emptyCells = 0;
+        for (int other : index.cageCells(cage)) {
+            int value = board.getCell(other / size, other % size);
+            if (value == num) return false;
+            if (value == 0 || other == cell) emptyCells++;
+            else total += value;
+        }
+        return (index.cageOptions(index.cageSum(cage) - total, emptyCells) & (1L << (num - 1))) != 0;
+    }
 }
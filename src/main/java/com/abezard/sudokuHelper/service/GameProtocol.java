@@ -0,0 +1,107 @@
+package com.abezard.sudokuHelper.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The binary frames exchanged with the GameServer, big-endian and of fixed size, so a batch of moves is a plain byte
+ * array that is read and written without parsing or allocation.
+ * <p>A request takes 12 bytes: the session ID as a long, then an int packing the operation (4 bits), the player
+ * (4 bits), the cell index (16 bits) and the value or digit (8 bits):
+ * <pre>  session:64 | op:4 | player:4 | cell:16 | value:8</pre>
+ * A response takes 8 bytes: an int packing the status (8 bits), the value (8 bits) and the cell (16 bits, 0xFFFF
+ * for none), then an int whose meaning depends on the operation (finishing rank, number of mistakes or hints):
+ * <pre>  status:8 | value:8 | cell:16 | extra:32</pre>
+ * Responses come in the order of the requests, one per request.
+ */
+public final class GameProtocol {
+    public static final int REQUEST_BYTES = 12;
+    public static final int RESPONSE_BYTES = 8;
+    public static final int NO_CELL = 0xFFFF;
+
+    /** Places a value (0 clears the cell). Answers OK, or SOLVED with the finishing rank. */
+    public static final int SET_VALUE = 1;
+    /** Toggles the pencil mark of a digit in an empty cell. Answers OK. */
+    public static final int TOGGLE_CANDIDATE = 2;
+    /** Reverts the last step. Answers OK, or NOTHING if there is nothing to undo. */
+    public static final int UNDO = 3;
+    /** Reapplies the last undone step. Answers OK, or NOTHING if there is nothing to redo. */
+    public static final int REDO = 4;
+    /** Asks for a hint. Answers MISTAKE or REVEAL with a cell and its solution value and the hints used, or SOLVED. */
+    public static final int HINT = 5;
+    /** Checks the board. Answers SOLVED, or UNSOLVED with the first mistake (if any) and the number of mistakes. */
+    public static final int CHECK = 6;
+    /** Adds a player to a co-op or race session. Answers OK with the new player as value, or FULL. */
+    public static final int JOIN = 7;
+
+    public static final int OK = 0;
+    public static final int SOLVED = 1;
+    public static final int UNSOLVED = 2;
+    public static final int MISTAKE = 3;
+    public static final int REVEAL = 4;
+    public static final int NOTHING = 5;
+    public static final int LOCKED = 6; // the cell is a given
+    public static final int FULL = 7;
+    public static final int UNKNOWN_SESSION = 8;
+    public static final int BAD_REQUEST = 9;
+
+    private GameProtocol() {
+    }
+
+    /**
+     * Writes a request frame.
+     * @param buffer the buffer to write to, with at least REQUEST_BYTES remaining
+     * @param session the session ID
+     * @param op the operation, e.g. SET_VALUE
+     * @param player the index of the player in the session
+     * @param cell the cell index (row * size + col), 0 if the operation takes none
+     * @param value the value or digit, 0 if the operation takes none
+     */
+    public static void putRequest(ByteBuffer buffer, long session, int op, int player, int cell, int value) {
+        buffer.putLong(session).putInt(op << 28 | (player & 0xF) << 24 | (cell & 0xFFFF) << 8 | value & 0xFF);
+    }
+
+    /**
+     * Writes a response frame.
+     * @param buffer the buffer to write to, with at least RESPONSE_BYTES remaining
+     * @param status the status, e.g. OK
+     * @param cell the cell the response is about, or NO_CELL
+     * @param value the value the response is about, or 0
+     * @param extra the number that depends on the operation
+     */
+    public static void putResponse(ByteBuffer buffer, int status, int cell, int value, int extra) {
+        buffer.putInt(status << 24 | (value & 0xFF) << 16 | cell & 0xFFFF).putInt(extra);
+    }
+
+    /**
+     * Getters for the fields of the int packing the move of a request.
+     * @param move the second part of a request frame
+     * @return the respective field
+     */
+    public static int op(int move) {
+        return move >>> 28;
+    }
+    public static int player(int move) {
+        return move >>> 24 & 0xF;
+    }
+    public static int cell(int move) {
+        return move >>> 8 & 0xFFFF;
+    }
+    public static int value(int move) {
+        return move & 0xFF;
+    }
+
+    /**
+     * Getters for the fields of the int heading a response frame.
+     * @param head the first int of a response frame
+     * @return the respective field
+     */
+    public static int status(int head) {
+        return head >>> 24;
+    }
+    public static int responseValue(int head) {
+        return head >>> 16 & 0xFF;
+    }
+    public static int responseCell(int head) {
+        return head & 0xFFFF;
+    }
+}
@@ -0,0 +1,329 @@
+package com.abezard.sudokuHelper.service;
+
+import com.abezard.sudokuHelper.model.SudokuBoard;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Hosts game sessions in memory and applies the moves of the binary protocol (see GameProtocol) to them.
+ * Sessions are spread over a fixed number of shards by their ID, and each shard is a table guarded by its own
+ * lock (lock striping): a move only locks the shard of its session, for the few hundred nanoseconds the move takes,
+ * so moves on different shards never wait for each other and there is no lock per session to allocate. A shard
+ * keys its sessions by the primitive ID in an open-addressing table, so looking a session up boxes nothing. Puzzle
+ * generation, the slow part of creating a session, is done by the caller before any lock is taken.
+ * Session IDs are random, so that they cannot be guessed and spread evenly over the shards.
+ * When the server is full, creating a session sweeps the idle ones, at most once per EVICTION_INTERVAL_NANOS, so
+ * that a flood of creations on a full server does not lock every shard in turn for each of them.
+ */
+public class GameServer {
+    private static final long IDLE_NANOS = 30L * 60 * 1_000_000_000; // half an hour without a move
+    private static final long EVICTION_INTERVAL_NANOS = 10L * 1_000_000_000;
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final int maxSessions;
+    private final AtomicLong nextEviction = new AtomicLong(System.nanoTime());
+
+    /**
+     * The sessions of one shard, in an open-addressing table with linear probing keyed by the session ID, kept at
+     * most half full. Only used under the lock of the shard.
+     */
+    private static final class Shard {
+        private long[] ids = new long[16];
+        private GameSession[] sessions = new GameSession[16]; // null for a free slot
+        private int size;
+
+        GameSession get(long id) {
+            int mask = ids.length - 1;
+            for (int slot = slotOf(id, mask); sessions[slot] != null; slot = (slot + 1) & mask) {
+                if (ids[slot] == id) return sessions[slot];
+            }
+            return null;
+        }
+
+        /**
+         * Adds a session whose ID is not in the table yet.
+         */
+        void put(long id, GameSession session) {
+            if (2 * (size + 1) > ids.length) grow();
+            int mask = ids.length - 1, slot = slotOf(id, mask);
+            while (sessions[slot] != null) slot = (slot + 1) & mask;
+            ids[slot] = id;
+            sessions[slot] = session;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int mask = ids.length - 1;
+            for (int slot = slotOf(id, mask); sessions[slot] != null; slot = (slot + 1) & mask) {
+                if (ids[slot] == id) {
+                    removeAt(slot);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Removes the sessions that received no move since a time.
+         * @return the number of removed sessions
+         */
+        int removeIdle(long now, long idleNanos) {
+            int removed = 0;
+            for (int slot = 0; slot < sessions.length; slot++) {
+                // a removal shifts a later session into this slot, which is then checked again
+                while (sessions[slot] != null && now - sessions[slot].lastActive() > idleNanos) {
+                    removeAt(slot);
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        /**
+         * Frees a slot, moving back the later sessions of its probe run so that no lookup stops short of them.
+         */
+        private void removeAt(int slot) {
+            int mask = ids.length - 1, hole = slot;
+            for (int next = (hole + 1) & mask; sessions[next] != null; next = (next + 1) & mask) {
+                int home = slotOf(ids[next], mask);
+                // the session can fill the hole if its home slot is not between the hole and its slot
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    ids[hole] = ids[next];
+                    sessions[hole] = sessions[next];
+                    hole = next;
+                }
+            }
+            sessions[hole] = null;
+            size--;
+        }
+
+        private void grow() {
+            long[] oldIds = ids;
+            GameSession[] oldSessions = sessions;
+            ids = new long[2 * oldIds.length];
+            sessions = new GameSession[2 * oldIds.length];
+            size = 0;
+            for (int slot = 0; slot < oldIds.length; slot++) {
+                if (oldSessions[slot] != null) put(oldIds[slot], oldSessions[slot]);
+            }
+        }
+
+        private static int slotOf(long id, int mask) {
+            long mixed = id * 0x9E3779B97F4A7C15L;
+            return (int) (mixed ^ mixed >>> 29) & mask;
+        }
+    }
+
+    /**
+     * Constructor for GameServer.
+     * @param shardCount the number of shards, rounded up to a power of two; a few times the number of cores is enough
+     * @param maxSessions the number of sessions above which creating one evicts the idle ones, or fails
+     */
+    public GameServer(int shardCount, int maxSessions) {
+        int count = shardCount <= 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+        shards = new Shard[count];
+        for (int i = 0; i < count; i++) shards[i] = new Shard();
+        shardMask = count - 1;
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Creates a session on a generated puzzle. Sessions playing the same puzzle may share the puzzle, solution and
+     * givens, which are never written.
+     * @param mode how the players share the puzzle
+     * @param seed the seed the puzzle was generated from
+     * @param puzzle the puzzle, with only its given values
+     * @param solution the solution of the puzzle
+     * @param givens the given cells, from GameSession.givensOf(puzzle)
+     * @return the new session, with its first player joined
+     * @throws IllegalStateException if the server holds maxSessions sessions and none of them is idle, or the idle
+     * ones were swept less than EVICTION_INTERVAL_NANOS ago
+     */
+    public GameSession create(GameSession.Mode mode, long seed, SudokuBoard puzzle, SudokuBoard solution, long[] givens) {
+        if (sessionCount() >= maxSessions && (!sweepDue() || evictIdle(IDLE_NANOS) == 0 || sessionCount() >= maxSessions)) {
+            throw new IllegalStateException("The server already hosts " + maxSessions + " sessions.");
+        }
+        while (true) {
+            long id = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+            Shard shard = shardOf(id);
+            synchronized (shard) {
+                if (shard.get(id) == null) {
+                    GameSession session = new GameSession(id, mode, seed, puzzle, solution, givens);
+                    shard.put(id, session);
+                    return session;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claims the next sweep of idle sessions if it is due, so that only one caller per interval sweeps.
+     * @return true if the caller should sweep
+     */
+    private boolean sweepDue() {
+        long now = System.nanoTime(), due = nextEviction.get();
+        return now - due >= 0 && nextEviction.compareAndSet(due, now + EVICTION_INTERVAL_NANOS);
+    }
+
+    /**
+     * Removes a session.
+     * @param id the session ID
+     * @return true if the session existed
+     */
+    public boolean close(long id) {
+        Shard shard = shardOf(id);
+        synchronized (shard) {
+            return shard.remove(id);
+        }
+    }
+
+    /**
+     * Removes the sessions that received no move for a while, one shard at a time.
+     * @param idleNanos how long a session may go without a move
+     * @return the number of removed sessions
+     */
+    public int evictIdle(long idleNanos) {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                removed += shard.removeIdle(now, idleNanos);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Counts the hosted sessions. The count is not atomic across shards, so it may be off while sessions come and go.
+     * @return the number of sessions
+     */
+    public int sessionCount() {
+        int count = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                count += shard.size;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Applies a batch of request frames, writing one response frame per request. Each request locks only the shard
+     * of its session.
+     * @param requests the request frames, read from their position to their limit
+     * @param responses the buffer receiving the responses, with RESPONSE_BYTES remaining per request
+     * @return the number of handled requests
+     */
+    public int handle(ByteBuffer requests, ByteBuffer responses) {
+        int handled = 0;
+        while (requests.remaining() >= GameProtocol.REQUEST_BYTES) {
+            handle(requests.getLong(), requests.getInt(), responses);
+            handled++;
+        }
+        return handled;
+    }
+
+    /**
+     * Applies one request, as read from its frame.
+     * @param id the session ID
+     * @param move the int packing the operation, player, cell and value
+     * @param response the buffer receiving the response frame
+     */
+    public void handle(long id, int move, ByteBuffer response) {
+        Shard shard = shardOf(id);
+        synchronized (shard) {
+            GameSession session = shard.get(id);
+            if (session == null) {
+                GameProtocol.putResponse(response, GameProtocol.UNKNOWN_SESSION, GameProtocol.NO_CELL, 0, 0);
+                return;
+            }
+            session.touch();
+            apply(session, move, response);
+        }
+    }
+
+    /**
+     * Applies a move to a session, under the lock of its shard.
+     */
+    private static void apply(GameSession session, int move, ByteBuffer response) {
+        int op = GameProtocol.op(move), player = GameProtocol.player(move);
+        int cell = GameProtocol.cell(move), value = GameProtocol.value(move);
+        if (op == GameProtocol.JOIN) {
+            int joined = session.join();
+            if (joined < 0) GameProtocol.putResponse(response, GameProtocol.FULL, GameProtocol.NO_CELL, 0, 0);
+            else GameProtocol.putResponse(response, GameProtocol.OK, GameProtocol.NO_CELL, joined, 0);
+            return;
+        }
+        int size = session.puzzle().getSize();
+        boolean cellMove = op == GameProtocol.SET_VALUE || op == GameProtocol.TOGGLE_CANDIDATE;
+        if (player >= session.players() || (cellMove && cell >= size * size)
+                || (op == GameProtocol.SET_VALUE && value > size)
+                || (op == GameProtocol.TOGGLE_CANDIDATE && (value < 1 || value > size))) {
+            GameProtocol.putResponse(response, GameProtocol.BAD_REQUEST, GameProtocol.NO_CELL, 0, 0);
+            return;
+        }
+        switch (op) {
+            case GameProtocol.SET_VALUE -> {
+                if (!session.setValue(player, cell, value)) {
+                    GameProtocol.putResponse(response, GameProtocol.LOCKED, cell, value, 0);
+                    return;
+                }
+                int rank = session.checkFinished(player);
+                GameProtocol.putResponse(response, rank > 0 ? GameProtocol.SOLVED : GameProtocol.OK, cell, value, rank);
+            }
+            case GameProtocol.TOGGLE_CANDIDATE -> GameProtocol.putResponse(response,
+                    session.toggleCandidate(player, cell, value) ? GameProtocol.OK : GameProtocol.LOCKED, cell, value, 0);
+            case GameProtocol.UNDO, GameProtocol.REDO -> GameProtocol.putResponse(response,
+                    session.undoOrRedo(player, op == GameProtocol.REDO) ? GameProtocol.OK : GameProtocol.NOTHING,
+                    GameProtocol.NO_CELL, 0, 0);
+            case GameProtocol.HINT -> {
+                int hintCell = session.hintCell(player);
+                if (hintCell < 0) {
+                    GameProtocol.putResponse(response, GameProtocol.SOLVED, GameProtocol.NO_CELL, 0, 0);
+                    return;
+                }
+                SudokuBoard board = session.board(player);
+                boolean mistake = board.getCell(hintCell / size, hintCell % size) != 0;
+                GameProtocol.putResponse(response, mistake ? GameProtocol.MISTAKE : GameProtocol.REVEAL, hintCell,
+                        session.solution().getCell(hintCell / size, hintCell % size), session.countHint());
+            }
+            case GameProtocol.CHECK -> {
+                SudokuBoard board = session.board(player);
+                if (board.isSolved()) {
+                    GameProtocol.putResponse(response, GameProtocol.SOLVED, GameProtocol.NO_CELL, 0, 0);
+                } else {
+                    int mistake = board.firstMistake();
+                    GameProtocol.putResponse(response, GameProtocol.UNSOLVED,
+                            mistake < 0 ? GameProtocol.NO_CELL : mistake, 0, board.mistakeCount());
+                }
+            }
+            default -> GameProtocol.putResponse(response, GameProtocol.BAD_REQUEST, GameProtocol.NO_CELL, 0, 0);
+        }
+    }
+
+    /**
+     * Runs an action on a session under the lock of its shard, e.g. to read its boards.
+     * @param id the session ID
+     * @param action the action, given the session
+     * @return false if there is no such session
+     */
+    public boolean withSession(long id, Consumer<GameSession> action) {
+        Shard shard = shardOf(id);
+        synchronized (shard) {
+            GameSession session = shard.get(id);
+            if (session == null) return false;
+            action.accept(session);
+            return true;
+        }
+    }
+
+    private Shard shardOf(long id) {
+        // the IDs are random, but a mix keeps the spread even if a caller hands out sequential ones
+        long mixed = id * 0x9E3779B97F4A7C15L;
+        return shards[(int) (mixed >>> 32) & shardMask];
+    }
+}
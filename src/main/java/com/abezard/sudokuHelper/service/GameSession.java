@@ -0,0 +1,224 @@
+package com.abezard.sudokuHelper.service;
+
+import com.abezard.sudokuHelper.model.MoveLog;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+
+/**
+ * One hosted game: a puzzle and the boards its players fill in. In classic play a single player has the board; in
+ * co-op every player writes to the same board and shares its undo history; in a race every player gets a board of
+ * their own from the same puzzle, and the session records the order in which they finish.
+ * Each board tracks its mistakes against the solution (see SudokuBoard.trackMistakes) and keeps its moves in a
+ * MoveLog, so hints, checks, undo and redo are answered from that state without scanning or solving the board.
+ * A session is not thread safe: the GameServer only touches it while holding the lock of its shard.
+ */
+public final class GameSession {
+
+    /**
+     * How the players of a session share the puzzle.
+     */
+    public enum Mode {
+        CLASSIC, COOP, RACE
+    }
+
+    public static final int MAX_PLAYERS = 16; // the player takes 4 bits of a move frame
+
+    private final long id;
+    private final Mode mode;
+    private final long seed;
+    private final SudokuBoard puzzle; // shared by every session created from the same puzzle, never written
+    private final SudokuBoard solution; // same
+    private final long[] givens; // bit per given cell, shared the same way
+    private final SudokuBoard[] boards = new SudokuBoard[MAX_PLAYERS];
+    private final MoveLog[] moves = new MoveLog[MAX_PLAYERS];
+    private final int[] finishRank = new int[MAX_PLAYERS]; // 0 while the player has not solved their board
+    private int players;
+    private int finished;
+    private int hintsUsed;
+    private long lastActive;
+
+    /**
+     * Constructor for GameSession. The first player joins right away.
+     * @param id the session ID
+     * @param mode how the players share the puzzle
+     * @param seed the seed the puzzle was generated from, so that other sessions can play the same puzzle
+     * @param puzzle the puzzle, with only its given values
+     * @param solution the solution of the puzzle
+     * @param givens the given cells, as a mask with bit (cell % 64) of word (cell / 64) set per given
+     */
+    GameSession(long id, Mode mode, long seed, SudokuBoard puzzle, SudokuBoard solution, long[] givens) {
+        this.id = id;
+        this.mode = mode;
+        this.seed = seed;
+        this.puzzle = puzzle;
+        this.solution = solution;
+        this.givens = givens;
+        this.lastActive = System.nanoTime();
+        join();
+    }
+
+    /**
+     * Builds the mask of the given cells of a puzzle, to share between the sessions playing it.
+     * @param puzzle the puzzle, with only its given values
+     * @return the mask, with bit (cell % 64) of word (cell / 64) set per given
+     */
+    public static long[] givensOf(SudokuBoard puzzle) {
+        int size = puzzle.getSize();
+        long[] mask = new long[(puzzle.getGeometry().cellCount() + 63) >>> 6];
+        for (int cell = 0; cell < size * size; cell++) {
+            if (puzzle.getCell(cell / size, cell % size) != 0) mask[cell >>> 6] |= 1L << cell;
+        }
+        return mask;
+    }
+
+    /**
+     * Adds a player. In a race the player gets a fresh board; in co-op the player shares the first board.
+     * @return the index of the player, or -1 if the session is full or is classic play with its player already in
+     */
+    int join() {
+        if (players == MAX_PLAYERS || (mode == Mode.CLASSIC && players == 1)) return -1;
+        int player = players++;
+        if (player == 0 || mode == Mode.RACE) {
+            SudokuBoard board = new SudokuBoard(puzzle);
+            board.trackMistakes(solution);
+            boards[player] = board;
+            moves[player] = new MoveLog();
+        } else {
+            boards[player] = boards[0];
+            moves[player] = moves[0];
+        }
+        return player;
+    }
+
+    /**
+     * Places or clears a value. Given cells cannot be changed.
+     * @param player the index of the player
+     * @param cell the cell index (row * size + col)
+     * @param value the new value, 0 to clear the cell
+     * @return true if the cell could be written, even if it already held the value
+     */
+    boolean setValue(int player, int cell, int value) {
+        if (isGiven(cell)) return false;
+        SudokuBoard board = boards[player];
+        int size = board.getSize();
+        int row = cell / size, col = cell % size;
+        moves[player].beginStep();
+        moves[player].set(board, row, col, value, value == 0 ? board.getCandidateMask(row, col) : 0);
+        return true;
+    }
+
+    /**
+     * Adds or removes a pencil mark in an empty cell.
+     * @param player the index of the player
+     * @param cell the cell index (row * size + col)
+     * @param digit the candidate to toggle
+     * @return true if the cell is empty and the mark was toggled
+     */
+    boolean toggleCandidate(int player, int cell, int digit) {
+        SudokuBoard board = boards[player];
+        int size = board.getSize();
+        int row = cell / size, col = cell % size;
+        if (board.getCell(row, col) != 0) return false;
+        moves[player].beginStep();
+        moves[player].set(board, row, col, 0, board.getCandidateMask(row, col) ^ 1L << (digit - 1));
+        return true;
+    }
+
+    /**
+     * Reverts or reapplies the last step of a player, or of the team in co-op.
+     * @param player the index of the player
+     * @param redo true to redo, false to undo
+     * @return true if there was a step to revert or reapply
+     */
+    boolean undoOrRedo(int player, boolean redo) {
+        return redo ? moves[player].redo(boards[player], cell -> { }) : moves[player].undo(boards[player], cell -> { });
+    }
+
+    /**
+     * Records a player as finished if their board is solved and was not before.
+     * @param player the index of the player
+     * @return the finishing rank of the player from 1, or 0 if their board is not solved
+     */
+    int checkFinished(int player) {
+        if (!boards[player].isSolved()) return 0;
+        if (mode == Mode.COOP) {
+            // the whole team finishes together
+            if (finishRank[0] == 0) finishRank[0] = ++finished;
+            return finishRank[0];
+        }
+        if (finishRank[player] == 0) finishRank[player] = ++finished;
+        return finishRank[player];
+    }
+
+    /**
+     * Finds the cell a hint should be about: the first wrong value if there is one, else the first cell not solved.
+     * Both come from the mistake masks of the board.
+     * @param player the index of the player
+     * @return the cell index, or -1 if the board is solved
+     */
+    int hintCell(int player) {
+        SudokuBoard board = boards[player];
+        int mistake = board.firstMistake();
+        if (mistake >= 0) return mistake;
+        long[] unsolved = board.getUnsolvedMask();
+        for (int word = 0; word < unsolved.length; word++) {
+            if (unsolved[word] != 0) return word << 6 | Long.numberOfTrailingZeros(unsolved[word]);
+        }
+        return -1;
+    }
+
+    private boolean isGiven(int cell) {
+        return (givens[cell >>> 6] & 1L << cell) != 0;
+    }
+
+    /**
+     * Marks the session as used now, for idle eviction.
+     */
+    void touch() {
+        lastActive = System.nanoTime();
+    }
+
+    /**
+     * Counts a hint given to the session.
+     * @return the number of hints given so far
+     */
+    int countHint() {
+        return ++hintsUsed;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public SudokuBoard puzzle() {
+        return puzzle;
+    }
+
+    public SudokuBoard solution() {
+        return solution;
+    }
+
+    public int players() {
+        return players;
+    }
+
+    long lastActive() {
+        return lastActive;
+    }
+
+    /**
+     * Gets the board a player writes to. It belongs to the session, and must only be read under its shard's lock.
+     * @param player the index of the player
+     * @return the board of the player
+     */
+    SudokuBoard board(int player) {
+        return boards[player];
+    }
+}
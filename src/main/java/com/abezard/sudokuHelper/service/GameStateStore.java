@@ -0,0 +1,359 @@
+package com.abezard.sudokuHelper.service;
+
+import com.abezard.sudokuHelper.model.Constraint;
+import com.abezard.sudokuHelper.model.DiagonalConstraint;
+import com.abezard.sudokuHelper.model.GameState;
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.KillerCages;
+import com.abezard.sudokuHelper.model.ParityConstraint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.model.WindowConstraint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Saves the game in progress to a small binary file and restores it at startup.
+ * The file holds, after a header and the constraints of the variant, one byte per cell for the current value with
+ * a flag for givens, one byte per cell for the solution, and the candidates of every cell packed as size bits per
+ * cell (9 bits on a classic board), about 270 bytes for a classic game.
+ * Autosaves are debounced: the state is encoded right away on the caller's thread, and written by a background
+ * thread once no other save was requested for a short delay. Every autosave write, flushes included, runs on that
+ * one thread, so an older state is never moved over a newer one. Writes go to a temporary file that is then moved
+ * over the save file, so a crash during a write never leaves a truncated save.
+ */
+public class GameStateStore implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(GameStateStore.class);
+    private static final int MAGIC = 0x53444b47; // "SDKG"
+    private static final int VERSION = 1;
+    private static final int GIVEN_FLAG = 0x80;
+    private static final long CLOSE_TIMEOUT_MILLIS = 2_000; // a write takes milliseconds; a stuck disk must not hang the exit
+
+    private final Path file;
+    private final long debounceMillis;
+    private final ScheduledExecutorService executor;
+    private ScheduledFuture<?> pendingWrite;
+    private byte[] pending; // the last encoded state not written yet
+
+    /**
+     * Constructor for GameStateStore.
+     * @param file the save file
+     * @param debounceMillis how long to wait for further changes before writing a requested save
+     */
+    public GameStateStore(Path file, long debounceMillis) {
+        this.file = file;
+        this.debounceMillis = debounceMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the default save file, in the user's home directory.
+     * @return the path of the save file
+     */
+    public static Path defaultFile() {
+        return Path.of(System.getProperty("user.home"), ".sudoku-helper", "game.bin");
+    }
+
+    /**
+     * Requests a save of the game. The state is encoded now, and written after the debounce delay unless another
+     * save is requested in the meantime, in which case only the latest state is written.
+     * @param state the game to save
+     */
+    public synchronized void scheduleSave(GameState state) {
+        pending = encode(state);
+        if (pendingWrite != null) pendingWrite.cancel(false);
+        pendingWrite = executor.schedule(this::writePending, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes the pending save, if any, without waiting for the debounce delay. The write runs on the background thread,
+     * after any write it already started, and is waited for a bounded time.
+     */
+    public void flush() {
+        synchronized (this) {
+            if (pendingWrite != null) pendingWrite.cancel(false);
+        }
+        try {
+            executor.submit(this::writePending).get(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // closed: the pending save was flushed by close
+        } catch (ExecutionException e) {
+            log.warn("Could not save the game to {}", file, e.getCause());
+        } catch (TimeoutException e) {
+            log.warn("The autosave of {} did not finish within {} ms", file, CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the pending save and stops the background thread, waiting a bounded time for a write it already started
+     * to finish, so that the application does not exit in the middle of it.
+     */
+    @Override
+    public void close() {
+        flush();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                log.warn("The autosave of {} did not finish within {} ms", file, CLOSE_TIMEOUT_MILLIS);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the last encoded state, if it was not written yet.
+     */
+    private void writePending() {
+        byte[] bytes;
+        synchronized (this) {
+            bytes = pending;
+            pending = null;
+        }
+        if (bytes == null) return;
+        try {
+            write(bytes);
+        } catch (IOException e) {
+            log.warn("Could not save the game to {}", file, e);
+        }
+    }
+
+    /**
+     * Saves the game right away, on the caller's thread.
+     * @param state the game to save
+     * @throws IOException if the file cannot be written
+     */
+    public void save(GameState state) throws IOException {
+        write(encode(state));
+    }
+
+    /**
+     * Writes a save through a temporary file in the same directory, moved over the save file once complete.
+     * @param bytes the encoded game
+     * @throws IOException if the file cannot be written
+     */
+    private void write(byte[] bytes) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, bytes);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Restores the saved game.
+     * @return the saved game, or empty if there is no save or it cannot be read
+     */
+    public Optional<GameState> load() {
+        try {
+            return Optional.of(decode(Files.readAllBytes(file)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not restore the game from {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Encodes a game into the save format.
+     * @param state the game to encode
+     * @return the bytes of the save
+     */
+    public static byte[] encode(GameState state) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+            DataOutputStream out = new DataOutputStream(bytes);
+            Geometry geometry = state.variant().geometry();
+            int size = geometry.size();
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(geometry.boxHeight());
+            out.writeByte(geometry.boxWidth());
+            writeConstraints(out, state.variant().constraints());
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    boolean given = state.givens().getCell(row, col) != 0;
+                    out.writeByte(state.current().getCell(row, col) | (given ? GIVEN_FLAG : 0));
+                }
+            }
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    out.writeByte(state.solution().getCell(row, col));
+                }
+            }
+            // candidates as a stream of size bits per cell
+            long[] words = new long[candidateWords(geometry)];
+            for (int cell = 0; cell < geometry.cellCount(); cell++) {
+                long mask = state.current().getCandidateMask(cell / size, cell % size);
+                long position = (long) cell * size;
+                int index = (int) (position >>> 6), offset = (int) (position & 63);
+                words[index] |= mask << offset;
+                if (offset + size > 64) words[index + 1] |= mask >>> (64 - offset);
+            }
+            for (long word : words) out.writeLong(word);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing to memory failed.", e);
+        }
+    }
+
+    /**
+     * Decodes a game from the save format.
+     * @param data the bytes of the save
+     * @return the game
+     * @throws IOException if the data is not a save or is truncated
+     */
+    public static GameState decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) throw new IOException("Not a saved game.");
+        if (in.readUnsignedByte() != VERSION) throw new IOException("Unsupported save version.");
+        Geometry geometry = new Geometry(in.readUnsignedByte(), in.readUnsignedByte());
+        Variant variant = Variant.of(geometry, readConstraints(in));
+        int size = geometry.size();
+        SudokuBoard givens = new SudokuBoard(variant);
+        SudokuBoard current = new SudokuBoard(variant);
+        SudokuBoard solution = new SudokuBoard(variant);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int packed = in.readUnsignedByte();
+                int value = packed & ~GIVEN_FLAG;
+                current.setCell(row, col, value);
+                if ((packed & GIVEN_FLAG) != 0) givens.setCell(row, col, value);
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                solution.setCell(row, col, in.readUnsignedByte());
+            }
+        }
+        long[] words = new long[candidateWords(geometry)];
+        for (int i = 0; i < words.length; i++) words[i] = in.readLong();
+        for (int cell = 0; cell < geometry.cellCount(); cell++) {
+            long position = (long) cell * size;
+            int index = (int) (position >>> 6), offset = (int) (position & 63);
+            long mask = words[index] >>> offset;
+            if (offset + size > 64) mask |= words[index + 1] << (64 - offset);
+            current.setCandidateMask(cell / size, cell % size, mask & geometry.allValues());
+        }
+        return new GameState(givens, current, solution);
+    }
+
+    /**
+     * Gets the number of longs holding the candidates of every cell, at size bits per cell.
+     * @param geometry the shape of the board
+     * @return the number of longs written for the candidates
+     */
+    private static int candidateWords(Geometry geometry) {
+        return (int) (((long) geometry.cellCount() * geometry.size() + 63) / 64);
+    }
+
+    /**
+     * Writes the constraints of a variant, each as a tag followed by its data.
+     * @param out the stream to write to
+     * @param constraints the constraints of the variant
+     * @throws IOException if writing fails
+     */
+    private static void writeConstraints(DataOutputStream out, List<Constraint> constraints) throws IOException {
+        out.writeByte(constraints.size());
+        for (Constraint constraint : constraints) {
+            if (constraint instanceof DiagonalConstraint) {
+                out.writeByte('D');
+            } else if (constraint instanceof WindowConstraint) {
+                out.writeByte('W');
+            } else if (constraint instanceof KillerCages killer) {
+                out.writeByte('K');
+                out.writeShort(killer.cageCount());
+                for (int cage = 0; cage < killer.cageCount(); cage++) {
+                    out.writeShort(killer.cageSum(cage));
+                    writeCells(out, killer.cageCells(cage));
+                }
+            } else if (constraint instanceof ParityConstraint parity) {
+                out.writeByte('P');
+                writeCells(out, parity.evenCells());
+                writeCells(out, parity.oddCells());
+            } else {
+                throw new IllegalArgumentException("Constraint " + constraint + " cannot be saved.");
+            }
+        }
+    }
+
+    /**
+     * Reads the constraints written by writeConstraints.
+     * @param in the stream to read from
+     * @return the constraints of the variant
+     * @throws IOException if reading fails or a tag is unknown
+     */
+    private static Constraint[] readConstraints(DataInputStream in) throws IOException {
+        int count = in.readUnsignedByte();
+        List<Constraint> constraints = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 'D' -> constraints.add(new DiagonalConstraint());
+                case 'W' -> constraints.add(new WindowConstraint());
+                case 'K' -> {
+                    int cages = in.readUnsignedShort();
+                    int[][] cells = new int[cages][];
+                    int[] sums = new int[cages];
+                    for (int cage = 0; cage < cages; cage++) {
+                        sums[cage] = in.readUnsignedShort();
+                        cells[cage] = readCells(in);
+                    }
+                    constraints.add(new KillerCages(cells, sums));
+                }
+                case 'P' -> constraints.add(new ParityConstraint(readCells(in), readCells(in)));
+                default -> throw new IOException("Unknown constraint tag " + tag + ".");
+            }
+        }
+        return constraints.toArray(new Constraint[0]);
+    }
+
+    private static void writeCells(DataOutputStream out, int[] cells) throws IOException {
+        out.writeShort(cells.length);
+        for (int cell : cells) out.writeShort(cell);
+    }
+
+    private static int[] readCells(DataInputStream in) throws IOException {
+        int[] cells = new int[in.readUnsignedShort()];
+        for (int i = 0; i < cells.length; i++) cells[i] = in.readUnsignedShort();
+        return cells;
+    }
+}
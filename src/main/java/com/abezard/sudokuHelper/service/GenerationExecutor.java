@@ -0,0 +1,297 @@
+package com.abezard.sudokuHelper.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs puzzle generation jobs for the web endpoints on a fixed set of worker threads, so that a burst of requests
+ * queues up instead of running as many backtracking searches at once on request threads.
+ * Jobs are admitted only if they can be served in time:
+ * <ul>
+ *     <li>the queue is bounded, and a full queue rejects the job;</li>
+ *     <li>each difficulty has a limit of jobs in flight (queued or running), lower for HARD, whose searches are the
+ *     longest, so that HARD requests can never take every worker;</li>
+ *     <li>the executor keeps a moving average of the service time of each difficulty, and rejects a job whose
+ *     estimated queue wait plus service time ends after its deadline. A job whose deadline passes while it waits in
+ *     the queue is dropped without running.</li>
+ * </ul>
+ * A rejected job fails fast with a Rejected exception carrying how long to wait before retrying, which the web
+ * layer turns into a 503 with a Retry-After header. Queue wait and service time are counted per difficulty.
+ * A job that started is never interrupted: generation cannot be stopped midway, and the deadline only decides
+ * whether a job starts.
+ */
+@Component
+public class GenerationExecutor {
+    private static final double SMOOTHING = 0.2; // weight of the latest service time in the moving average
+
+    /**
+     * Thrown, or completing the future of a job, when a job is not admitted or expires in the queue.
+     */
+    public static final class Rejected extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final Duration retryAfter;
+
+        Rejected(String message, Duration retryAfter) {
+            super(message);
+            this.retryAfter = retryAfter;
+        }
+
+        /**
+         * Gets how long the client should wait before sending the request again.
+         * @return the estimated time until the executor can take the job, at least one second
+         */
+        public Duration retryAfter() {
+            return retryAfter;
+        }
+    }
+
+    /**
+     * Counters of the jobs of one difficulty, as returned by metrics().
+     */
+    public static final class Metrics {
+        private long admitted, rejected, expired, completed, failed;
+        private long queueWaitNanos, serviceNanos;
+        private int inFlight;
+        private double meanServiceNanos;
+
+        private Metrics copy() {
+            Metrics copy = new Metrics();
+            copy.admitted = admitted;
+            copy.rejected = rejected;
+            copy.expired = expired;
+            copy.completed = completed;
+            copy.failed = failed;
+            copy.queueWaitNanos = queueWaitNanos;
+            copy.serviceNanos = serviceNanos;
+            copy.inFlight = inFlight;
+            copy.meanServiceNanos = meanServiceNanos;
+            return copy;
+        }
+
+        public long admitted() {
+            return admitted;
+        }
+
+        public long rejected() {
+            return rejected;
+        }
+
+        public long expired() {
+            return expired;
+        }
+
+        public long completed() {
+            return completed;
+        }
+
+        public long failed() {
+            return failed;
+        }
+
+        public int inFlight() {
+            return inFlight;
+        }
+
+        /**
+         * Gets the total time the started jobs waited in the queue, and spent running.
+         * @return the respective time in nanoseconds
+         */
+        public long queueWaitNanos() {
+            return queueWaitNanos;
+        }
+        public long serviceNanos() {
+            return serviceNanos;
+        }
+
+        /**
+         * Gets the moving average of the service time, used to estimate whether a job can meet its deadline.
+         * @return the average in nanoseconds, 0 until a job ran
+         */
+        public long meanServiceNanos() {
+            return (long) meanServiceNanos;
+        }
+    }
+
+    private final ThreadPoolExecutor pool;
+    private final int workers;
+    private final Map<SudokuGeneratingService.Difficulty, Integer> limits;
+    private final Map<SudokuGeneratingService.Difficulty, Metrics> metrics =
+            new EnumMap<>(SudokuGeneratingService.Difficulty.class);
+    private long pendingNanos; // estimated service time of the admitted jobs not finished yet
+
+    /**
+     * Constructor for GenerationExecutor, as configured by the application properties.
+     * @param workers the number of worker threads, 0 for one per core
+     * @param queueCapacity the number of jobs that may wait for a worker
+     */
+    @Autowired
+    public GenerationExecutor(@Value("${sudoku.generation.workers:0}") int workers,
+                              @Value("${sudoku.generation.queue-capacity:64}") int queueCapacity) {
+        this(workers > 0 ? workers : Runtime.getRuntime().availableProcessors(), queueCapacity, null);
+    }
+
+    /**
+     * Constructor for GenerationExecutor.
+     * @param workers the number of worker threads
+     * @param queueCapacity the number of jobs that may wait for a worker
+     * @param limits the number of jobs of each difficulty allowed in flight, or null for every worker and queue slot
+     *               for EASY and half the workers for HARD
+     */
+    public GenerationExecutor(int workers, int queueCapacity, Map<SudokuGeneratingService.Difficulty, Integer> limits) {
+        this.workers = workers;
+        if (limits == null) {
+            limits = new EnumMap<>(SudokuGeneratingService.Difficulty.class);
+            limits.put(SudokuGeneratingService.Difficulty.EASY, workers + queueCapacity);
+            limits.put(SudokuGeneratingService.Difficulty.HARD, Math.max(1, workers / 2));
+        }
+        this.limits = new EnumMap<>(limits);
+        for (SudokuGeneratingService.Difficulty difficulty : SudokuGeneratingService.Difficulty.values()) {
+            metrics.put(difficulty, new Metrics());
+        }
+        // platform threads, one per worker: generation is CPU-bound and must not share threads with blocking work
+        pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new DaemonThreadFactory("generator"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Stops the workers when the application closes. Queued jobs are dropped.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Admits a job and queues it for a worker, or rejects it right away.
+     * @param difficulty the difficulty of the generated puzzle, which sets the limit and estimate of the job
+     * @param timeout how long the caller can wait for the result, from now
+     * @param job the generation, run on a worker thread
+     * @param <T> the result of the job
+     * @return the future result of the job; it fails with Rejected if the job expires in the queue, or with the
+     * exception or error thrown by the job
+     * @throws Rejected if the difficulty is at its limit, the queue is full, or the job cannot finish in time
+     */
+    public <T> CompletableFuture<T> submit(SudokuGeneratingService.Difficulty difficulty, Duration timeout,
+                                           Supplier<T> job) {
+        long submitted = System.nanoTime();
+        long deadline = submitted + timeout.toNanos();
+        long estimate = admit(difficulty, timeout.toNanos());
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            pool.execute(() -> run(difficulty, submitted, deadline, estimate, job, result));
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                Metrics counters = metrics.get(difficulty);
+                counters.admitted--;
+                counters.rejected++;
+                counters.inFlight--;
+                pendingNanos -= estimate;
+            }
+            throw new Rejected("The generation queue is full.", retryAfter(0));
+        }
+        return result;
+    }
+
+    /**
+     * Checks the limit and the deadline of a job and counts it in flight.
+     * @return the service time estimated for the job
+     */
+    private synchronized long admit(SudokuGeneratingService.Difficulty difficulty, long budgetNanos) {
+        Metrics counters = metrics.get(difficulty);
+        long estimate = (long) counters.meanServiceNanos;
+        if (counters.inFlight >= limits.getOrDefault(difficulty, workers)) {
+            counters.rejected++;
+            throw new Rejected("Too many " + difficulty + " puzzles are being generated.", retryAfter(estimate));
+        }
+        long finish = pendingNanos / workers + estimate; // wait for the work ahead, spread over the workers, then run
+        if (finish > budgetNanos) {
+            counters.rejected++;
+            throw new Rejected("The puzzle cannot be generated in time.", retryAfter(finish - budgetNanos));
+        }
+        counters.admitted++;
+        counters.inFlight++;
+        pendingNanos += estimate;
+        return estimate;
+    }
+
+    private <T> void run(SudokuGeneratingService.Difficulty difficulty, long submitted, long deadline, long estimate,
+                         Supplier<T> job, CompletableFuture<T> result) {
+        long start = System.nanoTime();
+        if (start - deadline > 0) {
+            finish(difficulty, estimate, -1, 0, false);
+            result.completeExceptionally(new Rejected("The deadline passed in the queue.", retryAfter(0)));
+            return;
+        }
+        T value;
+        try {
+            value = job.get();
+        } catch (Throwable e) {
+            // errors too, so that the job leaves the counters and its caller is not left waiting
+            finish(difficulty, estimate, start - submitted, System.nanoTime() - start, false);
+            result.completeExceptionally(e);
+            if (e instanceof Error error) throw error; // the worker thread is replaced by the pool
+            return;
+        }
+        finish(difficulty, estimate, start - submitted, System.nanoTime() - start, true);
+        result.complete(value);
+    }
+
+    /**
+     * Updates the counters of a job that left the executor.
+     * @param waitNanos the time the job waited in the queue, or -1 if it expired there
+     * @param serviceNanos the time the job ran
+     * @param succeeded whether the job returned a result
+     */
+    private synchronized void finish(SudokuGeneratingService.Difficulty difficulty, long estimate, long waitNanos,
+                                     long serviceNanos, boolean succeeded) {
+        Metrics counters = metrics.get(difficulty);
+        counters.inFlight--;
+        pendingNanos -= estimate;
+        if (waitNanos < 0) {
+            counters.expired++;
+            return;
+        }
+        counters.queueWaitNanos += waitNanos;
+        counters.serviceNanos += serviceNanos;
+        if (succeeded) counters.completed++;
+        else counters.failed++;
+        counters.meanServiceNanos = counters.completed + counters.failed == 1 ? serviceNanos
+                : counters.meanServiceNanos + SMOOTHING * (serviceNanos - counters.meanServiceNanos);
+    }
+
+    private Duration retryAfter(long shortfallNanos) {
+        return Duration.ofSeconds(Math.max(1, (shortfallNanos + 999_999_999) / 1_000_000_000));
+    }
+
+    /**
+     * Gets a snapshot of the counters of each difficulty.
+     * @return the counters, by difficulty
+     */
+    public synchronized Map<SudokuGeneratingService.Difficulty, Metrics> metrics() {
+        Map<SudokuGeneratingService.Difficulty, Metrics> snapshot = new EnumMap<>(SudokuGeneratingService.Difficulty.class);
+        metrics.forEach((difficulty, counters) -> snapshot.put(difficulty, counters.copy()));
+        return snapshot;
+    }
+
+    /**
+     * Gets the number of jobs waiting for a worker.
+     * @return the length of the queue
+     */
+    public int queued() {
+        return pool.getQueue().size();
+    }
+}
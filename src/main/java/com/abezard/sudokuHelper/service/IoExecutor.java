@@ -0,0 +1,77 @@
+package com.abezard.sudokuHelper.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the blocking, I/O-bound work of the web layer: writing streams to slow clients, waiting on generation jobs,
+ * reading and writing saves. Such tasks spend their time blocked, so they get a thread each instead of sharing a
+ * small pool, and can never hold back the CPU-bound solver and generator threads of GenerationExecutor, which are
+ * sized to the cores; CPU-bound work must go there, never here.
+ * On a Java 21 or later runtime every task runs on a virtual thread. The application targets Java 17, where virtual
+ * threads do not exist, so the executor looks them up when it is created and otherwise falls back to a pool of
+ * daemon platform threads started on demand, up to a maximum: each platform thread reserves its own stack, so a
+ * burst of slow clients must not start an unbounded number of them. When every thread of the pool is busy, a task
+ * is rejected with a RejectedExecutionException, which the web layer answers with a 503.
+ */
+@Component
+public class IoExecutor {
+    private final ExecutorService executor;
+    private final boolean virtual;
+
+    /**
+     * Constructor for IoExecutor.
+     * @param maxThreads the number of platform threads the fallback pool may run at once, unused with virtual threads
+     */
+    public IoExecutor(@Value("${sudoku.io.max-threads:256}") int maxThreads) {
+        ExecutorService virtualExecutor = virtualThreadExecutor();
+        this.virtual = virtualExecutor != null;
+        this.executor = virtual ? virtualExecutor : new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), new DaemonThreadFactory("io"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per task, if the runtime has them.
+     * @return the executor, or null on runtimes before Java 21
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs a blocking task on a thread of its own.
+     * @param task the task
+     * @throws RejectedExecutionException if the platform threads of the fallback pool are all busy
+     */
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Checks whether tasks run on virtual threads.
+     * @return true on Java 21 and later
+     */
+    public boolean usesVirtualThreads() {
+        return virtual;
+    }
+
+    /**
+     * Stops the running tasks when the application closes.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,235 @@
+package com.abezard.sudokuHelper.service;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates minimal puzzles, where no clue can be removed without losing the uniqueness of the solution, and searches
+ * toward a clue count target within a time budget.
+ * A single digging pass over every cell in random order already gives a minimal puzzle, but its clue count depends
+ * on the order. From there the search swaps clues: it moves a random clue to a random empty cell, keeps the swap if
+ * the solution stays unique, and digs again, which often frees one more clue. After a number of swaps without
+ * progress it restarts from a new full board. The best puzzle found is returned when the target is reached or the
+ * budget runs out, so the result is always minimal, and the hit rate of each target is kept in the stats.
+ * Each attempt draws everything from its own seed and only checks the budget between attempts, so the puzzle of an
+ * attempt can be regenerated from its seed, which is the ID of the puzzle.
+ * Uniqueness checks go through the bitmask solver: a removal is checked with staysUniqueWithout, which settles most
+ * cells without searching, and a swap with a search stopping at the second solution.
+ */
+public class MinimalPuzzleGenerator {
+    private static final int MAX_STALE_SWAPS = 60; // swaps without progress before a restart
+
+    /**
+     * How often each clue count target was hit.
+     */
+    public static final class Stats {
+        private final Map<Integer, long[]> targets = new TreeMap<>(); // searches, hits, clues, nanos
+
+        synchronized void record(int target, int clues, long nanos) {
+            long[] entry = targets.computeIfAbsent(target, t -> new long[4]);
+            entry[0]++;
+            if (clues <= target) entry[1]++;
+            entry[2] += clues;
+            entry[3] += nanos;
+        }
+
+        /**
+         * Gets the share of searches toward a target that reached it.
+         * @param target the clue count target
+         * @return the hit rate, between 0 and 1, or 0 if there was no search toward that target
+         */
+        public synchronized double hitRate(int target) {
+            long[] entry = targets.get(target);
+            return entry == null ? 0 : (double) entry[1] / entry[0];
+        }
+
+        /**
+         * Gets the number of searches made toward a target.
+         * @param target the clue count target
+         * @return the number of searches
+         */
+        public synchronized long searches(int target) {
+            long[] entry = targets.get(target);
+            return entry == null ? 0 : entry[0];
+        }
+
+        @Override
+        public synchronized String toString() {
+            StringBuilder text = new StringBuilder();
+            targets.forEach((target, entry) -> text.append(String.format(
+                    "target %d: %d/%d hit (%.0f%%), mean %.1f clues, mean %.0f ms%n", target, entry[1], entry[0],
+                    100.0 * entry[1] / entry[0], (double) entry[2] / entry[0], entry[3] / 1e6 / entry[0])));
+            return text.toString();
+        }
+    }
+
+    private final FullBoardGeneratingService generator;
+    private final RandomGenerator random;
+    private final Stats stats = new Stats();
+    private final SolverCache solvers = new SolverCache();
+    private SudokuBoard solution;
+    private long puzzleId;
+
+    /**
+     * Constructor for MinimalPuzzleGenerator.
+     * @param generator the service generating the full boards the puzzles are dug from
+     * @param random the source of the seeds of the attempts
+     */
+    public MinimalPuzzleGenerator(FullBoardGeneratingService generator, RandomGenerator random) {
+        this.generator = generator;
+        this.random = random;
+    }
+
+    /**
+     * Generates a minimal puzzle, searching for one with at most the target number of clues.
+     * @param variant the variant of the puzzle
+     * @param targetClues the clue count to reach
+     * @param budget how long to search; the attempt in progress is always completed
+     * @return the minimal puzzle with the fewest clues found
+     */
+    public SudokuBoard generate(Variant variant, int targetClues, Duration budget) {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        SudokuBoard best = null, bestSolution = null;
+        int bestClues = Integer.MAX_VALUE;
+        long bestSeed = 0;
+        do {
+            long seed = random.nextLong();
+            SudokuBoard puzzle = generate(variant, targetClues, seed);
+            int clues = countClues(puzzle);
+            if (clues < bestClues) {
+                best = puzzle;
+                bestSolution = solution;
+                bestClues = clues;
+                bestSeed = seed;
+            }
+        } while (bestClues > targetClues && System.nanoTime() < deadline);
+        solution = bestSolution;
+        puzzleId = bestSeed;
+        stats.record(targetClues, bestClues, System.nanoTime() - start);
+        return best;
+    }
+
+    /**
+     * Makes a single attempt: digs a new full board down to a minimal puzzle, then swaps clues toward the target until
+     * it is reached or the swaps stop making progress. The attempt only depends on its seed.
+     * @param variant the variant of the puzzle
+     * @param targetClues the clue count to reach
+     * @param seed the seed of the attempt, which becomes the ID of the puzzle
+     * @return the minimal puzzle of the attempt
+     */
+    public SudokuBoard generate(Variant variant, int targetClues, long seed) {
+        SplittableRandom root = new SplittableRandom(seed);
+        SudokuBoard full = generator.generateFullBoard(variant, root.split());
+        solution = rewrap(full, variant.derive(full, root.split()));
+        puzzleId = seed;
+        SudokuBoard puzzle = new SudokuBoard(solution);
+        SplittableRandom searchRandom = root.split();
+        Geometry geometry = puzzle.getGeometry();
+        int size = geometry.size();
+        SudokuSolver solver = solvers.forVariant(solution.getVariant());
+        int clues = geometry.cellCount() - dig(puzzle, solution, solver, searchRandom);
+        int stale = 0;
+        while (clues > targetClues && stale < MAX_STALE_SWAPS) {
+            int removed = randomCell(puzzle, true, searchRandom), added = randomCell(puzzle, false, searchRandom);
+            int removedRow = removed / size, removedCol = removed % size;
+            int addedRow = added / size, addedCol = added % size;
+            puzzle.setCell(removedRow, removedCol, 0);
+            puzzle.setCell(addedRow, addedCol, solution.getCell(addedRow, addedCol));
+            if (solver.countSolutions(puzzle, 2) != 1) {
+                puzzle.setCell(addedRow, addedCol, 0);
+                puzzle.setCell(removedRow, removedCol, solution.getCell(removedRow, removedCol));
+                stale++;
+                continue;
+            }
+            int dug = dig(puzzle, solution, solver, searchRandom);
+            clues -= dug;
+            stale = dug > 0 ? 0 : stale + 1;
+        }
+        return puzzle;
+    }
+
+    /**
+     * Removes every clue that can go without losing uniqueness, trying them in random order. The puzzle is minimal
+     * afterwards: removing clues only makes the others harder to remove, so one pass is enough.
+     * @return the number of clues removed
+     */
+    private static int dig(SudokuBoard puzzle, SudokuBoard solution, SudokuSolver solver, RandomGenerator random) {
+        int size = puzzle.getSize();
+        int[] order = new int[size * size];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        FullBoardGeneratingService.shuffle(order, random);
+        int removed = 0;
+        for (int cell : order) {
+            int row = cell / size, col = cell % size;
+            if (puzzle.getCell(row, col) != 0 && solver.staysUniqueWithout(puzzle, solution, row, col)) {
+                puzzle.setCell(row, col, 0);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Picks a random clue or empty cell.
+     * @param clue true for a clue, false for an empty cell
+     * @return the cell index (row * size + col)
+     */
+    private static int randomCell(SudokuBoard puzzle, boolean clue, RandomGenerator random) {
+        int size = puzzle.getSize();
+        while (true) {
+            int cell = random.nextInt(size * size);
+            if ((puzzle.getCell(cell / size, cell % size) != 0) == clue) return cell;
+        }
+    }
+
+    private static int countClues(SudokuBoard puzzle) {
+        int clues = 0;
+        for (int row = 0; row < puzzle.getSize(); row++) {
+            for (int col = 0; col < puzzle.getSize(); col++) {
+                if (puzzle.getCell(row, col) != 0) clues++;
+            }
+        }
+        return clues;
+    }
+
+    /**
+     * Copies the values of a full board onto a board of the derived variant.
+     */
+    private static SudokuBoard rewrap(SudokuBoard full, Variant derived) {
+        SudokuBoard board = new SudokuBoard(derived);
+        for (int row = 0; row < full.getSize(); row++) {
+            for (int col = 0; col < full.getSize(); col++) {
+                board.setCell(row, col, full.getCell(row, col));
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Returns the solution of the last generated puzzle.
+     * @return the solution, or null if no puzzle was generated yet
+     */
+    public SudokuBoard getSolution() {
+        return solution;
+    }
+
+    /**
+     * Returns the ID of the last generated puzzle: the seed of the attempt it came from.
+     * @return the seed, to pass to {@link #generate(Variant, int, long)} to regenerate the puzzle
+     */
+    public long getPuzzleId() {
+        return puzzleId;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+}
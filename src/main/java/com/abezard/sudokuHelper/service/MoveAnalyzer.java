@@ -0,0 +1,88 @@
+package com.abezard.sudokuHelper.service;
+
+import com.abezard.sudokuHelper.model.MoveLog;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.UnitIndex;
+
+/**
+ * Finds what went wrong in a game without looking at its solution, so it also works on puzzles entered by hand.
+ * Conflicts are values repeated in a unit or a cage, found from one mask of seen values per unit. The point of no
+ * return is the earliest move after which the board has no solution left: the solver is asked whether the board
+ * after a given number of moves still has a solution, and a binary search over the move log narrows it down, so a
+ * game of hundreds of moves only takes about ten solver runs.
+ * An analyzer reuses its solver between calls and is not thread safe.
+ */
+public class MoveAnalyzer {
+    private final SolverCache solvers = new SolverCache();
+
+    /**
+     * Finds the cells whose value is repeated in one of their units or in their cage.
+     * @param board the board to check, following the rules of its variant
+     * @return the conflicting cells, bit (cell % 64) of word (cell / 64) set for each, where the cell index is
+     *         row * size + col
+     */
+    public static long[] conflicts(SudokuBoard board) {
+        UnitIndex index = board.getVariant().index();
+        long[] conflicts = new long[(board.getGeometry().cellCount() + 63) >>> 6];
+        for (int unit = 0; unit < index.unitCount(); unit++) {
+            markRepeats(board, index.unitCells(unit), conflicts);
+        }
+        for (int cage = 0; cage < index.cageCount(); cage++) {
+            markRepeats(board, index.cageCells(cage), conflicts);
+        }
+        return conflicts;
+    }
+
+    /**
+     * Marks the cells of a unit holding a value seen more than once in it. A first pass collects the repeated values
+     * as a mask, a second one marks their cells, so a unit costs two passes whatever the number of repeats.
+     * @param board the board to check
+     * @param cells the cells of the unit
+     * @param conflicts the mask of conflicting cells to add to
+     */
+    private static void markRepeats(SudokuBoard board, int[] cells, long[] conflicts) {
+        int size = board.getSize();
+        long seen = 0, repeated = 0;
+        for (int cell : cells) {
+            int value = board.getCell(cell / size, cell % size);
+            if (value == 0) continue;
+            long bit = 1L << (value - 1);
+            repeated |= seen & bit;
+            seen |= bit;
+        }
+        if (repeated == 0) return;
+        for (int cell : cells) {
+            int value = board.getCell(cell / size, cell % size);
+            if (value != 0 && (repeated & 1L << (value - 1)) != 0) conflicts[cell >>> 6] |= 1L << cell;
+        }
+    }
+
+    /**
+     * Finds the move after which the game could no longer be solved.
+     * The board before the first move is assumed to have a solution, and the search assumes that once the values
+     * have no solution left, the next moves do not bring one back; a move clearing the wrong value does, so a game
+     * whose current board is solvable again has no point of no return.
+     * @param board the board the moves were recorded on, holding all the applied moves
+     * @param moves the move log of the game
+     * @return the position in the log of the move that left no solution, or -1 if the current board still has one
+     */
+    public int pointOfNoReturn(SudokuBoard board, MoveLog moves) {
+        int solvable = 0, unsolvable = moves.appliedCount(); // number of moves known to leave a solution, or none
+        if (hasSolution(board)) return -1;
+        while (unsolvable - solvable > 1) {
+            int middle = (solvable + unsolvable) >>> 1;
+            if (hasSolution(moves.boardAfter(board, middle))) solvable = middle;
+            else unsolvable = middle;
+        }
+        return unsolvable - 1;
+    }
+
+    /**
+     * Checks whether the values of a board can still be completed into a solution.
+     * @param board the board to check, which is left unchanged
+     * @return true if at least one solution exists
+     */
+    public boolean hasSolution(SudokuBoard board) {
+        return solvers.forVariant(board.getVariant()).countSolutions(board, 1) > 0;
+    }
+}
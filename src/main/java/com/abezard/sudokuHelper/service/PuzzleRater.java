@@ -0,0 +1,206 @@
+package com.abezard.sudokuHelper.service;
+
+import com.abezard.sudokuHelper.logic.*;
+import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.Rating;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.UnitIndex;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rates puzzles by solving them with the hint engine, the way a player asking for hints would: starting from all
+ * candidates, it applies the first hint found by the strategies from the easiest, until the puzzle is solved or no
+ * strategy finds anything. The rating is the hardest technique used.
+ * The forcing chain search is bounded by nodes only, so a puzzle always gets the same rating, however loaded the
+ * machine is.
+ * A rater keeps per-strategy state and is not thread safe; use one per thread.
+ */
+public class PuzzleRater {
+    private final SudokuHintService candidateService;
+    private final List<HintStrategy> strategies;
+    private int[] removed = new int[64]; // packed candidates (see Hint.candidate) removed by the step being applied
+    private int removedCount;
+
+    /**
+     * Receives the steps of a rating as they are applied, e.g. to stream a solve trace.
+     */
+    public interface StepListener {
+        /**
+         * Called after a hint was applied to the board.
+         * @param step the number of the step, from 1
+         * @param hint the applied hint
+         * @param eliminations the packed candidates the step removed, placed values excluded
+         * @param board the board after the step, which must not be modified
+         */
+        void onStep(int step, Hint hint, int[] eliminations, SudokuBoard board);
+    }
+
+    /**
+     * Constructor for PuzzleRater.
+     * @param boardGenerator the service used to check placements, following the variant of the rated boards
+     */
+    public PuzzleRater(FullBoardGeneratingService boardGenerator) {
+        // only used to compute candidates, so it needs neither a solution nor a controller
+        this.candidateService = new SudokuHintService(null, boardGenerator, null);
+        StrongLinkGraph strongLinks = new StrongLinkGraph();
+        this.strategies = List.of(
+                new NakedSingleHint(boardGenerator),
+                new HiddenSingleHint(boardGenerator),
+                new LastCandidateHint(candidateService),
+                new NakedPairHint(),
+                new HiddenPairHint(),
+                new PointingPairHint(),
+                new UniqueRectangleHint(),
+                new BugPlusOneHint(),
+                new SimpleColoringHint(strongLinks),
+                new XChainHint(strongLinks),
+                // no time budget: a rating must not depend on how busy the machine is
+                new ForcingChainHint(strongLinks, ForcingChainHint.DEFAULT_NODE_BUDGET)
+        );
+    }
+
+    /**
+     * Rates a puzzle.
+     * @param puzzle the puzzle, with only its given values
+     * @param solution the solution of the puzzle
+     * @return the rating of the puzzle
+     */
+    public Rating rate(SudokuBoard puzzle, SudokuBoard solution) {
+        return rate(puzzle, solution, null);
+    }
+
+    /**
+     * Rates a puzzle, telling a listener about every step.
+     * @param puzzle the puzzle, with only its given values
+     * @param solution the solution of the puzzle
+     * @param listener the listener of the steps, or null
+     * @return the rating of the puzzle
+     */
+    public Rating rate(SudokuBoard puzzle, SudokuBoard solution, StepListener listener) {
+        SudokuBoard board = new SudokuBoard(puzzle);
+        Set<Integer>[][] candidates = candidateService.computeAllCandidates(board);
+        int maxSteps = board.getGeometry().cellCount() * board.getSize(); // every candidate removed one at a time
+        Hint.HintType hardest = null;
+        int steps = 0;
+        while (!isFull(board)) {
+            Hint hint = nextHint(board, candidates, solution);
+            if (hint == null || steps == maxSteps) return new Rating(hardest, steps, false);
+            removedCount = 0;
+            apply(hint, board, candidates);
+            steps++;
+            if (listener != null) listener.onStep(steps, hint, Arrays.copyOf(removed, removedCount), board);
+            if (hardest == null || Rating.Level.of(hint.type()).compareTo(Rating.Level.of(hardest)) > 0) {
+                hardest = hint.type();
+            }
+        }
+        return new Rating(hardest, steps, true);
+    }
+
+    /**
+     * Finds the hint of the easiest strategy that applies.
+     * @return the hint, or null if no strategy finds a placement or elimination
+     */
+    private Hint nextHint(SudokuBoard board, Set<Integer>[][] candidates, SudokuBoard solution) {
+        for (HintStrategy strategy : strategies) {
+            if (!strategy.supports(board.getVariant())) continue;
+            Hint hint = strategy.findHint(board, candidates, solution, true);
+            if (hint == null) continue;
+            // a search running out of budget, or candidates being recomputed, means the engine is stuck
+            if (hint.type() == Hint.HintType.SEARCH_BUDGET_EXCEEDED || hint.type() == Hint.HintType.ALL_CANDIDATES) {
+                return null;
+            }
+            return hint;
+        }
+        return null;
+    }
+
+    /**
+     * Applies a hint to the board and candidates, as the board view does when showing it.
+     */
+    private void apply(Hint hint, SudokuBoard board, Set<Integer>[][] candidates) {
+        Geometry geometry = board.getGeometry();
+        UnitIndex index = board.getVariant().index();
+        int size = geometry.size();
+        switch (hint.type()) {
+            case NAKED_SINGLE, HIDDEN_SINGLE, LAST_CANDIDATE, BUG_PLUS_ONE -> {
+                board.setCell(hint.row(), hint.col(), hint.value());
+                candidates[hint.row()][hint.col()].clear();
+                for (int peer : index.peers(hint.row() * size + hint.col())) {
+                    remove(candidates, peer / size, peer % size, hint.value());
+                }
+            }
+            case NAKED_PAIR -> {
+                CandidatesHint h = (CandidatesHint) hint;
+                for (int cell : unitOf(geometry, index, h)) {
+                    int row = cell / size, col = cell % size;
+                    if (isOneOf(h.getCells(), row, col)) continue;
+                    for (int digit : h.getDigits()) remove(candidates, row, col, digit);
+                }
+            }
+            case HIDDEN_PAIR -> {
+                CandidatesHint h = (CandidatesHint) hint;
+                long pair = 1L << (h.getDigits()[0] - 1) | 1L << (h.getDigits()[1] - 1);
+                for (int cell : h.getCells()) {
+                    for (int digit = 1; digit <= size; digit++) {
+                        if ((pair & 1L << (digit - 1)) == 0) remove(candidates, Hint.rowOf(cell), Hint.colOf(cell), digit);
+                    }
+                }
+            }
+            case POINTING_PAIR -> {
+                CandidatesHint h = (CandidatesHint) hint;
+                for (int cell : unitOf(geometry, index, h)) {
+                    int row = cell / size, col = cell % size;
+                    if (!isOneOf(h.getCells(), row, col)) remove(candidates, row, col, h.getDigits()[0]);
+                }
+            }
+            default -> {
+                for (int elimination : ((CandidatesHint) hint).getEliminations()) {
+                    int cell = Hint.cellOf(elimination);
+                    remove(candidates, Hint.rowOf(cell), Hint.colOf(cell), Hint.digitOf(elimination));
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a candidate from a cell, recording it if the cell had it.
+     */
+    private void remove(Set<Integer>[][] candidates, int row, int col, int digit) {
+        if (!candidates[row][col].remove(digit)) return;
+        if (removedCount == removed.length) removed = Arrays.copyOf(removed, removedCount * 2);
+        removed[removedCount++] = Hint.candidate(row, col, digit);
+    }
+
+    /**
+     * Gets the cells of the row, column or box a hint was found in.
+     */
+    private static int[] unitOf(Geometry geometry, UnitIndex index, Hint hint) {
+        int size = geometry.size();
+        return switch (hint.scope()) {
+            case ROW -> index.unitCells(hint.unit());
+            case COLUMN -> index.unitCells(size + hint.unit());
+            default -> index.unitCells(2 * size + geometry.boxOf(Hint.rowOf(hint.unit()), Hint.colOf(hint.unit())));
+        };
+    }
+
+    private static boolean isOneOf(int[] cells, int row, int col) {
+        for (int cell : cells) {
+            if (cell == Hint.cell(row, col)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isFull(SudokuBoard board) {
+        for (int row = 0; row < board.getSize(); row++) {
+            for (int col = 0; col < board.getSize(); col++) {
+                if (board.getCell(row, col) == 0) return false;
+            }
+        }
+        return true;
+    }
+}
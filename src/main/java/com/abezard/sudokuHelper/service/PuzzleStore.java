@@ -0,0 +1,305 @@
+package com.abezard.sudokuHelper.service;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.Rating;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Keeps millions of rated puzzles of one geometry off the heap, ready to be served, and finds one matching a query
+ * without allocating.
+ * <p>Each puzzle is a fixed-size record in direct byte buffers: its puzzle ID (8 bytes), then the given values
+ * packed on as few bits as the size needs (4 bits per cell on a classic board, 49 bytes a puzzle in all). Records
+ * live in segments of up to SEGMENT_RECORDS puzzles, fewer when the records are so large (boards above about 49x49)
+ * that a full segment would not fit in a buffer, allocated as the store fills, so no buffer goes past the 2 GB limit.
+ * <p>Queries go through bitset indexes, also off the heap, with one bit per puzzle: one bitset per level, per hardest
+ * technique (the one the puzzle requires, as the rater tries easier techniques first) and per clue count, plus the
+ * bitset of the puzzles already served. A query ANDs the words of the bitsets it asks for, 64 puzzles at a time,
+ * from a random word, and takes a random bit of the first non-zero word; it costs a few loads per word and returns
+ * as soon as a match is found. Bitsets are allocated the first time a puzzle needs them.
+ * <p>The store has a fixed capacity. Its methods are synchronized, so it may be shared between threads.
+ */
+public final class PuzzleStore {
+    public static final int SEGMENT_RECORDS = 1 << 20;
+    private static final int ID_BYTES = Long.BYTES;
+
+    /**
+     * A reusable query: which levels, technique and clue counts are accepted, and whether served puzzles are. A
+     * query holds the scratch space of its store and is reused across calls, so that matching allocates nothing.
+     * A query is not thread safe; use one per thread.
+     */
+    public static final class Query {
+        private final LongBuffer[] scratch; // the non-empty clue bitsets within the range, gathered by the store
+        private Rating.Level minLevel = Rating.Level.SINGLES;
+        private Rating.Level maxLevel = Rating.Level.UNSOLVED;
+        private Hint.HintType technique; // null for any
+        private int minClues;
+        private int maxClues;
+        private boolean unseen = true;
+
+        private Query(int cellCount) {
+            scratch = new LongBuffer[cellCount + 1];
+            maxClues = cellCount;
+        }
+
+        /**
+         * Accepts only puzzles whose level is within a band.
+         * @param min the easiest level accepted
+         * @param max the hardest level accepted
+         * @return this query
+         */
+        public Query levels(Rating.Level min, Rating.Level max) {
+            this.minLevel = min;
+            this.maxLevel = max;
+            return this;
+        }
+
+        /**
+         * Accepts only puzzles whose hardest technique is the given one.
+         * @param technique the technique, or null for any
+         * @return this query
+         */
+        public Query technique(Hint.HintType technique) {
+            this.technique = technique;
+            return this;
+        }
+
+        /**
+         * Accepts only puzzles with a number of givens within a range.
+         * @param min the fewest givens accepted
+         * @param max the most givens accepted
+         * @return this query
+         */
+        public Query clues(int min, int max) {
+            this.minClues = Math.max(0, min);
+            this.maxClues = Math.min(scratch.length - 1, max);
+            return this;
+        }
+
+        /**
+         * Chooses whether puzzles already served are accepted.
+         * @param unseen true to accept only puzzles never served, and to mark the found one as served
+         * @return this query
+         */
+        public Query unseen(boolean unseen) {
+            this.unseen = unseen;
+            return this;
+        }
+    }
+
+    private final Geometry geometry;
+    private final int capacity;
+    private final int words; // longs per bitset
+    private final int bitsPerValue;
+    private final int recordBytes;
+    private final int segmentRecords; // records per segment
+    private final ByteBuffer[] segments;
+    private final LongBuffer[] levelIndex = new LongBuffer[Rating.Level.values().length];
+    private final LongBuffer[] techniqueIndex = new LongBuffer[Hint.HintType.values().length];
+    private final LongBuffer[] clueIndex;
+    private final LongBuffer served;
+    private int count;
+
+    /**
+     * Constructor for PuzzleStore.
+     * @param geometry the shape of the stored puzzles
+     * @param capacity the number of puzzles the store can hold
+     */
+    public PuzzleStore(Geometry geometry, int capacity) {
+        this.geometry = geometry;
+        this.capacity = capacity;
+        this.words = (capacity + 63) >>> 6;
+        this.bitsPerValue = 32 - Integer.numberOfLeadingZeros(geometry.size());
+        this.recordBytes = ID_BYTES + (geometry.cellCount() * bitsPerValue + 7) / 8;
+        this.segmentRecords = Math.min(SEGMENT_RECORDS, Integer.MAX_VALUE / recordBytes);
+        this.segments = new ByteBuffer[(capacity + segmentRecords - 1) / segmentRecords];
+        this.clueIndex = new LongBuffer[geometry.cellCount() + 1];
+        this.served = bitset();
+    }
+
+    /**
+     * Creates a query matching every puzzle not served yet, to narrow down with its setters.
+     * @return a new query for this store
+     */
+    public Query newQuery() {
+        return new Query(geometry.cellCount());
+    }
+
+    /**
+     * Adds a rated puzzle.
+     * @param puzzle the puzzle, with only its given values
+     * @param puzzleId the seed the puzzle was generated from, to regenerate it with its solution
+     * @param rating the rating of the puzzle
+     * @return the index of the puzzle in the store
+     * @throws IllegalStateException if the store is full
+     */
+    public synchronized int add(SudokuBoard puzzle, long puzzleId, Rating rating) {
+        if (count == capacity) throw new IllegalStateException("The store is full (" + capacity + " puzzles).");
+        int index = count++;
+        ByteBuffer segment = segments[index / segmentRecords];
+        if (segment == null) {
+            int records = Math.min(segmentRecords, capacity - index);
+            segment = segments[index / segmentRecords] = ByteBuffer.allocateDirect(records * recordBytes);
+        }
+        int position = (index % segmentRecords) * recordBytes;
+        segment.putLong(position, puzzleId);
+
+        int size = geometry.size(), clues = 0, bits = 0, offset = position + ID_BYTES;
+        long pending = 0;
+        for (int cell = 0; cell < geometry.cellCount(); cell++) {
+            int value = puzzle.getCell(cell / size, cell % size);
+            if (value != 0) clues++;
+            pending |= (long) value << bits;
+            bits += bitsPerValue;
+            while (bits >= 8) {
+                segment.put(offset++, (byte) pending);
+                pending >>>= 8;
+                bits -= 8;
+            }
+        }
+        if (bits > 0) segment.put(offset, (byte) pending);
+
+        set(levelIndex, rating.level().ordinal(), index);
+        if (rating.hardest() != null) set(techniqueIndex, rating.hardest().ordinal(), index);
+        set(clueIndex, clues, index);
+        return index;
+    }
+
+    /**
+     * Finds a random puzzle matching a query, and marks it as served if the query asks for unseen puzzles.
+     * Allocates nothing.
+     * @param query the query, created by this store
+     * @param random a random number choosing where the search starts and which match of a word is taken
+     * @return the index of the puzzle, or -1 if no puzzle matches
+     */
+    public synchronized int find(Query query, long random) {
+        if (count == 0) return -1;
+        LongBuffer technique = query.technique == null ? null : techniqueIndex[query.technique.ordinal()];
+        if (query.technique != null && technique == null) return -1;
+        int clueSets = 0;
+        for (int clues = query.minClues; clues <= query.maxClues; clues++) {
+            if (clueIndex[clues] != null) query.scratch[clueSets++] = clueIndex[clues];
+        }
+        if (clueSets == 0) return -1;
+
+        int usedWords = (count + 63) >>> 6;
+        int start = (int) Long.remainderUnsigned(random, usedWords);
+        int rotation = (int) (random >>> 58);
+        for (int i = 0; i < usedWords; i++) {
+            int word = start + i < usedWords ? start + i : start + i - usedWords;
+            long bits = levels(query, word);
+            if (bits == 0) continue;
+            if (technique != null) bits &= technique.get(word);
+            if (query.unseen) bits &= ~served.get(word);
+            if (bits == 0) continue;
+            long clueBits = 0;
+            for (int set = 0; set < clueSets; set++) clueBits |= query.scratch[set].get(word);
+            bits &= clueBits;
+            if (bits == 0) continue;
+            int bit = (Long.numberOfTrailingZeros(Long.rotateRight(bits, rotation)) + rotation) & 63;
+            int index = word << 6 | bit;
+            if (query.unseen) served.put(word, served.get(word) | 1L << bit);
+            return index;
+        }
+        return -1;
+    }
+
+    private long levels(Query query, int word) {
+        long bits = 0;
+        for (int level = query.minLevel.ordinal(); level <= query.maxLevel.ordinal(); level++) {
+            if (levelIndex[level] != null) bits |= levelIndex[level].get(word);
+        }
+        return bits;
+    }
+
+    /**
+     * Gets the puzzle ID of a stored puzzle.
+     * @param index the index of the puzzle
+     * @return the seed the puzzle was generated from
+     */
+    public synchronized long puzzleId(int index) {
+        checkIndex(index);
+        return segments[index / segmentRecords].getLong((index % segmentRecords) * recordBytes);
+    }
+
+    /**
+     * Writes the given values of a stored puzzle to a board, without allocating.
+     * @param index the index of the puzzle
+     * @param board the board receiving the values, of the geometry of the store
+     */
+    public synchronized void read(int index, SudokuBoard board) {
+        checkIndex(index);
+        ByteBuffer segment = segments[index / segmentRecords];
+        int offset = (index % segmentRecords) * recordBytes + ID_BYTES;
+        int size = geometry.size(), mask = (1 << bitsPerValue) - 1, bits = 0;
+        long pending = 0;
+        for (int cell = 0; cell < geometry.cellCount(); cell++) {
+            while (bits < bitsPerValue) {
+                pending |= (long) (segment.get(offset++) & 0xFF) << bits;
+                bits += 8;
+            }
+            board.setCell(cell / size, cell % size, (int) pending & mask);
+            pending >>>= bitsPerValue;
+            bits -= bitsPerValue;
+        }
+    }
+
+    /**
+     * Marks every puzzle as not served, e.g. when a new season of puzzles starts.
+     */
+    public synchronized void resetServed() {
+        for (int word = 0; word < words; word++) served.put(word, 0);
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Gets the size of the record of a puzzle.
+     * @return the bytes taken by the puzzle ID and the packed values
+     */
+    public int recordBytes() {
+        return recordBytes;
+    }
+
+    /**
+     * Gets the number of puzzles each segment of records holds.
+     * @return SEGMENT_RECORDS, or fewer if the records are too large for a full segment to fit in a buffer
+     */
+    public int segmentRecords() {
+        return segmentRecords;
+    }
+
+    /**
+     * Gets the memory the store takes outside the heap.
+     * @return the size of the record segments and bitsets in bytes
+     */
+    public synchronized long offHeapBytes() {
+        long bytes = 0;
+        for (ByteBuffer segment : segments) if (segment != null) bytes += segment.capacity();
+        long bitsets = 1;
+        for (LongBuffer[] index : new LongBuffer[][]{levelIndex, techniqueIndex, clueIndex}) {
+            for (LongBuffer bitset : index) if (bitset != null) bitsets++;
+        }
+        return bytes + bitsets * words * Long.BYTES;
+    }
+
+    private void set(LongBuffer[] index, int key, int puzzle) {
+        if (index[key] == null) index[key] = bitset();
+        LongBuffer bitset = index[key];
+        bitset.put(puzzle >>> 6, bitset.get(puzzle >>> 6) | 1L << puzzle);
+    }
+
+    private LongBuffer bitset() {
+        return ByteBuffer.allocateDirect(words * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException(index);
+    }
+}
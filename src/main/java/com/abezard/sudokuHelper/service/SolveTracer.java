@@ -0,0 +1,95 @@
+package com.abezard.sudokuHelper.service;
+
+import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.Rating;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+
+/**
+ * Solves a puzzle logically, the way the rater does, and writes each step and the progress counters to a trace
+ * stream as compact JSON frames. Cells and candidates are sent packed, as the hints carry them (see Hint.cell and
+ * Hint.candidate), so a step costs a few dozen bytes and no object mapping:
+ * <ul>
+ *     <li>step: {"step":1,"type":"NAKED_SINGLE","row":0,"col":2,"value":4,"cells":[],"digits":[],"eliminated":[...]}</li>
+ *     <li>progress: {"steps":1,"filled":29,"cells":81,"eliminated":12,"elapsedMillis":3}</li>
+ *     <li>done: {"solved":true,"level":"SINGLES","hardest":"HIDDEN_SINGLE","steps":52}</li>
+ * </ul>
+ * A tracer keeps the state of its rater and is not thread safe; use one per job.
+ */
+public class SolveTracer {
+    private final PuzzleRater rater;
+
+    /**
+     * Constructor for SolveTracer.
+     * @param boardGenerator the service used to check placements, following the variant of the traced boards
+     */
+    public SolveTracer(FullBoardGeneratingService boardGenerator) {
+        this.rater = new PuzzleRater(boardGenerator);
+    }
+
+    /**
+     * Solves a puzzle, sending every step and the progress after it to the stream, then completes the stream with
+     * the rating. The producer never waits for the consumer of the stream.
+     * @param puzzle the puzzle, with only its given values
+     * @param solution the solution of the puzzle
+     * @param stream the stream receiving the frames
+     * @return the rating of the puzzle
+     */
+    public Rating trace(SudokuBoard puzzle, SudokuBoard solution, TraceStream stream) {
+        long start = System.nanoTime();
+        int cellCount = puzzle.getGeometry().cellCount();
+        int[] counters = {filledCells(puzzle), 0}; // filled cells, eliminated candidates
+        Rating rating = rater.rate(puzzle, solution, (step, hint, eliminations, board) -> {
+            if (board.getCell(hint.row(), hint.col()) == hint.value() && hint.value() != 0) counters[0]++;
+            counters[1] += eliminations.length;
+            stream.step(stepFrame(step, hint, eliminations));
+            stream.progress("{\"steps\":" + step + ",\"filled\":" + counters[0] + ",\"cells\":" + cellCount
+                    + ",\"eliminated\":" + counters[1] + ",\"elapsedMillis\":" + (System.nanoTime() - start) / 1_000_000
+                    + "}");
+        });
+        stream.complete("{\"solved\":" + rating.solved() + ",\"level\":\"" + rating.level() + "\",\"hardest\":"
+                + (rating.hardest() == null ? "null" : "\"" + rating.hardest() + "\"") + ",\"steps\":" + rating.steps()
+                + "}");
+        return rating;
+    }
+
+    /**
+     * Builds the frame of a step.
+     * @param step the number of the step, from 1
+     * @param hint the applied hint
+     * @param eliminations the packed candidates removed by the step
+     * @return the JSON frame
+     */
+    static String stepFrame(int step, Hint hint, int[] eliminations) {
+        StringBuilder frame = new StringBuilder(64 + 8 * eliminations.length);
+        frame.append("{\"step\":").append(step)
+                .append(",\"type\":\"").append(hint.type()).append('"')
+                .append(",\"row\":").append(hint.row())
+                .append(",\"col\":").append(hint.col())
+                .append(",\"value\":").append(hint.value());
+        CandidatesHint candidatesHint = hint instanceof CandidatesHint h ? h : null;
+        appendArray(frame.append(",\"cells\":"), candidatesHint == null ? new int[0] : candidatesHint.getCells());
+        appendArray(frame.append(",\"digits\":"), candidatesHint == null ? new int[0] : candidatesHint.getDigits());
+        appendArray(frame.append(",\"eliminated\":"), eliminations);
+        return frame.append('}').toString();
+    }
+
+    private static void appendArray(StringBuilder frame, int[] values) {
+        frame.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) frame.append(',');
+            frame.append(values[i]);
+        }
+        frame.append(']');
+    }
+
+    private static int filledCells(SudokuBoard board) {
+        int filled = 0;
+        for (int row = 0; row < board.getSize(); row++) {
+            for (int col = 0; col < board.getSize(); col++) {
+                if (board.getCell(row, col) != 0) filled++;
+            }
+        }
+        return filled;
+    }
+}
@@ -0,0 +1,23 @@
+package com.abezard.sudokuHelper.service;
+
+import com.abezard.sudokuHelper.model.Variant;
+
+/**
+ * Keeps the solver of the last variant solved, so that a service checking many boards of the same rules builds the
+ * solver's tables once. A cache belongs to one service and, like the solver it holds, is not thread safe.
+ */
+final class SolverCache {
+    private SudokuSolver solver;
+
+    /**
+     * Gets the solver for boards of the given variant, reusing the previous one if the rules did not change.
+     * @param variant The variant, giving the geometry of the board and its constraints.
+     * @return A solver for that variant.
+     */
+    SudokuSolver forVariant(Variant variant) {
+        if (solver == null || solver.getIndex() != variant.index()) {
+            solver = new SudokuSolver(variant.index());
+        }
+        return solver;
+    }
+}
@@ -0,0 +1,155 @@
+package com.abezard.sudokuHelper.service;
+
+import com.abezard.sudokuHelper.model.Rating;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Generates a puzzle whose rating falls in a requested band, by running several generators side by side.
+ * Puzzles of a rare band (e.g. needing chains) take many attempts to come by; each generator keeps generating and
+ * rating puzzles with its own split of the random source, the first puzzle in the band wins, and the other
+ * generators stop at the end of their current attempt. With one generator this is the plain trial and error loop.
+ * PuzzleRater bounds its search by nodes only, so whether a puzzle is in the band does not depend on the load of the
+ * machine; which generator wins the race does.
+ */
+public class SpeculativeGenerator {
+
+    /**
+     * A puzzle found by the generator, with its solution, its rating and what it took to find it.
+     */
+    public static final class Result {
+        private final SudokuBoard puzzle;
+        private final SudokuBoard solution;
+        private final Rating rating;
+        private final long puzzleId;
+        private final int attempts;
+
+        Result(SudokuBoard puzzle, SudokuBoard solution, Rating rating, long puzzleId, int attempts) {
+            this.puzzle = puzzle;
+            this.solution = solution;
+            this.rating = rating;
+            this.puzzleId = puzzleId;
+            this.attempts = attempts;
+        }
+
+        public SudokuBoard puzzle() {
+            return puzzle;
+        }
+
+        public SudokuBoard solution() {
+            return solution;
+        }
+
+        public Rating rating() {
+            return rating;
+        }
+
+        /**
+         * Gets the ID of the puzzle, to regenerate it with {@link SudokuGeneratingService#generate(
+         * SudokuGeneratingService.Difficulty, Variant, long)} without rating puzzles again.
+         * @return the seed the puzzle was generated from
+         */
+        public long puzzleId() {
+            return puzzleId;
+        }
+
+        /**
+         * Gets the number of puzzles generated and rated by all generators until this one was found.
+         * @return the number of attempts, this one included
+         */
+        public int attempts() {
+            return attempts;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final int generators;
+
+    /**
+     * Constructor for SpeculativeGenerator, running one generator per core on a pool of its own. The common pool is
+     * not used: its generators would hold its threads for whole searches, starving the parallel streams and
+     * completable futures of the rest of the application. The threads of the pool are daemons and stop once idle.
+     */
+    public SpeculativeGenerator() {
+        this(new ForkJoinPool(Runtime.getRuntime().availableProcessors()), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for SpeculativeGenerator.
+     * @param pool the pool running the generators
+     * @param generators the number of generators run side by side
+     */
+    public SpeculativeGenerator(ForkJoinPool pool, int generators) {
+        if (generators < 1) throw new IllegalArgumentException("At least one generator is needed.");
+        this.pool = pool;
+        this.generators = generators;
+    }
+
+    /**
+     * Generates puzzles until one is rated within a band.
+     * @param difficulty the difficulty of the generated puzzles, as SudokuGeneratingService.generate serves it
+     * @param variant the variant of the generated puzzles
+     * @param band the ratings accepted
+     * @param seed the seed the random source of every generator is split from
+     * @param timeout how long to search before giving up
+     * @return the first puzzle found in the band, or empty if none was found in time
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     * @throws IllegalStateException if a generator failed before a puzzle was found, with the first failure as its
+     * cause; the other generators are stopped
+     */
+    public Optional<Result> generate(SudokuGeneratingService.Difficulty difficulty, Variant variant,
+                                     Predicate<Rating> band, long seed, Duration timeout) throws InterruptedException {
+        AtomicReference<Result> winner = new AtomicReference<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch found = new CountDownLatch(1);
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int i = 0; i < generators; i++) {
+            SplittableRandom split = root.split();
+            pool.execute(() -> {
+                try {
+                    SudokuGeneratingService service = new SudokuGeneratingService(new FullBoardGeneratingService(), split);
+                    PuzzleRater rater = new PuzzleRater(new FullBoardGeneratingService());
+                    while (!stop.get()) {
+                        SudokuBoard puzzle = service.generate(difficulty, variant);
+                        SudokuBoard solution = service.getSolution();
+                        Rating rating = rater.rate(puzzle, solution);
+                        int attempt = attempts.incrementAndGet();
+                        if (band.test(rating) && winner.compareAndSet(null, new Result(puzzle, solution, rating,
+                                service.getPuzzleId(), attempt))) {
+                            stop.set(true);
+                            found.countDown();
+                        }
+                    }
+                } catch (Throwable e) {
+                    // the pool would only log it, so the caller is woken up to report it
+                    failure.compareAndSet(null, e);
+                    stop.set(true);
+                    found.countDown();
+                }
+            });
+        }
+        try {
+            found.await(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } finally {
+            // the other generators see the flag at the end of their current attempt and return
+            stop.set(true);
+        }
+        if (winner.get() == null && failure.get() != null) {
+            throw new IllegalStateException("A generator failed.", failure.get());
+        }
+        return Optional.ofNullable(winner.get());
+    }
+}
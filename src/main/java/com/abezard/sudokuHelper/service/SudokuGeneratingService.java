@@ -1,29 +1,40 @@
 package com.abezard.sudokuHelper.service;
 
+import com.abezard.sudokuHelper.model.Geometry;
 import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 @Component
 public class SudokuGeneratingService {
 
     private final FullBoardGeneratingService generator;
-    private final Random random = new Random();
+    private final RandomGenerator random;
     private SudokuBoard solution;
+    private long puzzleId;
+    private final SolverCache solvers = new SolverCache();
+    private MinimalPuzzleGenerator minimalGenerator;
+    /**
+     * How long the minimal puzzle search of a hard puzzle may look for its clue count.
+     */
+    public static final Duration HARD_SEARCH_BUDGET = Duration.ofMillis(500);
+
     public enum Difficulty {
         EASY(28),
-        HARD(18);
+        HARD(22);
 
         private final int clueCount;
 
         /**
          * Constructor for Difficulty enum.
          * @param clueCount The number of clues to be left in the generated Sudoku puzzle based on difficulty.
-         * (28 for EASY, 18 for HARD)
+         * (28 for EASY, 22 for HARD: the lowest count the minimal puzzle search of a 9x9 board reaches almost every
+         * time within HARD_SEARCH_BUDGET, see MinimalPuzzleBenchmarkTests)
          */
         Difficulty(int clueCount) {
             this.clueCount = clueCount;
@@ -36,14 +47,66 @@ public class SudokuGeneratingService {
         public int getClueCount() {
             return clueCount;
         }
+
+        /**
+         * Gets the number of clues for the difficulty level on a board of the given geometry.
+         * The clue count of a classic 9x9 board is scaled to keep the same proportion of given cells.
+         * @param geometry The shape of the board and its boxes.
+         * @return The number of clues to be left in the generated Sudoku puzzle.
+         */
+        public int getClueCount(Geometry geometry) {
+            if (geometry.equals(Geometry.CLASSIC)) return clueCount;
+            return (int) Math.round(clueCount * geometry.cellCount() / 81.0);
+        }
     }
 
     /**
      * Constructor for SudokuGeneratingService.
      * @param generator The FullBoardGeneratingService used to generate a complete Sudoku board and check placements.
      */
+    @Autowired
     public SudokuGeneratingService(FullBoardGeneratingService generator) {
+        this(generator, new SplittableRandom());
+    }
+
+    /**
+     * Constructor for SudokuGeneratingService.
+     * @param generator The FullBoardGeneratingService used to generate a complete Sudoku board and check placements.
+     * @param random The source of the seeds of the generated puzzles.
+     */
+    public SudokuGeneratingService(FullBoardGeneratingService generator, RandomGenerator random) {
         this.generator = generator;
+        this.random = random;
+    }
+
+    /**
+     * Generates a puzzle of the given variant as the application serves the difficulty level: an easy puzzle is dug
+     * down to its clue count, a hard one is searched for as a minimal puzzle with at most its clue count, within
+     * HARD_SEARCH_BUDGET. The client, the game sessions and the solve traces all go through this method or
+     * {@link #generate(Difficulty, Variant, long)}, so that a difficulty means the same puzzles everywhere.
+     * @param difficulty The difficulty level of the puzzle, either "easy" or "hard".
+     * @param variant The variant, giving the geometry of the board and its constraints.
+     * @return A SudokuBoard object representing the generated puzzle. Ensures the uniqueness of the solution.
+     * @see #getPuzzleId()
+     */
+    public SudokuBoard generate(Difficulty difficulty, Variant variant) {
+        return difficulty == Difficulty.HARD
+                ? generateMinimalPuzzle(difficulty, variant, HARD_SEARCH_BUDGET)
+                : generatePuzzle(difficulty, variant);
+    }
+
+    /**
+     * Generates the puzzle of the given variant, difficulty level and seed as {@link #generate(Difficulty, Variant)}
+     * does, e.g. to regenerate a puzzle from its ID.
+     * @param difficulty The difficulty level of the puzzle, either "easy" or "hard".
+     * @param variant The variant, giving the geometry of the board and its constraints.
+     * @param seed The seed of the puzzle, which becomes its ID.
+     * @return A SudokuBoard object representing the generated puzzle. Ensures the uniqueness of the solution.
+     */
+    public SudokuBoard generate(Difficulty difficulty, Variant variant, long seed) {
+        return difficulty == Difficulty.HARD
+                ? generateMinimalPuzzle(difficulty, variant, seed)
+                : generatePuzzle(difficulty, variant, seed);
     }
 
     /**
@@ -53,28 +116,73 @@ public class SudokuGeneratingService {
      * Ensures the uniqueness of the solution.
      */
     public SudokuBoard generatePuzzle(Difficulty difficulty) {
-        solution = generator.generateFullBoard();
-        SudokuBoard puzzle = new SudokuBoard(solution);
+        return generatePuzzle(difficulty, Geometry.CLASSIC);
+    }
+
+    /**
+     * Generates a Sudoku puzzle of the given geometry based on the specified difficulty level.
+     * @param difficulty The difficulty level of the puzzle, either "easy" or "hard".
+     * @param geometry The shape of the board and its boxes.
+     * @return A SudokuBoard object representing the generated puzzle with a certain number of removed values.
+     * Ensures the uniqueness of the solution.
+     */
+    public SudokuBoard generatePuzzle(Difficulty difficulty, Geometry geometry) {
+        return generatePuzzle(difficulty, Variant.classic(geometry));
+    }
+
+    /**
+     * Generates a Sudoku puzzle of the given variant based on the specified difficulty level.
+     * Constraints laid out from the solution (killer cages, even/odd cells) are derived once the solution is known,
+     * and the puzzle and its solution follow the derived variant.
+     * @param difficulty The difficulty level of the puzzle, either "easy" or "hard".
+     * @param variant The variant, giving the geometry of the board and its constraints.
+     * @return A SudokuBoard object representing the generated puzzle with a certain number of removed values.
+     * Ensures the uniqueness of the solution.
+     * @see #getPuzzleId()
+     */
+    public SudokuBoard generatePuzzle(Difficulty difficulty, Variant variant) {
+        return generatePuzzle(difficulty, variant, random.nextLong());
+    }
 
-        // Create a list of all coordinates in the Sudoku grid
-        List<int[]> positions = new ArrayList<>();
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                positions.add(new int[]{row, col});
+    /**
+     * Generates the Sudoku puzzle of the given variant, difficulty level and seed. The puzzle and its solution only
+     * depend on these three, so a puzzle can be regenerated from its ID instead of being stored.
+     * The seed is split into one stream for the full board, one for the derived constraints and one for the order in
+     * which cells are removed, so that a change in how one step draws values does not shift the others.
+     * @param difficulty The difficulty level of the puzzle, either "easy" or "hard".
+     * @param variant The variant, giving the geometry of the board and its constraints.
+     * @param seed The seed of the puzzle, which becomes its ID.
+     * @return A SudokuBoard object representing the generated puzzle with a certain number of removed values.
+     * Ensures the uniqueness of the solution.
+     */
+    public SudokuBoard generatePuzzle(Difficulty difficulty, Variant variant, long seed) {
+        Geometry geometry = variant.geometry();
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom boardRandom = root.split(), deriveRandom = root.split(), digRandom = root.split();
+        SudokuBoard full = generator.generateFullBoard(variant, boardRandom);
+        Variant derived = variant.derive(full, deriveRandom);
+        solution = new SudokuBoard(derived);
+        for (int row = 0; row < geometry.size(); row++) {
+            for (int col = 0; col < geometry.size(); col++) {
+                solution.setCell(row, col, full.getCell(row, col));
             }
         }
+        SudokuBoard puzzle = new SudokuBoard(solution);
+        puzzleId = seed;
 
-        Collections.shuffle(positions, random); // Shuffle all the coordinates to randomly remove cells
-        int clues = difficulty.getClueCount(); // Number of clues based on difficulty
+        // Shuffle all the cells (row * size + col) to randomly remove values
+        int[] positions = new int[geometry.cellCount()];
+        for (int cell = 0; cell < positions.length; cell++) {
+            positions[cell] = cell;
+        }
+        FullBoardGeneratingService.shuffle(positions, digRandom);
+        int clues = difficulty.getClueCount(geometry); // Number of clues based on difficulty
         int removed = 0;
-        for (int[] pos : positions) {
-            if (81 - removed <= clues) break; // stop if we removed enough cells
-            int row = pos[0], col = pos[1];
-            int backup = puzzle.getCell(row, col);
-            puzzle.setCell(row, col, 0);
-            if (countSolutions(puzzle) != 1) {
-                puzzle.setCell(row, col, backup); // Restore if not uniquely solvable
-            } else {
+        for (int cell : positions) {
+            if (geometry.cellCount() - removed <= clues) break; // stop if we removed enough cells
+            int row = cell / geometry.size(), col = cell % geometry.size();
+            if (solvers.forVariant(derived).staysUniqueWithout(puzzle, solution, row, col)) {
+                puzzle.setCell(row, col, 0); // Only remove the value if the solution stays unique
                 removed++;
             }
         }
@@ -82,61 +190,105 @@ public class SudokuGeneratingService {
     }
 
     /**
-     * Counts the number of solutions for a given Sudoku board. (Helper method for ensuring uniqueness of the solution)
-     * @param board The SudokuBoard to check for solutions.
-     * @return The number of valid solutions for the given board.
+     * Generates a minimal Sudoku puzzle of the given variant, searching within a time budget for one with no more
+     * clues than the difficulty asks for. Unlike {@link #generatePuzzle(Difficulty, Variant)}, which stops removing
+     * values once the clue count is reached, every clue of the puzzle is needed for the solution to stay unique.
+     * The search tries one seed after another; the ID of the puzzle is the seed of the attempt it came from.
+     * @param difficulty The difficulty level giving the clue count to reach.
+     * @param variant The variant, giving the geometry of the board and its constraints.
+     * @param budget How long to search for fewer clues once a first minimal puzzle is found.
+     * @return A SudokuBoard object representing the minimal puzzle with the fewest clues found.
+     * @see MinimalPuzzleGenerator
      */
-    public int countSolutions(SudokuBoard board) {
-        return countSolutionsHelper(board, 0);
+    public SudokuBoard generateMinimalPuzzle(Difficulty difficulty, Variant variant, Duration budget) {
+        SudokuBoard puzzle = minimalGenerator().generate(variant, difficulty.getClueCount(variant.geometry()), budget);
+        solution = minimalGenerator.getSolution();
+        puzzleId = minimalGenerator.getPuzzleId();
+        return puzzle;
     }
 
     /**
-     * Recursive helper method to count the number of solutions for a Sudoku board.
+     * Regenerates the minimal Sudoku puzzle of the given variant, difficulty level and seed, as found by
+     * {@link #generateMinimalPuzzle(Difficulty, Variant, Duration)}.
+     * @param difficulty The difficulty level giving the clue count to reach.
+     * @param variant The variant, giving the geometry of the board and its constraints.
+     * @param seed The ID of the puzzle.
+     * @return A SudokuBoard object representing the minimal puzzle.
+     */
+    public SudokuBoard generateMinimalPuzzle(Difficulty difficulty, Variant variant, long seed) {
+        SudokuBoard puzzle = minimalGenerator().generate(variant, difficulty.getClueCount(variant.geometry()), seed);
+        solution = minimalGenerator.getSolution();
+        puzzleId = seed;
+        return puzzle;
+    }
+
+    private MinimalPuzzleGenerator minimalGenerator() {
+        if (minimalGenerator == null) minimalGenerator = new MinimalPuzzleGenerator(generator, random);
+        return minimalGenerator;
+    }
+
+    /**
+     * Counts the number of solutions for a given Sudoku board. (Helper method for ensuring uniqueness of the solution)
+     * The search stops as soon as a second solution is found.
      * @param board The SudokuBoard to check for solutions.
-     * @param count The current count of valid solutions found.
-     * @return The total number of valid solutions found.
-     */
-    private int countSolutionsHelper(SudokuBoard board, int count) {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                if (board.getCell(row, col) == 0) {
-                    for (int num = 1; num <= 9; num++) {
-                        if (generator.isValidPlacement(board, row, col, num)) {
-                            board.setCell(row, col, num);
-                            count = countSolutionsHelper(board, count);
-                            board.setCell(row, col, 0);
-                            if (count > 1) return count; // Early stop if more than 1 solution
-                        }
-                    }
-                    return count; // No valid number -> invalid board
-                }
-            }
-        }
-        return count + 1; // Only one valid solution
+     * @return The number of valid solutions for the given board (0, 1 or 2 for "more than one").
+     */
+    public int countSolutions(SudokuBoard board) {
+        return solvers.forVariant(board.getVariant()).countSolutions(board, 2);
     }
 
     /**
      * Checks the user's solution against the generated solution.
+     * A board that already tracks its mistakes (see SudokuBoard.trackMistakes) is assumed to track them against this
+     * solution, and its mask is returned without reading the cells; any other board is checked cell by cell once.
      * @param currentBoard The SudokuBoard object representing the user's current inputs.
-     * @return A SudokuBoard object with the user's inputs marked as correct (0) or incorrect (-1).
+     * @return The cells whose value is wrong or missing, bit (cell % 64) of word (cell / 64) set for each, where the
+     *         cell index is row * size + col. No bit is set if the board is solved.
      */
-    public SudokuBoard checkSolution(SudokuBoard currentBoard) {
+    public long[] checkSolution(SudokuBoard currentBoard) {
         if (solution == null) {
             throw new IllegalStateException("No solution available. Generate a puzzle first.");
         }
-        // Use the solution to return a mapping of which inputs are wrong.
-        SudokuBoard userSolution = new SudokuBoard(currentBoard);
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                if (userSolution.getCell(row, col) != solution.getCell(row, col)) {
-                    userSolution.setCell(row, col, -1); //Incorrect value
-                }
-                else{
-                    userSolution.setCell(row, col, 0); // Correct value
-                }
-            }
-        }
-        return userSolution; // return the board with correct and incorrect values
+        if (currentBoard.tracksMistakes()) return currentBoard.getUnsolvedMask();
+        SudokuBoard tracked = new SudokuBoard(currentBoard);
+        tracked.trackMistakes(solution);
+        return tracked.getUnsolvedMask();
+    }
+
+    /**
+     * Restores the solution of a saved game, so that the game can be checked and hinted as if it was just generated.
+     * @param solution The solution of the saved puzzle.
+     */
+    public void restoreSolution(SudokuBoard solution) {
+        this.solution = new SudokuBoard(solution);
+    }
+
+    /**
+     * Returns the ID of the generated Sudoku puzzle: the seed it was generated from. Generating a puzzle of the same
+     * variant and difficulty from that seed, on this node or any other, gives the same puzzle and solution.
+     * @return The seed of the last generated puzzle.
+     */
+    public long getPuzzleId() {
+        return puzzleId;
+    }
+
+    /**
+     * Formats a puzzle ID for display, as the 16 hexadecimal digits of the seed.
+     * @param puzzleId The seed of the puzzle.
+     * @return The puzzle ID as text.
+     */
+    public static String formatPuzzleId(long puzzleId) {
+        return String.format("%016x", puzzleId);
+    }
+
+    /**
+     * Parses a puzzle ID formatted by {@link #formatPuzzleId(long)}.
+     * @param text The puzzle ID as text.
+     * @return The seed of the puzzle.
+     * @throws NumberFormatException if the text is not a hexadecimal 64-bit number.
+     */
+    public static long parsePuzzleId(String text) {
+        return Long.parseUnsignedLong(text.trim(), 16);
     }
 
     /**
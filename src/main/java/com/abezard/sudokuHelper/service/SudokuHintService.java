@@ -4,6 +4,7 @@ import com.abezard.sudokuHelper.controller.SudokuController;
 import com.abezard.sudokuHelper.logic.*;
 import com.abezard.sudokuHelper.model.CandidatesHint;
 import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SearchBudgetHint;
 import com.abezard.sudokuHelper.model.SudokuBoard;
 
 import java.util.*;
@@ -13,6 +14,7 @@ public class SudokuHintService {
     private final FullBoardGeneratingService boardGenerator;
     private boolean candidatesGiven = false; // Flag to show if candidates have been given to user
     private final SudokuController controller;
+    private final StrongLinkGraph strongLinks = new StrongLinkGraph(); // shared by the chaining strategies
     List<HintStrategy> hintStrategies;
 
     /**
@@ -32,7 +34,12 @@ public class SudokuHintService {
                 new LastCandidateHint(this),
                 new NakedPairHint(),
                 new HiddenPairHint(),
-                new PointingPairHint()
+                new PointingPairHint(),
+                new UniqueRectangleHint(),
+                new BugPlusOneHint(),
+                new SimpleColoringHint(strongLinks),
+                new XChainHint(strongLinks),
+                new ForcingChainHint(strongLinks)
         );
     }
 
@@ -44,8 +51,9 @@ public class SudokuHintService {
     public Hint computeHint(SudokuBoard currentBoard) {
         Set<Integer>[][] candidates = controller.getCandidates();
         for (HintStrategy strategy : hintStrategies) {
+            if (solution != null && !strategy.supports(solution.getVariant())) continue;
             Hint hint = strategy.findHint(currentBoard, candidates, solution, candidatesGiven);
-            if (hint instanceof CandidatesHint) return hint;
+            if (hint instanceof CandidatesHint || hint instanceof SearchBudgetHint) return hint;
             if( hint != null) {
                 candidatesGiven = false; // since a new hint is given, candidates might need to be recomputed
                 return hint;
@@ -61,15 +69,16 @@ public class SudokuHintService {
      */
     @SuppressWarnings("unchecked")
     public Set<Integer>[][] computeAllCandidates(SudokuBoard board) {
-        Set<Integer>[][] candidates = new HashSet[9][9];
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
+        int size = board.getSize();
+        Set<Integer>[][] candidates = new HashSet[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
                 if (board.getCell(row, col) != 0) {
                     candidates[row][col] = new HashSet<>();
                     continue;
                 }
                 Set<Integer> candidateSet = new HashSet<>();
-                for( int num = 1; num <= 9; num++) {
+                for( int num = 1; num <= size; num++) {
                     if (boardGenerator.isValidPlacement(board, row, col, num)) {
                         candidateSet.add(num);
                     }
@@ -0,0 +1,520 @@
+package com.abezard.sudokuHelper.service;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Topology;
+import com.abezard.sudokuHelper.model.UnitIndex;
+import com.abezard.sudokuHelper.model.Variant;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Backtracking solver working on bitmasks, used to check puzzles for uniqueness.
+ * Each row, column and box keeps a mask of the values already used, so the options of a cell are found with
+ * a few mask operations. At every level the search places a naked or hidden single if there is one, and otherwise
+ * branches on the empty cell with the fewest options or a value with only two places in a unit; the unit counts
+ * keep 16x16 and larger boards fast.
+ * Variants are read from a compiled UnitIndex: extra units join the unit counts, and cages and cell restrictions
+ * narrow the options of their cells. A classic index skips all of this, so the classic search does not pay for it.
+ * A solver is bound to one geometry and reuses its buffers between calls, so it is not thread safe. The search itself
+ * allocates nothing: filling an empty board only costs the board it writes to.
+ */
+public class SudokuSolver {
+    private static final int PERMUTATION_COUNT = 256;
+    private static final int FIRST_RESTART_NODES = 64; // per cell, doubled at every restart
+    private final Geometry geometry;
+    private final UnitIndex index;
+    private final boolean classic;
+    private final int unitCount;
+    private final int size;
+    private final long allValues;
+    private final int[] cellRow;
+    private final int[] cellCol;
+    private final int[] cellBox;
+
+    private final long[] rowUsed;
+    private final long[] colUsed;
+    private final long[] boxUsed;
+    private final long[] extraUsed; // per extra unit of the variant
+    private final long[] cageUsed;
+    private final int[] cageTotal; // sum of the values placed in each cage
+    private final int[] cageEmpty; // number of empty cells in each cage
+    private final int[] values;
+    private final int[] empty; // the empty cells, the first depth entries are the ones already filled by the search
+    private final long[] options; // options of each empty cell at the current level
+    private final long[] once; // per unit (rows, then columns, then boxes, then extra units), the values fitting at least one empty cell
+    private final long[] twice; // per unit, the values fitting at least two empty cells
+    private final long[] thrice; // per unit, the values fitting at least three empty cells
+    private int emptyCount;
+    private final int[] firstSolution;
+    private boolean recordSolution; // whether the first solution found is copied to firstSolution
+    private int excludedCell = -1; // a cell that may not take excludedBit, used when removing a given
+    private long excludedBit;
+    private final long[] preferred; // per cell, the value tried first (as a mask), or 0 to try values in order
+    private final byte[][] permutations; // orders of the values (as bit positions), drawn from by solve(board, random)
+    private final int[] permutationOf; // per cell, the permutation its values are tried in, or -1 to follow preferred
+    private long nodes; // search levels visited by the current call
+    private long nodeBudget = Long.MAX_VALUE; // levels after which the search gives up
+    private boolean aborted;
+
+    /**
+     * Constructor for SudokuSolver, for classic boards.
+     * @param geometry the geometry of the boards this solver works on
+     */
+    public SudokuSolver(Geometry geometry) {
+        this(Variant.classic(geometry).index());
+    }
+
+    /**
+     * Constructor for SudokuSolver, for boards of a variant.
+     * @param index the compiled rules of the variant
+     */
+    public SudokuSolver(UnitIndex index) {
+        this.index = index;
+        this.geometry = index.geometry();
+        this.classic = index.isClassic();
+        this.unitCount = index.unitCount();
+        this.size = geometry.size();
+        this.allValues = geometry.allValues();
+        int cellCount = geometry.cellCount();
+        Topology topology = Topology.of(geometry); // shared tables, never written to
+        cellRow = topology.rows();
+        cellCol = topology.cols();
+        cellBox = topology.boxes();
+        rowUsed = new long[size];
+        colUsed = new long[size];
+        boxUsed = new long[size];
+        extraUsed = new long[unitCount - 3 * size];
+        cageUsed = new long[index.cageCount()];
+        cageTotal = new int[index.cageCount()];
+        cageEmpty = new int[index.cageCount()];
+        values = new int[cellCount];
+        empty = new int[cellCount];
+        options = new long[cellCount];
+        once = new long[unitCount];
+        twice = new long[unitCount];
+        thrice = new long[unitCount];
+        preferred = new long[cellCount];
+        firstSolution = new int[cellCount];
+        permutations = permutations(size);
+        permutationOf = new int[cellCount];
+    }
+
+    /**
+     * Builds the table of value orders used to fill boards at random. The table is drawn from a fixed seed, so that
+     * boards only depend on the random source passed to {@link #solve(SudokuBoard, RandomGenerator)}.
+     * @param size the number of values
+     * @return PERMUTATION_COUNT permutations of the bit positions 0 to size - 1
+     */
+    private static byte[][] permutations(int size) {
+        SplittableRandom random = new SplittableRandom(size);
+        byte[][] table = new byte[PERMUTATION_COUNT][size];
+        for (byte[] permutation : table) {
+            for (int i = 0; i < size; i++) permutation[i] = (byte) i;
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                byte swap = permutation[i];
+                permutation[i] = permutation[j];
+                permutation[j] = swap;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Gets the geometry this solver works on.
+     * @return the geometry of the boards this solver accepts
+     */
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Gets the compiled rules this solver works with.
+     * @return the unit index of the variant
+     */
+    public UnitIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Counts the solutions of a board, stopping once the limit is reached.
+     * @param board the board to solve, which is left unchanged
+     * @param limit the number of solutions after which the search stops (2 is enough to check uniqueness)
+     * @return the number of solutions found, at most limit
+     */
+    public int countSolutions(SudokuBoard board, int limit) {
+        if (!load(board)) return 0;
+        recordSolution = false;
+        excludedCell = -1;
+        Arrays.fill(preferred, 0);
+        Arrays.fill(permutationOf, -1);
+        return search(0, limit);
+    }
+
+    /**
+     * Checks whether a puzzle with a unique solution keeps it once one of its givens is removed.
+     * If the removed value is still forced by the other givens (a naked or hidden single) no search is needed.
+     * Otherwise, the puzzle stays unique exactly when no solution puts another value in that cell, so only that
+     * narrower search runs, instead of finding the known solution again and proving there is no second one.
+     * The search tries the values of the known solution first, since another solution usually differs from it in
+     * only a few cells.
+     * @param puzzle the puzzle, which has a unique solution and is left unchanged
+     * @param solution the unique solution of the puzzle
+     * @param row the row of the given to remove
+     * @param col the column of the given to remove
+     * @return true if the puzzle still has a unique solution without that given
+     */
+    public boolean staysUniqueWithout(SudokuBoard puzzle, SudokuBoard solution, int row, int col) {
+        int value = puzzle.getCell(row, col);
+        puzzle.setCell(row, col, 0);
+        boolean loaded = load(puzzle);
+        puzzle.setCell(row, col, value);
+        if (!loaded) return false;
+        int cell = row * size + col;
+        long bit = 1L << (value - 1);
+        long cellOptions = allValues & ~(rowUsed[row] | colUsed[col] | boxUsed[cellBox[cell]]);
+        if (!classic) cellOptions &= variantOptions(cell);
+        if (cellOptions == bit) return true;
+        boolean rowHasOther = false, colHasOther = false, boxHasOther = false;
+        for (int i = 0; i < emptyCount; i++) {
+            int other = empty[i];
+            if (other == cell || ((rowUsed[cellRow[other]] | colUsed[cellCol[other]] | boxUsed[cellBox[other]]) & bit) != 0) continue;
+            rowHasOther |= cellRow[other] == row;
+            colHasOther |= cellCol[other] == col;
+            boxHasOther |= cellBox[other] == cellBox[cell];
+        }
+        if (!rowHasOther || !colHasOther || !boxHasOther) return true;
+
+        for (int i = 0; i < values.length; i++) {
+            preferred[i] = 1L << (solution.getCell(cellRow[i], cellCol[i]) - 1);
+        }
+        Arrays.fill(permutationOf, -1);
+        recordSolution = false;
+        excludedCell = cell;
+        excludedBit = bit;
+        int found = search(0, 1);
+        excludedCell = -1;
+        return found == 0;
+    }
+
+    /**
+     * Solves a board in place.
+     * @param board the board to solve, which receives the first solution found
+     * @return true if the board has a solution, false otherwise (the board is then left unchanged)
+     */
+    public boolean solve(SudokuBoard board) {
+        if (!load(board)) return false;
+        Arrays.fill(preferred, 0);
+        Arrays.fill(permutationOf, -1);
+        return solveLoaded(board);
+    }
+
+    /**
+     * Solves a board in place, trying the values of every cell in a random order, so that an empty board gets a
+     * random solution. The order of each cell is one of a fixed table of permutations, picked with one draw.
+     * @param board the board to solve, which receives the first solution found
+     * @param random the source of the value orders
+     * @return true if the board has a solution, false otherwise (the board is then left unchanged)
+     */
+    public boolean solve(SudokuBoard board, RandomGenerator random) {
+        if (!load(board)) return false;
+        // Random orders make the search time heavy-tailed (some orders run into a long dead end, mostly on
+        // variants), so the search restarts with new orders after a number of levels, doubled every time.
+        long budget = (long) FIRST_RESTART_NODES * values.length;
+        try {
+            while (true) {
+                for (int cell = 0; cell < permutationOf.length; cell++) {
+                    permutationOf[cell] = random.nextInt(PERMUTATION_COUNT);
+                }
+                nodeBudget = budget;
+                if (solveLoaded(board)) return true;
+                if (!aborted) return false;
+                budget *= 2; // the aborted search unwound, so the loaded board is intact
+            }
+        } finally {
+            nodeBudget = Long.MAX_VALUE;
+        }
+    }
+
+    private boolean solveLoaded(SudokuBoard board) {
+        recordSolution = true;
+        excludedCell = -1;
+        nodes = 0;
+        aborted = false;
+        if (search(0, 1) == 0 || aborted) return false;
+        for (int cell = 0; cell < values.length; cell++) {
+            board.setCell(cellRow[cell], cellCol[cell], firstSolution[cell]);
+        }
+        return true;
+    }
+
+    /**
+     * Loads a board into the masks of the solver.
+     * @param board the board to load
+     * @return false if two given values conflict with each other
+     */
+    private boolean load(SudokuBoard board) {
+        if (!board.getGeometry().equals(geometry)) {
+            throw new IllegalArgumentException("Board geometry " + board.getGeometry() + " does not match solver geometry " + geometry + ".");
+        }
+        Arrays.fill(rowUsed, 0);
+        Arrays.fill(colUsed, 0);
+        Arrays.fill(boxUsed, 0);
+        if (!classic) {
+            Arrays.fill(extraUsed, 0);
+            Arrays.fill(cageUsed, 0);
+            Arrays.fill(cageTotal, 0);
+            for (int cage = 0; cage < cageEmpty.length; cage++) cageEmpty[cage] = index.cageCells(cage).length;
+        }
+        emptyCount = 0;
+        for (int cell = 0; cell < values.length; cell++) {
+            int value = board.getCell(cellRow[cell], cellCol[cell]);
+            values[cell] = value;
+            if (value == 0) {
+                empty[emptyCount++] = cell;
+                continue;
+            }
+            long bit = 1L << (value - 1);
+            if (((rowUsed[cellRow[cell]] | colUsed[cellCol[cell]] | boxUsed[cellBox[cell]]) & bit) != 0) return false;
+            rowUsed[cellRow[cell]] |= bit;
+            colUsed[cellCol[cell]] |= bit;
+            boxUsed[cellBox[cell]] |= bit;
+            if (!classic) {
+                if ((variantOptions(cell) & bit) == 0) return false;
+                mark(cell, bit, value);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the options the variant leaves to a cell, on top of its row, column and box.
+     * @param cell the cell index
+     * @return the allowed values not used in the extra units of the cell and fitting the sum left in its cage
+     */
+    private long variantOptions(int cell) {
+        long cellOptions = index.allowedValues(cell);
+        for (int unit : index.extraUnits(cell)) cellOptions &= ~extraUsed[unit - 3 * size];
+        int cage = index.cageOf(cell);
+        if (cage >= 0) {
+            cellOptions &= ~cageUsed[cage] & index.cageOptions(index.cageSum(cage) - cageTotal[cage], cageEmpty[cage]);
+        }
+        return cellOptions;
+    }
+
+    /**
+     * Records a value placed in a cell in the extra units and the cage of the cell.
+     * @param cell the cell index
+     * @param bit the value, as a mask
+     * @param value the value
+     */
+    private void mark(int cell, long bit, int value) {
+        for (int unit : index.extraUnits(cell)) extraUsed[unit - 3 * size] |= bit;
+        int cage = index.cageOf(cell);
+        if (cage >= 0) {
+            cageUsed[cage] |= bit;
+            cageTotal[cage] += value;
+            cageEmpty[cage]--;
+        }
+    }
+
+    /**
+     * Removes a value placed in a cell from the extra units and the cage of the cell.
+     * @param cell the cell index
+     * @param bit the value, as a mask
+     * @param value the value
+     */
+    private void unmark(int cell, long bit, int value) {
+        for (int unit : index.extraUnits(cell)) extraUsed[unit - 3 * size] &= ~bit;
+        int cage = index.cageOf(cell);
+        if (cage >= 0) {
+            cageUsed[cage] &= ~bit;
+            cageTotal[cage] -= value;
+            cageEmpty[cage]++;
+        }
+    }
+
+    /**
+     * Recursive search filling the empty cells. At every level it places a naked or hidden single if there is one,
+     * then branches on whichever is narrower: the empty cell with the fewest options, or a value that fits only
+     * two cells of a unit.
+     * @param depth the number of empty cells already filled
+     * @param limit the number of solutions after which the search stops
+     * @return the number of solutions found below this level, at most limit (limit if the node budget ran out)
+     */
+    private int search(int depth, int limit) {
+        if (++nodes > nodeBudget) {
+            aborted = true;
+            return limit; // stops every level above
+        }
+        if (depth == emptyCount) {
+            if (recordSolution) {
+                System.arraycopy(values, 0, firstSolution, 0, values.length);
+                recordSolution = false;
+            }
+            return 1;
+        }
+        int best = depth;
+        long bestOptions = 0;
+        int bestCount = Integer.MAX_VALUE;
+        Arrays.fill(once, 0);
+        Arrays.fill(twice, 0);
+        Arrays.fill(thrice, 0);
+        for (int i = depth; i < emptyCount; i++) {
+            int cell = empty[i];
+            long cellOptions = allValues & ~(rowUsed[cellRow[cell]] | colUsed[cellCol[cell]] | boxUsed[cellBox[cell]]);
+            if (!classic) cellOptions &= variantOptions(cell);
+            if (cell == excludedCell) cellOptions &= ~excludedBit;
+            int count = Long.bitCount(cellOptions);
+            if (count < bestCount) {
+                best = i;
+                bestOptions = cellOptions;
+                bestCount = count;
+                if (count <= 1) break;
+            }
+            options[cell] = cellOptions;
+            count(cellRow[cell], cellOptions);
+            count(size + cellCol[cell], cellOptions);
+            count(2 * size + cellBox[cell], cellOptions);
+            if (!classic) {
+                for (int unit : index.extraUnits(cell)) count(unit, cellOptions);
+            }
+        }
+        if (bestCount == 0) return 0;
+        if (bestCount == 1) return place(depth, best, bestOptions, limit);
+
+        // Every value missing from a unit must fit one of its empty cells
+        int pairUnit = -1;
+        long pairBit = 0;
+        for (int unit = 0; unit < unitCount; unit++) {
+            long missing = allValues & ~usedIn(unit);
+            if ((once[unit] & missing) != missing) return 0;
+            long hidden = once[unit] & ~twice[unit];
+            if (hidden != 0) {
+                // A value fitting a single cell of the unit is placed there
+                long bit = hidden & -hidden;
+                return place(depth, findInUnit(depth, unit, bit, depth), bit, limit);
+            }
+            long pair = twice[unit] & ~thrice[unit];
+            if (pairUnit < 0 && pair != 0) {
+                pairUnit = unit;
+                pairBit = pair & -pair;
+            }
+        }
+        if (pairUnit < 0 || bestCount == 2) {
+            return place(depth, best, bestOptions, limit);
+        }
+        // The value goes in one of the two cells of the unit that can hold it
+        int first = findInUnit(depth, pairUnit, pairBit, depth);
+        int secondCell = empty[findInUnit(depth, pairUnit, pairBit, first + 1)];
+        int found = place(depth, first, pairBit, limit);
+        if (found >= limit) return found;
+        // place() swapped the first cell into position depth, so the second one is looked up again
+        for (int i = depth; i < emptyCount; i++) {
+            if (empty[i] == secondCell) return found + place(depth, i, pairBit, limit - found);
+        }
+        return found;
+    }
+
+    /**
+     * Adds the options of an empty cell to the counts of one of its units.
+     * @param unit the unit index (rows, then columns, then boxes)
+     * @param cellOptions the options of the cell
+     */
+    private void count(int unit, long cellOptions) {
+        thrice[unit] |= twice[unit] & cellOptions;
+        twice[unit] |= once[unit] & cellOptions;
+        once[unit] |= cellOptions;
+    }
+
+    /**
+     * Finds the next empty cell of a unit that can hold a value.
+     * @param depth the number of empty cells already filled
+     * @param unit the unit index
+     * @param bit the value, as a mask
+     * @param from the index in the empty cell list to start looking from
+     * @return the index in the empty cell list of the cell found
+     */
+    private int findInUnit(int depth, int unit, long bit, int from) {
+        for (int i = from; i < emptyCount; i++) {
+            int cell = empty[i];
+            if ((options[cell] & bit) != 0 && inUnit(cell, unit)) return i;
+        }
+        throw new IllegalStateException("No cell of unit " + unit + " holds the value at depth " + depth + ".");
+    }
+
+    /**
+     * Tries each of the given values in an empty cell and searches below each of them.
+     * @param depth the number of empty cells already filled
+     * @param index the index in the empty cell list of the cell to fill, swapped to position depth
+     * @param values the values to try, as a mask
+     * @param limit the number of solutions after which the search stops
+     * @return the number of solutions found, at most limit
+     */
+    private int place(int depth, int index, long values, int limit) {
+        int cell = empty[index];
+        empty[index] = empty[depth];
+        empty[depth] = cell;
+        int found = 0;
+        int permutation = permutationOf[cell];
+        if (permutation >= 0) {
+            byte[] order = permutations[permutation];
+            for (int i = 0; i < size && found < limit; i++) {
+                long bit = 1L << order[i];
+                if ((values & bit) != 0) found += tryValue(depth, cell, bit, limit - found);
+            }
+        } else {
+            for (long remaining = values; remaining != 0 && found < limit; ) {
+                long bit = (preferred[cell] & remaining) != 0 ? preferred[cell] : remaining & -remaining;
+                remaining &= ~bit;
+                found += tryValue(depth, cell, bit, limit - found);
+            }
+        }
+        this.values[cell] = 0;
+        return found;
+    }
+
+    /**
+     * Puts a value in a cell swapped to position depth, and searches below it.
+     * @param depth the number of empty cells already filled
+     * @param cell the cell to fill
+     * @param bit the value, as a mask
+     * @param limit the number of solutions after which the search stops
+     * @return the number of solutions found, at most limit
+     */
+    private int tryValue(int depth, int cell, long bit, int limit) {
+        int row = cellRow[cell], col = cellCol[cell], box = cellBox[cell];
+        rowUsed[row] |= bit;
+        colUsed[col] |= bit;
+        boxUsed[box] |= bit;
+        int value = Long.numberOfTrailingZeros(bit) + 1;
+        this.values[cell] = value;
+        if (!classic) mark(cell, bit, value);
+        int found = search(depth + 1, limit);
+        if (!classic) unmark(cell, bit, value);
+        rowUsed[row] &= ~bit;
+        colUsed[col] &= ~bit;
+        boxUsed[box] &= ~bit;
+        return found;
+    }
+
+    private long usedIn(int unit) {
+        if (unit < size) return rowUsed[unit];
+        if (unit < 2 * size) return colUsed[unit - size];
+        if (unit < 3 * size) return boxUsed[unit - 2 * size];
+        return extraUsed[unit - 3 * size];
+    }
+
+    private boolean inUnit(int cell, int unit) {
+        if (unit < size) return cellRow[cell] == unit;
+        if (unit < 2 * size) return cellCol[cell] == unit - size;
+        if (unit < 3 * size) return cellBox[cell] == unit - 2 * size;
+        for (int extra : index.extraUnits(cell)) {
+            if (extra == unit) return true;
+        }
+        return false;
+    }
+}
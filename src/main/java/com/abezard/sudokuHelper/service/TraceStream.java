@@ -0,0 +1,97 @@
+package com.abezard.sudokuHelper.service;
+
+import java.util.ArrayDeque;
+
+/**
+ * A stream of frames between a producer that must never wait (a solve or generation job) and a consumer that may be
+ * slow (a client reading over the network). Step frames are queued and all delivered, in order. Progress frames only
+ * matter as the latest value, so a new one replaces the one the consumer has not taken yet: a slow consumer gets
+ * fewer progress updates, never fewer steps. Steps are bounded by the job itself (a solve has at most one step per
+ * candidate), so the queue needs no other bound.
+ * One thread produces and one thread drains; both may be different from the thread that created the stream.
+ */
+public final class TraceStream {
+
+    /**
+     * Receives the frames taken from the stream.
+     */
+    public interface Sink {
+        /**
+         * Sends a frame.
+         * @param event the kind of frame, "step", "progress" or "done"
+         * @param data the frame
+         * @throws Exception if the frame could not be sent, which stops the draining
+         */
+        void send(String event, String data) throws Exception;
+    }
+
+    private final ArrayDeque<String> steps = new ArrayDeque<>();
+    private String progress; // latest progress frame not taken yet, or null
+    private String done; // last frame, sent once everything else was, or null while the job runs
+    private int coalesced; // progress frames replaced before being taken
+
+    /**
+     * Queues a step frame. Never blocks and never drops the frame.
+     * @param frame the frame of the step
+     */
+    public synchronized void step(String frame) {
+        steps.add(frame);
+        notifyAll();
+    }
+
+    /**
+     * Sets the latest progress frame, replacing the previous one if it was not taken yet. Never blocks.
+     * @param frame the frame of the progress counters
+     */
+    public synchronized void progress(String frame) {
+        if (progress != null) coalesced++;
+        progress = frame;
+        notifyAll();
+    }
+
+    /**
+     * Ends the stream: the frame is the last one sent, after every queued step and the latest progress.
+     * @param frame the final frame, e.g. the result of the job
+     */
+    public synchronized void complete(String frame) {
+        done = frame;
+        notifyAll();
+    }
+
+    /**
+     * Sends every frame to a sink as the producer adds them, until the stream is complete. Steps go first, then the
+     * latest progress, so a consumer that falls behind catches up on steps before getting counters again.
+     * @param sink the consumer of the frames
+     * @throws Exception if the sink fails
+     * @throws InterruptedException if the thread is interrupted while waiting for frames
+     */
+    public void drainTo(Sink sink) throws Exception {
+        while (true) {
+            String event, data;
+            synchronized (this) {
+                while (steps.isEmpty() && progress == null && done == null) wait();
+                if (!steps.isEmpty()) {
+                    event = "step";
+                    data = steps.poll();
+                } else if (progress != null) {
+                    event = "progress";
+                    data = progress;
+                    progress = null;
+                } else {
+                    event = "done";
+                    data = done;
+                }
+            }
+            sink.send(event, data); // outside the lock, so that the producer never waits for the network
+            if (event.equals("done")) return;
+        }
+    }
+
+    /**
+     * Gets the number of progress frames that were replaced before the consumer took them.
+     * @return the number of coalesced progress frames
+     */
+    public synchronized int coalesced() {
+        return coalesced;
+    }
+}
@@ -0,0 +1,111 @@
+package com.abezard.sudokuHelper.view;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.MoveAnalyzer;
+import javafx.scene.Node;
+
+import java.util.Set;
+
+/**
+ * A view of the Sudoku board the controller talks to. SudokuGridView builds it from one node per cell, while
+ * SudokuCanvasView draws the whole board on a single canvas; the renderer is picked at startup.
+ */
+public interface BoardView {
+
+    /**
+     * The renderers a board view can be built with.
+     */
+    enum Renderer {
+        NODES,
+        CANVAS;
+
+        /**
+         * Reads the renderer picked at startup from the "sudoku.renderer" system property (nodes or canvas).
+         * @return the picked renderer, NODES by default
+         */
+        public static Renderer fromSystemProperty() {
+            return "canvas".equalsIgnoreCase(System.getProperty("sudoku.renderer")) ? CANVAS : NODES;
+        }
+
+        /**
+         * Builds an empty board view of a variant with this renderer.
+         * @param variant the variant of the boards shown by the view
+         * @return the board view
+         */
+        public BoardView create(Variant variant) {
+            return this == CANVAS ? new SudokuCanvasView(variant) : new SudokuGridView(variant);
+        }
+    }
+
+    /**
+     * Returns the node to add to the scene.
+     * @return the node drawing the board
+     */
+    Node getNode();
+
+    Geometry getGeometry();
+
+    Variant getVariant();
+
+    void updateFromModel(SudokuBoard board);
+
+    void restore(SudokuBoard givens, SudokuBoard current);
+
+    void setOnChange(Runnable onChange);
+
+    SudokuBoard getGivens();
+
+    SudokuBoard getState();
+
+    boolean undo();
+
+    boolean redo();
+
+    void clearAndDisableGrid();
+
+    void enableGrid();
+
+    SudokuBoard getCurrentBoard();
+
+    /**
+     * Makes the board shown track its mistakes against the solution of the puzzle, so that checks and hints read
+     * them from its mismatch mask. The boards given by getCurrentBoard keep tracking.
+     * @param solution the solution of the puzzle shown, or null to stop tracking
+     */
+    void trackMistakes(SudokuBoard solution);
+
+    /**
+     * Shows the result of a check: the wrong and missing cells are highlighted, the others are locked.
+     * @param unsolved the cells not holding the value of the solution, bit (cell % 64) of word (cell / 64) set for
+     *                 each, as returned by SudokuGeneratingService.checkSolution
+     */
+    void checkSolution(long[] unsolved);
+
+    void revealSolution(SudokuBoard solution);
+
+    void showHint(Hint hint);
+
+    /**
+     * Finds the recorded move after which the board had no solution left, and highlights its cell. Values repeated
+     * in a unit or cage are marked as conflicts after every change, without asking for it.
+     * @param analyzer the analyzer searching the move log
+     * @return the cell index (row * size + col) of that move, or -1 if the board still has a solution or was already
+     *         unsolvable before the first recorded move
+     */
+    int showPointOfNoReturn(MoveAnalyzer analyzer);
+
+    void setCandidateMode(boolean enabled);
+
+    /**
+     * Sets whether a value typed in a cell is removed from the candidates of its peers, in the same undo step.
+     * @param enabled true to remove the candidates automatically
+     */
+    void setAutoEliminate(boolean enabled);
+
+    void clearAllStyles();
+
+    Set<Integer>[][] getAllCandidates();
+}
@@ -0,0 +1,80 @@
+package com.abezard.sudokuHelper.view;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.Scene;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+/**
+ * Measures how long the JavaFX pulses of a scene take, to compare the board renderers on a given machine.
+ * Two series are kept: the CSS and layout time of each pulse (from the pre-layout to the post-layout pulse listener,
+ * which is also where the canvas view draws), and the interval between frames as seen by an AnimationTimer.
+ * Enabled with --frame-stats on the command line; the mean, 95th percentile and maximum of both series are logged
+ * when the application closes.
+ */
+public final class FrameStats {
+    private static final Logger log = LoggerFactory.getLogger(FrameStats.class);
+    private static final int CAPACITY = 1 << 16; // samples kept, the oldest are overwritten
+
+    private final String renderer;
+    private final long[] pulses = new long[CAPACITY];
+    private final long[] frames = new long[CAPACITY];
+    private int pulseCount;
+    private int frameCount;
+    private long pulseStart;
+    private long lastFrame;
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (lastFrame != 0) frames[frameCount++ % CAPACITY] = now - lastFrame;
+            lastFrame = now;
+        }
+    };
+
+    private FrameStats(String renderer) {
+        this.renderer = renderer;
+    }
+
+    /**
+     * Starts measuring the pulses of a scene.
+     * @param scene the scene showing the board
+     * @param renderer the name of the board renderer, for the log
+     * @return the running measurement
+     */
+    public static FrameStats attach(Scene scene, String renderer) {
+        FrameStats stats = new FrameStats(renderer);
+        scene.addPreLayoutPulseListener(() -> stats.pulseStart = System.nanoTime());
+        scene.addPostLayoutPulseListener(() -> {
+            if (stats.pulseStart != 0) stats.pulses[stats.pulseCount++ % CAPACITY] = System.nanoTime() - stats.pulseStart;
+        });
+        stats.timer.start();
+        return stats;
+    }
+
+    /**
+     * Stops measuring and logs a summary of both series.
+     */
+    public void stop() {
+        timer.stop();
+        log.info("{} renderer: CSS and layout per pulse {}; frame interval {}",
+                renderer, summary(pulses, pulseCount), summary(frames, frameCount));
+    }
+
+    /**
+     * Summarizes a series of durations.
+     * @param samples the durations in nanoseconds
+     * @param count the number of durations recorded, possibly more than the capacity
+     * @return the number of samples and their mean, 95th percentile and maximum in milliseconds
+     */
+    private static String summary(long[] samples, int count) {
+        int n = Math.min(count, CAPACITY);
+        if (n == 0) return "no samples";
+        long[] sorted = Arrays.copyOf(samples, n);
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0);
+        return String.format("n=%d mean=%.2f ms p95=%.2f ms max=%.2f ms", n, mean / 1e6,
+                sorted[(int) Math.ceil(n * 0.95) - 1] / 1e6, sorted[n - 1] / 1e6);
+    }
+}
@@ -0,0 +1,275 @@
+package com.abezard.sudokuHelper.view;
+
+import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.HintMessages;
+import com.abezard.sudokuHelper.model.Topology;
+import javafx.scene.control.Alert;
+import javafx.scene.layout.Region;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Shows hints to the player, whatever draws the board: it builds the alert for a hint, highlights the cells involved
+ * and applies the placement or eliminations of the hint through a Target, which each board view implements on top of
+ * its own cells.
+ */
+class HintPresenter {
+
+    /**
+     * The cells of a board view, as seen by the hint presenter.
+     */
+    interface Target {
+        boolean isLocked(int row, int col); // a given, or a value confirmed by a check
+        int valueAt(int row, int col);
+        Set<Integer> candidatesAt(int row, int col);
+        void placeValue(int row, int col, int value); // also clears the candidates of the cell
+        void setCandidatesAt(int row, int col, Set<Integer> candidates);
+        void eliminateFromPeers(int row, int col, int value); // removes a placed value from the candidates of its peers
+        void highlight(int row, int col);
+        void clearHighlights();
+    }
+
+    private final Topology topology;
+    private final int size;
+    private final Target target;
+    private final Locale locale = Locale.getDefault();
+    private final HintMessages messages = HintMessages.of(locale);
+
+    /**
+     * Constructor for HintPresenter.
+     * @param geometry The shape of the board the hints are shown on.
+     * @param target The cells of the board view.
+     */
+    HintPresenter(Geometry geometry, Target target) {
+        this.topology = Topology.of(geometry);
+        this.size = geometry.size();
+        this.target = target;
+    }
+
+    /**
+     * Shows a hint and applies its placement or eliminations to the cells.
+     * @param hint The Hint object containing the details of the hint to display.
+     */
+    public void show(Hint hint) {
+        if (hint == null) {
+            showAlert(Alert.AlertType.INFORMATION, messages.text("alert.title"), null, messages.text("alert.noHint"));
+            return;
+        }
+        String title = messages.text("alert.title");
+        String header = messages.text("alert.header", messages.technique(hint.type()).toUpperCase(locale));
+        switch (hint.type()) {
+            case INCORRECT_INPUT -> {
+                showAlert(Alert.AlertType.ERROR, messages.text("alert.incorrect.title"), null, messages.text("alert.incorrect"));
+                target.highlight(hint.row(), hint.col());
+            }
+            case ALREADY_SOLVED -> showAlert(Alert.AlertType.INFORMATION, messages.text("alert.solved.title"), null,
+                    messages.text("alert.solved"));
+            case HIDDEN_SINGLE, NAKED_SINGLE, LAST_CANDIDATE, BUG_PLUS_ONE -> {
+                target.clearHighlights();
+                target.highlight(hint.row(), hint.col());
+                showAlert(
+                        hint.type() == Hint.HintType.HIDDEN_SINGLE || hint.type() == Hint.HintType.NAKED_SINGLE
+                                ? Alert.AlertType.CONFIRMATION : Alert.AlertType.INFORMATION,
+                        title, header,
+                        messages.text("alert.location", hint.row() + 1, hint.col() + 1, messages.explain(hint))
+                );
+                target.placeValue(hint.row(), hint.col(), hint.value());
+                // removes candidates that will be eliminated by this hint (if applicable)
+                target.eliminateFromPeers(hint.row(), hint.col(), hint.value());
+            }
+            case NAKED_PAIR, HIDDEN_PAIR, POINTING_PAIR -> {
+                target.clearHighlights();
+                CandidatesHint h = (CandidatesHint) hint;
+                String content = pairContentTextHelper(h) + "\n\n" + messages.text("alert.explanation", messages.explain(hint));
+                int[] digits = h.getDigits();
+                for (int cell : h.getCells()) {
+                    int row = Hint.rowOf(cell), col = Hint.colOf(cell);
+                    if (hint.type() == Hint.HintType.POINTING_PAIR) {
+                        HashSet<Integer> candidatesSet = new HashSet<>(target.candidatesAt(row, col));
+                        candidatesSet.add(digits[0]);
+                        target.setCandidatesAt(row, col, candidatesSet);
+                    } else {
+                        target.setCandidatesAt(row, col, new HashSet<>(Arrays.asList(digits[0], digits[1])));
+                    }
+                }
+                showAlert(Alert.AlertType.INFORMATION, title, header, content);
+            }
+            case BOX_LINE_REDUCTION -> {
+                target.clearHighlights();
+                CandidatesHint h = (CandidatesHint) hint;
+                highlightBox(h.row(), h.col());
+                showAlert(Alert.AlertType.INFORMATION, title, header,
+                        messages.text("alert.reduction." + h.scope(), h.unit() + 1, h.getDigits()[0])
+                                + "\n\n" + messages.text("alert.explanation", messages.explain(hint)));
+                applyEliminations(h.getEliminations());
+            }
+            case UNIQUE_RECTANGLE, SIMPLE_COLORING, X_CHAIN, FORCING_CHAIN -> {
+                target.clearHighlights();
+                CandidatesHint h = (CandidatesHint) hint;
+                for (int cell : h.getCells()) {
+                    target.highlight(Hint.rowOf(cell), Hint.colOf(cell));
+                }
+                showAlert(Alert.AlertType.INFORMATION, title, header, messages.text("alert.explanation", messages.explain(hint)));
+                applyEliminations(h.getEliminations());
+            }
+            case SEARCH_BUDGET_EXCEEDED -> showAlert(Alert.AlertType.INFORMATION, title, null, messages.explain(hint));
+            case ALL_CANDIDATES -> {
+                CandidatesHint h = (CandidatesHint) hint;
+                showAlert(Alert.AlertType.INFORMATION, title, header, messages.explain(hint));
+                long[] masks = h.getCandidateMasks();
+                for (int cell = 0; cell < masks.length; cell++) {
+                    Set<Integer> candidates = new HashSet<>();
+                    for (long bits = masks[cell]; bits != 0; bits &= bits - 1) {
+                        candidates.add(Long.numberOfTrailingZeros(bits) + 1);
+                    }
+                    target.setCandidatesAt(cell / size, cell % size, candidates);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to generate the content text for pair hints, and to highlight and clear their unit.
+     * @param h The CandidatesHint object containing the hint details.
+     * @return The formatted content text for the hint, before its explanation.
+     */
+    private String pairContentTextHelper(CandidatesHint h) {
+        int[] digits = h.getDigits();
+        String pairType = messages.technique(h.type());
+        String candidatesStr = digits.length == 2
+                ? messages.text("alert.digitPair", digits[0], digits[1])
+                : Arrays.toString(digits);
+        String content;
+        if (h.scope() == Hint.Scope.ROW || h.scope() == Hint.Scope.COLUMN) {
+            boolean row = h.scope() == Hint.Scope.ROW;
+            content = h.type() == Hint.HintType.POINTING_PAIR
+                    ? messages.text("alert.pointing." + h.scope(), h.unit() + 1, digits[0])
+                    : messages.text("alert.pair." + h.scope(), h.unit() + 1, pairType, candidatesStr);
+            if (row) highlightRow(h.unit());
+            else highlightColumn(h.unit());
+            if (h.type() != Hint.HintType.HIDDEN_PAIR) {
+                if (row) removeCandidatesFromRow(h.unit(), digits);
+                else removeCandidatesFromColumn(h.unit(), digits);
+            }
+        } else {
+            int boxRow = Hint.rowOf(h.unit()), boxCol = Hint.colOf(h.unit());
+            content = messages.text("alert.pair.BOX", boxRow + 1, boxCol + 1, pairType, candidatesStr);
+            highlightBox(boxRow, boxCol);
+            if (h.type() != Hint.HintType.HIDDEN_PAIR)
+                removeCandidatesFromBox(boxRow, boxCol, digits);
+        }
+        return content;
+    }
+
+    private void showAlert(Alert.AlertType type, String title, String header, String content) {
+        Alert alert = new Alert(type);
+        alert.setTitle(title);
+        alert.setHeaderText(header);
+        alert.setContentText(content);
+        alert.getDialogPane().setMinHeight(Region.USE_PREF_SIZE);
+        alert.showAndWait();
+    }
+
+    /**
+     * Highlights the box containing the cell at (row, col).
+     * @param row The row index of the cell inside the box to highlight.
+     * @param col The column index of the cell inside the box to highlight.
+     */
+    private void highlightBox(int row, int col) {
+        // Highlight the box containing the cell at (row, col)
+        for (int cell : topology.unitCells(2 * size + topology.box(row * size + col))) {
+            if (target.isLocked(topology.row(cell), topology.col(cell))) continue; // Skip disabled cells
+            target.highlight(topology.row(cell), topology.col(cell));
+        }
+    }
+
+    /**
+     * Highlights the specified column in the Sudoku grid.
+     * @param col The column index to highlight (0 to size - 1).
+     */
+    private void highlightColumn(int col) {
+        // Highlight the column containing the cell at (row, col)
+        for (int r = 0; r < size; r++) {
+            if (target.isLocked(r, col)) continue; // Skip disabled cells
+            target.highlight(r, col);
+        }
+    }
+
+    /**
+     * Highlights the specified row in the Sudoku grid.
+     * @param row The row index to highlight (0 to size - 1).
+     */
+    private void highlightRow(int row) {
+        // Highlight the row containing the cell at (row, col)
+        for (int c = 0; c < size; c++) {
+            if (target.isLocked(row, c)) continue; // Skip disabled cells
+            target.highlight(row, c);
+        }
+    }
+
+
+    /**
+     * Removes the specified candidates from all cells in the given row.
+     * @param row The row index from which to remove candidates (0 to size - 1).
+     * @param candidates The array of candidates to remove from the cells in the specified row.
+     */
+    private void removeCandidatesFromRow(int row, int[] candidates) {
+        for(int col = 0; col < size; col++) {
+            removeCandidatesHelper(candidates, row, col);
+        }
+    }
+
+    /**
+     * Removes the specified candidates from all cells in the given column.
+     * @param col The column index from which to remove candidates (0 to size - 1).
+     * @param candidates The array of candidates to remove from the cells in the specified column.
+     */
+    private void removeCandidatesFromColumn(int col, int[] candidates) {
+        for(int row = 0; row < size; row++) {
+            removeCandidatesHelper(candidates, row, col);
+        }
+    }
+
+    /**
+     * Removes the specified candidates from all cells in the given box.
+     * @param row The box row index from which to remove candidates (0 to size - 1).
+     * @param col The box column index from which to remove candidates (0 to size - 1).
+     * @param candidates The array of candidates to remove from the cells in the specified box.
+     */
+    private void removeCandidatesFromBox(int row, int col, int[] candidates) {
+        for (int cell : topology.unitCells(2 * size + topology.box(row * size + col))) {
+            removeCandidatesHelper(candidates, topology.row(cell), topology.col(cell));
+        }
+    }
+
+    /**
+     * Removes the candidates eliminated by a hint from their cells.
+     * @param eliminations the eliminated candidates, packed
+     */
+    private void applyEliminations(int[] eliminations) {
+        for (int elimination : eliminations) {
+            int cell = Hint.cellOf(elimination);
+            removeCandidatesHelper(new int[]{Hint.digitOf(elimination)}, Hint.rowOf(cell), Hint.colOf(cell));
+        }
+    }
+
+    /**
+     * Helper method to remove candidates from a specific cell.
+     * @param candidates The array of candidates to remove from the specified cell.
+     * @param r the row index of the cell to remove candidates from
+     * @param c the column index of the cell to remove candidates from
+     */
+    private void removeCandidatesHelper(int[] candidates, int r, int c) {
+        if (target.isLocked(r, c) || target.valueAt(r, c) != 0) return;
+        Set<Integer> currentCandidates = new HashSet<>(target.candidatesAt(r, c));
+        for(int candidate : candidates) {
+            currentCandidates.remove(candidate);
+        }
+        target.setCandidatesAt(r, c, currentCandidates);
+    }
+}
@@ -0,0 +1,590 @@
+package com.abezard.sudokuHelper.view;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.MoveLog;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.UnitIndex;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.MoveAnalyzer;
+import javafx.geometry.Insets;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Alert;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Board view drawing the whole board on a single Canvas, straight from the model: values, pencil marks, variant
+ * decorations and highlights. Where SudokuGridView needs a StackPane, a TextField, a GridPane and a Label per
+ * candidate for every cell (over 900 nodes on a classic board), this view is two nodes, so CSS and layout passes do
+ * not grow with the board. It handles the keyboard itself: click a cell or move with the arrow keys, type a symbol
+ * to enter it (the same symbol again clears it), Backspace or Delete to clear.
+ * Changes only mark the canvas dirty; it is redrawn once, during the layout pass of the next pulse.
+ */
+public class SudokuCanvasView extends Region implements BoardView {
+
+    // per cell highlight flags, matching the hint-cell, incorrect-cell, correct-cell and conflict-cell styles of the
+    // grid view
+    private static final int HINT = 1;
+    private static final int INCORRECT = 2;
+    private static final int CORRECT = 4;
+    private static final int CONFLICT = 8;
+
+    private static final Color HINT_COLOR = Color.web("#fff3cd");
+    private static final Color INCORRECT_COLOR = Color.web("#f8d7da");
+    private static final Color CORRECT_COLOR = Color.web("#c8f7c5");
+    private static final Color LOCKED_COLOR = Color.web("#e0e0e0");
+    private static final Color CONFLICT_COLOR = Color.web("#c62828");
+    private static final Color SELECTED_COLOR = Color.rgb(255, 213, 128, 0.4);
+    private static final Color EXTRA_UNIT_COLOR = Color.web("#e3f2fd");
+    private static final Color EVEN_COLOR = Color.web("#ececec");
+    private static final Color ODD_COLOR = Color.web("#fdf6e3");
+    private static final Color[] CAGE_COLORS = {
+            Color.web("#fff8e1"), Color.web("#e8f5e9"), Color.web("#e3f2fd"), Color.web("#fce4ec")};
+
+    private final Geometry geometry;
+    private final Variant variant;
+    private final int size;
+    private final Canvas canvas = new Canvas();
+    private final SudokuBoard state; // values and candidates shown, as recorded in the move log
+    private final MoveLog moves = new MoveLog();
+    private final SudokuBoard givens;
+    private final boolean[] locked; // givens, and values confirmed by a check
+    private final byte[] marks; // HINT, INCORRECT, CORRECT and CONFLICT flags of each cell
+    private final Color[] decorations; // background set by the variant for each cell, or null
+    private final int[] cageSums; // sum of the cage starting at each cell, or 0
+    private final CanvasTarget target = new CanvasTarget();
+    private final HintPresenter hints;
+    private Runnable onChange = () -> {};
+    private boolean disabled;
+    private boolean candidateMode;
+    private boolean autoEliminate; // a typed value is removed from the candidates of its peers
+    private boolean dirty = true;
+    private int selected = -1;
+
+    /**
+     * Constructor for SudokuCanvasView.
+     * @param variant The variant of the boards shown by this view.
+     */
+    public SudokuCanvasView(Variant variant) {
+        this.variant = variant;
+        this.geometry = variant.geometry();
+        this.size = geometry.size();
+        this.state = new SudokuBoard(variant);
+        this.givens = new SudokuBoard(variant);
+        this.locked = new boolean[geometry.cellCount()];
+        this.marks = new byte[geometry.cellCount()];
+        this.decorations = new Color[geometry.cellCount()];
+        this.cageSums = new int[geometry.cellCount()];
+        this.hints = new HintPresenter(geometry, target);
+        getStyleClass().add("sudoku-grid");
+        getChildren().add(canvas);
+        setPrefSize(size * 50, size * 50);
+        setFocusTraversable(true);
+        setOnMousePressed(this::onMousePressed);
+        setOnKeyPressed(this::onKeyPressed);
+        if (!variant.isClassic()) decorateVariant();
+    }
+
+    /**
+     * Computes the backgrounds of the cells constrained by the variant and the sums of the killer cages, with the
+     * same colors as the styles of the grid view.
+     */
+    private void decorateVariant() {
+        UnitIndex index = variant.index();
+        long odd = 0x5555555555555555L & geometry.allValues();
+        for (int cell = 0; cell < geometry.cellCount(); cell++) {
+            if (index.extraUnits(cell).length > 0) decorations[cell] = EXTRA_UNIT_COLOR;
+            if (index.allowedValues(cell) == odd) decorations[cell] = ODD_COLOR;
+            else if (index.allowedValues(cell) == (geometry.allValues() & ~odd)) decorations[cell] = EVEN_COLOR;
+        }
+        int[] tints = SudokuGridView.cageTints(index, size);
+        for (int cage = 0; cage < index.cageCount(); cage++) {
+            int[] cells = index.cageCells(cage);
+            for (int cell : cells) {
+                decorations[cell] = CAGE_COLORS[tints[cage]];
+            }
+            cageSums[cells[0]] = index.cageSum(cage);
+        }
+    }
+
+    @Override
+    public Node getNode() { return this; }
+
+    @Override
+    public Geometry getGeometry() { return geometry; }
+
+    @Override
+    public Variant getVariant() { return variant; }
+
+    /**
+     * Marks the canvas for a redraw during the next pulse. Any number of changes made before it cost one redraw.
+     */
+    private void invalidate() {
+        dirty = true;
+        requestLayout();
+    }
+
+    /**
+     * Sizes the canvas to the inside of the region's border and redraws it if it changed or its size did.
+     */
+    @Override
+    protected void layoutChildren() {
+        Insets insets = getInsets();
+        double width = snapSizeX(getWidth() - insets.getLeft() - insets.getRight());
+        double height = snapSizeY(getHeight() - insets.getTop() - insets.getBottom());
+        canvas.relocate(insets.getLeft(), insets.getTop());
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            dirty = true;
+        }
+        if (dirty) draw();
+    }
+
+    /**
+     * Draws the whole board: cell backgrounds, values or pencil marks, cage sums, then the grid lines.
+     */
+    private void draw() {
+        dirty = false;
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth(), height = canvas.getHeight();
+        double cellWidth = width / size, cellHeight = height / size;
+        double cellSize = Math.min(cellWidth, cellHeight);
+        Font valueFont = Font.font(cellSize * 0.45);
+        Font candidateFont = Font.font(cellSize * 0.8 / Math.max(geometry.boxHeight(), geometry.boxWidth()));
+        Font sumFont = Font.font(Math.max(7, cellSize * 0.2));
+        g.setFill(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        g.setTextBaseline(VPos.CENTER);
+        for (int cell = 0; cell < geometry.cellCount(); cell++) {
+            int row = cell / size, col = cell % size;
+            double x = col * cellWidth, y = row * cellHeight;
+            Color background = backgroundOf(cell);
+            if (background != null) {
+                g.setFill(background);
+                g.fillRect(x, y, cellWidth, cellHeight);
+            }
+            if (cell == selected && !disabled) {
+                g.setFill(SELECTED_COLOR);
+                g.fillRect(x, y, cellWidth, cellHeight);
+            }
+            g.setFill((marks[cell] & CONFLICT) != 0 ? CONFLICT_COLOR : Color.BLACK);
+            int value = state.getCell(row, col);
+            if (value != 0) {
+                g.setFont(valueFont);
+                g.setTextAlign(TextAlignment.CENTER);
+                g.fillText(SudokuCell.symbolOf(value), x + cellWidth / 2, y + cellHeight / 2);
+            } else {
+                drawCandidates(g, state.getCandidateMask(row, col), x, y, cellWidth, cellHeight, candidateFont);
+            }
+            if (cageSums[cell] != 0) {
+                g.setFill(Color.web("#555"));
+                g.setFont(sumFont);
+                g.setTextAlign(TextAlignment.LEFT);
+                g.setTextBaseline(VPos.TOP);
+                g.fillText(Integer.toString(cageSums[cell]), x + 3, y + 1);
+                g.setTextBaseline(VPos.CENTER);
+            }
+        }
+        drawLines(g, width, height, cellWidth, cellHeight);
+    }
+
+    /**
+     * Draws the pencil marks of a cell, laid out like a box of the board.
+     */
+    private void drawCandidates(GraphicsContext g, long mask, double x, double y, double cellWidth, double cellHeight,
+                                Font font) {
+        if (mask == 0) return;
+        g.setFont(font);
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setFill(Color.web("#333"));
+        double markWidth = cellWidth / geometry.boxWidth(), markHeight = cellHeight / geometry.boxHeight();
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            int i = Long.numberOfTrailingZeros(rest);
+            g.fillText(SudokuCell.symbolOf(i + 1),
+                    x + (i % geometry.boxWidth() + 0.5) * markWidth,
+                    y + (i / geometry.boxWidth() + 0.5) * markHeight);
+        }
+    }
+
+    /**
+     * Draws the lines between cells, thicker between boxes.
+     */
+    private void drawLines(GraphicsContext g, double width, double height, double cellWidth, double cellHeight) {
+        for (int i = 1; i < size; i++) {
+            boolean rowBox = i % geometry.boxHeight() == 0, colBox = i % geometry.boxWidth() == 0;
+            g.setStroke(rowBox ? Color.DARKGREY : Color.LIGHTGREY);
+            g.setLineWidth(rowBox ? 2 : 1);
+            g.strokeLine(0, i * cellHeight, width, i * cellHeight);
+            g.setStroke(colBox ? Color.DARKGREY : Color.LIGHTGREY);
+            g.setLineWidth(colBox ? 2 : 1);
+            g.strokeLine(i * cellWidth, 0, i * cellWidth, height);
+        }
+    }
+
+    /**
+     * Picks the background of a cell: check results first, then hints, locked cells and variant decorations.
+     * @param cell The cell index (row * size + col).
+     * @return The background color, or null to keep the white board.
+     */
+    private Color backgroundOf(int cell) {
+        if ((marks[cell] & INCORRECT) != 0) return INCORRECT_COLOR;
+        if ((marks[cell] & CORRECT) != 0) return CORRECT_COLOR;
+        if ((marks[cell] & HINT) != 0) return HINT_COLOR;
+        if (disabled || locked[cell]) return LOCKED_COLOR;
+        return decorations[cell];
+    }
+
+    /**
+     * Selects the clicked cell and takes the keyboard focus.
+     * @param e The mouse event.
+     */
+    private void onMousePressed(MouseEvent e) {
+        requestFocus();
+        Insets insets = getInsets();
+        int col = (int) ((e.getX() - insets.getLeft()) / (canvas.getWidth() / size));
+        int row = (int) ((e.getY() - insets.getTop()) / (canvas.getHeight() / size));
+        if (row >= 0 && row < size && col >= 0 && col < size) select(row * size + col);
+    }
+
+    /**
+     * Moves the selection with the arrow keys, and enters or clears a value or candidate in the selected cell.
+     * @param e The key event.
+     */
+    private void onKeyPressed(KeyEvent e) {
+        if (selected < 0) select(0);
+        int row = selected / size, col = selected % size;
+        switch (e.getCode()) {
+            case UP -> select(Math.max(row - 1, 0) * size + col);
+            case DOWN -> select(Math.min(row + 1, size - 1) * size + col);
+            case LEFT -> select(row * size + Math.max(col - 1, 0));
+            case RIGHT -> select(row * size + Math.min(col + 1, size - 1));
+            case BACK_SPACE, DELETE -> edit(row, col, 0, state.getCandidateMask(row, col));
+            default -> {
+                int value = SudokuCell.valueOf(e.getText(), size);
+                if (value == 0) return;
+                type(row, col, value);
+            }
+        }
+        e.consume();
+    }
+
+    private void select(int cell) {
+        if (cell == selected) return;
+        selected = cell;
+        invalidate();
+    }
+
+    /**
+     * Applies a typed symbol to a cell, as a SudokuCell does: in candidate mode it toggles the candidate of an empty
+     * cell, otherwise it sets the value, or clears it if the cell already holds it.
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     * @param value The typed value.
+     */
+    private void type(int row, int col, int value) {
+        int current = state.getCell(row, col);
+        if (candidateMode) {
+            if (current == 0) edit(row, col, 0, state.getCandidateMask(row, col) ^ 1L << (value - 1));
+        } else {
+            edit(row, col, current == value ? 0 : value, 0);
+        }
+    }
+
+    /**
+     * Records a user edit of an unlocked cell as a step of its own.
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     * @param value The new value of the cell (0 for empty).
+     * @param candidates The new candidates of the cell, as a mask.
+     */
+    private void edit(int row, int col, int value, long candidates) {
+        if (disabled || locked[row * size + col]) return;
+        moves.beginStep();
+        boolean placed = value != 0 && value != state.getCell(row, col);
+        if (moves.set(state, row, col, value, candidates)) {
+            if (placed && autoEliminate) moves.eliminateFromPeers(state, row * size + col, value);
+            markConflicts();
+            invalidate();
+            onChange.run();
+        }
+    }
+
+    @Override
+    public void updateFromModel(SudokuBoard board) {
+        clearAllStyles();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int value = board.getCell(row, col);
+                state.setCell(row, col, value);
+                state.setCandidateMask(row, col, value == 0 ? board.getCandidateMask(row, col) : 0);
+                givens.setCell(row, col, value);
+                locked[row * size + col] = value != 0;
+            }
+        }
+        moves.clear();
+        markConflicts();
+        invalidate();
+    }
+
+    @Override
+    public void restore(SudokuBoard givens, SudokuBoard current) {
+        updateFromModel(givens);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (givens.getCell(row, col) != 0) continue;
+                state.setCell(row, col, current.getCell(row, col));
+                state.setCandidateMask(row, col, current.getCandidateMask(row, col));
+            }
+        }
+        markConflicts();
+    }
+
+    /**
+     * Flags the cells whose value is repeated in one of their units or in their cage, drawn in red, and unflags the
+     * others. Runs after every recorded change, without the solution.
+     */
+    private void markConflicts() {
+        long[] conflicts = MoveAnalyzer.conflicts(state);
+        for (int cell = 0; cell < geometry.cellCount(); cell++) {
+            boolean conflict = (conflicts[cell >>> 6] & 1L << cell) != 0;
+            marks[cell] = (byte) (conflict ? marks[cell] | CONFLICT : marks[cell] & ~CONFLICT);
+        }
+    }
+
+    @Override
+    public void setOnChange(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    @Override
+    public SudokuBoard getGivens() {
+        return new SudokuBoard(givens);
+    }
+
+    @Override
+    public SudokuBoard getState() {
+        return new SudokuBoard(state);
+    }
+
+    @Override
+    public boolean undo() {
+        boolean undone = moves.undo(state, cell -> {});
+        if (undone) {
+            markConflicts();
+            invalidate();
+            onChange.run();
+        }
+        return undone;
+    }
+
+    @Override
+    public boolean redo() {
+        boolean redone = moves.redo(state, cell -> {});
+        if (redone) {
+            markConflicts();
+            invalidate();
+            onChange.run();
+        }
+        return redone;
+    }
+
+    @Override
+    public void clearAndDisableGrid() {
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                state.setCell(row, col, 0);
+                state.setCandidateMask(row, col, 0);
+                givens.setCell(row, col, 0);
+            }
+        }
+        Arrays.fill(locked, false);
+        moves.clear();
+        markConflicts();
+        disabled = true;
+        invalidate();
+    }
+
+    @Override
+    public void enableGrid() {
+        disabled = false;
+        invalidate();
+    }
+
+    @Override
+    public SudokuBoard getCurrentBoard() {
+        SudokuBoard board = new SudokuBoard(state); // keeps tracking the mistakes of the state
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                board.setCandidateMask(row, col, 0);
+            }
+        }
+        return board;
+    }
+
+    @Override
+    public void trackMistakes(SudokuBoard solution) {
+        state.trackMistakes(solution);
+    }
+
+    /**
+     * Shows the result of a check of the board, like the grid view does: incorrect cells are highlighted and the
+     * other cells are locked.
+     * @param unsolved The cells not holding the value of the solution, bit (cell % 64) of word (cell / 64) set.
+     */
+    @Override
+    public void checkSolution(long[] unsolved) {
+        boolean allCorrect = true;
+        for (int cell = 0; cell < geometry.cellCount(); cell++) {
+            if ((unsolved[cell >>> 6] & 1L << cell) != 0) {
+                marks[cell] |= INCORRECT;
+                allCorrect = false;
+            } else {
+                marks[cell] |= CORRECT;
+                locked[cell] = true;
+            }
+        }
+        invalidate();
+        if (allCorrect) {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Sudoku");
+            alert.setHeaderText(null);
+            alert.setContentText("Congratulations! Your solution is correct!");
+            alert.showAndWait();
+        }
+    }
+
+    @Override
+    public void revealSolution(SudokuBoard solution) {
+        if (solution == null) {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Sudoku");
+            alert.setHeaderText(null);
+            alert.setContentText("No solution available to reveal.");
+            alert.showAndWait();
+            return;
+        }
+        updateFromModel(solution);
+    }
+
+    /**
+     * Displays a hint and records what it placed or eliminated as one step.
+     * @param hint The Hint object containing the details of the hint to display.
+     */
+    @Override
+    public void showHint(Hint hint) {
+        moves.beginStep();
+        hints.show(hint);
+        markConflicts();
+        invalidate();
+        onChange.run();
+    }
+
+    @Override
+    public int showPointOfNoReturn(MoveAnalyzer analyzer) {
+        int move = analyzer.pointOfNoReturn(state, moves);
+        if (move < 0) return -1;
+        int cell = MoveLog.cell(moves.move(move));
+        target.clearHighlights();
+        target.highlight(cell / size, cell % size);
+        return cell;
+    }
+
+    @Override
+    public void setCandidateMode(boolean enabled) {
+        candidateMode = enabled;
+    }
+
+    @Override
+    public void setAutoEliminate(boolean enabled) {
+        autoEliminate = enabled;
+    }
+
+    @Override
+    public void clearAllStyles() {
+        for (int cell = 0; cell < marks.length; cell++) {
+            marks[cell] &= CONFLICT; // conflicts follow the values of the board
+        }
+        invalidate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<Integer>[][] getAllCandidates() {
+        Set<Integer>[][] candidates = new HashSet[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                candidates[row][col] = state.getCandidates(row, col);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * The cells of this canvas, as seen by the hint presenter. Changes go straight to the move log.
+     */
+    private class CanvasTarget implements HintPresenter.Target {
+        @Override
+        public boolean isLocked(int row, int col) {
+            return disabled || locked[row * size + col];
+        }
+
+        @Override
+        public int valueAt(int row, int col) {
+            return state.getCell(row, col);
+        }
+
+        @Override
+        public Set<Integer> candidatesAt(int row, int col) {
+            return state.getCandidates(row, col);
+        }
+
+        @Override
+        public void placeValue(int row, int col, int value) {
+            moves.set(state, row, col, value, 0);
+            invalidate();
+        }
+
+        @Override
+        public void setCandidatesAt(int row, int col, Set<Integer> candidates) {
+            long mask = 0;
+            for (int digit : candidates) {
+                mask |= 1L << (digit - 1);
+            }
+            moves.set(state, row, col, state.getCell(row, col), mask);
+            invalidate();
+        }
+
+        @Override
+        public void eliminateFromPeers(int row, int col, int value) {
+            moves.eliminateFromPeers(state, row * size + col, value);
+            invalidate();
+        }
+
+        @Override
+        public void highlight(int row, int col) {
+            marks[row * size + col] |= HINT;
+            invalidate();
+        }
+
+        @Override
+        public void clearHighlights() {
+            for (int cell = 0; cell < marks.length; cell++) {
+                marks[cell] &= ~HINT;
+            }
+            invalidate();
+        }
+    }
+}
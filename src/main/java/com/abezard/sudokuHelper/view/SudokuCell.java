@@ -1,5 +1,6 @@
 package com.abezard.sudokuHelper.view;
 
+import com.abezard.sudokuHelper.model.Geometry;
 import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
@@ -9,16 +10,35 @@ import java.util.Set;
 
 public class SudokuCell extends StackPane {
 
+    // Values above 9 are shown as letters, so a single key press can enter any value up to 35
+    private static final String SYMBOLS = "123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private final Geometry geometry;
     private final TextField valueField = new TextField();
     private final GridPane candidatesGrid = new GridPane();
     private boolean candidateMode = false;
     private Set<Integer> candidates = new java.util.HashSet<>();
+    private long shownMask; // candidates shown by the labels
+    private Runnable onEdit = () -> {};
 
     /**
      * Constructor for the custom JavaFX object SudokuCell. Allows for easy switching
      * between candidate mode and regular value entry mode.
      */
     public SudokuCell() {
+        this(Geometry.CLASSIC);
+    }
+
+    /**
+     * Constructor for a SudokuCell of a board with the given geometry, which decides the values it accepts
+     * and the layout of its candidates.
+     * @param geometry the shape of the board the cell belongs to.
+     */
+    public SudokuCell(Geometry geometry) {
+        if (geometry.size() > SYMBOLS.length()) {
+            throw new IllegalArgumentException("Boards larger than " + SYMBOLS.length() + "x" + SYMBOLS.length() + " cannot be displayed.");
+        }
+        this.geometry = geometry;
         getStyleClass().add("sudoku-cell");
         setPrefSize(50, 50);
         setupValueField();
@@ -28,7 +48,7 @@ public class SudokuCell extends StackPane {
     /**
      * Initializes the value field with specific styles and key event handling.
      * In candidate mode, it allows toggling candidates by pressing number keys.
-     * In regular mode, it allows entering a single digit (1-9) and clears the field on repeated entry.
+     * In regular mode, it allows entering a single symbol (1-9, then A, B, ... on larger boards) and clears the field on repeated entry.
      */
     private void setupValueField() {
         valueField.getStyleClass().add("value-field");
@@ -37,8 +57,8 @@ public class SudokuCell extends StackPane {
         valueField.setPrefSize(50, 50);
         valueField.setOnKeyPressed(e -> {
             String text = e.getText();
-            if (candidateMode && valueField.getText().isEmpty() && text.matches("[1-9]")) {
-                int digit = Integer.parseInt(text);
+            int digit = valueOf(text);
+            if (candidateMode && valueField.getText().isEmpty() && digit != 0) {
                 if (candidates.contains(digit)) {
                     candidates.remove(digit);
                 } else {
@@ -46,8 +66,8 @@ public class SudokuCell extends StackPane {
                 }
                 updateCandidateLabels();
                 e.consume();
-            } else if (!candidateMode && text.matches("[1-9]")) {
-                if (valueField.getText().equals(text)) {
+            } else if (!candidateMode && digit != 0) {
+                if (valueField.getText().equalsIgnoreCase(text)) {
                     Platform.runLater(valueField::clear);
                 }
                 else {
@@ -58,53 +78,74 @@ public class SudokuCell extends StackPane {
                 candidatesGrid.setVisible(false);
                 e.consume();
             }
+            // runs once the typed key has reached the text field
+            Platform.runLater(() -> onEdit.run());
         });
     }
 
     /**
-     * Sets up the candidates grid, which displays candidate numbers (1-9) for the Sudoku cell.
-     * Each candidate is represented by a Label in a 3x3 GridPane layout.
+     * Sets the action run after each key press of the user on this cell, once its value and candidates are updated.
+     * @param onEdit the action to run.
+     */
+    public void setOnEdit(Runnable onEdit) {
+        this.onEdit = onEdit;
+    }
+
+    /**
+     * Sets up the candidates grid, which displays candidate symbols for the Sudoku cell.
+     * Each candidate is represented by a Label in a GridPane laid out like a box of the board (3x3 for a classic board).
      */
     private void setupCandidatesGrid() {
         candidatesGrid.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
         candidatesGrid.setAlignment(Pos.CENTER);
         ColumnConstraints cc = new ColumnConstraints();
-        cc.setPercentWidth(100.0 / 3);
+        cc.setPercentWidth(100.0 / geometry.boxWidth());
         RowConstraints rc = new RowConstraints();
-        rc.setPercentHeight(100.0 / 3);
-        for (int i = 0; i < 3; i++) {
+        rc.setPercentHeight(100.0 / geometry.boxHeight());
+        for (int i = 0; i < geometry.boxWidth(); i++) {
             candidatesGrid.getColumnConstraints().add(cc);
+        }
+        for (int i = 0; i < geometry.boxHeight(); i++) {
             candidatesGrid.getRowConstraints().add(rc);
         }
-        for (int i = 0; i < 9; i++) {
+        for (int i = 0; i < geometry.size(); i++) {
             Label l = new Label();
             l.getStyleClass().add("candidate");
             l.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
             l.setAlignment(Pos.CENTER);
-            GridPane.setColumnIndex(l, i % 3);
-            GridPane.setRowIndex(l, i / 3);
+            GridPane.setColumnIndex(l, i % geometry.boxWidth());
+            GridPane.setRowIndex(l, i / geometry.boxWidth());
             candidatesGrid.getChildren().add(l);
         }
         getChildren().addAll(candidatesGrid, valueField);
     }
 
+    /**
+     * Shows the sum of a killer cage in the top left corner of the cell.
+     * @param sum the sum of the cage starting at this cell.
+     */
+    public void setCageSum(int sum) {
+        Label label = new Label(Integer.toString(sum));
+        label.getStyleClass().add("cage-sum");
+        label.setMouseTransparent(true);
+        StackPane.setAlignment(label, Pos.TOP_LEFT);
+        getChildren().add(label);
+    }
+
     /**
      * Sets the value of this Sudoku cell and updates the candidates grid visibility.
      * @param v the integer value to set (0 for empty).
      * @param disable true to disable the value field, false to enable it.
      */
     public void setValue(int v, boolean disable) {
-        if (v == 0) {
-            valueField.setText("");
-            valueField.setDisable(disable);
-            candidatesGrid.setVisible(true);
-        } else {
-            valueField.setText(String.valueOf(v));
-            valueField.setDisable(disable);
+        String text = v == 0 ? "" : symbolOf(v);
+        if (!text.equals(valueField.getText())) valueField.setText(text);
+        if (valueField.isDisabled() != disable) valueField.setDisable(disable);
+        if (v != 0 && !candidates.isEmpty()) {
             candidates.clear();
             updateCandidateLabels();
-            candidatesGrid.setVisible(false);
         }
+        candidatesGrid.setVisible(v == 0);
     }
 
     /**
@@ -113,7 +154,37 @@ public class SudokuCell extends StackPane {
      */
     public Integer getValue() {
         String t = valueField.getText();
-        return (t == null || t.isEmpty()) ? 0 : Integer.parseInt(t);
+        return (t == null || t.isEmpty()) ? 0 : valueOf(t);
+    }
+
+    /**
+     * Converts a value to the symbol shown for it.
+     * @param value the value, from 1 to the size of the board.
+     * @return the digit or letter representing the value.
+     */
+    public static String symbolOf(int value) {
+        return String.valueOf(SYMBOLS.charAt(value - 1));
+    }
+
+    /**
+     * Converts a typed symbol to its value on this cell's board.
+     * @param text the typed text (letters in either case).
+     * @return the value of the symbol, or 0 if the text is not a single symbol of this board.
+     */
+    private int valueOf(String text) {
+        return valueOf(text, geometry.size());
+    }
+
+    /**
+     * Converts a typed symbol to its value on a board of the given size.
+     * @param text the typed text (letters in either case).
+     * @param size the number of values of the board.
+     * @return the value of the symbol, or 0 if the text is not a single symbol of the board.
+     */
+    static int valueOf(String text, int size) {
+        if (text == null || text.length() != 1) return 0;
+        int value = SYMBOLS.indexOf(Character.toUpperCase(text.charAt(0))) + 1;
+        return value <= size ? value : 0;
     }
 
     /**
@@ -124,7 +195,7 @@ public class SudokuCell extends StackPane {
 
     /**
      * Sets the candidates for this Sudoku cell.
-     * @param cands a Set of integers representing the candidates (1-9) for this cell.
+     * @param cands a Set of integers representing the candidates (1 to the size of the board) for this cell.
      */
     public void setCandidates(Set<Integer> cands) {
         candidates = cands;
@@ -133,12 +204,41 @@ public class SudokuCell extends StackPane {
 
     /**
      * Getter for the candidates of this Sudoku cell.
-     * @return a Set of integers representing the candidates (1-9) for this cell.
+     * @return a Set of integers representing the candidates (1 to the size of the board) for this cell.
      */
     public Set<Integer> getCandidates() {
         return candidates;
     }
 
+    /**
+     * Sets the candidates for this Sudoku cell from a mask. Nothing is updated if they do not change.
+     * @param mask a mask where bit (d - 1) is set if d is a candidate of the cell.
+     */
+    public void setCandidateMask(long mask) {
+        if (mask == shownMask && maskOf(candidates) == mask) return;
+        Set<Integer> set = new java.util.HashSet<>();
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            set.add(Long.numberOfTrailingZeros(bits) + 1);
+        }
+        setCandidates(set);
+    }
+
+    /**
+     * Getter for the candidates of this Sudoku cell as a mask.
+     * @return a mask where bit (d - 1) is set if d is a candidate of the cell.
+     */
+    public long getCandidateMask() {
+        return maskOf(candidates);
+    }
+
+    private static long maskOf(Set<Integer> digits) {
+        long mask = 0;
+        for (int digit : digits) {
+            mask |= 1L << (digit - 1);
+        }
+        return mask;
+    }
+
     /**
      * Adds a hint style to the Sudoku cell and its value field.
      */
@@ -157,14 +257,17 @@ public class SudokuCell extends StackPane {
 
     /**
      * Updates the candidate labels in the grid based on the current candidates set.
-     * This method is called whenever a modification is made to the set of candidates.
+     * This method is called whenever a modification is made to the set of candidates; only the labels of the
+     * candidates that were added or removed are rewritten.
      */
     private void updateCandidateLabels() {
-        for (int i = 0; i < 9; i++) {
+        long mask = maskOf(candidates);
+        for (long changed = mask ^ shownMask; changed != 0; changed &= changed - 1) {
+            int i = Long.numberOfTrailingZeros(changed);
             Label label = (Label) candidatesGrid.getChildren().get(i);
-            int digit = i + 1;
-            label.setText(candidates.contains(digit) ? String.valueOf(digit) : "");
+            label.setText((mask & 1L << i) != 0 ? symbolOf(i + 1) : "");
         }
+        shownMask = mask;
         candidatesGrid.setVisible(valueField.getText().isEmpty());
     }
 
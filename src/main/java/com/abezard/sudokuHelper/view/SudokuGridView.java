@@ -1,28 +1,103 @@
 package com.abezard.sudokuHelper.view;
 
-import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Geometry;
 import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.MoveLog;
+import com.abezard.sudokuHelper.model.ObservableBoard;
 import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.UnitIndex;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.MoveAnalyzer;
+import javafx.application.Platform;
 import javafx.scene.Node;
 import javafx.scene.control.Alert;
 import javafx.scene.layout.*;
 
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
-public class SudokuGridView extends GridPane {
+public class SudokuGridView extends GridPane implements BoardView {
 
-    private final SudokuCell[][] cells = new SudokuCell[9][9];
+    private final Geometry geometry;
+    private final Variant variant;
+    private final int size;
+    private final SudokuCell[][] cells;
+    // style flags of a cell, shown as the hint-cell, incorrect-cell, correct-cell, disabled-cell and conflict-cell
+    // classes
+    private static final int HINT = 1;
+    private static final int INCORRECT = 2;
+    private static final int CORRECT = 4;
+    private static final int DISABLED = 8;
+    private static final int CONFLICT = 16;
+
+    private final ObservableBoard state; // values and candidates as last recorded in the move log
+    private final boolean[] locked; // value field disabled: givens, values confirmed by a check, disabled grid
+    private final byte[] marks; // style flags of each cell
+    private final byte[] shownMarks; // style flags as last applied to the nodes
+    private final MoveLog moves = new MoveLog();
+    private final SudokuBoard givens;
+    private Runnable onChange = () -> {};
+    private final CellTarget target = new CellTarget();
+    private final HintPresenter hints;
+    private boolean autoEliminate; // a typed value is removed from the candidates of its peers
 
     /**
-     * Constructor for SudokuGridView.
+     * Constructor for SudokuGridView, showing a classic 9x9 board.
      * Initializes the grid layout and populates it with SudokuCell instances.
      */
     public SudokuGridView() {
+        this(Geometry.CLASSIC);
+    }
+
+    /**
+     * Constructor for SudokuGridView.
+     * Initializes the grid layout and populates it with SudokuCell instances.
+     * @param geometry The shape of the boards shown by this view.
+     */
+    public SudokuGridView(Geometry geometry) {
+        this(Variant.classic(geometry));
+    }
+
+    /**
+     * Constructor for SudokuGridView, showing the extra units, cages and marked cells of a variant.
+     * Initializes the grid layout and populates it with SudokuCell instances.
+     * @param variant The variant of the boards shown by this view.
+     */
+    public SudokuGridView(Variant variant) {
+        this.variant = variant;
+        this.geometry = variant.geometry();
+        this.size = geometry.size();
+        this.cells = new SudokuCell[size][size];
+        this.state = new ObservableBoard(variant);
+        this.locked = new boolean[geometry.cellCount()];
+        this.marks = new byte[geometry.cellCount()];
+        this.shownMarks = new byte[geometry.cellCount()];
+        // any number of changes before the next pulse cost one refresh of just the changed cells
+        state.setOnFirstChange(() -> Platform.runLater(this::refreshDirtyCells));
+        this.givens = new SudokuBoard(variant);
+        this.hints = new HintPresenter(geometry, target);
         buildGrid();
     }
 
+    /**
+     * Returns the grid itself, one SudokuCell node per cell.
+     * @return This grid pane.
+     */
+    @Override
+    public Node getNode() { return this; }
+
+    /**
+     * Returns the geometry of the boards shown by this view.
+     * @return The shape of the grid and its boxes.
+     */
+    public Geometry getGeometry() { return geometry; }
+
+    /**
+     * Returns the variant of the boards shown by this view.
+     * @return The variant whose constraints are drawn on the grid.
+     */
+    public Variant getVariant() { return variant; }
+
     /**
      * Rebuilds the grid layout, clearing any existing cells and constraints.
      */
@@ -32,50 +107,266 @@ public class SudokuGridView extends GridPane {
         getChildren().clear();
         getStyleClass().add("sudoku-grid");
 
-        for (int i = 0; i < 9; i++) {
+        for (int i = 0; i < size; i++) {
             ColumnConstraints col = new ColumnConstraints();
-            col.setPercentWidth(100.0 / 9);
+            col.setPercentWidth(100.0 / size);
             col.setHgrow(Priority.ALWAYS);
             getColumnConstraints().add(col);
 
             RowConstraints row = new RowConstraints();
-            row.setPercentHeight(100.0 / 9);
+            row.setPercentHeight(100.0 / size);
             row.setVgrow(Priority.ALWAYS);
             getRowConstraints().add(row);
         }
 
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                SudokuCell cell = new SudokuCell();
+        int height = geometry.boxHeight(), width = geometry.boxWidth();
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                SudokuCell cell = new SudokuCell(geometry);
                 cell.getStyleClass().add("inner-cell");
-                if (r == 2 || r == 5) cell.getStyleClass().add("top-row");
-                if (r == 3 || r == 6) cell.getStyleClass().add("bottom-row");
-                if (c == 2 || c == 5) cell.getStyleClass().add("left-col");
-                if (c == 3 || c == 6) cell.getStyleClass().add("right-col");
+                // thicker borders between boxes
+                if (r % height == height - 1 && r != size - 1) cell.getStyleClass().add("top-row");
+                if (r % height == 0 && r != 0) cell.getStyleClass().add("bottom-row");
+                if (c % width == width - 1 && c != size - 1) cell.getStyleClass().add("left-col");
+                if (c % width == 0 && c != 0) cell.getStyleClass().add("right-col");
+                int row = r, col = c;
+                cell.setOnEdit(() -> recordEdit(row, col));
                 add(cell, c, r);
                 cells[r][c] = cell;
             }
         }
+        if (!variant.isClassic()) decorateVariant();
+    }
+
+    /**
+     * Marks the cells constrained by the variant: cells of extra units (diagonals, windows), even and odd cells,
+     * and killer cages, tinted so that neighbouring cages differ, with their sum in their first cell.
+     */
+    private void decorateVariant() {
+        UnitIndex index = variant.index();
+        long odd = 0x5555555555555555L & geometry.allValues();
+        for (int cell = 0; cell < geometry.cellCount(); cell++) {
+            SudokuCell view = cells[cell / size][cell % size];
+            if (index.extraUnits(cell).length > 0) view.getStyleClass().add("extra-unit-cell");
+            if (index.allowedValues(cell) == odd) view.getStyleClass().add("odd-cell");
+            else if (index.allowedValues(cell) == (geometry.allValues() & ~odd)) view.getStyleClass().add("even-cell");
+        }
+        int[] tints = cageTints(index, size);
+        for (int cage = 0; cage < index.cageCount(); cage++) {
+            int[] cageCells = index.cageCells(cage);
+            for (int cell : cageCells) {
+                cells[cell / size][cell % size].getStyleClass().add("cage-" + tints[cage]);
+            }
+            cells[cageCells[0] / size][cageCells[0] % size].setCageSum(index.cageSum(cage));
+        }
+    }
+
+    /**
+     * Picks one of four tints for each killer cage, so that cages sharing an edge differ.
+     * @param index The compiled rules of the variant.
+     * @param size The number of rows of the board.
+     * @return The tint (0 to 3) of each cage.
+     */
+    static int[] cageTints(UnitIndex index, int size) {
+        int[] tints = new int[index.cageCount()];
+        for (int cage = 0; cage < index.cageCount(); cage++) {
+            int usedTints = 0;
+            for (int cell : index.cageCells(cage)) {
+                int row = cell / size, col = cell % size;
+                if (row > 0) usedTints |= tintBit(index, tints, cage, cell - size);
+                if (row < size - 1) usedTints |= tintBit(index, tints, cage, cell + size);
+                if (col > 0) usedTints |= tintBit(index, tints, cage, cell - 1);
+                if (col < size - 1) usedTints |= tintBit(index, tints, cage, cell + 1);
+            }
+            tints[cage] = Integer.numberOfTrailingZeros(~usedTints) % 4;
+        }
+        return tints;
+    }
+
+    /**
+     * Gets the tint of the cage holding a neighbouring cell, if it was already tinted.
+     * @param index The compiled rules of the variant.
+     * @param tints The tint of each cage tinted so far.
+     * @param cage The cage being tinted.
+     * @param neighbour The neighbouring cell.
+     * @return A mask with the bit of the neighbouring cage tint, or 0 if it is the same cage or not tinted yet.
+     */
+    private static int tintBit(UnitIndex index, int[] tints, int cage, int neighbour) {
+        int other = index.cageOf(neighbour);
+        return other >= 0 && other < cage ? 1 << tints[other] : 0;
+    }
+
+    /**
+     * Shows the changes of the model on the nodes of the dirty cells only, then clears their dirty bits.
+     * Runs once per pulse at most: the board asks for it when its first cell gets dirty.
+     */
+    private void refreshDirtyCells() {
+        state.drainDirty(this::refreshCell);
+    }
+
+    /**
+     * Shows the recorded state of a cell on its node: value, candidates, whether its value can be edited, and the
+     * style classes of its marks. Only the properties and style classes that differ are touched.
+     * @param index The cell index (row * size + col).
+     */
+    private void refreshCell(int index) {
+        int row = index / size, col = index % size;
+        SudokuCell cell = cells[row][col];
+        cell.setValue(state.getCell(row, col), locked[index]);
+        cell.setCandidateMask(state.getCandidateMask(row, col));
+        int changed = marks[index] ^ shownMarks[index];
+        if (changed == 0) return;
+        if ((changed & HINT) != 0) toggleStyle(cell, "hint-cell", (marks[index] & HINT) != 0);
+        if ((changed & INCORRECT) != 0) toggleStyle(cell, "incorrect-cell", (marks[index] & INCORRECT) != 0);
+        if ((changed & DISABLED) != 0) toggleStyle(cell, "disabled-cell", (marks[index] & DISABLED) != 0);
+        if ((changed & CONFLICT) != 0) toggleStyle(cell, "conflict-cell", (marks[index] & CONFLICT) != 0);
+        if ((changed & CORRECT) != 0) {
+            toggleStyle(cell, "correct-cell", (marks[index] & CORRECT) != 0);
+            toggleStyle(cell.getValueField(), "correct-cell", (marks[index] & CORRECT) != 0);
+        }
+        shownMarks[index] = marks[index];
+    }
+
+    private static void toggleStyle(Node node, String styleClass, boolean on) {
+        if (on) node.getStyleClass().add(styleClass);
+        else node.getStyleClass().remove(styleClass);
+    }
+
+    /**
+     * Sets the marks of a cell, marking it dirty if they changed.
+     * @param index The cell index (row * size + col).
+     * @param cellMarks The HINT, INCORRECT, CORRECT, DISABLED and CONFLICT flags of the cell.
+     */
+    private void setMarks(int index, int cellMarks) {
+        if (marks[index] == cellMarks) return;
+        marks[index] = (byte) cellMarks;
+        state.markDirty(index);
+    }
+
+    /**
+     * Sets whether the value of a cell can be edited, marking it dirty if that changed.
+     * @param index The cell index (row * size + col).
+     * @param isLocked true for givens and values confirmed by a check.
+     */
+    private void setLocked(int index, boolean isLocked) {
+        if (locked[index] == isLocked) return;
+        locked[index] = isLocked;
+        state.markDirty(index);
     }
 
     /**
      * Updates the grid view from the provided SudokuBoard model.
+     * Only the cells that differ from what the grid shows are refreshed.
      * @param board The SudokuBoard model to update the view from.
      */
     public void updateFromModel(SudokuBoard board) {
         clearAllStyles();
-        for (Node node : getChildren()) {
-            if (node instanceof SudokuCell cell) {
-                Integer row = GridPane.getRowIndex(cell);
-                Integer col = GridPane.getColumnIndex(cell);
-                row = (row == null) ? 0 : row;
-                col = (col == null) ? 0 : col;
-
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
                 int value = board.getCell(row, col);
-                cell.setValue(value, value != 0);
-                cell.setCandidates(board.getCandidates(row, col));
+                state.setCell(row, col, value);
+                state.setCandidateMask(row, col, value == 0 ? board.getCandidateMask(row, col) : 0);
+                givens.setCell(row, col, value);
+                setLocked(row * size + col, value != 0);
             }
         }
+        moves.clear();
+        markConflicts();
+    }
+
+    /**
+     * Shows a saved game: its givens, then the values and candidates entered by the user.
+     * @param givens The puzzle as generated, with only its given values.
+     * @param current The values and candidate masks of the game in progress.
+     */
+    public void restore(SudokuBoard givens, SudokuBoard current) {
+        updateFromModel(givens);
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                if (givens.getCell(r, c) != 0) continue;
+                state.setCell(r, c, current.getCell(r, c));
+                state.setCandidateMask(r, c, current.getCandidateMask(r, c));
+            }
+        }
+        markConflicts();
+    }
+
+    /**
+     * Marks the cells whose value is repeated in one of their units or in their cage, and unmarks the others.
+     * Runs after every recorded change, so conflicts show as soon as they are entered, without the solution.
+     */
+    private void markConflicts() {
+        long[] conflicts = MoveAnalyzer.conflicts(state);
+        for (int index = 0; index < geometry.cellCount(); index++) {
+            boolean conflict = (conflicts[index >>> 6] & 1L << index) != 0;
+            setMarks(index, conflict ? marks[index] | CONFLICT : marks[index] & ~CONFLICT);
+        }
+    }
+
+    /**
+     * Sets the action run after every change recorded in the move log: user edits, hints, undo and redo.
+     * @param onChange The action to run, e.g. an autosave.
+     */
+    public void setOnChange(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    /**
+     * Returns the givens of the puzzle shown.
+     * @return A copy of the board holding only the given values.
+     */
+    public SudokuBoard getGivens() {
+        return new SudokuBoard(givens);
+    }
+
+    /**
+     * Returns the values and candidates of the game in progress, as recorded in the move log.
+     * @return A copy of the recorded board, givens included.
+     */
+    public SudokuBoard getState() {
+        return new SudokuBoard(state);
+    }
+
+    /**
+     * Records the change the user just made to a cell as a step of its own.
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     */
+    private void recordEdit(int row, int col) {
+        moves.beginStep();
+        int value = cells[row][col].getValue();
+        boolean placed = value != 0 && value != state.getCell(row, col);
+        if (moves.set(state, row, col, value, cells[row][col].getCandidateMask())) {
+            if (placed && autoEliminate) moves.eliminateFromPeers(state, row * size + col, value);
+            markConflicts();
+            onChange.run();
+        }
+    }
+
+    /**
+     * Undoes the last step, whether a user edit or all the changes of a hint.
+     * @return true if a step was undone, false if there was nothing to undo.
+     */
+    public boolean undo() {
+        boolean undone = moves.undo(state, cell -> {});
+        if (undone) {
+            markConflicts();
+            onChange.run();
+        }
+        return undone;
+    }
+
+    /**
+     * Redoes the last undone step.
+     * @return true if a step was redone, false if there was nothing to redo.
+     */
+    public boolean redo() {
+        boolean redone = moves.redo(state, cell -> {});
+        if (redone) {
+            markConflicts();
+            onChange.run();
+        }
+        return redone;
     }
 
     /**
@@ -83,26 +374,27 @@ public class SudokuGridView extends GridPane {
      * Sets all cell values to 0 and adds a "disabled-cell" style class.
      */
     public void clearAndDisableGrid() {
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                SudokuCell cell = cells[r][c];
-                cell.setValue(0, true);
-                cell.setCandidates(new HashSet<>());
-                cell.getStyleClass().add("disabled-cell");
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int index = r * size + c;
+                state.setCell(r, c, 0);
+                state.setCandidateMask(r, c, 0);
+                givens.setCell(r, c, 0);
+                setLocked(index, true);
+                setMarks(index, marks[index] | DISABLED);
             }
         }
+        moves.clear();
+        markConflicts();
     }
 
     /**
      * Enables the grid by removing the "disabled-cell" style class and allowing value input.
      */
     public void enableGrid() {
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                SudokuCell cell = cells[r][c];
-                cell.valueField().setDisable(false);
-                cell.getStyleClass().remove("disabled-cell");
-            }
+        for (int index = 0; index < geometry.cellCount(); index++) {
+            setLocked(index, false);
+            setMarks(index, marks[index] & ~DISABLED);
         }
     }
 
@@ -111,37 +403,38 @@ public class SudokuGridView extends GridPane {
      * @return A SudokuBoard object representing the current state of the grid.
      */
     public SudokuBoard getCurrentBoard() {
-        SudokuBoard board = new SudokuBoard();
-        int[][] values = new int[9][9];
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                values[r][c] = cells[r][c].getValue();
+        SudokuBoard board = new SudokuBoard(state); // keeps tracking the mistakes of the state
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                board.setCandidateMask(row, col, 0);
             }
         }
-        board.setBoard(values);
         return board;
     }
 
     /**
-     * Checks the solution of the Sudoku board against the provided resultBoard.
+     * Makes the recorded state track its mistakes against the solution of the puzzle.
+     * @param solution The solution of the puzzle shown, or null to stop tracking.
+     */
+    public void trackMistakes(SudokuBoard solution) {
+        state.trackMistakes(solution);
+    }
+
+    /**
+     * Shows the result of a check of the Sudoku board.
      * Highlights incorrect cells and disables value input for correct cells.
      * Displays an alert if the solution is correct.
-     * @param resultBoard The SudokuBoard containing the correct solution.
+     * @param unsolved The cells not holding the value of the solution, bit (cell % 64) of word (cell / 64) set.
      */
-    public void checkSolution(SudokuBoard resultBoard) {
+    public void checkSolution(long[] unsolved) {
         boolean allCorrect = true;
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                SudokuCell cell = cells[r][c];
-                int checkValue = resultBoard.getCell(r, c);
-                if (checkValue == -1) {
-                    cell.getStyleClass().add("incorrect-cell");
-                    allCorrect = false;
-                } else {
-                    cell.valueField().setDisable(true);
-                    cell.getStyleClass().add("correct-cell");
-                    cell.getValueField().getStyleClass().add("correct-cell");
-                }
+        for (int index = 0; index < geometry.cellCount(); index++) {
+            if ((unsolved[index >>> 6] & 1L << index) != 0) {
+                setMarks(index, marks[index] | INCORRECT);
+                allCorrect = false;
+            } else {
+                setLocked(index, true);
+                setMarks(index, marks[index] | CORRECT);
             }
         }
         if (allCorrect) {
@@ -173,274 +466,127 @@ public class SudokuGridView extends GridPane {
      * Displays a hint for the Sudoku puzzle.
      * Highlights the cell with the hint and shows an alert with the hint details.
      * If the hint is null or indicates that the puzzle is already solved, appropriate messages are shown.
+     * Everything the hint places or eliminates is recorded as one step, and only the cells it touched are refreshed.
      * @param hint The Hint object containing the details of the hint to display.
      */
     public void showHint(Hint hint) {
-        if (hint == null) {
-            showAlert(Alert.AlertType.INFORMATION, "Sudoku Hint", null,
-                    "More advanced solving techniques are required to solve this puzzle.");
-            return;
-        }
-        switch (hint.type()) {
-            case INCORRECT_INPUT -> {
-                showAlert(Alert.AlertType.ERROR, "Incorrect Input", null,
-                        "You have an incorrect input in the grid. The highlighted cell is incorrect.");
-                cells[hint.row()][hint.col()].getStyleClass().add("hint-cell");
-            }
-            case ALREADY_SOLVED -> showAlert(Alert.AlertType.INFORMATION, "Sudoku Solved", null,
-                    "The Sudoku puzzle is already solved!");
-            case HIDDEN_SINGLE, NAKED_SINGLE, LAST_CANDIDATE -> {
-                clearHintHighlights();
-                SudokuCell cell = cells[hint.row()][hint.col()];
-                cell.addHintStyle();
-                showAlert(
-                        hint.type() == Hint.HintType.HIDDEN_SINGLE || hint.type() == Hint.HintType.NAKED_SINGLE
-                                ? Alert.AlertType.CONFIRMATION : Alert.AlertType.INFORMATION,
-                        "Sudoku Hint",
-                        "HINT: " + hint.type().toString().replaceAll("_", " "),
-                        "Location: Row " + (hint.row() + 1) + ", Column " + (hint.col() + 1) +
-                                "\n\nExplanation: " + hint.explanation()
-                );
-                cell.setValue(hint.value(), false);
-                cell.setCandidates(new HashSet<>());
-                // removes candidates that will be eliminated by this hint (if applicable)
-                removeCandidatesFromBox(hint.row(), hint.col(), new int[]{hint.value()});
-                removeCandidatesFromRow(hint.row(), new int[]{hint.value()});
-                removeCandidatesFromColumn(hint.col(), new int[]{hint.value()});
-            }
-            case NAKED_PAIR, HIDDEN_PAIR, POINTING_PAIR -> {
-                clearHintHighlights();
-                CandidatesHint h = (CandidatesHint) hint;
-                String scope = h.getScope();
-                String pairType = hint.type().toString().replaceAll("_", " ");
-                String candidatesStr = h.getCandidates().length == 2
-                        ? h.getCandidates()[0] + " and " + h.getCandidates()[1]
-                        : Arrays.toString(h.getCandidates());
-                String explanation = "\n\nExplanation: " + hint.explanation();
-                String header = "HINT: " + pairType;
-                String content = pairContentTextHelper(h, scope, candidatesStr, pairType, explanation);
-                for (int[] cellCoords : h.getCellCoordinates()) {
-                    int row = cellCoords[0], col = cellCoords[1];
-                    if (hint.type() == Hint.HintType.POINTING_PAIR) {
-                        HashSet<Integer> candidatesSet = new HashSet<>(cells[row][col].getCandidates());
-                        candidatesSet.add(h.getCandidates()[0]);
-                        cells[row][col].setCandidates(candidatesSet);
-                    } else {
-                        cells[row][col].setCandidates(new HashSet<>(Arrays.asList(h.getCandidates()[0], h.getCandidates()[1])));
-                    }
-                }
-                showAlert(Alert.AlertType.INFORMATION, "Sudoku Hint", header, content);
-            }
-            case ALL_CANDIDATES -> {
-                CandidatesHint h = (CandidatesHint) hint;
-                showAlert(Alert.AlertType.INFORMATION, "Sudoku Hint",
-                        "HINT: " + hint.type().toString().replaceAll("_", " "), h.explanation());
-                Set<Integer>[][] allCandidates = h.getMultipleCandidates();
-                for (int i = 0; i < allCandidates.length; i++) {
-                    for (int j = 0; j < allCandidates[i].length; j++) {
-                        if (allCandidates[i][j] != null) {
-                            cells[i][j].setCandidates(new HashSet<>(allCandidates[i][j]));
-                        }
-                    }
-                }
-            }
-        }
+        moves.beginStep();
+        hints.show(hint);
+        markConflicts();
+        onChange.run();
     }
 
     /**
-     * Helper method to generate the content text for pair hints.
-     * @param h The CandidatesHint object containing the hint details.
-     * @param scope The scope of the pair (row, column, or box).
-     * @param candidatesStr The string representation of the candidates involved in the pair.
-     * @param pairType The type of pair (e.g., "Naked Pair", "Hidden Pair", "Pointing Pair").
-     * @param explanation The explanation text for the hint.
-     * @return The formatted content text for the hint.
-     */
-    private String pairContentTextHelper(CandidatesHint h, String scope,  String candidatesStr, String pairType, String explanation) {
-        String content;
-        if ("row".equals(scope)) {
-            content = (h.type() == Hint.HintType.POINTING_PAIR
-                    ? "Row " + (h.getCellCoordinates()[0][0] + 1) + " has a pointing pair/triple with candidate: " + h.getCandidates()[0]
-                    : "Row " + (h.getCellCoordinates()[0][0] + 1) + " has a " + pairType.toLowerCase() + " of candidates: " + candidatesStr)
-                    + explanation;
-            highlightRow(h.getCellCoordinates()[0][0]);
-            if (h.type() != Hint.HintType.HIDDEN_PAIR)
-                removeCandidatesFromRow(h.getCellCoordinates()[0][0], h.getCandidates());
-        } else if ("column".equals(scope)) {
-            content = (h.type() == Hint.HintType.POINTING_PAIR
-                    ? "Column " + (h.getCellCoordinates()[0][1] + 1) + " has a pointing pair/triple with candidate: " + h.getCandidates()[0]
-                    : "Column " + (h.getCellCoordinates()[0][1] + 1) + " has a " + pairType.toLowerCase() + " of candidates: " + candidatesStr)
-                    + explanation;
-            highlightColumn(h.getCellCoordinates()[0][1]);
-            if (h.type() != Hint.HintType.HIDDEN_PAIR)
-                removeCandidatesFromColumn(h.getCellCoordinates()[0][1], h.getCandidates());
-        } else {
-            content = "Box at Row " + (h.getCellCoordinates()[0][0] / 3 * 3 + 1) +
-                    ", Column " + (h.getCellCoordinates()[0][1] / 3 * 3 + 1) +
-                    " has a " + pairType.toLowerCase() + " of candidates: " + candidatesStr + explanation;
-            highlightBox(h.getCellCoordinates()[0][0], h.getCellCoordinates()[0][1]);
-            if (h.type() != Hint.HintType.HIDDEN_PAIR)
-                removeCandidatesFromBox(h.getCellCoordinates()[0][0], h.getCellCoordinates()[0][1], h.getCandidates());
-        }
-        return content;
-    }
-
-    private void showAlert(Alert.AlertType type, String title, String header, String content) {
-        Alert alert = new Alert(type);
-        alert.setTitle(title);
-        alert.setHeaderText(header);
-        alert.setContentText(content);
-        alert.getDialogPane().setMinHeight(Region.USE_PREF_SIZE);
-        alert.showAndWait();
+     * Finds the recorded move after which the board had no solution left, and highlights its cell.
+     * @param analyzer The analyzer searching the move log.
+     * @return The cell index (row * size + col) of that move, or -1 if the board still has a solution or was
+     *         already unsolvable before the first recorded move.
+     */
+    public int showPointOfNoReturn(MoveAnalyzer analyzer) {
+        int move = analyzer.pointOfNoReturn(state, moves);
+        if (move < 0) return -1;
+        int cell = MoveLog.cell(moves.move(move));
+        target.clearHighlights();
+        target.highlight(cell / size, cell % size);
+        return cell;
     }
 
     /**
-     * Highlights the box containing the cell at (row, col).
-     * @param row The row index of the cell inside the box to highlight.
-     * @param col The column index of the cell inside the box to highlight.
+     * Toggles the candidate mode for all cells in the grid.
+     * @param enabled true to enable candidate mode, false to disable it.
      */
-    private void highlightBox(int row, int col) {
-        // Highlight the box containing the cell at (row, col)
-        int boxRowStart = (row / 3) * 3;
-        int boxColStart = (col / 3) * 3;
-        for (int r = boxRowStart; r < boxRowStart + 3; r++) {
-            for (int c = boxColStart; c < boxColStart + 3; c++) {
-                if(cells[r][c].getValueField().isDisabled()) continue; // Skip disabled cells
-                cells[r][c].getStyleClass().add("hint-cell");
+    public void setCandidateMode(boolean enabled) {
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                cells[row][col].setCandidateMode(enabled);
             }
         }
     }
 
     /**
-     * Highlights the specified column in the Sudoku grid.
-     * @param col The column index to highlight (0-8).
+     * Sets whether a typed value is removed from the candidates of its peers. The removed candidates are part of the
+     * step of the edit, so undoing it brings them back.
+     * @param enabled true to remove the candidates automatically.
      */
-    private void highlightColumn(int col) {
-        // Highlight the column containing the cell at (row, col)
-        for (int r = 0; r < 9; r++) {
-            if(cells[r][col].getValueField().isDisabled()) continue; // Skip disabled cells
-            cells[r][col].getStyleClass().add("hint-cell");
-        }
+    public void setAutoEliminate(boolean enabled) {
+        this.autoEliminate = enabled;
     }
 
     /**
-     * Highlights the specified row in the Sudoku grid.
-     * @param row The row index to highlight (0-8).
+     * Clears all styles from the Sudoku grid, including hints, incorrect, and correct styles.
+     * This method is typically used to reset the grid before starting a new game or after checking a solution.
+     * Conflicts stay marked, as they follow the values of the board.
      */
-    private void highlightRow(int row) {
-        // Highlight the row containing the cell at (row, col)
-        for (int c = 0; c < 9; c++) {
-            if(cells[row][c].getValueField().isDisabled()) continue; // Skip disabled cells
-            cells[row][c].getStyleClass().add("hint-cell");
+    public void clearAllStyles() {
+        for (int index = 0; index < geometry.cellCount(); index++) {
+            setMarks(index, marks[index] & (DISABLED | CONFLICT));
         }
     }
 
-
     /**
-     * Removes the specified candidates from all cells in the given row.
-     * @param row The row index from which to remove candidates (0-8).
-     * @param candidates The array of candidates to remove from the cells in the specified row.
+     * Retrieves all candidates for each cell in the grid.
+     * @return A 2D array of Sets containing all candidates for each cell in the grid.
      */
-    private void removeCandidatesFromRow(int row, int[] candidates) {
-        for(int col = 0; col < 9; col++) {
-            removeCandidatesHelper(candidates, row, col);
+    @SuppressWarnings("unchecked")
+    public Set<Integer>[][] getAllCandidates(){
+        Set<Integer>[][] candidates = new HashSet[size][size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                candidates[r][c] = state.getCandidates(r, c);
+            }
         }
+        return candidates;
     }
 
     /**
-     * Removes the specified candidates from all cells in the given column.
-     * @param col The column index from which to remove candidates (0-8).
-     * @param candidates The array of candidates to remove from the cells in the specified column.
+     * The cells of this grid, as seen by the hint presenter. Changes go to the recorded board, and reach the nodes
+     * with the next refresh of the dirty cells.
      */
-    private void removeCandidatesFromColumn(int col, int[] candidates) {
-        for(int row = 0; row < 9; row++) {
-            removeCandidatesHelper(candidates, row, col);
+    private class CellTarget implements HintPresenter.Target {
+        @Override
+        public boolean isLocked(int row, int col) {
+            return locked[row * size + col];
         }
-    }
 
-    /**
-     * Removes the specified candidates from all cells in the given box.
-     * @param row The box row index from which to remove candidates (0-8).
-     * @param col The box column index from which to remove candidates (0-8).
-     * @param candidates The array of candidates to remove from the cells in the specified box.
-     */
-    private void removeCandidatesFromBox(int row, int col, int[] candidates) {
-        int boxRowStart = (row / 3) * 3;
-        int boxColStart = (col / 3) * 3;
-        for (int r = boxRowStart; r < boxRowStart + 3; r++) {
-            for (int c = boxColStart; c < boxColStart + 3; c++) {
-                removeCandidatesHelper(candidates, r, c);
-            }
+        @Override
+        public int valueAt(int row, int col) {
+            return state.getCell(row, col);
         }
-    }
 
-    /**
-     * Helper method to remove candidates from a specific cell.
-     * @param candidates The array of candidates to remove from the specified cell.
-     * @param r the row index of the cell to remove candidates from
-     * @param c the column index of the cell to remove candidates from
-     */
-    private void removeCandidatesHelper(int[] candidates, int r, int c) {
-        SudokuCell cell = cells[r][c];
-        if (cell.getValueField().isDisabled() || cell.getValue() != 0) return;
-        Set<Integer> currentCandidates = new HashSet<>(cell.getCandidates());
-        for(int candidate : candidates) {
-            currentCandidates.remove(candidate);
+        @Override
+        public Set<Integer> candidatesAt(int row, int col) {
+            return state.getCandidates(row, col);
         }
-        cell.setCandidates(currentCandidates);
-    }
 
-    /**
-     * Clears the highlight styles from all cells in the grid.
-     * This method is used to remove any previous hint highlights before displaying a new hint.
-     */
-    private void clearHintHighlights() {
-        for (Node node : getChildren()) {
-            if (node instanceof SudokuCell cell) {
-                cell.getStyleClass().remove("hint-cell");
-            }
+        @Override
+        public void placeValue(int row, int col, int value) {
+            moves.set(state, row, col, value, 0);
         }
-    }
 
-    /**
-     * Toggles the candidate mode for all cells in the grid.
-     * @param enabled true to enable candidate mode, false to disable it.
-     */
-    public void setCandidateMode(boolean enabled) {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                cells[row][col].setCandidateMode(enabled);
+        @Override
+        public void setCandidatesAt(int row, int col, Set<Integer> candidates) {
+            long mask = 0;
+            for (int digit : candidates) {
+                mask |= 1L << (digit - 1);
             }
+            moves.set(state, row, col, state.getCell(row, col), mask);
         }
-    }
 
-    /**
-     * Clears all styles from the Sudoku grid, including hints, incorrect, and correct styles.
-     * This method is typically used to reset the grid before starting a new game or after checking a solution.
-     */
-    public void clearAllStyles() {
-        for (Node node : getChildren()) {
-            if (node instanceof SudokuCell cell) {
-                cell.getStyleClass().remove("hint-cell");
-                cell.getStyleClass().remove("incorrect-cell");
-                cell.getStyleClass().remove("correct-cell");
-                cell.getValueField().getStyleClass().remove("correct-cell");
-            }
+        @Override
+        public void eliminateFromPeers(int row, int col, int value) {
+            moves.eliminateFromPeers(state, row * size + col, value);
         }
-    }
 
-    /**
-     * Retrieves all candidates for each cell in the grid.
-     * @return A 2D array of Sets containing all candidates for each cell in the grid.
-     */
-    @SuppressWarnings("unchecked")
-    public Set<Integer>[][] getAllCandidates(){
-        Set<Integer>[][] candidates = new HashSet[9][9];
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                candidates[r][c] = cells[r][c].getCandidates();
+        @Override
+        public void highlight(int row, int col) {
+            setMarks(row * size + col, marks[row * size + col] | HINT);
+        }
+
+        @Override
+        public void clearHighlights() {
+            for (int index = 0; index < geometry.cellCount(); index++) {
+                setMarks(index, marks[index] & ~HINT);
             }
         }
-        return candidates;
     }
 }
@@ -0,0 +1,105 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Full board generation throughput and allocation, run with {@code mvn test -Pbenchmark}. The baseline is the first
+ * generator of the project: a backtracking search that rescans the board for the cell with the fewest options, with
+ * a boxed option list per empty cell shuffled by Collections.shuffle. It only runs on 9x9 boards, where it finishes.
+ * Allocation is measured per thread, so it also counts the board returned.
+ */
+@Tag("benchmark")
+public class FullBoardBenchmarkTests {
+    private static final long WARM_UP_NANOS = 2_000_000_000L;
+    private static final long MEASURE_NANOS = 3_000_000_000L;
+
+    @Test
+    void benchmarkFullBoards() {
+        FullBoardGeneratingService service = new FullBoardGeneratingService(new SplittableRandom(1));
+        Random random = new Random(1);
+        report("9x9 baseline", () -> {
+            SudokuBoard board = new SudokuBoard(Geometry.CLASSIC);
+            assertTrue(baselineFill(board, service, random));
+            return board;
+        });
+        report("9x9", () -> service.generateFullBoard(Geometry.CLASSIC));
+        Variant killer = Variant.Type.KILLER.create(Geometry.CLASSIC);
+        report("9x9 killer", () -> service.generateFullBoard(killer));
+        Variant xSudoku = Variant.Type.X_SUDOKU.create(Geometry.CLASSIC);
+        report("9x9 X-Sudoku", () -> service.generateFullBoard(xSudoku));
+        report("16x16", () -> service.generateFullBoard(Geometry.LARGE));
+    }
+
+    /**
+     * Generates boards for a while, then prints the throughput and the bytes allocated per board.
+     */
+    private static void report(String name, Supplier<SudokuBoard> generator) {
+        run(generator, WARM_UP_NANOS);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytes = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        int boards = run(generator, MEASURE_NANOS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+        System.out.printf("%-13s %10.1f boards/s %10d bytes/board%n", name, boards / seconds, bytes / boards);
+    }
+
+    private static int run(Supplier<SudokuBoard> generator, long nanos) {
+        long end = System.nanoTime() + nanos;
+        int boards = 0;
+        while (System.nanoTime() < end) {
+            generator.get();
+            boards++;
+        }
+        return boards;
+    }
+
+    /**
+     * The original generator, kept as the baseline.
+     */
+    private static boolean baselineFill(SudokuBoard board, FullBoardGeneratingService service, Random random) {
+        int minOptions = 10;
+        int targetRow = -1, targetCol = -1;
+        List<Integer> candidates = null;
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                if (board.getCell(row, col) == 0) {
+                    List<Integer> options = new ArrayList<>();
+                    for (int num = 1; num <= 9; num++) {
+                        if (service.isValidPlacement(board, row, col, num)) options.add(num);
+                    }
+                    if (options.size() < minOptions) {
+                        minOptions = options.size();
+                        targetRow = row;
+                        targetCol = col;
+                        candidates = options;
+                        if (minOptions == 1) break;
+                    }
+                }
+            }
+        }
+        if (targetRow == -1) return true;
+        Collections.shuffle(candidates, random);
+        for (int num : candidates) {
+            board.setCell(targetRow, targetCol, num);
+            if (baselineFill(board, service, random)) return true;
+            board.setCell(targetRow, targetCol, 0);
+        }
+        return false;
+    }
+}
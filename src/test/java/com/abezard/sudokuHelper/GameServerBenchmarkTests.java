@@ -0,0 +1,98 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import com.abezard.sudokuHelper.service.GameProtocol;
+import com.abezard.sudokuHelper.service.GameServer;
+import com.abezard.sudokuHelper.service.GameSession;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load test of the game server, run with {@code mvn test -Pbenchmark}: tens of thousands of sessions in one JVM,
+ * played by one client thread per core sending batches of random moves, hints and checks. Prints the memory taken
+ * per session and the moves per second.
+ */
+@Tag("benchmark")
+public class GameServerBenchmarkTests {
+    private static final int SESSIONS = 50_000;
+    private static final int PUZZLES = 16; // sessions share their puzzle, as races on the same seed do
+    private static final int BATCH = 64;
+    private static final int BATCHES_PER_THREAD = 20_000;
+
+    @Test
+    void benchmarkConcurrentSessions() throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        GameServer server = new GameServer(4 * cores, SESSIONS);
+        SudokuGeneratingService generator = new SudokuGeneratingService(new FullBoardGeneratingService());
+        SudokuBoard[] puzzles = new SudokuBoard[PUZZLES], solutions = new SudokuBoard[PUZZLES];
+        long[][] givens = new long[PUZZLES][];
+        for (int i = 0; i < PUZZLES; i++) {
+            puzzles[i] = generator.generatePuzzle(SudokuGeneratingService.Difficulty.EASY, Variant.classic(Geometry.CLASSIC), i);
+            solutions[i] = generator.getSolution();
+            givens[i] = GameSession.givensOf(puzzles[i]);
+        }
+
+        long heapBefore = usedHeap();
+        long[] ids = new long[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            GameSession.Mode mode = GameSession.Mode.values()[i % 3];
+            ids[i] = server.create(mode, i % PUZZLES, puzzles[i % PUZZLES], solutions[i % PUZZLES], givens[i % PUZZLES]).id();
+        }
+        long heapAfter = usedHeap();
+        assertEquals(SESSIONS, server.sessionCount());
+        System.out.printf("%d sessions, about %d bytes each%n", SESSIONS, (heapAfter - heapBefore) / SESSIONS);
+
+        AtomicInteger failures = new AtomicInteger();
+        Thread[] clients = new Thread[cores];
+        long start = System.nanoTime();
+        for (int t = 0; t < cores; t++) {
+            int seed = t;
+            clients[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                ByteBuffer requests = ByteBuffer.allocate(BATCH * GameProtocol.REQUEST_BYTES);
+                ByteBuffer responses = ByteBuffer.allocate(BATCH * GameProtocol.RESPONSE_BYTES);
+                for (int batch = 0; batch < BATCHES_PER_THREAD; batch++) {
+                    requests.clear();
+                    responses.clear();
+                    for (int i = 0; i < BATCH; i++) {
+                        int kind = random.nextInt(10);
+                        int op = kind < 6 ? GameProtocol.SET_VALUE : kind < 7 ? GameProtocol.UNDO
+                                : kind < 9 ? GameProtocol.CHECK : GameProtocol.HINT;
+                        GameProtocol.putRequest(requests, ids[random.nextInt(SESSIONS)], op, 0, random.nextInt(81),
+                                random.nextInt(10));
+                    }
+                    requests.flip();
+                    server.handle(requests, responses);
+                    for (int i = 0; i < BATCH; i++) {
+                        int status = GameProtocol.status(responses.getInt(i * GameProtocol.RESPONSE_BYTES));
+                        if (status == GameProtocol.UNKNOWN_SESSION || status == GameProtocol.BAD_REQUEST) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            clients[t].start();
+        }
+        for (Thread client : clients) client.join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long moves = (long) cores * BATCHES_PER_THREAD * BATCH;
+        System.out.printf("%d client threads: %d moves in %.1f s, %.0f moves/s%n", cores, moves, seconds, moves / seconds);
+        assertEquals(0, failures.get());
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,195 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import com.abezard.sudokuHelper.service.GameProtocol;
+import com.abezard.sudokuHelper.service.GameServer;
+import com.abezard.sudokuHelper.service.GameSession;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class GameServerTests {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    private SudokuBoard puzzle;
+    private SudokuBoard solution;
+    private GameServer server;
+
+    @BeforeEach
+    void setUp() {
+        SudokuGeneratingService generator = new SudokuGeneratingService(new FullBoardGeneratingService());
+        puzzle = generator.generatePuzzle(SudokuGeneratingService.Difficulty.EASY, Variant.classic(Geometry.CLASSIC), 42);
+        solution = generator.getSolution();
+        server = new GameServer(8, 1000);
+    }
+
+    @Test
+    void testFramesRoundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(GameProtocol.REQUEST_BYTES);
+        GameProtocol.putRequest(buffer, 123L, GameProtocol.TOGGLE_CANDIDATE, 15, 1368, 37);
+        buffer.flip();
+        assertEquals(123L, buffer.getLong());
+        int move = buffer.getInt();
+        assertEquals(GameProtocol.TOGGLE_CANDIDATE, GameProtocol.op(move));
+        assertEquals(15, GameProtocol.player(move));
+        assertEquals(1368, GameProtocol.cell(move));
+        assertEquals(37, GameProtocol.value(move));
+    }
+
+    @Test
+    void testMovesHintsAndChecksOnAClassicGame() {
+        GameSession session = create(GameSession.Mode.CLASSIC);
+        int given = firstCell(true), empty = firstCell(false);
+        int right = solution.getCell(empty / 9, empty % 9), wrong = right % 9 + 1;
+
+        assertEquals(GameProtocol.LOCKED, statusOf(send(session, GameProtocol.SET_VALUE, 0, given, 1)));
+        send(session, GameProtocol.SET_VALUE, 0, empty, wrong);
+        ByteBuffer check = send(session, GameProtocol.CHECK, 0, 0, 0);
+        assertEquals(GameProtocol.UNSOLVED, statusOf(check));
+        assertEquals(empty, GameProtocol.responseCell(check.getInt(0)));
+        assertEquals(1, check.getInt(4), "One mistake");
+
+        ByteBuffer hint = send(session, GameProtocol.HINT, 0, 0, 0);
+        assertEquals(GameProtocol.MISTAKE, statusOf(hint));
+        assertEquals(empty, GameProtocol.responseCell(hint.getInt(0)));
+        assertEquals(right, GameProtocol.responseValue(hint.getInt(0)));
+
+        assertEquals(GameProtocol.OK, statusOf(send(session, GameProtocol.UNDO, 0, 0, 0)));
+        assertEquals(0, send(session, GameProtocol.CHECK, 0, 0, 0).getInt(4), "The undone mistake is gone");
+        assertEquals(GameProtocol.NOTHING, statusOf(send(session, GameProtocol.UNDO, 0, 0, 0)));
+        assertEquals(GameProtocol.FULL, statusOf(send(session, GameProtocol.JOIN, 0, 0, 0)), "Classic play has one player");
+        assertEquals(GameProtocol.BAD_REQUEST, statusOf(send(session, GameProtocol.SET_VALUE, 1, empty, right)));
+        assertEquals(GameProtocol.UNKNOWN_SESSION, statusOf(send(session.id() + 1, GameProtocol.CHECK, 0)));
+    }
+
+    @Test
+    void testRacersFinishInOrderAndCoopPlayersShareTheBoard() {
+        GameSession race = create(GameSession.Mode.RACE);
+        assertEquals(1, GameProtocol.responseValue(send(race, GameProtocol.JOIN, 0, 0, 0).getInt(0)));
+        int lastRank = 0;
+        for (int player : new int[]{1, 0}) {
+            for (int cell = 0; cell < 81; cell++) {
+                if (puzzle.getCell(cell / 9, cell % 9) != 0) continue;
+                ByteBuffer response = send(race, GameProtocol.SET_VALUE, player, cell, solution.getCell(cell / 9, cell % 9));
+                if (statusOf(response) == GameProtocol.SOLVED) lastRank = response.getInt(4);
+            }
+            assertEquals(player == 1 ? 1 : 2, lastRank, "Player " + player + " should finish " + (player == 1 ? "first" : "second"));
+        }
+
+        GameSession coop = create(GameSession.Mode.COOP);
+        send(coop, GameProtocol.JOIN, 0, 0, 0);
+        int empty = firstCell(false);
+        send(coop, GameProtocol.SET_VALUE, 1, empty, solution.getCell(empty / 9, empty % 9));
+        assertNotEquals(empty, GameProtocol.responseCell(send(coop, GameProtocol.HINT, 0, 0, 0).getInt(0)),
+                "The cell filled by the teammate needs no hint");
+        assertEquals(GameProtocol.OK, statusOf(send(coop, GameProtocol.UNDO, 0, 0, 0)), "The team shares its history");
+    }
+
+    @Test
+    void testSessionsSurviveTableGrowthAndRemovals() {
+        GameServer single = new GameServer(1, 10_000); // every session in one table
+        long[] givens = GameSession.givensOf(puzzle);
+        GameSession[] sessions = new GameSession[1000];
+        for (int i = 0; i < sessions.length; i++) {
+            sessions[i] = single.create(GameSession.Mode.CLASSIC, 42, puzzle, solution, givens);
+        }
+        for (int i = 0; i < sessions.length; i += 2) assertTrue(single.close(sessions[i].id()));
+        assertEquals(500, single.sessionCount());
+        for (int i = 0; i < sessions.length; i++) {
+            GameSession expected = sessions[i];
+            boolean found = single.withSession(expected.id(), session -> assertSame(expected, session));
+            assertEquals(i % 2 == 1, found, "Session " + i + " should " + (i % 2 == 1 ? "" : "not ") + "be found");
+        }
+        assertEquals(500, single.evictIdle(-1), "Every session is idle for a negative idle time");
+        assertEquals(0, single.sessionCount());
+    }
+
+    @Test
+    void testAFullServerRejectsNewSessions() {
+        GameServer full = new GameServer(2, 3);
+        for (int i = 0; i < 3; i++) create(full);
+        assertThrows(IllegalStateException.class, () -> create(full), "No session is idle");
+        assertThrows(IllegalStateException.class, () -> create(full), "The next sweep is not due yet");
+    }
+
+    @Test
+    void testMovesArePostedAsBinaryFrames() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/games").param("mode", "RACE").param("size", "4"))
+                .andExpect(request().asyncStarted()).andReturn();
+        created.getAsyncResult(10_000);
+        String body = mockMvc.perform(asyncDispatch(created)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = Long.parseUnsignedLong(body.substring(body.indexOf("\"session\":\"") + 11, body.indexOf("\",\"puzzleId")), 16);
+
+        ByteBuffer requests = ByteBuffer.allocate(2 * GameProtocol.REQUEST_BYTES);
+        GameProtocol.putRequest(requests, id, GameProtocol.JOIN, 0, 0, 0);
+        GameProtocol.putRequest(requests, id, GameProtocol.CHECK, 1, 0, 0);
+        byte[] responses = mockMvc.perform(post("/api/games/moves")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM).content(requests.array()))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+        assertEquals(2 * GameProtocol.RESPONSE_BYTES, responses.length);
+        ByteBuffer buffer = ByteBuffer.wrap(responses);
+        assertEquals(GameProtocol.OK, GameProtocol.status(buffer.getInt(0)));
+        assertEquals(GameProtocol.UNSOLVED, GameProtocol.status(buffer.getInt(GameProtocol.RESPONSE_BYTES)));
+
+        mockMvc.perform(post("/api/games/moves").contentType(MediaType.APPLICATION_OCTET_STREAM).content(new byte[5]))
+                .andExpect(status().isBadRequest());
+    }
+
+    private GameSession create(GameSession.Mode mode) {
+        return server.create(mode, 42, puzzle, solution, GameSession.givensOf(puzzle));
+    }
+
+    private GameSession create(GameServer target) {
+        return target.create(GameSession.Mode.CLASSIC, 42, puzzle, solution, GameSession.givensOf(puzzle));
+    }
+
+    private int firstCell(boolean given) {
+        for (int cell = 0; ; cell++) {
+            if ((puzzle.getCell(cell / 9, cell % 9) != 0) == given) return cell;
+        }
+    }
+
+    private ByteBuffer send(GameSession session, int op, int player, int cell, int value) {
+        ByteBuffer request = ByteBuffer.allocate(GameProtocol.REQUEST_BYTES);
+        GameProtocol.putRequest(request, session.id(), op, player, cell, value);
+        return handle(request.flip());
+    }
+
+    private ByteBuffer send(long id, int op, int player) {
+        ByteBuffer request = ByteBuffer.allocate(GameProtocol.REQUEST_BYTES);
+        GameProtocol.putRequest(request, id, op, player, 0, 0);
+        return handle(request.flip());
+    }
+
+    private ByteBuffer handle(ByteBuffer request) {
+        ByteBuffer response = ByteBuffer.allocate(GameProtocol.RESPONSE_BYTES);
+        assertEquals(1, server.handle(request, response));
+        return response;
+    }
+
+    private static int statusOf(ByteBuffer response) {
+        return GameProtocol.status(response.getInt(0));
+    }
+}
@@ -0,0 +1,151 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.model.GameState;
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import com.abezard.sudokuHelper.service.GameStateStore;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStateStoreTests {
+
+    @TempDir
+    Path directory;
+    SudokuGeneratingService generateSudoku;
+
+    @BeforeEach
+    void setUp() {
+        generateSudoku = new SudokuGeneratingService(new FullBoardGeneratingService());
+    }
+
+    /**
+     * Generates a puzzle, fills a few cells and pencil marks in, and wraps it as a game.
+     */
+    private GameState gameOf(Variant variant) {
+        SudokuBoard givens = generateSudoku.generatePuzzle(SudokuGeneratingService.Difficulty.HARD, variant);
+        SudokuBoard solution = generateSudoku.getSolution();
+        SudokuBoard current = new SudokuBoard(givens);
+        int size = givens.getSize();
+        int filled = 0;
+        for (int cell = 0; cell < size * size; cell++) {
+            int row = cell / size, col = cell % size;
+            if (givens.getCell(row, col) != 0) continue;
+            if (filled++ < 5) current.setCell(row, col, solution.getCell(row, col));
+            else current.setCandidateMask(row, col, (cell * 0x9E3779B9L) & variant.geometry().allValues());
+        }
+        return new GameState(givens, current, solution);
+    }
+
+    private static void assertSameGame(GameState expected, GameState actual) {
+        assertEquals(expected.variant(), actual.variant());
+        int size = expected.givens().getSize();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                assertEquals(expected.givens().getCell(row, col), actual.givens().getCell(row, col));
+                assertEquals(expected.current().getCell(row, col), actual.current().getCell(row, col));
+                assertEquals(expected.current().getCandidateMask(row, col), actual.current().getCandidateMask(row, col));
+                assertEquals(expected.solution().getCell(row, col), actual.solution().getCell(row, col));
+            }
+        }
+    }
+
+    @Test
+    void testClassicGameRoundTripsInAFewHundredBytes() throws IOException {
+        GameState game = gameOf(Variant.classic(Geometry.CLASSIC));
+        byte[] bytes = GameStateStore.encode(game);
+        assertTrue(bytes.length < 300, "A classic game should take less than 300 bytes, got " + bytes.length);
+        assertSameGame(game, GameStateStore.decode(bytes));
+    }
+
+    @Test
+    void testVariantsAndLargeBoardsRoundTrip() throws IOException {
+        for (Variant.Type type : Variant.Type.values()) {
+            GameState game = gameOf(type.create(Geometry.CLASSIC));
+            assertSameGame(game, GameStateStore.decode(GameStateStore.encode(game)));
+        }
+        GameState large = gameOf(Variant.classic(Geometry.LARGE));
+        assertSameGame(large, GameStateStore.decode(GameStateStore.encode(large)));
+    }
+
+    @Test
+    void testDebouncedSavesWriteOnlyTheLatestStateAtomically() throws IOException {
+        Path file = directory.resolve("game.bin");
+        GameState first = gameOf(Variant.classic(Geometry.CLASSIC));
+        GameState last = gameOf(Variant.classic(Geometry.CLASSIC));
+        try (GameStateStore store = new GameStateStore(file, 10_000)) {
+            store.scheduleSave(first);
+            store.scheduleSave(last);
+            assertFalse(Files.exists(file), "Nothing should be written before the debounce delay");
+            store.flush();
+            assertSameGame(last, store.load().orElseThrow());
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count(), "No temporary file should be left behind");
+        }
+    }
+
+    @Test
+    void testCloseWaitsForTheBackgroundWrite() throws IOException {
+        Path file = directory.resolve("game.bin");
+        GameState game = gameOf(Variant.classic(Geometry.LARGE));
+        GameStateStore store = new GameStateStore(file, 0);
+        store.scheduleSave(game); // written by the background thread right away, maybe while closing
+        store.close();
+        try (GameStateStore reader = new GameStateStore(file, 0)) {
+            assertSameGame(game, reader.load().orElseThrow());
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count(), "The write should be finished, with no temporary file left behind");
+        }
+    }
+
+    @Test
+    void testFlushNeverLetsAnOlderAutosaveWin() {
+        Path file = directory.resolve("game.bin");
+        GameState[] games = {gameOf(Variant.classic(Geometry.LARGE)), gameOf(Variant.classic(Geometry.LARGE))};
+        try (GameStateStore store = new GameStateStore(file, 0)) {
+            for (int i = 0; i < 50; i++) {
+                store.scheduleSave(games[i % 2]); // the previous state may still be written by the background thread
+                store.scheduleSave(games[(i + 1) % 2]);
+                store.flush();
+                assertSameGame(games[(i + 1) % 2], store.load().orElseThrow());
+            }
+        }
+    }
+
+    @Test
+    void testRestoreIsFast() throws IOException {
+        Path file = directory.resolve("game.bin");
+        GameState game = gameOf(Variant.classic(Geometry.CLASSIC));
+        try (GameStateStore store = new GameStateStore(file, 0)) {
+            store.save(game);
+            store.load(); // warm up
+            long start = System.nanoTime();
+            GameState restored = store.load().orElseThrow();
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            assertSameGame(game, restored);
+            assertTrue(elapsedMillis < 20, "Restoring should take a few milliseconds, took " + elapsedMillis + " ms");
+        }
+    }
+
+    @Test
+    void testMissingOrCorruptSaveRestoresNothing() throws IOException {
+        Path file = directory.resolve("game.bin");
+        try (GameStateStore store = new GameStateStore(file, 0)) {
+            assertTrue(store.load().isEmpty());
+            Files.write(file, new byte[]{1, 2, 3});
+            assertTrue(store.load().isEmpty());
+        }
+    }
+}
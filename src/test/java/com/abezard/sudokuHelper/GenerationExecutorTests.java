@@ -0,0 +1,100 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.service.GenerationExecutor;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService.Difficulty;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GenerationExecutorTests {
+    private static final Duration LONG = Duration.ofSeconds(30);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private GenerationExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (executor != null) executor.shutdown();
+    }
+
+    @Test
+    void testHardJobsAreLimitedAndTheQueueIsBounded() {
+        executor = new GenerationExecutor(1, 1, Map.of(Difficulty.EASY, 10, Difficulty.HARD, 1));
+        executor.submit(Difficulty.HARD, LONG, this::blockUntilReleased);
+        GenerationExecutor.Rejected limited = assertThrows(GenerationExecutor.Rejected.class,
+                () -> executor.submit(Difficulty.HARD, LONG, () -> 0));
+        assertTrue(limited.retryAfter().toSeconds() >= 1);
+
+        waitUntilRunning();
+        executor.submit(Difficulty.EASY, LONG, () -> 0); // takes the only queue slot
+        assertThrows(GenerationExecutor.Rejected.class, () -> executor.submit(Difficulty.EASY, LONG, () -> 0),
+                "The queue is full");
+        assertEquals(1, executor.metrics().get(Difficulty.HARD).rejected());
+        assertEquals(1, executor.metrics().get(Difficulty.EASY).rejected());
+    }
+
+    @Test
+    void testJobsThatCannotMeetTheirDeadlineAreRejectedOrExpire() throws Exception {
+        executor = new GenerationExecutor(1, 4, null);
+        executor.submit(Difficulty.EASY, LONG, () -> sleep(200)).get(); // measures the service time of EASY jobs
+        assertTrue(executor.metrics().get(Difficulty.EASY).meanServiceNanos() >= 200_000_000);
+        assertThrows(GenerationExecutor.Rejected.class,
+                () -> executor.submit(Difficulty.EASY, Duration.ofMillis(50), () -> 0),
+                "A job taking about 200 ms cannot finish within 50 ms");
+
+        executor.submit(Difficulty.HARD, LONG, this::blockUntilReleased);
+        waitUntilRunning();
+        CompletableFuture<Integer> late = executor.submit(Difficulty.EASY, Duration.ofSeconds(1), () -> 0);
+        Thread.sleep(1100);
+        release.countDown();
+        ExecutionException expired = assertThrows(ExecutionException.class, () -> late.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(GenerationExecutor.Rejected.class, expired.getCause());
+        assertEquals(1, executor.metrics().get(Difficulty.EASY).expired());
+        assertEquals(0, executor.metrics().get(Difficulty.EASY).inFlight());
+    }
+
+    @Test
+    void testAJobThrowingAnErrorCompletesItsFutureAndLeavesTheCounters() throws Exception {
+        executor = new GenerationExecutor(1, 4, null);
+        CompletableFuture<Integer> failed = executor.submit(Difficulty.HARD, LONG, () -> {
+            throw new StackOverflowError();
+        });
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, error.getCause());
+        assertEquals(1, executor.metrics().get(Difficulty.HARD).failed());
+        assertEquals(0, executor.metrics().get(Difficulty.HARD).inFlight());
+        assertEquals(0, executor.submit(Difficulty.HARD, LONG, () -> 0).get(5, TimeUnit.SECONDS),
+                "The worker is replaced");
+    }
+
+    private int blockUntilReleased() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    private static int sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    private void waitUntilRunning() {
+        while (executor.queued() > 0) Thread.onSpinWait();
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -33,8 +34,12 @@ public class AllCandidatesHintTests {
         computed[5][5].add(1);
         when(sudokuHintService.computeAllCandidates(board)).thenReturn(computed);
         CandidatesHint hint = allCandidatesHint.findHint(board, null, null, false);
-        CandidatesHint expectedHint = new CandidatesHint(Hint.HintType.ALL_CANDIDATES, new int[][]{{0,0}}, new int[]{}, computed, "candidates", "Candidates for all empty cells have been computed. You can now see which numbers can go in each cell.");
+        long[] masks = new long[81];
+        masks[5 * 9 + 5] = 1L; // digit 1
+        CandidatesHint expectedHint = new CandidatesHint(masks, CandidatesHint.CANDIDATES_COMPUTED);
         assertThat(hint).isEqualTo(expectedHint);
+        assertThat(hint.type()).isEqualTo(Hint.HintType.ALL_CANDIDATES);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Candidates for all empty cells have been computed. You can now see which numbers can go in each cell.");
     }
 
     @Test
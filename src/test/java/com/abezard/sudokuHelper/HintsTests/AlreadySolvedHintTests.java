@@ -5,6 +5,8 @@ import com.abezard.sudokuHelper.model.Hint;
 import com.abezard.sudokuHelper.model.SudokuBoard;
 import org.junit.jupiter.api.Test;
 
+import java.util.Locale;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class AlreadySolvedHintTests {
@@ -28,9 +30,9 @@ public class AlreadySolvedHintTests {
         AlreadySolvedHint alreadySolvedHint = new AlreadySolvedHint();
         Hint hint = alreadySolvedHint.findHint(board, null, board, false);
 
-        Hint expected = new Hint(Hint.HintType.ALREADY_SOLVED, -1, -1, 0,
-                "The Sudoku puzzle is already solved. No hints needed.");
+        Hint expected = new Hint(Hint.HintType.ALREADY_SOLVED, -1, -1, 0, Hint.Scope.BOARD, -1);
         assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("The Sudoku puzzle is already solved. No hints needed.");
     }
 
     @Test
@@ -0,0 +1,75 @@
+package com.abezard.sudokuHelper.HintsTests;
+
+import com.abezard.sudokuHelper.logic.BugPlusOneHint;
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BugPlusOneTests {
+    private BugPlusOneHint bugPlusOneHint;
+    private final SudokuBoard board = new SudokuBoard(Geometry.CLASSIC);
+
+    @BeforeEach
+    public void setUp() {
+        bugPlusOneHint = new BugPlusOneHint();
+    }
+
+    @Test
+    public void testBugPlusOne() {
+        Set<Integer>[][] candidates = bugCandidates();
+        Hint hint = bugPlusOneHint.findHint(board, candidates, null, true);
+        Hint expected = new Hint(Hint.HintType.BUG_PLUS_ONE, 0, 1, 3);
+        assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Every unsolved cell has exactly two candidates except this one. Without 3 here the puzzle would have two solutions, so this cell must be 3.");
+    }
+
+    @Test
+    public void testBugPlusOneWithIncorrectCandidates() {
+        SudokuBoard solution = new SudokuBoard();
+        solution.setBoard(new int[9][9]);
+        solution.setCell(0, 1, 2);
+        Hint hint = bugPlusOneHint.findHint(board, bugCandidates(), solution, true);
+        assertThat(hint).isNull();
+    }
+
+    @Test
+    public void testNoBugWithTwoTrivalueCells() {
+        Set<Integer>[][] candidates = bugCandidates();
+        candidates[5][5] = setOf(4, 5, 6);
+        Hint hint = bugPlusOneHint.findHint(board, candidates, null, true);
+        assertThat(hint).isNull();
+    }
+
+    // Row 1 holds 1 and 2 twice, and 3 three times
+    private Set<Integer>[][] bugCandidates() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        candidates[0][0] = setOf(1, 3);
+        candidates[0][1] = setOf(1, 2, 3);
+        candidates[0][2] = setOf(2, 3);
+        return candidates;
+    }
+
+    // Helpers
+    @SuppressWarnings("unchecked")
+    private Set<Integer>[][] emptyCandidates() {
+        Set<Integer>[][] cands = new HashSet[9][9];
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                cands[r][c] = new HashSet<>();
+        return cands;
+    }
+
+    private Set<Integer> setOf(int... vals) {
+        Set<Integer> set = new HashSet<>();
+        for (int v : vals) set.add(v);
+        return set;
+    }
+}
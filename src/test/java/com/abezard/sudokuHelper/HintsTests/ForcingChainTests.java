@@ -0,0 +1,106 @@
+package com.abezard.sudokuHelper.HintsTests;
+
+import com.abezard.sudokuHelper.logic.ForcingChainHint;
+import com.abezard.sudokuHelper.logic.StrongLinkGraph;
+import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SearchBudgetHint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ForcingChainTests {
+    private final SudokuBoard board = new SudokuBoard(Geometry.CLASSIC);
+
+    @Test
+    public void testCellForcingChain() {
+        ForcingChainHint forcingChainHint = new ForcingChainHint(new StrongLinkGraph());
+        Hint hint = forcingChainHint.findHint(board, forcingCell(), null, true);
+        CandidatesHint expected = new CandidatesHint(
+                Hint.HintType.FORCING_CHAIN,
+                new int[]{Hint.cell(0, 0)},
+                new int[]{1, 2},
+                Hint.Scope.CELL,
+                -1,
+                new int[]{Hint.candidate(1, 4, 3)},
+                CandidatesHint.CELL_FORCING
+        );
+        assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Forcing chain: whichever of the candidates [1, 2] goes in (row: 1, col: 1), following its consequences rules out the same candidates elsewhere, so they can be removed.");
+    }
+
+    @Test
+    public void testBudgetExceededReportsStatistics() {
+        ForcingChainHint forcingChainHint = new ForcingChainHint(new StrongLinkGraph(), 1, Duration.ofSeconds(1));
+        Hint hint = forcingChainHint.findHint(board, forcingCell(), null, true);
+        assertThat(hint).isInstanceOf(SearchBudgetHint.class);
+        SearchBudgetHint budgetHint = (SearchBudgetHint) hint;
+        assertThat(budgetHint.type()).isEqualTo(Hint.HintType.SEARCH_BUDGET_EXCEEDED);
+        assertThat(budgetHint.getNodesExplored()).isEqualTo(2);
+        assertThat(budgetHint.getStartsCompleted()).isZero();
+        assertThat(budgetHint.getStartsTotal()).isEqualTo(15);
+        assertThat(budgetHint.explanation(Locale.ENGLISH)).startsWith(
+                "No forcing chain was found within the search budget. Explored 2 nodes and completed 0 of 15 starting candidates in ");
+    }
+
+    @Test
+    public void testRepeatedRequestsResumeTheSuspendedSearch() {
+        // one node per request is less than any start node needs, so only resuming the frontier gets anywhere
+        ForcingChainHint forcingChainHint = new ForcingChainHint(new StrongLinkGraph(), 1, Duration.ofSeconds(1));
+        Set<Integer>[][] candidates = forcingCell();
+        Hint hint = forcingChainHint.findHint(board, candidates, null, true);
+        int requests = 1;
+        while (hint instanceof SearchBudgetHint && requests < 1000) {
+            hint = forcingChainHint.findHint(board, candidates, null, true);
+            requests++;
+        }
+        Hint unbounded = new ForcingChainHint(new StrongLinkGraph()).findHint(board, forcingCell(), null, true);
+        assertThat(hint).isEqualTo(unbounded);
+        assertThat(requests).isGreaterThan(1);
+    }
+
+    @Test
+    public void testNoForcingChain() {
+        ForcingChainHint forcingChainHint = new ForcingChainHint(new StrongLinkGraph());
+        Set<Integer>[][] candidates = emptyCandidates();
+        candidates[0][0] = setOf(1, 2);
+        candidates[4][4] = setOf(3, 4);
+        assertThat(forcingChainHint.findHint(board, candidates, null, true)).isNull();
+    }
+
+    // Whether (0,0) is 1 or 2, the chains through (0,4) and (1,0) both remove 3 from (1,4)
+    private Set<Integer>[][] forcingCell() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        candidates[0][0] = setOf(1, 2);
+        candidates[0][4] = setOf(1, 3);
+        candidates[1][0] = setOf(2, 3);
+        candidates[1][4] = setOf(3, 7, 8);
+        candidates[1][7] = setOf(3, 9);
+        candidates[5][4] = setOf(3, 6);
+        candidates[2][3] = setOf(3, 6);
+        return candidates;
+    }
+
+    // Helpers
+    @SuppressWarnings("unchecked")
+    private Set<Integer>[][] emptyCandidates() {
+        Set<Integer>[][] cands = new HashSet[9][9];
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                cands[r][c] = new HashSet<>();
+        return cands;
+    }
+
+    private Set<Integer> setOf(int... vals) {
+        Set<Integer> set = new HashSet<>();
+        for (int v : vals) set.add(v);
+        return set;
+    }
+}
@@ -2,17 +2,21 @@ package com.abezard.sudokuHelper.HintsTests;
 
 import com.abezard.sudokuHelper.logic.HiddenPairHint;
 import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Geometry;
 import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class HiddenPairTests {
     private HiddenPairHint hiddenPairHint;
+    private final SudokuBoard board = new SudokuBoard(Geometry.CLASSIC);
 
     @BeforeEach
     public void setUp() {
@@ -26,16 +30,16 @@ public class HiddenPairTests {
         candidates[0][3] = setOf(5, 6);
         candidates[0][4] = setOf(5, 6, 8, 9);
 
-        CandidatesHint hint = hiddenPairHint.findHint(null, candidates, null, false);
+        CandidatesHint hint = hiddenPairHint.findHint(board, candidates, null, false);
         CandidatesHint expected = new CandidatesHint(
                 Hint.HintType.HIDDEN_PAIR,
-                new int[][]{{0, 3}, {0, 4}},
+                new int[]{Hint.cell(0, 3), Hint.cell(0, 4)},
                 new int[]{5, 6},
-                null,
-                "row",
-                "Hidden pair [5, 6] found in row 1. This means these two cells are the only ones that can contain these two candidates, and we can eliminate all other candidates from these two cells."
+                Hint.Scope.ROW,
+                0
         );
         assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Hidden pair [5, 6] found in row 1. This means these two cells are the only ones that can contain these two candidates, and we can eliminate all other candidates from these two cells.");
     }
 
     @Test
@@ -45,16 +49,16 @@ public class HiddenPairTests {
         candidates[5][2] = setOf(4, 7);
         candidates[3][2] = setOf(4, 7, 8);
 
-        CandidatesHint hint = hiddenPairHint.findHint(null, candidates, null, false);
+        CandidatesHint hint = hiddenPairHint.findHint(board, candidates, null, false);
         CandidatesHint expected = new CandidatesHint(
                 Hint.HintType.HIDDEN_PAIR,
-                new int[][]{{3, 2}, {5, 2}},
+                new int[]{Hint.cell(3, 2), Hint.cell(5, 2)},
                 new int[]{4, 7},
-                null,
-                "column",
-                "Hidden pair [4, 7] found in column 3. This means these two cells are the only ones that can contain these two candidates, and we can eliminate all other candidates from these two cells."
+                Hint.Scope.COLUMN,
+                2
         );
         assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Hidden pair [4, 7] found in column 3. This means these two cells are the only ones that can contain these two candidates, and we can eliminate all other candidates from these two cells.");
     }
 
     @Test
@@ -64,21 +68,22 @@ public class HiddenPairTests {
         candidates[0][1] = setOf(2, 3);
         candidates[1][2] = setOf(2, 3, 4);
 
-        CandidatesHint hint = hiddenPairHint.findHint(null, candidates, null, false);
+        CandidatesHint hint = hiddenPairHint.findHint(board, candidates, null, false);
         CandidatesHint expected = new CandidatesHint(
                 Hint.HintType.HIDDEN_PAIR,
-                new int[][]{{0, 1}, {1, 2}},
+                new int[]{Hint.cell(0, 1), Hint.cell(1, 2)},
                 new int[]{2, 3},
-                null,
-                "box",
-                "Hidden pair [2, 3] found in box (row: 1, col: 1). This means these two cells are the only ones that can contain these two candidates, and we can eliminate all other candidates from these two cells.");
+                Hint.Scope.BOX,
+                Hint.cell(0, 0)
+        );
         assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Hidden pair [2, 3] found in box (row: 1, col: 1). This means these two cells are the only ones that can contain these two candidates, and we can eliminate all other candidates from these two cells.");
     }
 
     @Test
     public void testNoHiddenPair() {
         Set<Integer>[][] candidates = emptyCandidates();
-        CandidatesHint hint = hiddenPairHint.findHint(null, candidates, null, false);
+        CandidatesHint hint = hiddenPairHint.findHint(board, candidates, null, false);
         assertThat(hint).isNull();
     }
 
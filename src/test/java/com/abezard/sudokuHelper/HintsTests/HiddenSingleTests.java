@@ -7,6 +7,8 @@ import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Locale;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class HiddenSingleTests {
@@ -31,9 +33,9 @@ public class HiddenSingleTests {
                 {0, 0, 0, 0, 0, 0, 0, 0, 0}
         });
         Hint hint = hiddenSingleHint.findHint(board, null, null, false);
-        Hint expectedHint = new Hint(Hint.HintType.HIDDEN_SINGLE, 0, 3, 6,
-                "Row 1 can only contain this number in this cell.");
+        Hint expectedHint = new Hint(Hint.HintType.HIDDEN_SINGLE, 0, 3, 6, Hint.Scope.ROW, 0);
         assertThat(hint).isEqualTo(expectedHint);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Row 1 can only contain this number in this cell.");
     }
 
     @Test
@@ -51,9 +53,9 @@ public class HiddenSingleTests {
                 {3, 0, 0, 0, 0, 0, 0, 0, 0}
         });
         Hint hint = hiddenSingleHint.findHint(board, null, null, false);
-        Hint expectedHint = new Hint(Hint.HintType.HIDDEN_SINGLE, 6, 0, 1,
-                "Column 1 can only contain this number in this cell.");
+        Hint expectedHint = new Hint(Hint.HintType.HIDDEN_SINGLE, 6, 0, 1, Hint.Scope.COLUMN, 0);
         assertThat(hint).isEqualTo(expectedHint);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Column 1 can only contain this number in this cell.");
     }
 
     @Test
@@ -71,9 +73,9 @@ public class HiddenSingleTests {
                 {0, 0, 0, 0, 0, 0, 0, 0, 0}
         });
         Hint hint = hiddenSingleHint.findHint(board, null, null, false);
-        Hint expectedHint = new Hint(Hint.HintType.HIDDEN_SINGLE, 0, 2, 2,
-                "This box can only contain this number in this cell.");
+        Hint expectedHint = new Hint(Hint.HintType.HIDDEN_SINGLE, 0, 2, 2, Hint.Scope.BOX, Hint.cell(0, 0));
         assertThat(hint).isEqualTo(expectedHint);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("This box can only contain this number in this cell.");
     }
 
     @Test
@@ -0,0 +1,63 @@
+package com.abezard.sudokuHelper.HintsTests;
+
+import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SearchBudgetHint;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HintMessagesTests {
+    private static final CandidatesHint NAKED_PAIR = new CandidatesHint(Hint.HintType.NAKED_PAIR,
+            new int[]{Hint.cell(0, 1), Hint.cell(0, 4)}, new int[]{2, 3}, Hint.Scope.ROW, 0);
+
+    @Test
+    public void testExplanationInFrench() {
+        assertThat(NAKED_PAIR.explanation(Locale.FRENCH)).isEqualTo("Paire nue dans la ligne 1 avec les candidats [2, 3]. "
+                + "Ces deux cases ne peuvent contenir que ces deux candidats, on peut donc les éliminer des autres cases de cette ligne.");
+        assertThat(new Hint(Hint.HintType.LAST_CANDIDATE, 2, 3, 7).explanation(Locale.FRENCH))
+                .isEqualTo("Il ne reste qu'un candidat dans cette case : 7");
+    }
+
+    @Test
+    public void testLargeNumbersAreNotGrouped() {
+        Hint budget = new SearchBudgetHint(1_234_567, 1500, 2048, 12_345);
+        assertThat(budget.explanation(Locale.ENGLISH)).contains("Explored 1234567 nodes and completed 1500 of 2048 "
+                + "starting candidates in 12345 ms.");
+        assertThat(budget.explanation(Locale.FRENCH)).contains("1234567 nœuds explorés et 1500 candidats de départ "
+                + "sur 2048 terminés en 12345 ms.");
+    }
+
+    @Test
+    public void testUnknownLocaleFallsBackToEnglish() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.FRENCH);
+        try {
+            assertThat(NAKED_PAIR.explanation(Locale.JAPANESE)).startsWith("Found a naked pair in row 1 with candidates [2, 3].");
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void testEveryMessageIsTranslated() throws IOException {
+        // the French bundle falls back to the English one, so its own file is read to find missing keys
+        assertThat(load("messages/hints_fr.properties").stringPropertyNames())
+                .isEqualTo(load("messages/hints.properties").stringPropertyNames());
+    }
+
+    private Properties load(String resource) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(resource)) {
+            properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        return properties;
+    }
+}
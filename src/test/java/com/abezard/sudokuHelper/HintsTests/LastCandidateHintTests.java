@@ -9,6 +9,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -39,9 +40,9 @@ public void testLastCandidateFound() {
     solution.setBoard(new int[9][9]);
     solution.setCell(2, 3, 7);
     Hint hint = lastCandidateHint.findHint(board, candidates, solution, false);
-    Hint expected = new Hint(Hint.HintType.LAST_CANDIDATE, 2, 3, 7,
-            "Only one candidate left in this cell: 7");
+    Hint expected = new Hint(Hint.HintType.LAST_CANDIDATE, 2, 3, 7);
     assertThat(hint).isEqualTo(expected);
+    assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Only one candidate left in this cell: 7");
 }
 
     @Test
@@ -58,15 +59,11 @@ public void testLastCandidateFound() {
         when(sudokuHintService.computeAllCandidates(board)).thenReturn(allCands);
         Hint hint = lastCandidateHint.findHint(board, candidates, solution, false);
 
-        CandidatesHint expected = new CandidatesHint(
-                Hint.HintType.ALL_CANDIDATES,
-                new int[][]{{0, 0}},
-                new int[0],
-                allCands,
-                "candidates",
-                "Candidates for all empty cells have been computed. Some other candidates were possible in some cells, or an incorrect candidate was marked."
-        );
+        long[] masks = new long[81];
+        masks[2 * 9 + 4] = 1L << (5 - 1);
+        CandidatesHint expected = new CandidatesHint(masks, CandidatesHint.CANDIDATES_CORRECTED);
         assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Candidates for all empty cells have been computed. Some other candidates were possible in some cells, or an incorrect candidate was marked.");
     }
 
     @Test
@@ -5,6 +5,8 @@ import com.abezard.sudokuHelper.model.Hint;
 import com.abezard.sudokuHelper.model.SudokuBoard;
 import org.junit.jupiter.api.Test;
 
+import java.util.Locale;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class MistakeHintTests {
@@ -40,8 +42,9 @@ public class MistakeHintTests {
         MistakeHint mistakeHint = new MistakeHint();
         Hint hint = mistakeHint.findHint(board, null, solution, false);
 
-        Hint expected = new Hint(Hint.HintType.INCORRECT_INPUT, 4, 4, 3, "Incorrect value in this cell");
+        Hint expected = new Hint(Hint.HintType.INCORRECT_INPUT, 4, 4, 3);
         assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Incorrect value in this cell");
     }
 
     @Test
@@ -91,4 +94,33 @@ public class MistakeHintTests {
 
         assertThat(hint).isNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTrackedBoardGivesItsFirstMistake() {
+        SudokuBoard solution = new SudokuBoard();
+        solution.setBoard(new int[][]{
+                {5, 3, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 3, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0, 0, 0, 2, 0},
+                {0, 0, 0, 0, 0, 0, 0, 0, 0}
+        });
+        SudokuBoard board = new SudokuBoard();
+        board.trackMistakes(solution);
+        board.setCell(7, 7, 6);
+        board.setCell(4, 4, 2);
+        board.setCell(0, 1, 3);
+
+        Hint hint = new MistakeHint().findHint(board, null, solution, false);
+
+        assertThat(hint).isEqualTo(new Hint(Hint.HintType.INCORRECT_INPUT, 4, 4, 3));
+        assertThat(board.mistakeCount()).isEqualTo(2);
+        board.setCell(4, 4, 3);
+        board.setCell(7, 7, 0);
+        assertThat(new MistakeHint().findHint(board, null, solution, false)).isNull();
+    }
+}
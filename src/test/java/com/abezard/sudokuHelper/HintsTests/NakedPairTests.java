@@ -2,17 +2,21 @@ package com.abezard.sudokuHelper.HintsTests;
 
 import com.abezard.sudokuHelper.logic.NakedPairHint;
 import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Geometry;
 import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class NakedPairTests {
     private NakedPairHint nakedPairHint;
+    private final SudokuBoard board = new SudokuBoard(Geometry.CLASSIC);
 
     @BeforeEach
     public void setUp() {
@@ -27,16 +31,16 @@ public class NakedPairTests {
         candidates[0][2] = setOf(2, 3, 4);
         candidates[0][4] = setOf(2, 3);
 
-        CandidatesHint hint = nakedPairHint.findHint(null, candidates, null, false);
+        CandidatesHint hint = nakedPairHint.findHint(board, candidates, null, false);
         CandidatesHint expected = new CandidatesHint(
                 Hint.HintType.NAKED_PAIR,
-                new int[][]{{0, 1}, {0, 4}},
+                new int[]{Hint.cell(0, 1), Hint.cell(0, 4)},
                 new int[]{2, 3},
-                null,
-                "row",
-                "Found a naked pair in row 1 with candidates [2, 3]. This means these two cells can only contain these two candidates, and we can eliminate them from other cells in this row."
+                Hint.Scope.ROW,
+                0
         );
         assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Found a naked pair in row 1 with candidates [2, 3]. This means these two cells can only contain these two candidates, and we can eliminate them from other cells in this row.");
     }
 
     @Test
@@ -47,16 +51,16 @@ public class NakedPairTests {
         candidates[5][2] = setOf(4, 7);
         candidates[3][2] = setOf(4, 7, 8);
 
-        CandidatesHint hint = nakedPairHint.findHint(null, candidates, null, false);
+        CandidatesHint hint = nakedPairHint.findHint(board, candidates, null, false);
         CandidatesHint expected = new CandidatesHint(
                 Hint.HintType.NAKED_PAIR,
-                new int[][]{{1, 2}, {5, 2}},
+                new int[]{Hint.cell(1, 2), Hint.cell(5, 2)},
                 new int[]{4, 7},
-                null,
-                "column",
-                "Found a naked pair in column 3 with candidates [4, 7]. This means these two cells can only contain these two candidates, and we can eliminate them from other cells in this column."
+                Hint.Scope.COLUMN,
+                2
         );
         assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Found a naked pair in column 3 with candidates [4, 7]. This means these two cells can only contain these two candidates, and we can eliminate them from other cells in this column.");
     }
 
     @Test
@@ -67,16 +71,16 @@ public class NakedPairTests {
         candidates[4][4] = setOf(5, 6);
         candidates[5][5] = setOf(5, 6, 9);
 
-        CandidatesHint hint = nakedPairHint.findHint(null, candidates, null, false);
+        CandidatesHint hint = nakedPairHint.findHint(board, candidates, null, false);
         CandidatesHint expected = new CandidatesHint(
                 Hint.HintType.NAKED_PAIR,
-                new int[][]{{3, 3}, {4, 4}},
+                new int[]{Hint.cell(3, 3), Hint.cell(4, 4)},
                 new int[]{5, 6},
-                null,
-                "box",
-                "Found a naked pair in the highlighted box with candidates [5, 6]. This means these two cells can only contain these two candidates, and we can eliminate them from other cells in this box."
+                Hint.Scope.BOX,
+                Hint.cell(3, 3)
         );
         assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Found a naked pair in the highlighted box with candidates [5, 6]. This means these two cells can only contain these two candidates, and we can eliminate them from other cells in this box.");
     }
 
     @Test
@@ -84,7 +88,7 @@ public class NakedPairTests {
         Set<Integer>[][] candidates = emptyCandidates();
         candidates[0][0] = setOf(1, 2, 3);
         candidates[0][1] = setOf(2, 3, 4);
-        CandidatesHint hint = nakedPairHint.findHint(null, candidates, null, false);
+        CandidatesHint hint = nakedPairHint.findHint(board, candidates, null, false);
         assertThat(hint).isNull();
     }
 
@@ -7,6 +7,8 @@ import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Locale;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class NakedSinglesTests {
@@ -32,8 +34,9 @@ public class NakedSinglesTests {
                 {0, 0, 0, 0, 0, 0, 0, 0, 0}
         });
         Hint hint = nakedSingleHint.findHint(board, null, null, false);
-        Hint expectedHint = new Hint(Hint.HintType.NAKED_SINGLE, 0, 3, 6, "Only one possible value in this cell");
+        Hint expectedHint = new Hint(Hint.HintType.NAKED_SINGLE, 0, 3, 6);
         assertThat(hint).isEqualTo(expectedHint);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Only one possible value in this cell");
     }
 
     @Test
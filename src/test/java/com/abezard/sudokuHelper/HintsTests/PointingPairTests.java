@@ -2,17 +2,22 @@ package com.abezard.sudokuHelper.HintsTests;
 
 import com.abezard.sudokuHelper.logic.PointingPairHint;
 import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Geometry;
 import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class PointingPairTests {
     private PointingPairHint pointingPairHint;
+    private final SudokuBoard board = new SudokuBoard(Geometry.CLASSIC);
 
     @BeforeEach
     public void setUp() {
@@ -27,16 +32,19 @@ public class PointingPairTests {
         candidates[0][1] = setOf(5);
         candidates[0][3] = setOf(5);
 
-        CandidatesHint hint = pointingPairHint.findHint(null, candidates, null, false);
+        CandidatesHint hint = pointingPairHint.findHint(board, candidates, null, false);
         CandidatesHint expected = new CandidatesHint(
                 Hint.HintType.POINTING_PAIR,
-                new int[][]{{0, 0}, {0, 1}},
+                new int[]{Hint.cell(0, 0), Hint.cell(0, 1)},
                 new int[]{5},
-                null,
-                "row",
-                "Pointing pair: digit 5 in row 1 confined to box (row: 1, col: 1). This means this digit can only appear in this row of this box, so we can eliminate it from other cells outside this box in this row."
+                Hint.Scope.ROW,
+                0,
+                new int[0],
+                0,
+                Hint.cell(0, 0)
         );
         assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Pointing pair: digit 5 in row 1 confined to box (row: 1, col: 1). This means this digit can only appear in this row of this box, so we can eliminate it from other cells outside this box in this row.");
     }
 
     @Test
@@ -47,16 +55,115 @@ public class PointingPairTests {
         candidates[1][0] = setOf(7);
         candidates[3][0] = setOf(7);
 
-        CandidatesHint hint = pointingPairHint.findHint(null, candidates, null, false);
+        CandidatesHint hint = pointingPairHint.findHint(board, candidates, null, false);
         CandidatesHint expected = new CandidatesHint(
                 Hint.HintType.POINTING_PAIR,
-                new int[][]{{0, 0}, {1, 0}},
+                new int[]{Hint.cell(0, 0), Hint.cell(1, 0)},
                 new int[]{7},
-                null,
-                "column",
-                "Pointing pair: digit 7 in column 1 confined to box (row: 1, col: 1). This means this digit can only appear in this column of this box, so we can eliminate it from other cells outside this box in this column."
+                Hint.Scope.COLUMN,
+                0,
+                new int[0],
+                0,
+                Hint.cell(0, 0)
         );
         assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Pointing pair: digit 7 in column 1 confined to box (row: 1, col: 1). This means this digit can only appear in this column of this box, so we can eliminate it from other cells outside this box in this column.");
+    }
+
+    @Test
+    public void testPointingTripleInRow() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        // Box (3,6): digit 4 in (4,6), (4,7) and (4,8), also in (4,2) outside the box
+        candidates[4][6] = setOf(4, 1);
+        candidates[4][7] = setOf(4);
+        candidates[4][8] = setOf(4, 9);
+        candidates[4][2] = setOf(4);
+
+        CandidatesHint hint = pointingPairHint.findHint(board, candidates, null, false);
+        CandidatesHint expected = new CandidatesHint(
+                Hint.HintType.POINTING_PAIR,
+                new int[]{Hint.cell(4, 6), Hint.cell(4, 7), Hint.cell(4, 8)},
+                new int[]{4},
+                Hint.Scope.ROW,
+                4,
+                new int[0],
+                0,
+                Hint.cell(3, 6)
+        );
+        assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Pointing pair: digit 4 in row 5 confined to box (row: 4, col: 7). This means this digit can only appear in this row of this box, so we can eliminate it from other cells outside this box in this row.");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBoxesOfThreeRowsAndTwoColumns() {
+        Set<Integer>[][] candidates = new HashSet[6][6];
+        for (Set<Integer>[] row : candidates) Arrays.setAll(row, i -> new HashSet<>());
+        // Box (0,0) spans rows 0 to 2: digit 3 in (0,0) and (2,0), also in (4,0) outside the box
+        candidates[0][0] = setOf(3);
+        candidates[2][0] = setOf(3);
+        candidates[4][0] = setOf(3);
+
+        CandidatesHint hint = pointingPairHint.findHint(new SudokuBoard(new Geometry(3, 2)), candidates, null, false);
+        CandidatesHint expected = new CandidatesHint(
+                Hint.HintType.POINTING_PAIR,
+                new int[]{Hint.cell(0, 0), Hint.cell(2, 0)},
+                new int[]{3},
+                Hint.Scope.COLUMN,
+                0,
+                new int[0],
+                0,
+                Hint.cell(0, 0)
+        );
+        assertThat(hint).isEqualTo(expected);
+    }
+
+    @Test
+    public void testBoxLineReductionInRow() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        // Row 0: digit 5 only in (0,0) and (0,1), both in box (0,0), which also has 5 in (1,1)
+        candidates[0][0] = setOf(5);
+        candidates[0][1] = setOf(5);
+        candidates[1][1] = setOf(5);
+
+        CandidatesHint hint = pointingPairHint.findHint(board, candidates, null, false);
+        CandidatesHint expected = new CandidatesHint(
+                Hint.HintType.BOX_LINE_REDUCTION,
+                new int[]{Hint.cell(0, 0), Hint.cell(0, 1)},
+                new int[]{5},
+                Hint.Scope.ROW,
+                0,
+                new int[]{Hint.candidate(1, 1, 5)},
+                0,
+                Hint.cell(0, 0)
+        );
+        assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Box/line reduction: digit 5 in row 1 confined to box (row: 1, col: 1). This means this row can only place this digit inside this box, so we can eliminate it from other cells of this box outside this row.");
+    }
+
+    @Test
+    public void testBoxLineReductionInColumn() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        // Column 8: digit 2 only in (6,8) and (8,8), both in box (6,6), which also has 2 in (7,6) and (7,7)
+        candidates[6][8] = setOf(2);
+        candidates[8][8] = setOf(2);
+        candidates[7][6] = setOf(2);
+        candidates[7][7] = setOf(2);
+        candidates[7][0] = setOf(2); // keeps row 8 from being confined to the box as well
+
+        CandidatesHint hint = pointingPairHint.findHint(board, candidates, null, false);
+        CandidatesHint expected = new CandidatesHint(
+                Hint.HintType.BOX_LINE_REDUCTION,
+                new int[]{Hint.cell(6, 8), Hint.cell(8, 8)},
+                new int[]{2},
+                Hint.Scope.COLUMN,
+                8,
+                new int[]{Hint.candidate(7, 6, 2), Hint.candidate(7, 7, 2)},
+                0,
+                Hint.cell(6, 6)
+        );
+        assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Box/line reduction: digit 2 in column 9 confined to box (row: 7, col: 7). This means this column can only place this digit inside this box, so we can eliminate it from other cells of this box outside this column.");
     }
 
     @Test
@@ -64,7 +171,7 @@ public class PointingPairTests {
         Set<Integer>[][] candidates = emptyCandidates();
         candidates[0][0] = setOf(1, 2);
         candidates[1][1] = setOf(2, 3);
-        CandidatesHint hint = pointingPairHint.findHint(null, candidates, null, false);
+        CandidatesHint hint = pointingPairHint.findHint(board, candidates, null, false);
         assertThat(hint).isNull();
     }
 
@@ -0,0 +1,130 @@
+package com.abezard.sudokuHelper.HintsTests;
+
+import com.abezard.sudokuHelper.logic.SimpleColoringHint;
+import com.abezard.sudokuHelper.logic.StrongLinkGraph;
+import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SimpleColoringTests {
+    private SimpleColoringHint simpleColoringHint;
+    private final SudokuBoard board = new SudokuBoard(Geometry.CLASSIC);
+
+    @BeforeEach
+    public void setUp() {
+        simpleColoringHint = new SimpleColoringHint(new StrongLinkGraph());
+    }
+
+    @Test
+    public void testColorTrap() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        // Cluster (0,0)=(0,4)=(4,4)=(5,3) on digit 1, (5,0) sees (0,0) and (5,3) which have opposite colors
+        candidates[0][0] = setOf(1);
+        candidates[0][4] = setOf(1);
+        candidates[4][4] = setOf(1);
+        candidates[5][3] = setOf(1);
+        candidates[5][0] = setOf(1);
+        candidates[8][0] = setOf(1); // keeps column 1 from being a strong link
+        candidates[5][8] = setOf(1); // keeps row 6 from being a strong link
+
+        CandidatesHint hint = simpleColoringHint.findHint(board, candidates, null, true);
+        CandidatesHint expected = new CandidatesHint(
+                Hint.HintType.SIMPLE_COLORING,
+                new int[]{Hint.cell(0, 0), Hint.cell(0, 4), Hint.cell(4, 4), Hint.cell(5, 3)},
+                new int[]{1},
+                Hint.Scope.CHAIN,
+                -1,
+                new int[]{Hint.candidate(5, 0, 1)},
+                CandidatesHint.COLOR_TRAP
+        );
+        assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Simple coloring on digit 1: the highlighted cells are linked by conjugate pairs, so they alternate between two colors and exactly one color holds 1. Any other cell that sees both colors cannot contain 1, so it can be removed from those cells.");
+    }
+
+    @Test
+    public void testColorTrapOnACellOfAnEarlierCluster() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        // Cluster (4,1)=(6,2) on digit 1 is found first and eliminates nothing, then cluster
+        // (4,4)=(5,5)=(9,5)=(9,1) traps (4,1), which sees (4,4) and (9,1) of opposite colors
+        candidates[3][0] = setOf(1);
+        candidates[5][1] = setOf(1);
+        candidates[3][3] = setOf(1);
+        candidates[4][4] = setOf(1);
+        candidates[8][4] = setOf(1);
+        candidates[8][0] = setOf(1);
+        candidates[0][0] = setOf(1); // keeps column 1 from being a strong link
+        candidates[3][8] = setOf(1); // keeps row 4 from being a strong link
+
+        CandidatesHint hint = simpleColoringHint.findHint(board, candidates, null, true);
+        CandidatesHint expected = new CandidatesHint(
+                Hint.HintType.SIMPLE_COLORING,
+                new int[]{Hint.cell(3, 3), Hint.cell(4, 4), Hint.cell(8, 0), Hint.cell(8, 4)},
+                new int[]{1},
+                Hint.Scope.CHAIN,
+                -1,
+                new int[]{Hint.candidate(3, 0, 1)},
+                CandidatesHint.COLOR_TRAP
+        );
+        assertThat(hint).isEqualTo(expected);
+    }
+
+    @Test
+    public void testColorWrap() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        // Cluster (0,0)=(0,4)=(4,4) and (0,0)=(1,2)=(4,2) on digit 1, (4,2) and (4,4) share a color in row 5
+        candidates[0][0] = setOf(1);
+        candidates[0][4] = setOf(1);
+        candidates[4][4] = setOf(1);
+        candidates[1][2] = setOf(1);
+        candidates[4][2] = setOf(1);
+        candidates[4][7] = setOf(1); // keeps row 5 from being a strong link
+
+        CandidatesHint hint = simpleColoringHint.findHint(board, candidates, null, true);
+        CandidatesHint expected = new CandidatesHint(
+                Hint.HintType.SIMPLE_COLORING,
+                new int[]{Hint.cell(0, 0), Hint.cell(0, 4), Hint.cell(1, 2), Hint.cell(4, 2), Hint.cell(4, 4)},
+                new int[]{1},
+                Hint.Scope.CHAIN,
+                -1,
+                new int[]{Hint.candidate(0, 0, 1), Hint.candidate(4, 2, 1), Hint.candidate(4, 4, 1)},
+                CandidatesHint.COLOR_WRAP,
+                Hint.cell(4, 2), Hint.cell(4, 4)
+        );
+        assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("Simple coloring on digit 1: the highlighted cells are linked by conjugate pairs, so they alternate between two colors and exactly one color holds 1. The cells at (row: 5, col: 3) and (row: 5, col: 5) share a color and see each other, so that color is false and 1 can be removed from all of its cells.");
+    }
+
+    @Test
+    public void testNoColoring() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        candidates[0][0] = setOf(1, 2);
+        candidates[0][4] = setOf(1, 3);
+        CandidatesHint hint = simpleColoringHint.findHint(board, candidates, null, true);
+        assertThat(hint).isNull();
+    }
+
+    // Helpers
+    @SuppressWarnings("unchecked")
+    private Set<Integer>[][] emptyCandidates() {
+        Set<Integer>[][] cands = new HashSet[9][9];
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                cands[r][c] = new HashSet<>();
+        return cands;
+    }
+
+    private Set<Integer> setOf(int... vals) {
+        Set<Integer> set = new HashSet<>();
+        for (int v : vals) set.add(v);
+        return set;
+    }
+}
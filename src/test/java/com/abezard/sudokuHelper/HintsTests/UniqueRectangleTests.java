@@ -0,0 +1,132 @@
+package com.abezard.sudokuHelper.HintsTests;
+
+import com.abezard.sudokuHelper.logic.UniqueRectangleHint;
+import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UniqueRectangleTests {
+    private static final String PREFIX = "If all four highlighted corners could only be 1 or 2, the two digits could be swapped and the puzzle would have two solutions. ";
+    private static final int[][] CORNERS = {{0, 0}, {0, 3}, {1, 0}, {1, 3}};
+
+    private UniqueRectangleHint uniqueRectangleHint;
+    private final SudokuBoard board = new SudokuBoard(Geometry.CLASSIC);
+
+    @BeforeEach
+    public void setUp() {
+        uniqueRectangleHint = new UniqueRectangleHint();
+    }
+
+    @Test
+    public void testType1() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        candidates[0][0] = setOf(1, 2);
+        candidates[0][3] = setOf(1, 2);
+        candidates[1][0] = setOf(1, 2);
+        candidates[1][3] = setOf(1, 2, 5);
+
+        CandidatesHint hint = uniqueRectangleHint.findHint(board, candidates, null, true);
+        assertThat(hint).isEqualTo(expected(1, new int[][]{{1, 3, 1}, {1, 3, 2}}));
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo(
+                "Unique rectangle (type 1) on candidates 1 and 2. " + PREFIX
+                        + "Three of its corners can only be 1 or 2, so the fourth corner must be something else and both digits can be removed from it.");
+    }
+
+    @Test
+    public void testType2() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        candidates[0][0] = setOf(1, 2);
+        candidates[0][3] = setOf(1, 2);
+        candidates[1][0] = setOf(1, 2, 7);
+        candidates[1][3] = setOf(1, 2, 7);
+        candidates[1][6] = setOf(7, 8); // sees both corners with extras
+        candidates[2][1] = setOf(7, 9); // only sees one of them
+
+        CandidatesHint hint = uniqueRectangleHint.findHint(board, candidates, null, true);
+        assertThat(hint).isEqualTo(expected(2, new int[][]{{1, 6, 7}}, 7));
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo(
+                "Unique rectangle (type 2) on candidates 1 and 2. " + PREFIX
+                        + "One of the two corners with extra candidates must be 7, so 7 can be removed from every cell that sees both of them.");
+    }
+
+    @Test
+    public void testType3() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        candidates[0][0] = setOf(1, 2);
+        candidates[0][3] = setOf(1, 2);
+        candidates[1][0] = setOf(1, 2, 6);
+        candidates[1][3] = setOf(1, 2, 8);
+        candidates[1][7] = setOf(6, 8);
+        candidates[1][8] = setOf(6, 8, 9);
+
+        CandidatesHint hint = uniqueRectangleHint.findHint(board, candidates, null, true);
+        assertThat(hint).isEqualTo(expected(3, new int[][]{{1, 8, 6}, {1, 8, 8}}, 6, 8, Hint.cell(1, 7)));
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo(
+                "Unique rectangle (type 3) on candidates 1 and 2. " + PREFIX
+                        + "One of the two corners with extra candidates must be 6 or 8, which together with the cell at (row: 2, col: 8) forms a naked pair, so 6 and 8 can be removed from the other cells of the unit they share.");
+    }
+
+    @Test
+    public void testType4() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        candidates[0][0] = setOf(1, 2);
+        candidates[0][3] = setOf(1, 2);
+        candidates[1][0] = setOf(1, 2, 6);
+        candidates[1][3] = setOf(1, 2, 8);
+        candidates[1][5] = setOf(2, 9); // 2 appears elsewhere in the row, 1 does not
+
+        CandidatesHint hint = uniqueRectangleHint.findHint(board, candidates, null, true);
+        assertThat(hint).isEqualTo(expected(4, new int[][]{{1, 0, 2}, {1, 3, 2}}, 1, 2));
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo(
+                "Unique rectangle (type 4) on candidates 1 and 2. " + PREFIX
+                        + "Within a unit they share, 1 can only go in the two corners with extra candidates, so one of them is 1 and 2 can be removed from both of them.");
+    }
+
+    @Test
+    public void testRectangleOverFourBoxesIsIgnored() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        candidates[0][0] = setOf(1, 2);
+        candidates[0][3] = setOf(1, 2);
+        candidates[4][0] = setOf(1, 2);
+        candidates[4][3] = setOf(1, 2, 5);
+
+        CandidatesHint hint = uniqueRectangleHint.findHint(board, candidates, null, true);
+        assertThat(hint).isNull();
+    }
+
+    private CandidatesHint expected(int type, int[][] eliminations, int... context) {
+        int[] corners = new int[CORNERS.length];
+        for (int i = 0; i < CORNERS.length; i++) corners[i] = Hint.cell(CORNERS[i][0], CORNERS[i][1]);
+        int[] packed = new int[eliminations.length];
+        for (int i = 0; i < eliminations.length; i++) {
+            packed[i] = Hint.candidate(eliminations[i][0], eliminations[i][1], eliminations[i][2]);
+        }
+        return new CandidatesHint(Hint.HintType.UNIQUE_RECTANGLE, corners, new int[]{1, 2}, Hint.Scope.RECTANGLE, -1,
+                packed, type, context);
+    }
+
+    // Helpers
+    @SuppressWarnings("unchecked")
+    private Set<Integer>[][] emptyCandidates() {
+        Set<Integer>[][] cands = new HashSet[9][9];
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                cands[r][c] = new HashSet<>();
+        return cands;
+    }
+
+    private Set<Integer> setOf(int... vals) {
+        Set<Integer> set = new HashSet<>();
+        for (int v : vals) set.add(v);
+        return set;
+    }
+}
@@ -0,0 +1,93 @@
+package com.abezard.sudokuHelper.HintsTests;
+
+import com.abezard.sudokuHelper.logic.StrongLinkGraph;
+import com.abezard.sudokuHelper.logic.XChainHint;
+import com.abezard.sudokuHelper.model.CandidatesHint;
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class XChainTests {
+    private XChainHint xChainHint;
+    private final SudokuBoard board = new SudokuBoard(Geometry.CLASSIC);
+
+    @BeforeEach
+    public void setUp() {
+        xChainHint = new XChainHint(new StrongLinkGraph());
+    }
+
+    @Test
+    public void testSkyscraperChain() {
+        Set<Integer>[][] candidates = skyscraper();
+
+        CandidatesHint hint = xChainHint.findHint(board, candidates, null, true);
+        CandidatesHint expected = new CandidatesHint(
+                Hint.HintType.X_CHAIN,
+                new int[]{Hint.cell(1, 0), Hint.cell(7, 0), Hint.cell(7, 5), Hint.cell(2, 5)},
+                new int[]{1},
+                Hint.Scope.CHAIN,
+                -1,
+                new int[]{Hint.candidate(1, 4, 1)}
+        );
+        assertThat(hint).isEqualTo(expected);
+        assertThat(hint.explanation(Locale.ENGLISH)).isEqualTo("X-Chain on digit 1 from (row: 2, col: 1) to (row: 3, col: 6). The chain alternates between strong links, where 1 must be in one of the two cells, and weak links, where it can be in at most one. Either way one of the two ends holds 1, so it can be removed from every cell that sees both ends.");
+    }
+
+    @Test
+    public void testGraphUpdatedAfterElimination() {
+        Set<Integer>[][] candidates = skyscraper();
+        assertThat(xChainHint.findHint(board, candidates, null, true)).isNotNull();
+
+        // Applying the elimination leaves nothing else for the shared graph to find
+        candidates[1][4].remove(1);
+        assertThat(xChainHint.findHint(board, candidates, null, true)).isNull();
+    }
+
+    @Test
+    public void testNoXChain() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        candidates[1][0] = setOf(1);
+        candidates[7][0] = setOf(1);
+        candidates[4][4] = setOf(1);
+        CandidatesHint hint = xChainHint.findHint(board, candidates, null, true);
+        assertThat(hint).isNull();
+    }
+
+    // Columns 1 and 6 each hold digit 1 twice, their bottom cells share row 8
+    private Set<Integer>[][] skyscraper() {
+        Set<Integer>[][] candidates = emptyCandidates();
+        candidates[1][0] = setOf(1);
+        candidates[7][0] = setOf(1);
+        candidates[2][5] = setOf(1);
+        candidates[7][5] = setOf(1);
+        candidates[7][8] = setOf(1); // keeps row 8 a weak link
+        candidates[1][4] = setOf(1, 2); // sees both ends of the chain
+        candidates[1][7] = setOf(1); // keeps row 2 from being a strong link
+        candidates[0][3] = setOf(1); // keeps the top middle box from being a strong link
+        return candidates;
+    }
+
+    // Helpers
+    @SuppressWarnings("unchecked")
+    private Set<Integer>[][] emptyCandidates() {
+        Set<Integer>[][] cands = new HashSet[9][9];
+        for (int r = 0; r < 9; r++)
+            for (int c = 0; c < 9; c++)
+                cands[r][c] = new HashSet<>();
+        return cands;
+    }
+
+    private Set<Integer> setOf(int... vals) {
+        Set<Integer> set = new HashSet<>();
+        for (int v : vals) set.add(v);
+        return set;
+    }
+}
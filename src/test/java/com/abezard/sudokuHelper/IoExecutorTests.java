@@ -0,0 +1,39 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.service.IoExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+public class IoExecutorTests {
+
+    @Test
+    void testPlatformThreadsAreBounded() throws InterruptedException {
+        IoExecutor executor = new IoExecutor(2);
+        assumeFalse(executor.usesVirtualThreads(), "Virtual threads are not bounded");
+        CountDownLatch started = new CountDownLatch(2), release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 2; i++) {
+                executor.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }),
+                    "Both threads are blocked");
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import com.abezard.sudokuHelper.service.MinimalPuzzleGenerator;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * How often the minimal puzzle search reaches low clue counts on a 9x9 board within the budget the client gives hard
+ * puzzles, and within a longer one, run with {@code mvn test -Pbenchmark}. The first minimal puzzle dug from a full
+ * board usually has 22 to 26 clues; the hit rates show how far clue swapping and restarts get below that, and
+ * whether the clue count of HARD is still reached within its budget.
+ */
+@Tag("benchmark")
+public class MinimalPuzzleBenchmarkTests {
+    private static final int RUNS = 20;
+    private static final int[] TARGETS = {24, 22, 21, 20, 18};
+
+    @Test
+    void benchmarkTargetHitRates() {
+        Variant classic = Variant.classic(Geometry.CLASSIC);
+        for (Duration budget : new Duration[]{SudokuGeneratingService.HARD_SEARCH_BUDGET, Duration.ofSeconds(2)}) {
+            MinimalPuzzleGenerator generator = new MinimalPuzzleGenerator(new FullBoardGeneratingService(), new Random(1));
+            generator.generate(classic, 24, budget); // warm up, counted under its own target below
+            for (int target : TARGETS) {
+                for (int run = 0; run < RUNS; run++) {
+                    generator.generate(classic, target, budget);
+                }
+            }
+            System.out.printf("budget %d ms:%n%s", budget.toMillis(), generator.getStats());
+            if (budget.equals(SudokuGeneratingService.HARD_SEARCH_BUDGET)) {
+                int hard = SudokuGeneratingService.Difficulty.HARD.getClueCount(Geometry.CLASSIC);
+                double hitRate = generator.getStats().hitRate(hard);
+                System.out.printf("HARD (%d clues) reached in %.0f%% of %d searches%n", hard, 100 * hitRate,
+                        generator.getStats().searches(hard));
+                assertTrue(hitRate >= 0.9, "HARD should be reachable within its budget");
+            }
+        }
+    }
+}
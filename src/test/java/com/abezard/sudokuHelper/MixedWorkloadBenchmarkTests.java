@@ -0,0 +1,98 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import com.abezard.sudokuHelper.service.GenerationExecutor;
+import com.abezard.sudokuHelper.service.IoExecutor;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput of a burst of web requests mixing blocking I/O (a session lookup or a stream write, simulated by a
+ * sleep) and CPU-bound generation, run with {@code mvn test -Pbenchmark}. Compares one request pool sized to the
+ * cores running whole requests, where I/O-only requests queue behind generations, with the split model of the
+ * application: requests on IoExecutor threads, generation on the platform threads of GenerationExecutor.
+ */
+@Tag("benchmark")
+public class MixedWorkloadBenchmarkTests {
+    private static final int REQUESTS = 2_000;
+    private static final int CPU_EVERY = 4; // one request in four generates a puzzle
+    private static final long IO_MILLIS = 10;
+
+    @Test
+    void benchmarkMixedWorkload() throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        ExecutorService shared = Executors.newFixedThreadPool(2 * cores);
+        long[] sharedLatencies = run(request -> shared.execute(request), null);
+        shared.shutdownNow();
+
+        IoExecutor io = new IoExecutor(REQUESTS); // the whole burst blocks at once
+        GenerationExecutor generation = new GenerationExecutor(cores, REQUESTS, null);
+        long[] splitLatencies = run(io::execute, generation);
+        io.shutdown();
+        generation.shutdown();
+
+        print("shared pool of " + 2 * cores + " threads", sharedLatencies);
+        print((io.usesVirtualThreads() ? "virtual" : "cached") + " I/O threads + " + cores + " solver threads",
+                splitLatencies);
+        assertTrue(splitLatencies[0] <= sharedLatencies[0] * 2, "I/O-only requests should not wait for generations");
+    }
+
+    /**
+     * Sends the burst of requests and waits for all of them.
+     * @param executor runs a request
+     * @param generation the executor generating the puzzles, or null to generate on the request thread
+     * @return the p99 latency of the I/O-only requests and the total time, in milliseconds
+     */
+    private static long[] run(Consumer<Runnable> executor, GenerationExecutor generation) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        long[] ioLatencies = new long[REQUESTS - (REQUESTS + CPU_EVERY - 1) / CPU_EVERY];
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            int request = i;
+            executor.accept(() -> {
+                try {
+                    Thread.sleep(IO_MILLIS);
+                    if (request % CPU_EVERY == 0) {
+                        if (generation == null) generate(request);
+                        else generation.submit(SudokuGeneratingService.Difficulty.EASY, Duration.ofMinutes(5),
+                                () -> generate(request)).join();
+                    } else {
+                        ioLatencies[request - request / CPU_EVERY - 1] = System.nanoTime() - start;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES));
+        long total = System.nanoTime() - start;
+        Arrays.sort(ioLatencies);
+        return new long[]{ioLatencies[ioLatencies.length * 99 / 100] / 1_000_000, total / 1_000_000};
+    }
+
+    private static int generate(long seed) {
+        new SudokuGeneratingService(new FullBoardGeneratingService())
+                .generatePuzzle(SudokuGeneratingService.Difficulty.EASY, Variant.classic(Geometry.CLASSIC), seed);
+        return 0;
+    }
+
+    private static void print(String model, long[] latencies) {
+        System.out.printf("%s: %d requests in %d ms (%.0f/s), I/O-only p99 %d ms%n",
+                model, REQUESTS, latencies[1], REQUESTS * 1000.0 / latencies[1], latencies[0]);
+    }
+}
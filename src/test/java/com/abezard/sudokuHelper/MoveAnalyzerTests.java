@@ -0,0 +1,93 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.MoveLog;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import com.abezard.sudokuHelper.service.MoveAnalyzer;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveAnalyzerTests {
+
+    SudokuGeneratingService generator;
+    MoveAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        generator = new SudokuGeneratingService(new FullBoardGeneratingService(new SplittableRandom(7)));
+        analyzer = new MoveAnalyzer();
+    }
+
+    @Test
+    void testConflictsMarkEveryCopyOfARepeatedValue() {
+        SudokuBoard board = new SudokuBoard();
+        board.setCell(0, 0, 5);
+        board.setCell(0, 8, 5); // same row
+        board.setCell(2, 2, 5); // same box as (0, 0)
+        board.setCell(8, 8, 3);
+        long[] conflicts = MoveAnalyzer.conflicts(board);
+        assertEquals(1L | 1L << 8 | 1L << 20, conflicts[0]);
+        assertEquals(0, conflicts[1]);
+
+        board.setCell(0, 8, 0);
+        board.setCell(2, 2, 0);
+        assertArrayEquals(new long[2], MoveAnalyzer.conflicts(board));
+    }
+
+    @Test
+    void testPointOfNoReturnIsTheFirstWrongValue() {
+        SudokuBoard puzzle = generator.generatePuzzle(SudokuGeneratingService.Difficulty.EASY, Geometry.CLASSIC);
+        SudokuBoard solution = generator.getSolution();
+        SudokuBoard board = new SudokuBoard(puzzle);
+        MoveLog moves = new MoveLog();
+        FullBoardGeneratingService rules = new FullBoardGeneratingService();
+        int filled = 0, wrongMove = -1;
+        for (int cell = 0; cell < 81 && filled < 40; cell++) {
+            int row = cell / 9, col = cell % 9;
+            if (board.getCell(row, col) != 0) continue;
+            int value = solution.getCell(row, col);
+            if (filled == 25) {
+                value = wrongButValid(rules, board, solution, row, col);
+                if (value == 0) continue; // every other value breaks a rule here, try the next cell
+                wrongMove = moves.appliedCount();
+            }
+            moves.beginStep();
+            moves.set(board, row, col, value, 0);
+            filled++;
+        }
+        assertTrue(wrongMove > 0);
+        assertFalse(analyzer.hasSolution(board));
+        assertEquals(wrongMove, analyzer.pointOfNoReturn(board, moves));
+        assertEquals(puzzle.getBoard()[0][0], moves.boardAfter(board, 0).getCell(0, 0));
+    }
+
+    @Test
+    void testSolvableGameHasNoPointOfNoReturn() {
+        SudokuBoard puzzle = generator.generatePuzzle(SudokuGeneratingService.Difficulty.EASY, Geometry.CLASSIC);
+        SudokuBoard solution = generator.getSolution();
+        SudokuBoard board = new SudokuBoard(puzzle);
+        MoveLog moves = new MoveLog();
+        for (int cell = 0; cell < 81; cell += 7) {
+            moves.beginStep();
+            moves.set(board, cell / 9, cell % 9, solution.getCell(cell / 9, cell % 9), 0);
+        }
+        assertEquals(-1, analyzer.pointOfNoReturn(board, moves));
+    }
+
+    /**
+     * Picks a value that breaks no rule yet but is not the one of the solution.
+     * @return the value, or 0 if every other value repeats one of the cell's peers
+     */
+    private int wrongButValid(FullBoardGeneratingService rules, SudokuBoard board, SudokuBoard solution, int row, int col) {
+        for (int value = 1; value <= 9; value++) {
+            if (value != solution.getCell(row, col) && rules.isValidPlacement(board, row, col, value)) return value;
+        }
+        return 0;
+    }
+}
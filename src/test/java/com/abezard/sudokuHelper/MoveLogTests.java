@@ -0,0 +1,107 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.model.MoveLog;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveLogTests {
+
+    MoveLog moves;
+    SudokuBoard board;
+
+    @BeforeEach
+    void setUp() {
+        moves = new MoveLog();
+        board = new SudokuBoard();
+    }
+
+    @Test
+    void testMoveIsPackedIntoALong() {
+        long move = MoveLog.encode(80, 9, 3, 0b1_0000_0101L);
+        assertEquals(80, MoveLog.cell(move));
+        assertEquals(9, MoveLog.oldValue(move));
+        assertEquals(3, MoveLog.newValue(move));
+        assertEquals(0b1_0000_0101L, MoveLog.candidateDelta(move));
+    }
+
+    @Test
+    void testUndoAndRedoRevertWholeSteps() {
+        board.setCandidateMask(0, 0, 0b110);
+        moves.beginStep();
+        moves.set(board, 0, 0, 0, 0b010); // remove candidate 3
+        moves.beginStep();
+        moves.set(board, 4, 4, 7, 0); // a hint placing 7...
+        moves.set(board, 4, 5, 0, 0); // ...and a no-op, which is not recorded
+        moves.set(board, 0, 0, 0, 0); // ...removing 2 from a peer
+        assertEquals(3, moves.size());
+
+        List<Integer> changed = new ArrayList<>();
+        assertTrue(moves.undo(board, changed::add));
+        assertEquals(List.of(0, 40), changed);
+        assertEquals(0, board.getCell(4, 4));
+        assertEquals(0b010, board.getCandidateMask(0, 0));
+
+        assertTrue(moves.undo(board, cell -> {}));
+        assertEquals(0b110, board.getCandidateMask(0, 0));
+        assertFalse(moves.undo(board, cell -> {}));
+
+        assertTrue(moves.redo(board, cell -> {}));
+        assertTrue(moves.redo(board, cell -> {}));
+        assertEquals(7, board.getCell(4, 4));
+        assertEquals(0, board.getCandidateMask(0, 0));
+        assertFalse(moves.redo(board, cell -> {}));
+    }
+
+    @Test
+    void testNewMoveDropsUndoneSteps() {
+        moves.beginStep();
+        moves.set(board, 1, 1, 5, 0);
+        moves.undo(board, cell -> {});
+        moves.beginStep();
+        moves.set(board, 2, 2, 6, 0);
+        assertFalse(moves.canRedo());
+        assertEquals(1, moves.size());
+        assertEquals(0, board.getCell(1, 1));
+    }
+
+    @Test
+    void testThousandsOfMovesStayAtAFewKilobytes() {
+        for (int i = 0; i < 5000; i++) {
+            moves.beginStep();
+            moves.set(board, i % 9, (i / 9) % 9, i % 9 + 1, 0x1FF & ~(1L << (i % 9)));
+        }
+        assertTrue(moves.footprintBytes() <= 64 * 1024, "5000 moves should take at most 64 KB");
+        while (moves.undo(board, cell -> {})) {
+            // back to the start
+        }
+        assertEquals(0, board.getCell(0, 0));
+        assertEquals(0, board.getCandidateMask(0, 0));
+    }
+
+    @Test
+    void testPeerEliminationsAreUndoneWithTheirValue() {
+        for (int cell = 0; cell < 81; cell++) {
+            board.setCandidateMask(cell / 9, cell % 9, 0b1_1111_1111L);
+        }
+        moves.beginStep();
+        moves.set(board, 4, 4, 5, 0);
+        assertEquals(20, moves.eliminateFromPeers(board, 40, 5));
+        assertEquals(0b1_1110_1111L, board.getCandidateMask(4, 0));
+        assertEquals(0b1_1110_1111L, board.getCandidateMask(3, 3));
+        assertEquals(0b1_1111_1111L, board.getCandidateMask(0, 0), "Only the peers should lose the candidate");
+        assertEquals(0, moves.eliminateFromPeers(board, 40, 5), "Nothing is left to remove");
+
+        assertTrue(moves.undo(board, cell -> {}));
+        assertEquals(0, board.getCell(4, 4));
+        for (int cell = 0; cell < 81; cell++) {
+            assertEquals(0b1_1111_1111L, board.getCandidateMask(cell / 9, cell % 9));
+        }
+        assertFalse(moves.canUndo(), "The value and its eliminations should be one step");
+    }
+}
@@ -0,0 +1,77 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.MoveLog;
+import com.abezard.sudokuHelper.model.ObservableBoard;
+import com.abezard.sudokuHelper.model.Variant;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObservableBoardTests {
+
+    @Test
+    void testOnlyChangedCellsAreMarked() {
+        ObservableBoard board = new ObservableBoard(Variant.classic(Geometry.CLASSIC));
+        board.setCell(0, 0, 0);
+        board.setCandidateMask(4, 4, 0);
+        assertEquals(0, board.dirtyCount(), "Writing the current value should not mark the cell");
+
+        board.setCell(0, 0, 5);
+        board.setCandidateMask(0, 0, 0b11);
+        board.setCandidateMask(8, 8, 0b100);
+        assertEquals(2, board.dirtyCount());
+        assertTrue(board.isDirty(0));
+        assertTrue(board.isDirty(80));
+        assertFalse(board.isDirty(1));
+    }
+
+    @Test
+    void testChangesAreCoalescedUntilDrained() {
+        ObservableBoard board = new ObservableBoard(Variant.classic(Geometry.LARGE));
+        AtomicInteger refreshes = new AtomicInteger();
+        board.setOnFirstChange(refreshes::incrementAndGet);
+        for (int col = 0; col < 16; col++) {
+            board.setCell(15, col, col + 1);
+        }
+        assertEquals(1, refreshes.get(), "Only the first change should ask for a refresh");
+
+        List<Integer> visited = new ArrayList<>();
+        assertEquals(16, board.drainDirty(visited::add));
+        assertEquals(240, visited.get(0));
+        assertEquals(255, visited.get(15));
+        assertEquals(0, board.dirtyCount());
+
+        board.setCell(0, 0, 1);
+        assertEquals(2, refreshes.get(), "A change after a drain should ask for a new refresh");
+    }
+
+    @Test
+    void testUndoingAHintStepMarksOnlyTheCellsItTouched() {
+        ObservableBoard board = new ObservableBoard(Variant.classic(Geometry.CLASSIC));
+        MoveLog moves = new MoveLog();
+        for (int col = 1; col < 9; col++) {
+            board.setCandidateMask(0, col, 0b110);
+        }
+        board.drainDirty(cell -> {});
+
+        // a hint placing 2 at (0, 0) and removing it from the candidates of its row
+        moves.beginStep();
+        moves.set(board, 0, 0, 2, 0);
+        for (int col = 1; col < 9; col++) {
+            moves.set(board, 0, col, 0, 0b100);
+        }
+        assertEquals(9, board.drainDirty(cell -> {}));
+
+        moves.undo(board, cell -> {});
+        assertEquals(9, board.dirtyCount());
+        for (int cell = 9; cell < 81; cell++) {
+            assertFalse(board.isDirty(cell));
+        }
+        assertEquals(0b110, board.getCandidateMask(0, 5));
+    }
+}
@@ -1,11 +1,16 @@
 package com.abezard.sudokuHelper;
 
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.KillerCages;
 import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
 import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import com.abezard.sudokuHelper.service.MinimalPuzzleGenerator;
 import com.abezard.sudokuHelper.service.SudokuGeneratingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,6 +48,168 @@ public class PuzzleGeneratingTests {
         assertEquals(1, generateSudoku.countSolutions(hard), "Generated Sudoku puzzle should have a unique solution");
     }
 
+    @Test
+    void testGenerateMiniSudokuHasUniqueSolution() {
+        SudokuBoard sudoku = generateSudoku.generatePuzzle(SudokuGeneratingService.Difficulty.EASY, Geometry.MINI);
+        assertEquals(Geometry.MINI, sudoku.getGeometry());
+        assertTrue(countFilledCells(sudoku) >= SudokuGeneratingService.Difficulty.EASY.getClueCount(Geometry.MINI));
+        assertEquals(1, generateSudoku.countSolutions(sudoku), "Generated Sudoku puzzle should have a unique solution");
+    }
+
+    @Test
+    void testGenerateLargeSudokuWithinOneSecond() {
+        generateSudoku.generatePuzzle(SudokuGeneratingService.Difficulty.EASY, Geometry.LARGE); // warm up the JIT
+        long start = System.nanoTime();
+        SudokuBoard sudoku = generateSudoku.generatePuzzle(SudokuGeneratingService.Difficulty.HARD, Geometry.LARGE);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(16, sudoku.getSize());
+        assertEquals(1, generateSudoku.countSolutions(sudoku), "Generated Sudoku puzzle should have a unique solution");
+        assertTrue(elapsedMillis < 1000, "16x16 puzzle took " + elapsedMillis + " ms to generate");
+    }
+
+    @Test
+    void testLargeSolutionIsValid() {
+        SudokuBoard board = boardGenerator.generateFullBoard(Geometry.LARGE);
+        for (int row = 0; row < 16; row++) {
+            for (int col = 0; col < 16; col++) {
+                int value = board.getCell(row, col);
+                board.setCell(row, col, 0);
+                assertTrue(boardGenerator.isValidPlacement(board, row, col, value), "Conflict at " + row + ", " + col);
+                board.setCell(row, col, value);
+            }
+        }
+    }
+
+    @Test
+    void testMinimalPuzzleNeedsEveryClue() {
+        SudokuBoard sudoku = generateSudoku.generateMinimalPuzzle(SudokuGeneratingService.Difficulty.HARD,
+                Variant.classic(Geometry.CLASSIC), Duration.ofMillis(200));
+        assertEquals(1, generateSudoku.countSolutions(sudoku), "Minimal puzzle should have a unique solution");
+        SudokuBoard solution = generateSudoku.getSolution();
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                int value = sudoku.getCell(row, col);
+                if (value == 0) {
+                    assertTrue(solution.getCell(row, col) > 0);
+                    continue;
+                }
+                assertEquals(solution.getCell(row, col), value, "Clue at " + row + ", " + col + " is not the solution");
+                sudoku.setCell(row, col, 0);
+                assertEquals(2, generateSudoku.countSolutions(sudoku), "Clue at " + row + ", " + col + " can be removed");
+                sudoku.setCell(row, col, value);
+            }
+        }
+    }
+
+    @Test
+    void testMinimalSearchStopsAtReachedTarget() {
+        MinimalPuzzleGenerator generator = new MinimalPuzzleGenerator(boardGenerator, new Random(7));
+        // every minimal 9x9 puzzle has fewer than 40 clues, so the first one hits this target
+        SudokuBoard sudoku = generator.generate(Variant.classic(Geometry.CLASSIC), 40, Duration.ofSeconds(10));
+        assertTrue(countFilledCells(sudoku) <= 40);
+        assertEquals(1.0, generator.getStats().hitRate(40));
+        assertEquals(1, generator.getStats().searches(40));
+        assertEquals(0, generator.getStats().searches(18));
+    }
+
+    @Test
+    void testMinimalSearchRecordsMissedTarget() {
+        MinimalPuzzleGenerator generator = new MinimalPuzzleGenerator(boardGenerator, new Random(7));
+        // no 9x9 puzzle has fewer than 17 clues, so the search runs out of budget
+        SudokuBoard sudoku = generator.generate(Variant.classic(Geometry.CLASSIC), 16, Duration.ofMillis(100));
+        assertTrue(countFilledCells(sudoku) >= 17);
+        assertEquals(0.0, generator.getStats().hitRate(16));
+        assertEquals(1, generator.getStats().searches(16));
+    }
+
+    @Test
+    void testSameSeedRegeneratesPuzzleOnAnotherService() {
+        Variant killer = Variant.of(Geometry.CLASSIC, new KillerCages());
+        SudokuBoard sudoku = generateSudoku.generatePuzzle(SudokuGeneratingService.Difficulty.EASY, killer);
+        long id = generateSudoku.getPuzzleId();
+        SudokuGeneratingService other = new SudokuGeneratingService(new FullBoardGeneratingService());
+        SudokuBoard again = other.generatePuzzle(SudokuGeneratingService.Difficulty.EASY, killer, id);
+        assertArrayEquals(sudoku.getBoard(), again.getBoard());
+        assertArrayEquals(generateSudoku.getSolution().getBoard(), other.getSolution().getBoard());
+        assertEquals(sudoku.getVariant(), again.getVariant(), "The derived cages should be the same");
+        assertEquals(id, other.getPuzzleId());
+    }
+
+    @Test
+    void testDifferentSeedsGiveDifferentPuzzles() {
+        SudokuBoard first = generateSudoku.generatePuzzle(SudokuGeneratingService.Difficulty.EASY,
+                Variant.classic(Geometry.CLASSIC), 1L);
+        SudokuBoard second = generateSudoku.generatePuzzle(SudokuGeneratingService.Difficulty.EASY,
+                Variant.classic(Geometry.CLASSIC), 2L);
+        assertFalse(java.util.Arrays.deepEquals(first.getBoard(), second.getBoard()));
+    }
+
+    @Test
+    void testMinimalPuzzleRegeneratesFromId() {
+        Variant classic = Variant.classic(Geometry.CLASSIC);
+        SudokuBoard sudoku = generateSudoku.generateMinimalPuzzle(SudokuGeneratingService.Difficulty.HARD, classic,
+                Duration.ofMillis(100));
+        String id = SudokuGeneratingService.formatPuzzleId(generateSudoku.getPuzzleId());
+        SudokuGeneratingService other = new SudokuGeneratingService(new FullBoardGeneratingService());
+        SudokuBoard again = other.generateMinimalPuzzle(SudokuGeneratingService.Difficulty.HARD, classic,
+                SudokuGeneratingService.parsePuzzleId(id));
+        assertArrayEquals(sudoku.getBoard(), again.getBoard());
+        assertArrayEquals(generateSudoku.getSolution().getBoard(), other.getSolution().getBoard());
+    }
+
+    @Test
+    void testCheckSolutionReturnsTheWrongAndMissingCells() {
+        SudokuBoard puzzle = generateSudoku.generatePuzzle(SudokuGeneratingService.Difficulty.EASY, Geometry.LARGE);
+        SudokuBoard solution = generateSudoku.getSolution();
+        SudokuBoard board = new SudokuBoard(solution);
+        board.setCell(0, 3, 0); // missing
+        board.setCell(4, 2, solution.getCell(4, 2) % 16 + 1); // wrong, in the second word of the mask
+        long[] unsolved = generateSudoku.checkSolution(board);
+        assertEquals(4, unsolved.length);
+        assertEquals(1L << 3, unsolved[0]);
+        assertEquals(1L << (4 * 16 + 2 - 64), unsolved[1]);
+
+        board.trackMistakes(solution);
+        assertArrayEquals(unsolved, generateSudoku.checkSolution(board), "A tracking board should give the same mask");
+        assertEquals(4 * 16 + 2, board.firstMistake(), "Empty cells are not mistakes");
+        assertEquals(1, board.mistakeCount());
+        assertFalse(board.isSolved());
+
+        board.setCell(0, 3, solution.getCell(0, 3));
+        board.setCell(4, 2, solution.getCell(4, 2));
+        assertEquals(-1, board.firstMistake());
+        assertTrue(board.isSolved());
+        assertFalse(puzzle.tracksMistakes());
+    }
+
+    @Test
+    void testCopiesKeepTrackingMistakes() {
+        generateSudoku.generatePuzzle(SudokuGeneratingService.Difficulty.EASY);
+        SudokuBoard solution = generateSudoku.getSolution();
+        SudokuBoard board = new SudokuBoard();
+        board.trackMistakes(solution);
+        board.setBoard(solution.getBoard().clone());
+        assertTrue(board.isSolved(), "Replacing the values should update the masks");
+
+        SudokuBoard copy = new SudokuBoard(board);
+        copy.setCell(8, 8, 0);
+        assertFalse(copy.isSolved());
+        assertTrue(board.isSolved(), "A copy should not share the masks of the board it was copied from");
+
+        board.trackMistakes(null);
+        assertFalse(board.tracksMistakes());
+        assertThrows(IllegalStateException.class, board::isSolved);
+    }
+
+    @Test
+    void testPuzzleIdRoundTrip() {
+        for (long seed : new long[]{0L, 42L, -1L, Long.MIN_VALUE}) {
+            String id = SudokuGeneratingService.formatPuzzleId(seed);
+            assertEquals(16, id.length());
+            assertEquals(seed, SudokuGeneratingService.parsePuzzleId(id));
+        }
+    }
+
     private long countFilledCells(SudokuBoard sudoku) {
         int[][] board = sudoku.getBoard();
         return java.util.Arrays.stream(board)
@@ -0,0 +1,64 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.Rating;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.service.PuzzleStore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Size and query latency of the off-heap puzzle store filled with ten million puzzles, run with
+ * {@code mvn test -Pbenchmark}. The puzzles are synthetic (a few boards with 17 to 40 givens, random ratings), which
+ * is enough for the store: it never looks at whether a puzzle is valid. Prints the heap and off-heap footprint and
+ * the mean time of a query for unseen puzzles needing X-Chains with 22 to 25 clues.
+ */
+@Tag("benchmark")
+public class PuzzleStoreBenchmarkTests {
+    private static final int PUZZLES = 10_000_000;
+    private static final int QUERIES = 100_000;
+
+    @Test
+    void benchmarkQueries() {
+        Hint.HintType[] techniques = {Hint.HintType.NAKED_SINGLE, Hint.HintType.HIDDEN_SINGLE, Hint.HintType.NAKED_PAIR,
+                Hint.HintType.POINTING_PAIR, Hint.HintType.UNIQUE_RECTANGLE, Hint.HintType.X_CHAIN,
+                Hint.HintType.FORCING_CHAIN};
+        SudokuBoard[] boards = new SudokuBoard[24];
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = new SudokuBoard(Geometry.CLASSIC);
+            for (int cell = 0; cell < 17 + i; cell++) boards[i].setCell(cell / 9, cell % 9, (cell + i) % 9 + 1);
+        }
+        Rating[] ratings = new Rating[techniques.length];
+        for (int i = 0; i < ratings.length; i++) ratings[i] = new Rating(techniques[i], 50, true);
+
+        long heapBefore = usedHeap();
+        PuzzleStore store = new PuzzleStore(Geometry.CLASSIC, PUZZLES);
+        SplittableRandom random = new SplittableRandom(1);
+        long start = System.nanoTime();
+        for (int i = 0; i < PUZZLES; i++) {
+            store.add(boards[random.nextInt(boards.length)], i, ratings[random.nextInt(ratings.length)]);
+        }
+        System.out.printf("%d puzzles added in %.1f s, %d MB off the heap, %d KB on the heap%n", PUZZLES,
+                (System.nanoTime() - start) / 1e9, store.offHeapBytes() >> 20, (usedHeap() - heapBefore) >> 10);
+
+        PuzzleStore.Query query = store.newQuery().technique(Hint.HintType.X_CHAIN).clues(22, 25);
+        SudokuBoard board = new SudokuBoard(Geometry.CLASSIC);
+        for (int i = 0; i < QUERIES; i++) store.read(store.find(query, random.nextLong()), board); // warm up
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) store.read(store.find(query, random.nextLong()), board);
+        double micros = (System.nanoTime() - start) / 1e3 / QUERIES;
+        System.out.printf("%.2f us per query and read%n", micros);
+        assertTrue(micros < 100, "A query should take microseconds");
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
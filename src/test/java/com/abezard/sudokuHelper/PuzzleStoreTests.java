@@ -0,0 +1,105 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Hint;
+import com.abezard.sudokuHelper.model.Rating;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import com.abezard.sudokuHelper.service.PuzzleStore;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PuzzleStoreTests {
+
+    @Test
+    void testPuzzlesAreStoredPackedAndReadBack() {
+        SudokuGeneratingService generator = new SudokuGeneratingService(new FullBoardGeneratingService());
+        PuzzleStore store = new PuzzleStore(Geometry.CLASSIC, 10);
+        for (long seed = 0; seed < 3; seed++) {
+            SudokuBoard puzzle = generator.generatePuzzle(SudokuGeneratingService.Difficulty.EASY,
+                    Variant.classic(Geometry.CLASSIC), seed);
+            int index = store.add(puzzle, seed, new Rating(Hint.HintType.HIDDEN_SINGLE, 50, true));
+            SudokuBoard read = new SudokuBoard(Geometry.CLASSIC);
+            store.read(index, read);
+            assertArrayEquals(puzzle.getBoard(), read.getBoard());
+            assertEquals(seed, store.puzzleId(index));
+        }
+        assertEquals(8 + 41, store.recordBytes(), "The puzzle ID and 81 values of 4 bits");
+    }
+
+    @Test
+    void testLargeBoardsGetSmallerSegments() {
+        Geometry geometry = new Geometry(8, 8); // 64x64, 7 bits per value
+        PuzzleStore store = new PuzzleStore(geometry, 2 * PuzzleStore.SEGMENT_RECORDS);
+        assertEquals(8 + 4096 * 7 / 8, store.recordBytes());
+        assertTrue(store.segmentRecords() < PuzzleStore.SEGMENT_RECORDS);
+        assertTrue((long) store.segmentRecords() * store.recordBytes() <= Integer.MAX_VALUE,
+                "A full segment should fit in one buffer");
+
+        PuzzleStore small = new PuzzleStore(geometry, 2);
+        SudokuBoard puzzle = new SudokuBoard(geometry);
+        for (int cell = 0; cell < 4096; cell += 7) puzzle.setCell(cell / 64, cell % 64, cell % 64 + 1);
+        int index = small.add(puzzle, 99, new Rating(Hint.HintType.NAKED_SINGLE, 1, true));
+        SudokuBoard read = new SudokuBoard(geometry);
+        small.read(index, read);
+        assertArrayEquals(puzzle.getBoard(), read.getBoard());
+    }
+
+    @Test
+    void testQueriesMatchEveryIndexAndServeEachPuzzleOnce() {
+        PuzzleStore store = new PuzzleStore(Geometry.CLASSIC, 1000);
+        Hint.HintType[] techniques = {Hint.HintType.NAKED_SINGLE, Hint.HintType.POINTING_PAIR, Hint.HintType.X_CHAIN};
+        for (int i = 0; i < 1000; i++) {
+            store.add(withClues(20 + i % 10), i, new Rating(techniques[i % 3], 40, true));
+        }
+
+        PuzzleStore.Query query = store.newQuery().technique(Hint.HintType.X_CHAIN).clues(22, 25);
+        int matches = 0;
+        for (long random = 0; ; random += 0x9E3779B97F4A7C15L) {
+            int index = store.find(query, random);
+            if (index < 0) break;
+            assertEquals(2, index % 3, "Needs X-Chains");
+            assertTrue(index % 10 >= 2 && index % 10 <= 5, "Has 22 to 25 clues");
+            matches++;
+        }
+        int expected = 0;
+        for (int i = 0; i < 1000; i++) if (i % 3 == 2 && i % 10 >= 2 && i % 10 <= 5) expected++;
+        assertEquals(expected, matches, "Every match is served once");
+
+        assertEquals(-1, store.find(store.newQuery().levels(Rating.Level.UNIQUENESS, Rating.Level.UNIQUENESS), 1));
+        assertTrue(store.find(query.unseen(false), 7) >= 0, "Served puzzles can still be found");
+        store.resetServed();
+        assertTrue(store.find(query.unseen(true), 7) >= 0);
+    }
+
+    @Test
+    void testFindingAPuzzleAllocatesNothing() {
+        PuzzleStore store = new PuzzleStore(Geometry.CLASSIC, 10_000);
+        for (int i = 0; i < 10_000; i++) {
+            store.add(withClues(17 + i % 20), i, new Rating(Hint.HintType.NAKED_PAIR, 40, true));
+        }
+        PuzzleStore.Query query = store.newQuery().levels(Rating.Level.SUBSETS, Rating.Level.CHAINS).clues(22, 25);
+        SudokuBoard board = new SudokuBoard(Geometry.CLASSIC);
+        for (int i = 0; i < 100; i++) store.read(store.find(query, i), board); // warm up
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (long random = 0; random < 1000; random++) {
+            store.read(store.find(query, random * 0x9E3779B97F4A7C15L), board);
+        }
+        assertEquals(0, threads.getCurrentThreadAllocatedBytes() - before);
+    }
+
+    /**
+     * Builds a board with a number of givens, in the first cells.
+     */
+    private static SudokuBoard withClues(int clues) {
+        SudokuBoard board = new SudokuBoard(Geometry.CLASSIC);
+        for (int cell = 0; cell < clues; cell++) board.setCell(cell / 9, cell % 9, cell % 9 + 1);
+        return board;
+    }
+}
@@ -0,0 +1,85 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import com.abezard.sudokuHelper.service.TraceStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class SolveTraceTests {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void testSlowConsumerGetsEveryStepAndTheLatestProgress() throws Exception {
+        TraceStream stream = new TraceStream();
+        CountDownLatch firstSent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> received = new ArrayList<>();
+        Thread consumer = new Thread(() -> {
+            try {
+                stream.drainTo((event, data) -> {
+                    received.add(event + ":" + data);
+                    firstSent.countDown();
+                    release.await(); // a client that stops reading after the first frame
+                });
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        consumer.start();
+        stream.step("1");
+        assertTrue(firstSent.await(5, TimeUnit.SECONDS));
+        for (int i = 2; i <= 100; i++) { // the producer goes on without waiting for the consumer
+            stream.step(String.valueOf(i));
+            stream.progress("p" + i);
+        }
+        stream.complete("end");
+        release.countDown();
+        consumer.join(5000);
+
+        assertEquals(102, received.size(), "100 steps, one progress and the end");
+        for (int i = 1; i <= 100; i++) assertEquals("step:" + i, received.get(i - 1));
+        assertEquals("progress:p100", received.get(100));
+        assertEquals("done:end", received.get(101));
+        assertEquals(98, stream.coalesced());
+    }
+
+    @Test
+    void testTraceIsStreamedAsServerSentEvents() throws Exception {
+        String id = SudokuGeneratingService.formatPuzzleId(42);
+        MvcResult result = mockMvc.perform(get("/api/puzzles/" + id + "/trace").param("size", "4"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(10_000);
+        String body = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(body.contains("event:step"), body);
+        assertTrue(body.contains("\"step\":1,\"type\":\""), body);
+        assertTrue(body.contains("event:done"), body);
+        assertTrue(body.contains("\"solved\":true"), body);
+    }
+
+    @Test
+    void testInvalidPuzzleIdIsRejected() throws Exception {
+        mockMvc.perform(get("/api/puzzles/not-hex/trace")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/puzzles/2a/trace").param("size", "25")).andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,51 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Rating;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.SpeculativeGenerator;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latency of finding a puzzle that needs chains (a rare band), with one generator (plain trial and error) and with
+ * one generator per core, run with {@code mvn test -Pbenchmark}. The speed-up should follow the number of cores.
+ */
+@Tag("benchmark")
+public class SpeculativeGeneratorBenchmarkTests {
+    private static final int RUNS = 10;
+
+    @Test
+    void benchmarkRareBandLatency() throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(cores);
+        try {
+            meanMillis(new SpeculativeGenerator(pool, cores)); // warm up
+            double serial = meanMillis(new SpeculativeGenerator(pool, 1));
+            double parallel = meanMillis(new SpeculativeGenerator(pool, cores));
+            System.out.printf("1 generator: %.0f ms, %d generators: %.0f ms (x%.1f)%n",
+                    serial, cores, parallel, serial / parallel);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Finds a few puzzles needing chains and gives the mean time per puzzle.
+     */
+    private static double meanMillis(SpeculativeGenerator generator) throws InterruptedException {
+        long start = System.nanoTime();
+        for (int run = 0; run < RUNS; run++) {
+            assertTrue(generator.generate(SudokuGeneratingService.Difficulty.HARD, Variant.classic(Geometry.CLASSIC),
+                    rating -> rating.isBetween(Rating.Level.CHAINS, Rating.Level.FORCING_CHAINS), run,
+                    Duration.ofMinutes(2)).isPresent());
+        }
+        return (System.nanoTime() - start) / 1e6 / RUNS;
+    }
+}
@@ -0,0 +1,121 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.controller.GameController;
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Rating;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import com.abezard.sudokuHelper.service.GameSession;
+import com.abezard.sudokuHelper.service.GenerationExecutor;
+import com.abezard.sudokuHelper.service.PuzzleRater;
+import com.abezard.sudokuHelper.service.SpeculativeGenerator;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpeculativeGeneratorTests {
+
+    @Test
+    void testRaterSolvesAPuzzleWithoutChangingIt() {
+        FullBoardGeneratingService boards = new FullBoardGeneratingService();
+        SudokuGeneratingService generator = new SudokuGeneratingService(boards);
+        SudokuBoard puzzle = generator.generatePuzzle(SudokuGeneratingService.Difficulty.EASY);
+        SudokuBoard copy = new SudokuBoard(puzzle);
+        int empty = 0;
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                if (puzzle.getCell(row, col) == 0) empty++;
+            }
+        }
+
+        Rating rating = new PuzzleRater(boards).rate(puzzle, generator.getSolution());
+
+        if (rating.solved()) {
+            assertTrue(rating.steps() >= empty, "Every empty cell takes at least one step");
+            assertNotEquals(Rating.Level.UNSOLVED, rating.level());
+        } else {
+            assertEquals(Rating.Level.UNSOLVED, rating.level());
+        }
+        assertArrayEquals(copy.getBoard(), puzzle.getBoard());
+    }
+
+    @Test
+    void testFirstPuzzleInTheBandWins() throws InterruptedException {
+        SpeculativeGenerator generator = new SpeculativeGenerator(ForkJoinPool.commonPool(), 2);
+        Optional<SpeculativeGenerator.Result> result = generator.generate(SudokuGeneratingService.Difficulty.HARD,
+                Variant.classic(Geometry.CLASSIC),
+                rating -> rating.isBetween(Rating.Level.SUBSETS, Rating.Level.FORCING_CHAINS), 42, Duration.ofSeconds(30));
+
+        assertTrue(result.isPresent());
+        SpeculativeGenerator.Result found = result.get();
+        assertTrue(found.rating().isBetween(Rating.Level.SUBSETS, Rating.Level.FORCING_CHAINS));
+        assertTrue(found.attempts() >= 1);
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                int given = found.puzzle().getCell(row, col);
+                assertTrue(given == 0 || given == found.solution().getCell(row, col));
+            }
+        }
+        SudokuGeneratingService checker = new SudokuGeneratingService(new FullBoardGeneratingService());
+        assertEquals(1, checker.countSolutions(found.puzzle()));
+        // the rating is bounded by nodes only, so the puzzle is in the band whatever the load
+        Rating again = new PuzzleRater(new FullBoardGeneratingService()).rate(found.puzzle(), found.solution());
+        assertEquals(found.rating().level(), again.level());
+        assertEquals(found.rating().steps(), again.steps());
+    }
+
+    @Test
+    void testGameControllerServesAPuzzleInTheBand() {
+        GenerationExecutor executor = new GenerationExecutor(2, 4, null);
+        try {
+            GameController controller = new GameController(executor);
+            String json = controller.create(GameSession.Mode.CLASSIC, SudokuGeneratingService.Difficulty.HARD, 9,
+                    null, Rating.Level.SUBSETS, Rating.Level.CHAINS).join();
+            Matcher id = Pattern.compile("\"puzzleId\":\"([^\"]+)\"").matcher(json);
+            assertTrue(id.find(), json);
+
+            SudokuGeneratingService generator = new SudokuGeneratingService(new FullBoardGeneratingService());
+            SudokuBoard puzzle = generator.generate(SudokuGeneratingService.Difficulty.HARD,
+                    Variant.classic(Geometry.CLASSIC), SudokuGeneratingService.parsePuzzleId(id.group(1)));
+            Rating rating = new PuzzleRater(new FullBoardGeneratingService()).rate(puzzle, generator.getSolution());
+            assertTrue(rating.isBetween(Rating.Level.SUBSETS, Rating.Level.CHAINS), rating.level().toString());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testGivesUpAfterTheTimeout() throws InterruptedException {
+        SpeculativeGenerator generator = new SpeculativeGenerator(ForkJoinPool.commonPool(), 2);
+        long start = System.nanoTime();
+        Optional<SpeculativeGenerator.Result> result = generator.generate(SudokuGeneratingService.Difficulty.EASY,
+                Variant.classic(Geometry.MINI), rating -> false, 1, Duration.ofMillis(200));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(result.isEmpty());
+        assertTrue(elapsedMillis < 2000, "The search should stop at its timeout, took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void testAFailingGeneratorIsReportedRightAway() {
+        SpeculativeGenerator generator = new SpeculativeGenerator(ForkJoinPool.commonPool(), 2);
+        long start = System.nanoTime();
+        IllegalStateException failed = assertThrows(IllegalStateException.class,
+                () -> generator.generate(SudokuGeneratingService.Difficulty.EASY, Variant.classic(Geometry.MINI),
+                        rating -> {
+                            throw new UnsupportedOperationException("broken band");
+                        }, 1, Duration.ofSeconds(30)));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertInstanceOf(UnsupportedOperationException.class, failed.getCause());
+        assertTrue(elapsedMillis < 5000, "The failure should not wait for the timeout, took " + elapsedMillis + " ms");
+    }
+}
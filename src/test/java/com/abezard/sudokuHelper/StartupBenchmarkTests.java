@@ -0,0 +1,105 @@
+package com.abezard.sudokuHelper;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Cold startup time of the Spring context, run with {@code mvn test -Pbenchmark}. Each run is a fresh JVM started
+ * with spring.context.exit=onRefresh, so the time covers JVM startup, class loading and context refresh, which is
+ * what the desktop client used to wait for before showing its window. Three setups are compared: the default web
+ * application (embedded Tomcat), the desktop profile, and the desktop profile with an AppCDS archive recorded by a
+ * training run. The time from launch to first frame of the client itself is logged by the client at every start.
+ */
+@Tag("benchmark")
+public class StartupBenchmarkTests {
+    private static final int RUNS = 3;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void benchmarkStartup() throws Exception {
+        // AppCDS only archives classes loaded from jars, so the class directories are jarred first
+        String classpath = jarDirectories(System.getProperty("java.class.path"));
+        Path archive = directory.resolve("app.jsa");
+        List<String> desktop = List.of("--spring.profiles.active=desktop");
+
+        report("web server", classpath, List.of(), List.of("--server.port=0"));
+        report("desktop", classpath, List.of(), desktop);
+        assertEquals(0, start(classpath, List.of("-XX:ArchiveClassesAtExit=" + archive), desktop));
+        report("desktop+CDS", classpath, List.of("-XX:SharedArchiveFile=" + archive), desktop);
+    }
+
+    /**
+     * Starts the application a few times and prints the best and mean time.
+     */
+    private void report(String name, String classpath, List<String> jvmOptions, List<String> args) throws Exception {
+        long best = Long.MAX_VALUE, total = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            assertEquals(0, start(classpath, jvmOptions, args), name + " did not start");
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            best = Math.min(best, millis);
+            total += millis;
+        }
+        System.out.printf("%-12s best %5d ms, mean %5d ms%n", name, best, total / RUNS);
+    }
+
+    /**
+     * Runs the application in a new JVM until its context is refreshed.
+     * @return the exit code of the JVM
+     */
+    private int start(String classpath, List<String> jvmOptions, List<String> args) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-Dspring.context.exit=onRefresh", "-Dspring.devtools.restart.enabled=false",
+                "-cp", classpath, SudokuHelperApplication.class.getName()));
+        command.addAll(args);
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(directory.resolve("out.log").toFile())
+                .start();
+        return process.waitFor();
+    }
+
+    /**
+     * Replaces the directories of a classpath with jars of their content.
+     */
+    private String jarDirectories(String classpath) throws IOException {
+        List<String> entries = new ArrayList<>();
+        for (String entry : classpath.split(File.pathSeparator)) {
+            Path path = Path.of(entry);
+            if (!Files.isDirectory(path)) {
+                entries.add(entry);
+                continue;
+            }
+            Path jar = directory.resolve(entries.size() + ".jar");
+            try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+                 Stream<Path> files = Files.walk(path)) {
+                for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                    out.putNextEntry(new JarEntry(path.relativize(file).toString().replace(File.separatorChar, '/')));
+                    Files.copy(file, (OutputStream) out);
+                    out.closeEntry();
+                }
+            }
+            entries.add(jar.toString());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+}
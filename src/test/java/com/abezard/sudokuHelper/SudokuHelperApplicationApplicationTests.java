@@ -2,6 +2,12 @@ package com.abezard.sudokuHelper;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Profiles;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 class SudokuHelperApplicationApplicationTests {
@@ -10,4 +16,12 @@ class SudokuHelperApplicationApplicationTests {
 	void contextLoads() {
 	}
 
+	@Test
+	void desktopContextStartsWithoutWebServer() {
+		try (ConfigurableApplicationContext context = SudokuHelperApplication.desktop().run()) {
+			assertFalse(context instanceof WebServerApplicationContext);
+			assertTrue(context.getEnvironment().acceptsProfiles(Profiles.of("desktop")));
+		}
+	}
+
 }
@@ -0,0 +1,41 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Topology;
+import com.abezard.sudokuHelper.model.Variant;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopologyTests {
+
+    @Test
+    void testTablesOfAClassicBoard() {
+        Topology topology = Topology.of(Geometry.CLASSIC);
+        assertSame(topology, Topology.of(new Geometry(3, 3)), "A geometry should have a single shared topology");
+        assertEquals(4, topology.row(40));
+        assertEquals(4, topology.col(40));
+        assertEquals(4, topology.box(40));
+        assertEquals(4, topology.boxPosition(40));
+        assertArrayEquals(new int[]{30, 31, 32, 39, 40, 41, 48, 49, 50}, topology.unitCells(18 + 4));
+        assertEquals(20, topology.peers(0).length);
+        assertEquals(0b111L, topology.boxSegment(4, 3), "Row 3 is the top row of box 4");
+        assertEquals(0b111L << 3, topology.lineSegment(4, 3), "Box 4 covers columns 3 to 5 of row 3");
+        assertEquals(0b100_100_100L, topology.boxSegment(4, 9 + 5), "Column 5 is the right column of box 4");
+        assertEquals(0b111L << 3, topology.lineSegment(4, 9 + 5), "Box 4 covers rows 3 to 5 of column 5");
+        assertEquals(0, topology.boxSegment(0, 5), "Row 5 does not cross box 0");
+        assertEquals(0, topology.lineSegment(0, 5));
+    }
+
+    @Test
+    void testRectangularBoxes() {
+        Topology topology = Topology.of(new Geometry(2, 3)); // 6x6, boxes of 2 rows and 3 columns
+        assertEquals(3, topology.box(3 * 6 + 3)); // row 3, col 3
+        assertEquals(3, topology.boxPosition(3 * 6 + 3));
+        assertEquals(12, topology.peers(0).length, "5 in the row and 5 in the column, plus the 2 others of the box");
+        assertEquals(0b010_010L, topology.boxSegment(3, 6 + 4), "Column 4 is the middle column of box 3");
+        assertEquals(0b1100L, topology.lineSegment(3, 6 + 4), "Box 3 covers rows 2 and 3 of column 4");
+        assertSame(topology.unitCells(0), Variant.classic(new Geometry(2, 3)).index().unitCells(0),
+                "The unit index should share the rows, columns and boxes");
+    }
+}
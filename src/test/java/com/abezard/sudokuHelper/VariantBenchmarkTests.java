@@ -0,0 +1,49 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Generation throughput of each variant on a classic 9x9 board, run with {@code mvn test -Pbenchmark}.
+ * The classic row is the baseline the other variants are compared to: it goes through the same generator, so a
+ * drop there means the constraint support leaked into the classic hot path.
+ */
+@Tag("benchmark")
+public class VariantBenchmarkTests {
+    private static final long WARM_UP_NANOS = 2_000_000_000L;
+    private static final long MEASURE_NANOS = 5_000_000_000L;
+
+    @ParameterizedTest
+    @EnumSource(Variant.Type.class)
+    void benchmarkHardPuzzleGeneration(Variant.Type type) {
+        SudokuGeneratingService service = new SudokuGeneratingService(new FullBoardGeneratingService());
+        Variant variant = type.create(Geometry.CLASSIC);
+        run(service, variant, WARM_UP_NANOS);
+        long start = System.nanoTime();
+        int puzzles = run(service, variant, MEASURE_NANOS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-10s %8.1f puzzles/s (%d in %.1f s)%n", type, puzzles / seconds, puzzles, seconds);
+        assertTrue(puzzles > 0);
+    }
+
+    /**
+     * Generates hard puzzles of a variant for a given time.
+     * @return the number of puzzles generated
+     */
+    private static int run(SudokuGeneratingService service, Variant variant, long nanos) {
+        long end = System.nanoTime() + nanos;
+        int puzzles = 0;
+        while (System.nanoTime() < end) {
+            service.generatePuzzle(SudokuGeneratingService.Difficulty.HARD, variant);
+            puzzles++;
+        }
+        return puzzles;
+    }
+}
@@ -0,0 +1,112 @@
+package com.abezard.sudokuHelper;
+
+import com.abezard.sudokuHelper.logic.UniqueRectangleHint;
+import com.abezard.sudokuHelper.model.DiagonalConstraint;
+import com.abezard.sudokuHelper.model.Geometry;
+import com.abezard.sudokuHelper.model.SudokuBoard;
+import com.abezard.sudokuHelper.model.UnitIndex;
+import com.abezard.sudokuHelper.model.Variant;
+import com.abezard.sudokuHelper.service.FullBoardGeneratingService;
+import com.abezard.sudokuHelper.service.SudokuGeneratingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VariantTests {
+
+    SudokuGeneratingService generateSudoku;
+    FullBoardGeneratingService boardGenerator;
+
+    @BeforeEach
+    void setUp() {
+        boardGenerator = new FullBoardGeneratingService();
+        generateSudoku = new SudokuGeneratingService(boardGenerator);
+    }
+
+    @Test
+    void testClassicVariantIsSharedAndClassic() {
+        assertSame(Variant.classic(Geometry.CLASSIC), new SudokuBoard().getVariant());
+        assertTrue(new SudokuBoard().getVariant().isClassic());
+        assertEquals(27, Variant.classic(Geometry.CLASSIC).index().unitCount());
+    }
+
+    @Test
+    void testVariantsRegisterTheirUnits() {
+        assertEquals(29, Variant.Type.X_SUDOKU.create(Geometry.CLASSIC).index().unitCount());
+        assertEquals(31, Variant.Type.WINDOKU.create(Geometry.CLASSIC).index().unitCount());
+        UnitIndex windows = Variant.Type.WINDOKU.create(Geometry.CLASSIC).index();
+        assertArrayEquals(new int[]{10, 11, 12, 19, 20, 21, 28, 29, 30}, windows.unitCells(27));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Variant.Type.class)
+    void testGeneratedVariantPuzzleHasUniqueSolutionFollowingItsRules(Variant.Type type) {
+        SudokuBoard puzzle = generateSudoku.generatePuzzle(SudokuGeneratingService.Difficulty.HARD, type.create(Geometry.CLASSIC));
+        SudokuBoard solution = generateSudoku.getSolution();
+        assertEquals(puzzle.getVariant(), solution.getVariant());
+        assertTrue(followsRules(solution), "The solution should follow every rule of the variant");
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                if (puzzle.getCell(row, col) != 0) assertEquals(solution.getCell(row, col), puzzle.getCell(row, col));
+            }
+        }
+        assertEquals(1, generateSudoku.countSolutions(puzzle), "Generated Sudoku puzzle should have a unique solution");
+    }
+
+    @Test
+    void testKillerAndEvenOddTemplatesAreDerivedFromTheSolution() {
+        generateSudoku.generatePuzzle(SudokuGeneratingService.Difficulty.EASY, Variant.Type.KILLER.create(Geometry.CLASSIC));
+        UnitIndex killer = generateSudoku.getSolution().getVariant().index();
+        assertTrue(killer.cageCount() > 0);
+        for (int cell = 0; cell < 81; cell++) assertTrue(killer.cageOf(cell) >= 0, "Every cell should be in a cage");
+
+        generateSudoku.generatePuzzle(SudokuGeneratingService.Difficulty.EASY, Variant.Type.EVEN_ODD.create(Geometry.CLASSIC));
+        assertFalse(generateSudoku.getSolution().getVariant().isClassic());
+    }
+
+    @Test
+    void testPlacementChecksDiagonals() {
+        SudokuBoard board = new SudokuBoard(Variant.of(Geometry.CLASSIC, new DiagonalConstraint()));
+        board.setCell(0, 0, 5);
+        assertFalse(boardGenerator.isValidPlacement(board, 4, 4, 5));
+        assertTrue(boardGenerator.isValidPlacement(board, 4, 3, 5));
+        assertTrue(boardGenerator.isValidPlacement(new SudokuBoard(board.getGeometry()), 4, 4, 5));
+    }
+
+    @Test
+    void testUniquenessPatternsOnlyApplyToClassicPuzzles() {
+        assertTrue(new UniqueRectangleHint().supports(Variant.classic(Geometry.CLASSIC)));
+        assertFalse(new UniqueRectangleHint().supports(Variant.Type.X_SUDOKU.create(Geometry.CLASSIC)));
+    }
+
+    /**
+     * Checks a solved board against every unit, cage and cell restriction of its variant.
+     */
+    private static boolean followsRules(SudokuBoard board) {
+        UnitIndex index = board.getVariant().index();
+        int size = board.getSize();
+        for (int unit = 0; unit < index.unitCount(); unit++) {
+            long seen = 0;
+            for (int cell : index.unitCells(unit)) seen |= 1L << (board.getCell(cell / size, cell % size) - 1);
+            if (seen != board.getGeometry().allValues()) return false;
+        }
+        for (int cage = 0; cage < index.cageCount(); cage++) {
+            int sum = 0;
+            long seen = 0;
+            for (int cell : index.cageCells(cage)) {
+                int value = board.getCell(cell / size, cell % size);
+                if ((seen & (1L << (value - 1))) != 0) return false;
+                seen |= 1L << (value - 1);
+                sum += value;
+            }
+            if (sum != index.cageSum(cage)) return false;
+        }
+        for (int cell = 0; cell < size * size; cell++) {
+            if ((index.allowedValues(cell) & (1L << (board.getCell(cell / size, cell % size) - 1))) == 0) return false;
+        }
+        return true;
+    }
+}